@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmarks;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.compile.QueryPlan;
+import org.apache.phoenix.coprocessor.BaseScannerRegionObserver;
+import org.apache.phoenix.expression.Expression;
+import org.apache.phoenix.expression.aggregator.Aggregator;
+import org.apache.phoenix.expression.aggregator.ServerAggregators;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.jdbc.PhoenixStatement;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.util.ByteUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.collect.Maps;
+
+/**
+ * 
+ * Benchmarks the server side aggregation done by the aggregate region observers, both
+ * into a single group and hashed into groups by the GROUP BY expression.
+ *
+ * 
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class AggregationBenchmark {
+    private static final String UNGROUPED_QUERY = "SELECT COUNT(*), SUM(V2), MIN(V3), MAX(V4), AVG(K2) FROM BENCH";
+    private static final String GROUPED_QUERY = "SELECT V1, COUNT(*), SUM(V2), MIN(V3), MAX(V4), AVG(K2) FROM BENCH GROUP BY V1";
+    
+    @Param({"10000"})
+    public int rowCount;
+    
+    private PhoenixConnection conn;
+    private ServerAggregators ungroupedAggregators;
+    private ServerAggregators groupedAggregators;
+    private Expression groupByExpression;
+    private List<Tuple> rows;
+    
+    @Setup
+    public void setup() throws SQLException {
+        conn = BenchmarkData.newConnection();
+        PhoenixStatement statement = conn.createStatement().unwrap(PhoenixStatement.class);
+        Configuration conf = HBaseConfiguration.create();
+        ungroupedAggregators = getAggregators(statement.compileQuery(UNGROUPED_QUERY), conf);
+        QueryPlan groupedPlan = statement.compileQuery(GROUPED_QUERY);
+        groupedAggregators = getAggregators(groupedPlan, conf);
+        groupByExpression = groupedPlan.getGroupBy().getExpressions().get(0);
+        rows = BenchmarkData.newRows(conn, rowCount);
+    }
+    
+    private static ServerAggregators getAggregators(QueryPlan plan, Configuration conf) {
+        byte[] b = plan.getContext().getScan().getAttribute(BaseScannerRegionObserver.AGGREGATORS);
+        return ServerAggregators.deserialize(b, conf);
+    }
+    
+    @TearDown
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+    
+    @Benchmark
+    public byte[] aggregate() {
+        Aggregator[] aggregators = ungroupedAggregators.getAggregators();
+        ungroupedAggregators.reset(aggregators);
+        for (Tuple row : rows) {
+            ungroupedAggregators.aggregate(aggregators, row);
+        }
+        return ungroupedAggregators.toBytes(aggregators);
+    }
+    
+    @Benchmark
+    public int aggregateGroups() {
+        Map<ImmutableBytesPtr, Aggregator[]> groups = Maps.newHashMap();
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        for (Tuple row : rows) {
+            if (!groupByExpression.evaluate(row, ptr)) {
+                ptr.set(ByteUtil.EMPTY_BYTE_ARRAY);
+            }
+            ImmutableBytesPtr key = new ImmutableBytesPtr(ptr);
+            Aggregator[] aggregators = groups.get(key);
+            if (aggregators == null) {
+                aggregators = groupedAggregators.newAggregators();
+                groups.put(new ImmutableBytesPtr(key.copyBytes()), aggregators);
+            }
+            groupedAggregators.aggregate(aggregators, row);
+        }
+        int size = 0;
+        for (Aggregator[] aggregators : groups.values()) {
+            size += groupedAggregators.toBytes(aggregators).length;
+        }
+        return size;
+    }
+}
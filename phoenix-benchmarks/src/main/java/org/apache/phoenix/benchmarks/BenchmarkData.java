@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.jdbc.PhoenixDriver;
+import org.apache.phoenix.schema.PTable;
+import org.apache.phoenix.schema.PTableKey;
+import org.apache.phoenix.schema.tuple.ResultTuple;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.util.PhoenixRuntime;
+
+import com.google.common.collect.Lists;
+
+/**
+ * 
+ * Schema and in-process data shared by the benchmarks. Everything runs against a
+ * connectionless Phoenix connection, so no HBase cluster is needed: tables are only
+ * created in the client side metadata cache and rows are taken from the uncommitted
+ * mutations of an UPSERT, which yields the same cells a region server would return.
+ *
+ * 
+ * @since 5.0
+ */
+public class BenchmarkData {
+    public static final String URL = PhoenixRuntime.JDBC_PROTOCOL + PhoenixRuntime.JDBC_PROTOCOL_SEPARATOR + PhoenixRuntime.CONNECTIONLESS;
+    public static final String TABLE_NAME = "BENCH";
+    public static final String INDEX_NAME = "BENCH_IDX";
+    /** Number of distinct values of the leading primary key column K1 */
+    public static final int KEY_PREFIX_COUNT = 10;
+    /** Number of distinct values of the V1 column */
+    public static final int VALUE_COUNT = 100;
+    
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (" +
+            "K1 VARCHAR NOT NULL, K2 INTEGER NOT NULL, V1 VARCHAR, V2 BIGINT, V3 DECIMAL, V4 DATE " +
+            "CONSTRAINT PK PRIMARY KEY (K1, K2))";
+    private static final String CREATE_INDEX = "CREATE INDEX IF NOT EXISTS " + INDEX_NAME + " ON " + TABLE_NAME + 
+            " (V1, V2) INCLUDE (V3)";
+    private static final String UPSERT = "UPSERT INTO " + TABLE_NAME + " VALUES (?, ?, ?, ?, ?, ?)";
+    private static final long BASE_TIME = 1388534400000L; // 2014-01-01
+    
+    static {
+        // Make sure the driver is registered with the DriverManager
+        PhoenixDriver.INSTANCE.getClass();
+    }
+
+    private BenchmarkData() {
+    }
+    
+    /**
+     * @return a new connectionless connection on which the benchmark table and its index exist
+     */
+    public static PhoenixConnection newConnection() throws SQLException {
+        PhoenixConnection conn = DriverManager.getConnection(URL).unwrap(PhoenixConnection.class);
+        conn.createStatement().execute(CREATE_TABLE);
+        conn.createStatement().execute(CREATE_INDEX);
+        return conn;
+    }
+    
+    public static PTable getTable(PhoenixConnection conn, String name) throws SQLException {
+        return conn.getMetaDataCache().getTable(new PTableKey(conn.getTenantId(), name));
+    }
+    
+    /**
+     * Generate rows of the benchmark table. Values are pseudo-random but the same
+     * for a given row count, so that runs are comparable.
+     * @return the rows ordered by row key, as they would be returned by a scan
+     */
+    public static List<Tuple> newRows(PhoenixConnection conn, int rowCount) throws SQLException {
+        Random random = new Random(rowCount);
+        PreparedStatement stmt = conn.prepareStatement(UPSERT);
+        for (int i = 0; i < rowCount; i++) {
+            stmt.setString(1, "key" + (i % KEY_PREFIX_COUNT));
+            stmt.setInt(2, i / KEY_PREFIX_COUNT);
+            stmt.setString(3, "value" + random.nextInt(VALUE_COUNT));
+            stmt.setLong(4, random.nextLong());
+            stmt.setBigDecimal(5, BigDecimal.valueOf(random.nextInt(1000000), 2));
+            stmt.setDate(6, new Date(BASE_TIME + random.nextInt(1000000) * 1000L));
+            stmt.execute();
+        }
+        Map<byte[], List<Cell>> rows = new TreeMap<byte[], List<Cell>>(Bytes.BYTES_COMPARATOR);
+        Iterator<Pair<byte[],List<KeyValue>>> iterator = PhoenixRuntime.getUncommittedDataIterator(conn);
+        while (iterator.hasNext()) {
+            Pair<byte[],List<KeyValue>> tableData = iterator.next();
+            if (!Bytes.equals(Bytes.toBytes(TABLE_NAME), tableData.getFirst())) {
+                continue;
+            }
+            for (KeyValue kv : tableData.getSecond()) {
+                List<Cell> cells = rows.get(kv.getRow());
+                if (cells == null) {
+                    cells = Lists.newArrayList();
+                    rows.put(kv.getRow(), cells);
+                }
+                cells.add(kv);
+            }
+        }
+        conn.rollback();
+        List<Tuple> tuples = Lists.newArrayListWithExpectedSize(rows.size());
+        for (List<Cell> cells : rows.values()) {
+            Collections.sort(cells, KeyValue.COMPARATOR);
+            tuples.add(new ResultTuple(Result.create(cells)));
+        }
+        return tuples;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmarks;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.phoenix.compile.QueryPlan;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.jdbc.PhoenixStatement;
+import org.apache.phoenix.parse.SQLParser;
+import org.apache.phoenix.parse.SelectStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * 
+ * Benchmarks parsing, compiling and optimizing queries of different shapes.
+ *
+ * 
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class CompileBenchmark {
+    public enum Query {
+        POINT("SELECT V1, V2 FROM BENCH WHERE K1 = 'key1' AND K2 = 5"),
+        SKIP_SCAN("SELECT K1, V2 * 2 + 1 FROM BENCH WHERE K1 IN ('key1', 'key3', 'key5') AND K2 BETWEEN 10 AND 20 AND V1 LIKE 'value1%'"),
+        AGGREGATE("SELECT K1, COUNT(*), SUM(V2), MAX(V3) FROM BENCH WHERE V4 > TO_DATE('2014-01-02 00:00:00') GROUP BY K1 ORDER BY K1"),
+        INDEX("SELECT V1, V2, V3 FROM BENCH WHERE V1 = 'value5' AND V2 > 0");
+        
+        private final String sql;
+        
+        private Query(String sql) {
+            this.sql = sql;
+        }
+    }
+    
+    @Param
+    public Query query;
+    
+    private PhoenixConnection conn;
+    private PhoenixStatement statement;
+    
+    @Setup
+    public void setup() throws SQLException {
+        conn = BenchmarkData.newConnection();
+        statement = conn.createStatement().unwrap(PhoenixStatement.class);
+    }
+    
+    @TearDown
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+    
+    @Benchmark
+    public SelectStatement parse() throws SQLException {
+        return new SQLParser(query.sql).parseQuery();
+    }
+    
+    @Benchmark
+    public QueryPlan compile() throws SQLException {
+        return statement.compileQuery(query.sql);
+    }
+    
+    @Benchmark
+    public QueryPlan optimize() throws SQLException {
+        return statement.optimizeQuery(query.sql);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmarks;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.compile.QueryPlan;
+import org.apache.phoenix.compile.RowProjector;
+import org.apache.phoenix.expression.Expression;
+import org.apache.phoenix.filter.BooleanExpressionFilter;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.jdbc.PhoenixStatement;
+import org.apache.phoenix.schema.PDataType;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 
+ * Benchmarks evaluating compiled WHERE clause and SELECT list expressions against rows,
+ * as is done for every row on the server and client.
+ *
+ * 
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class ExpressionBenchmark {
+    public enum Query {
+        COMPARISON("SELECT K2 + 1, V2 * 2 - 1 FROM BENCH WHERE V2 > 0 AND V4 > TO_DATE('2014-01-02 00:00:00')"),
+        ARITHMETIC("SELECT V3 / 10 + V2, ROUND(V3, 1) FROM BENCH WHERE V3 * 2 > 5000 OR V2 < 0"),
+        STRING("SELECT SUBSTR(V1, 2, 3), UPPER(K1) || V1 FROM BENCH WHERE V1 LIKE 'value1%' OR K1 LIKE '%3'"),
+        REGEXP("SELECT REGEXP_REPLACE(V1, 'value', 'v'), REGEXP_SUBSTR(V1, '[0-9]+') FROM BENCH WHERE V1 IN ('value1', 'value2', 'value3', 'value42')");
+        
+        private final String sql;
+        
+        private Query(String sql) {
+            this.sql = sql;
+        }
+    }
+    
+    @Param({"10000"})
+    public int rowCount;
+    
+    @Param
+    public Query query;
+    
+    private PhoenixConnection conn;
+    private Expression where;
+    private Expression[] projections;
+    private List<Tuple> rows;
+    private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+    
+    @Setup
+    public void setup() throws SQLException {
+        conn = BenchmarkData.newConnection();
+        PhoenixStatement statement = conn.createStatement().unwrap(PhoenixStatement.class);
+        QueryPlan plan = statement.compileQuery(query.sql);
+        where = ((BooleanExpressionFilter)plan.getContext().getScan().getFilter()).getExpression();
+        RowProjector projector = plan.getProjector();
+        projections = new Expression[projector.getColumnCount()];
+        for (int i = 0; i < projections.length; i++) {
+            projections[i] = projector.getColumnProjector(i).getExpression();
+        }
+        rows = BenchmarkData.newRows(conn, rowCount);
+    }
+    
+    @TearDown
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+    
+    @Benchmark
+    public int filter() {
+        int matched = 0;
+        for (Tuple row : rows) {
+            if (where.evaluate(row, ptr) && Boolean.TRUE.equals(PDataType.BOOLEAN.toObject(ptr))) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+    
+    @Benchmark
+    public void project(Blackhole bh) {
+        for (Tuple row : rows) {
+            for (Expression projection : projections) {
+                if (projection.evaluate(row, ptr)) {
+                    bh.consume(ptr.getLength());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmarks;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.hbase.index.ValueGetter;
+import org.apache.phoenix.index.IndexMaintainer;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.schema.PTable;
+import org.apache.phoenix.schema.tuple.ResultTuple;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.collect.Lists;
+
+/**
+ * 
+ * Benchmarks building index row keys from data rows with {@link IndexMaintainer#buildRowKey},
+ * as is done for every mutation of an indexed table.
+ *
+ * 
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class IndexMaintainerBenchmark {
+    @Param({"10000"})
+    public int rowCount;
+    
+    private IndexMaintainer maintainer;
+    private byte[][] rowKeys;
+    private List<List<Cell>> rowCells;
+    private ValueGetter[] valueGetters;
+    private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+    
+    @Setup
+    public void setup() throws SQLException {
+        PhoenixConnection conn = BenchmarkData.newConnection();
+        try {
+            PTable dataTable = BenchmarkData.getTable(conn, BenchmarkData.TABLE_NAME);
+            PTable index = BenchmarkData.getTable(conn, BenchmarkData.INDEX_NAME);
+            maintainer = index.getIndexMaintainer(dataTable);
+            List<Tuple> rows = BenchmarkData.newRows(conn, rowCount);
+            rowKeys = new byte[rows.size()][];
+            rowCells = Lists.newArrayListWithExpectedSize(rows.size());
+            valueGetters = new ValueGetter[rows.size()];
+            for (int i = 0; i < rowKeys.length; i++) {
+                ResultTuple row = (ResultTuple)rows.get(i);
+                rowKeys[i] = row.getResult().getRow();
+                rowCells.add(Arrays.asList(row.getResult().rawCells()));
+                valueGetters[i] = maintainer.createGetterFromKeyValues(rowCells.get(i));
+            }
+        } finally {
+            conn.close();
+        }
+    }
+    
+    @Benchmark
+    public void buildRowKey(Blackhole bh) {
+        for (int i = 0; i < rowKeys.length; i++) {
+            ptr.set(rowKeys[i]);
+            bh.consume(maintainer.buildRowKey(valueGetters[i], ptr, null, null));
+        }
+    }
+    
+    @Benchmark
+    public void buildRowKeyFromCells(Blackhole bh) {
+        for (int i = 0; i < rowKeys.length; i++) {
+            ptr.set(rowKeys[i]);
+            ValueGetter valueGetter = maintainer.createGetterFromKeyValues(rowCells.get(i));
+            bh.consume(maintainer.buildRowKey(valueGetter, ptr, null, null));
+        }
+    }
+}
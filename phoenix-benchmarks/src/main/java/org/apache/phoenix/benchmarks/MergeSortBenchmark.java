@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmarks;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.phoenix.iterate.MaterializedResultIterator;
+import org.apache.phoenix.iterate.MergeSortRowKeyResultIterator;
+import org.apache.phoenix.iterate.PeekingResultIterator;
+import org.apache.phoenix.iterate.ResultIterator;
+import org.apache.phoenix.iterate.ResultIterators;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.query.KeyRange;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.Lists;
+
+/**
+ * 
+ * Benchmarks merging the row key ordered results of parallel scans with
+ * {@link MergeSortRowKeyResultIterator}.
+ *
+ * 
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class MergeSortBenchmark {
+    @Param({"10000"})
+    public int rowCount;
+    
+    /** Number of parallel scans whose results are merged */
+    @Param({"4", "32"})
+    public int scanCount;
+    
+    private List<List<Tuple>> scanResults;
+    
+    @Setup
+    public void setup() throws SQLException {
+        PhoenixConnection conn = BenchmarkData.newConnection();
+        try {
+            List<Tuple> rows = BenchmarkData.newRows(conn, rowCount);
+            // Deal the rows out so that every scan has interleaved, but ordered, results
+            scanResults = Lists.newArrayListWithExpectedSize(scanCount);
+            for (int i = 0; i < scanCount; i++) {
+                scanResults.add(Lists.<Tuple>newArrayList());
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                scanResults.get(i % scanCount).add(rows.get(i));
+            }
+        } finally {
+            conn.close();
+        }
+    }
+    
+    @Benchmark
+    public int merge() throws SQLException {
+        final List<PeekingResultIterator> iterators = Lists.newArrayListWithExpectedSize(scanCount);
+        for (List<Tuple> results : scanResults) {
+            iterators.add(new MaterializedResultIterator(results));
+        }
+        ResultIterator iterator = new MergeSortRowKeyResultIterator(new ResultIterators() {
+
+            @Override
+            public List<PeekingResultIterator> getIterators() throws SQLException {
+                return iterators;
+            }
+
+            @Override
+            public int size() {
+                return iterators.size();
+            }
+
+            @Override
+            public List<KeyRange> getSplits() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public List<List<Scan>> getScans() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public void explain(List<String> planSteps) {
+            }
+
+            @Override
+            public void close() throws SQLException {
+            }
+        });
+        try {
+            int count = 0;
+            while (iterator.next() != null) {
+                count++;
+            }
+            return count;
+        } finally {
+            iterator.close();
+        }
+    }
+}
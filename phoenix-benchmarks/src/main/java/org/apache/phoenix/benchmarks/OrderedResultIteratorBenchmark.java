@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmarks;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.phoenix.expression.OrderByExpression;
+import org.apache.phoenix.iterate.MaterializedResultIterator;
+import org.apache.phoenix.iterate.OrderedResultIterator;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.jdbc.PhoenixStatement;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * 
+ * Benchmarks sorting rows with {@link OrderedResultIterator}, with and without a limit.
+ *
+ * 
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class OrderedResultIteratorBenchmark {
+    private static final String QUERY = "SELECT * FROM BENCH ORDER BY V2 DESC, V1";
+    // Large enough that the rows are never spooled to disk
+    private static final int THRESHOLD_BYTES = Integer.MAX_VALUE;
+    
+    @Param({"10000"})
+    public int rowCount;
+    
+    /** Number of rows to keep, or 0 for all of them */
+    @Param({"0", "100"})
+    public int limit;
+    
+    private PhoenixConnection conn;
+    private List<OrderByExpression> orderByExpressions;
+    private List<Tuple> rows;
+    
+    @Setup
+    public void setup() throws SQLException {
+        conn = BenchmarkData.newConnection();
+        PhoenixStatement statement = conn.createStatement().unwrap(PhoenixStatement.class);
+        orderByExpressions = statement.compileQuery(QUERY).getOrderBy().getOrderByExpressions();
+        rows = BenchmarkData.newRows(conn, rowCount);
+    }
+    
+    @TearDown
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+    
+    @Benchmark
+    public int sort() throws SQLException {
+        OrderedResultIterator iterator = new OrderedResultIterator(new MaterializedResultIterator(rows),
+                orderByExpressions, THRESHOLD_BYTES, limit == 0 ? null : limit);
+        try {
+            int count = 0;
+            while (iterator.next() != null) {
+                count++;
+            }
+            return count;
+        } finally {
+            iterator.close();
+        }
+    }
+}
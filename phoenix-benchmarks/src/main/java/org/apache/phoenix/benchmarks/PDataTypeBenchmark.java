@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.phoenix.schema.PDataType;
+import org.apache.phoenix.schema.SortOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 
+ * Benchmarks encoding values of a {@link PDataType} to bytes and decoding them back,
+ * in both ascending and descending sort order.
+ *
+ * 
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class PDataTypeBenchmark {
+    private static final int VALUE_COUNT = 1000;
+    
+    @Param({"VARCHAR", "INTEGER", "LONG", "DECIMAL", "DATE"})
+    public PDataType type;
+    
+    private Object[] values;
+    private byte[][] ascBytes;
+    private byte[][] descBytes;
+    
+    @Setup
+    public void setup() {
+        Random random = new Random(VALUE_COUNT);
+        values = new Object[VALUE_COUNT];
+        ascBytes = new byte[VALUE_COUNT][];
+        descBytes = new byte[VALUE_COUNT][];
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            values[i] = newValue(random);
+            ascBytes[i] = type.toBytes(values[i]);
+            descBytes[i] = type.toBytes(values[i], SortOrder.DESC);
+        }
+    }
+    
+    private Object newValue(Random random) {
+        switch (type) {
+        case VARCHAR:
+            return "value" + random.nextInt();
+        case INTEGER:
+            return random.nextInt();
+        case LONG:
+            return random.nextLong();
+        case DECIMAL:
+            return BigDecimal.valueOf(random.nextLong(), random.nextInt(10));
+        case DATE:
+            return new Date(random.nextLong() >>> 20);
+        default:
+            throw new IllegalArgumentException("Unsupported type " + type);
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(VALUE_COUNT)
+    public void encode(Blackhole bh) {
+        for (Object value : values) {
+            bh.consume(type.toBytes(value));
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(VALUE_COUNT)
+    public void encodeDesc(Blackhole bh) {
+        for (Object value : values) {
+            bh.consume(type.toBytes(value, SortOrder.DESC));
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(VALUE_COUNT)
+    public void decode(Blackhole bh) {
+        for (byte[] b : ascBytes) {
+            bh.consume(type.toObject(b));
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(VALUE_COUNT)
+    public void decodeDesc(Blackhole bh) {
+        for (byte[] b : descBytes) {
+            bh.consume(type.toObject(b, 0, b.length, type, SortOrder.DESC));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmarks;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.filter.Filter.ReturnCode;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.compile.ScanRanges;
+import org.apache.phoenix.filter.SkipScanFilter;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.jdbc.PhoenixStatement;
+import org.apache.phoenix.schema.tuple.ResultTuple;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * 
+ * Benchmarks {@link SkipScanFilter#filterKeyValue(Cell)} over the sorted rows of a region,
+ * seeking to the next cell hint the way a region scanner would.
+ *
+ * 
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class SkipScanFilterBenchmark {
+    public enum Query {
+        POINTS("K1 IN ('key1', 'key3', 'key5') AND K2 IN (1, 10, 100, 1000)"),
+        RANGES("K1 IN ('key1', 'key3', 'key5') AND K2 BETWEEN 100 AND 200"),
+        SPARSE("K1 IN ('key0', 'key9') AND (K2 BETWEEN 10 AND 20 OR K2 BETWEEN 500 AND 510)");
+        
+        private final String where;
+        
+        private Query(String where) {
+            this.where = where;
+        }
+    }
+    
+    @Param({"10000"})
+    public int rowCount;
+    
+    @Param
+    public Query query;
+    
+    private PhoenixConnection conn;
+    private ScanRanges scanRanges;
+    private Cell[] cells;
+    
+    @Setup
+    public void setup() throws SQLException {
+        conn = BenchmarkData.newConnection();
+        PhoenixStatement statement = conn.createStatement().unwrap(PhoenixStatement.class);
+        scanRanges = statement.compileQuery("SELECT * FROM " + BenchmarkData.TABLE_NAME + " WHERE " + query.where)
+                .getContext().getScanRanges();
+        List<Tuple> rows = BenchmarkData.newRows(conn, rowCount);
+        cells = new Cell[rows.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = ((ResultTuple)rows.get(i)).getResult().rawCells()[0];
+        }
+    }
+    
+    @TearDown
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+    
+    @Benchmark
+    public int filter() {
+        SkipScanFilter filter = new SkipScanFilter(scanRanges.getRanges(), scanRanges.getSchema());
+        int included = 0;
+        int i = 0;
+        while (i < cells.length && !filter.filterAllRemaining()) {
+            Cell cell = cells[i];
+            ReturnCode code = filter.filterKeyValue(cell);
+            if (code == ReturnCode.INCLUDE) {
+                included++;
+                i++;
+            } else if (code == ReturnCode.SEEK_NEXT_USING_HINT) {
+                Cell hint = filter.getNextCellHint(cell);
+                if (hint == null) {
+                    break;
+                }
+                // Seek to the first row at or after the hint
+                do {
+                    i++;
+                } while (i < cells.length && Bytes.compareTo(cells[i].getRowArray(), cells[i].getRowOffset(), cells[i].getRowLength(),
+                        hint.getRowArray(), hint.getRowOffset(), hint.getRowLength()) < 0);
+            } else {
+                i++;
+            }
+        }
+        return included;
+    }
+}
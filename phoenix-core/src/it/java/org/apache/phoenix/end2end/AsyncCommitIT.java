@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end;
+
+import static org.apache.phoenix.util.TestUtil.TEST_PROPERTIES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.client.HBaseAdmin;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.util.PropertiesUtil;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
+
+
+public class AsyncCommitIT extends BaseHBaseManagedTimeIT {
+    
+    private static PhoenixConnection getConnection(Properties props) throws SQLException {
+        PhoenixConnection conn = DriverManager.getConnection(getUrl(), props).unwrap(PhoenixConnection.class);
+        conn.setAutoCommit(false);
+        return conn;
+    }
+    
+    private static void upsertRows(Connection conn, String tableName, int start, int end, String value) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement("UPSERT INTO " + tableName + " VALUES(?,?)");
+        for (int i = start; i < end; i++) {
+            stmt.setInt(1, i);
+            stmt.setString(2, value);
+            stmt.execute();
+        }
+    }
+    
+    private static long countRows(String tableName) throws SQLException {
+        Connection conn = DriverManager.getConnection(getUrl(), PropertiesUtil.deepCopy(TEST_PROPERTIES));
+        try {
+            ResultSet rs = conn.createStatement().executeQuery("SELECT count(*) FROM " + tableName);
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        } finally {
+            conn.close();
+        }
+    }
+    
+    private static class CountingCallback implements FutureCallback<Long> {
+        private final CountDownLatch latch;
+        private final AtomicLong rowCount = new AtomicLong();
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        
+        private CountingCallback(int commitCount) {
+            this.latch = new CountDownLatch(commitCount);
+        }
+        
+        @Override
+        public void onSuccess(Long result) {
+            rowCount.addAndGet(result);
+            latch.countDown();
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            failure.compareAndSet(null, t);
+            latch.countDown();
+        }
+        
+        private void await() throws InterruptedException {
+            assertTrue(latch.await(60, TimeUnit.SECONDS));
+        }
+    }
+    
+    @Test
+    public void testCommitAsyncAppliedInOrder() throws Exception {
+        PhoenixConnection conn = getConnection(PropertiesUtil.deepCopy(TEST_PROPERTIES));
+        try {
+            conn.createStatement().execute("CREATE TABLE ASYNC_ORDER (k INTEGER PRIMARY KEY, v VARCHAR)");
+            List<ListenableFuture<Long>> futures = Lists.newArrayList();
+            for (int i = 0; i < 10; i++) {
+                // Every commit overwrites the rows of the previous one
+                upsertRows(conn, "ASYNC_ORDER", 0, 100, "v" + i);
+                futures.add(conn.commitAsync());
+            }
+            conn.commit();
+            for (ListenableFuture<Long> future : futures) {
+                assertTrue(future.isDone());
+                assertEquals(100, future.get().longValue());
+            }
+            ResultSet rs = conn.createStatement().executeQuery("SELECT DISTINCT v FROM ASYNC_ORDER");
+            assertTrue(rs.next());
+            assertEquals("v9", rs.getString(1));
+            assertFalse(rs.next());
+        } finally {
+            conn.close();
+        }
+    }
+    
+    @Test
+    public void testCommitAsyncWaitsPastMaxInFlightBytes() throws Exception {
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        props.setProperty(QueryServices.MAX_IN_FLIGHT_COMMIT_BYTES_ATTRIB, Integer.toString(1));
+        PhoenixConnection conn = getConnection(props);
+        try {
+            conn.createStatement().execute("CREATE TABLE ASYNC_BOUND (k INTEGER PRIMARY KEY, v VARCHAR)");
+            ListenableFuture<Long> previous = null;
+            for (int i = 0; i < 5; i++) {
+                upsertRows(conn, "ASYNC_BOUND", i * 10, i * 10 + 10, "v");
+                ListenableFuture<Long> future = conn.commitAsync();
+                // Any rows are above the bound, so the previous commit is done before the next one starts
+                if (previous != null) {
+                    assertTrue(previous.isDone());
+                    assertEquals(10, previous.get().longValue());
+                }
+                previous = future;
+            }
+            conn.commit();
+            assertEquals(50, countRows("ASYNC_BOUND"));
+        } finally {
+            conn.close();
+        }
+    }
+    
+    @Test
+    public void testWriteBehindOnRowCount() throws Exception {
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        props.setProperty(QueryServices.WRITE_BEHIND_ROW_COUNT_ATTRIB, Integer.toString(10));
+        PhoenixConnection conn = getConnection(props);
+        try {
+            conn.createStatement().execute("CREATE TABLE ASYNC_WRITE_BEHIND (k INTEGER PRIMARY KEY, v VARCHAR)");
+            CountingCallback callback = new CountingCallback(3);
+            conn.setWriteBehindCallback(callback);
+            upsertRows(conn, "ASYNC_WRITE_BEHIND", 0, 35, "v");
+            // Three batches of ten rows were written without a commit
+            callback.await();
+            assertEquals(null, callback.failure.get());
+            assertEquals(30, callback.rowCount.get());
+            assertEquals(30, countRows("ASYNC_WRITE_BEHIND"));
+            conn.commit();
+            assertEquals(35, countRows("ASYNC_WRITE_BEHIND"));
+        } finally {
+            conn.close();
+        }
+    }
+    
+    @Test
+    public void testFailedWriteBehindRowsCommittedAgain() throws Exception {
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        props.setProperty(QueryServices.WRITE_BEHIND_ROW_COUNT_ATTRIB, Integer.toString(10));
+        PhoenixConnection conn = getConnection(props);
+        try {
+            conn.createStatement().execute("CREATE TABLE ASYNC_FAIL (k INTEGER PRIMARY KEY, v VARCHAR)");
+            HBaseAdmin admin = conn.getQueryServices().getAdmin();
+            try {
+                // Make the write-behind batch fail
+                HTableDescriptor descriptor = admin.getTableDescriptor(Bytes.toBytes("ASYNC_FAIL"));
+                admin.disableTable("ASYNC_FAIL");
+                admin.deleteTable("ASYNC_FAIL");
+                CountingCallback callback = new CountingCallback(1);
+                conn.setWriteBehindCallback(callback);
+                upsertRows(conn, "ASYNC_FAIL", 0, 10, "old");
+                callback.await();
+                assertTrue(callback.failure.get() != null);
+                admin.createTable(descriptor);
+            } finally {
+                admin.close();
+            }
+            // Newer values of the rows of the failed batch take precedence
+            upsertRows(conn, "ASYNC_FAIL", 5, 8, "new");
+            conn.setWriteBehindCallback(null);
+            conn.commit();
+            ResultSet rs = conn.createStatement().executeQuery("SELECT k, v FROM ASYNC_FAIL");
+            for (int i = 0; i < 10; i++) {
+                assertTrue(rs.next());
+                assertEquals(i, rs.getInt(1));
+                assertEquals(i >= 5 && i < 8 ? "new" : "old", rs.getString(2));
+            }
+            assertFalse(rs.next());
+        } finally {
+            conn.close();
+        }
+    }
+    
+    private static void testNoRowsWrittenAfter(boolean isClose) throws Exception {
+        PhoenixConnection conn = getConnection(PropertiesUtil.deepCopy(TEST_PROPERTIES));
+        String tableName = "ASYNC_" + (isClose ? "CLOSE" : "ROLLBACK");
+        List<ListenableFuture<Long>> futures = Lists.newArrayList();
+        try {
+            conn.createStatement().execute("CREATE TABLE " + tableName + " (k INTEGER PRIMARY KEY, v VARCHAR)");
+            for (int i = 0; i < 20; i++) {
+                upsertRows(conn, tableName, i * 100, i * 100 + 100, "v");
+                futures.add(conn.commitAsync());
+            }
+            upsertRows(conn, tableName, 10000, 10010, "v");
+            if (!isClose) {
+                conn.rollback();
+            }
+        } finally {
+            conn.close();
+        }
+        // Each commit was either written or cancelled, and none is still being written
+        long committedRowCount = 0;
+        boolean isCancelled = false;
+        for (ListenableFuture<Long> future : futures) {
+            assertTrue(future.isDone());
+            try {
+                committedRowCount += future.get();
+                // Commits are started in order, so none is written after a cancelled one
+                assertFalse(isCancelled);
+            } catch (CancellationException e) {
+                isCancelled = true;
+            } catch (ExecutionException e) {
+                fail(e.getMessage());
+            }
+        }
+        assertEquals(committedRowCount, countRows(tableName));
+        Thread.sleep(500);
+        assertEquals(committedRowCount, countRows(tableName));
+    }
+    
+    @Test
+    public void testNoRowsWrittenAfterRollback() throws Exception {
+        testNoRowsWrittenAfter(false);
+    }
+    
+    @Test
+    public void testNoRowsWrittenAfterClose() throws Exception {
+        testNoRowsWrittenAfter(true);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end;
+
+import static org.apache.phoenix.util.TestUtil.TEST_PROPERTIES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.util.PhoenixRuntime;
+import org.apache.phoenix.util.PropertiesUtil;
+import org.apache.phoenix.util.QueryUtil;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+
+public class PointLookupGetIT extends BaseHBaseManagedTimeIT {
+    private static final String KEYS = "(k1,k2) IN (('a',1),('b',2),('c',3),('d',4),('z',9))";
+    
+    private static Connection getConnection(boolean useGets) throws Exception {
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        props.setProperty(QueryServices.POINT_LOOKUP_GET_THRESHOLD_ATTRIB, useGets ? "100" : "0");
+        return DriverManager.getConnection(getUrl(), props);
+    }
+    
+    private static void createTable(String tableName, String options) throws Exception {
+        Connection conn = getConnection(true);
+        try {
+            conn.createStatement().execute("CREATE TABLE " + tableName
+                    + " (k1 VARCHAR NOT NULL, k2 INTEGER NOT NULL, a.v1 VARCHAR, b.v2 INTEGER CONSTRAINT pk PRIMARY KEY (k1, k2)) " + options);
+            PreparedStatement stmt = conn.prepareStatement("UPSERT INTO " + tableName + " VALUES(?,?,?,?)");
+            String[] k1s = {"a", "b", "c", "d", "e"};
+            for (int i = 0; i < k1s.length; i++) {
+                stmt.setString(1, k1s[i]);
+                stmt.setInt(2, i + 1);
+                // Leave a row without any value in the second column family
+                stmt.setString(3, "v" + k1s[i]);
+                if (i == 2) {
+                    stmt.setNull(4, Types.INTEGER);
+                } else {
+                    stmt.setInt(4, (i + 1) * 10);
+                }
+                stmt.execute();
+            }
+            conn.commit();
+        } finally {
+            conn.close();
+        }
+    }
+    
+    private static List<String> getRows(Connection conn, String query) throws Exception {
+        List<String> rows = Lists.newArrayList();
+        ResultSet rs = conn.createStatement().executeQuery(query);
+        int columnCount = rs.getMetaData().getColumnCount();
+        while (rs.next()) {
+            StringBuilder buf = new StringBuilder();
+            for (int i = 1; i <= columnCount; i++) {
+                buf.append(i == 1 ? "" : ",").append(rs.getString(i));
+            }
+            rows.add(buf.toString());
+        }
+        return rows;
+    }
+    
+    private static void assertRows(String query, List<String> expectedRows) throws Exception {
+        assertRows(query, "CLIENT POINT LOOKUP ON 5 KEYS ", expectedRows);
+    }
+    
+    /**
+     * Check that the query runs with the given plan, or with scans if none is given,
+     * and returns the same rows as with scans
+     */
+    private static void assertRows(String query, String expectedPlan, List<String> expectedRows) throws Exception {
+        Connection conn = getConnection(true);
+        try {
+            String plan = QueryUtil.getExplainPlan(conn.createStatement().executeQuery("EXPLAIN " + query));
+            assertTrue(plan, expectedPlan == null ? plan.contains("-WAY ") : plan.startsWith(expectedPlan));
+            assertEquals(expectedRows, getRows(conn, query));
+        } finally {
+            conn.close();
+        }
+        conn = getConnection(false);
+        try {
+            String plan = QueryUtil.getExplainPlan(conn.createStatement().executeQuery("EXPLAIN " + query));
+            assertTrue(plan, plan.contains("-WAY "));
+            assertEquals(expectedRows, getRows(conn, query));
+        } finally {
+            conn.close();
+        }
+    }
+    
+    private static void testPointLookup(String tableName, String options) throws Exception {
+        createTable(tableName, options);
+        // Rows come back in row key order and missing keys are skipped
+        assertRows("SELECT * FROM " + tableName + " WHERE " + KEYS,
+                ImmutableList.of("a,1,va,10", "b,2,vb,20", "c,3,vc,null", "d,4,vd,40"));
+        // A reverse point lookup on several keys needs the skip scan, so it is left to the scan path
+        assertRows("SELECT k1, k2 FROM " + tableName + " WHERE " + KEYS + " ORDER BY k1 DESC, k2 DESC",
+                null, ImmutableList.of("d,4", "c,3", "b,2", "a,1"));
+        assertRows("SELECT k1, v1 FROM " + tableName + " WHERE k1 = 'b' AND k2 = 2 ORDER BY k1 DESC, k2 DESC",
+                "CLIENT REVERSE POINT LOOKUP ON 1 KEY ", ImmutableList.of("b,vb"));
+        assertRows("SELECT k1, v1 FROM " + tableName + " WHERE k1 = 'z' AND k2 = 9 ORDER BY k1 DESC, k2 DESC",
+                "CLIENT REVERSE POINT LOOKUP ON 1 KEY ", ImmutableList.<String>of());
+        // Filters on non key columns are applied to the Gets
+        assertRows("SELECT k1, v1 FROM " + tableName + " WHERE " + KEYS + " AND v2 >= 20",
+                ImmutableList.of("b,vb", "d,vd"));
+        assertRows("SELECT k1, v2 FROM " + tableName + " WHERE " + KEYS + " AND v1 != 'vb'",
+                ImmutableList.of("a,10", "c,null", "d,40"));
+        // Only the projected column family is fetched
+        assertRows("SELECT k1, v2 FROM " + tableName + " WHERE " + KEYS,
+                ImmutableList.of("a,10", "b,20", "c,null", "d,40"));
+        assertRows("SELECT k2 FROM " + tableName + " WHERE " + KEYS + " LIMIT 2",
+                ImmutableList.of("1", "2"));
+        assertRows("SELECT k1 FROM " + tableName + " WHERE " + KEYS + " ORDER BY k1 DESC, k2 DESC LIMIT 3",
+                null, ImmutableList.of("d", "c", "b"));
+    }
+    
+    @Test
+    public void testPointLookup() throws Exception {
+        testPointLookup("POINT_LOOKUP_GET", "");
+    }
+    
+    @Test
+    public void testSaltedPointLookup() throws Exception {
+        testPointLookup("SALTED_POINT_LOOKUP_GET", "SALT_BUCKETS=4");
+    }
+    
+    @Test
+    public void testScanAttributes() throws Exception {
+        String tableName = "MULTI_TENANT_POINT_LOOKUP_GET";
+        Connection conn = getConnection(true);
+        try {
+            conn.createStatement().execute("CREATE TABLE " + tableName
+                    + " (t VARCHAR NOT NULL, k VARCHAR NOT NULL, v VARCHAR CONSTRAINT pk PRIMARY KEY (t, k)) MULTI_TENANT=true");
+            conn.createStatement().execute("UPSERT INTO " + tableName + " VALUES('t1','a','1')");
+            conn.createStatement().execute("UPSERT INTO " + tableName + " VALUES('t1','b','2')");
+            conn.createStatement().execute("UPSERT INTO " + tableName + " VALUES('t2','a','3')");
+            conn.commit();
+        } finally {
+            conn.close();
+        }
+        // The tenant id set on the scan is copied onto the Gets
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        props.setProperty(PhoenixRuntime.TENANT_ID_ATTRIB, "t1");
+        conn = DriverManager.getConnection(getUrl(), props);
+        try {
+            String query = "SELECT k, v FROM " + tableName + " WHERE k IN ('a', 'b', 'c')";
+            String plan = QueryUtil.getExplainPlan(conn.createStatement().executeQuery("EXPLAIN " + query));
+            assertTrue(plan, plan.startsWith("CLIENT POINT LOOKUP ON 3 KEYS"));
+            assertEquals(ImmutableList.of("a,1", "b,2"), getRows(conn, query));
+        } finally {
+            conn.close();
+        }
+    }
+}
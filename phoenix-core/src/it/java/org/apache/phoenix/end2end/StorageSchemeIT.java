@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+
+import org.junit.Test;
+
+
+public class StorageSchemeIT extends BaseHBaseManagedTimeIT {
+
+    private static void testStorageScheme(String tableName, String tableProps) throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        try {
+            conn.createStatement().execute("CREATE TABLE " + tableName
+                    + " (k VARCHAR NOT NULL PRIMARY KEY, a.v1 VARCHAR, a.v2 INTEGER, b.v3 VARCHAR) " + tableProps);
+            conn.createStatement().execute("UPSERT INTO " + tableName + " VALUES ('a', 'x', 1, 'p')");
+            conn.createStatement().execute("UPSERT INTO " + tableName + "(k, v1, v3) VALUES ('b', 'y', 'q')");
+            conn.createStatement().execute("UPSERT INTO " + tableName + "(k, v2) VALUES ('c', 3)");
+            conn.commit();
+
+            ResultSet rs = conn.createStatement().executeQuery("SELECT k, v2, v3 FROM " + tableName);
+            assertTrue(rs.next());
+            assertEquals("a", rs.getString(1));
+            assertEquals(1, rs.getInt(2));
+            assertEquals("p", rs.getString(3));
+            assertTrue(rs.next());
+            assertEquals("b", rs.getString(1));
+            assertNull(rs.getObject(2));
+            assertEquals("q", rs.getString(3));
+            assertTrue(rs.next());
+            assertEquals("c", rs.getString(1));
+            assertEquals(3, rs.getInt(2));
+            assertNull(rs.getString(3));
+            assertFalse(rs.next());
+
+            rs = conn.createStatement().executeQuery("SELECT v2 FROM " + tableName + " WHERE v1 = 'x'");
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+            assertFalse(rs.next());
+
+            rs = conn.createStatement().executeQuery("SELECT count(v3) FROM " + tableName);
+            assertTrue(rs.next());
+            assertEquals(2, rs.getLong(1));
+            assertFalse(rs.next());
+
+            conn.createStatement().execute("ALTER TABLE " + tableName + " ADD a.v4 VARCHAR");
+            conn.createStatement().execute("UPSERT INTO " + tableName + " VALUES ('d', 'z', 4, 'r', 's')");
+            conn.commit();
+            rs = conn.createStatement().executeQuery("SELECT k, v4, v1 FROM " + tableName + " WHERE k >= 'c'");
+            assertTrue(rs.next());
+            assertEquals("c", rs.getString(1));
+            assertNull(rs.getString(2));
+            assertNull(rs.getString(3));
+            assertTrue(rs.next());
+            assertEquals("d", rs.getString(1));
+            assertEquals("s", rs.getString(2));
+            assertEquals("z", rs.getString(3));
+            assertFalse(rs.next());
+
+            rs = conn.createStatement().executeQuery("SELECT * FROM " + tableName + " WHERE k = 'd'");
+            assertTrue(rs.next());
+            assertEquals("d", rs.getString(1));
+            assertEquals("z", rs.getString(2));
+            assertEquals(4, rs.getInt(3));
+            assertEquals("r", rs.getString(4));
+            assertEquals("s", rs.getString(5));
+            assertFalse(rs.next());
+        } finally {
+            conn.close();
+        }
+    }
+
+    @Test
+    public void testPackedCell() throws Exception {
+        testStorageScheme("PACKED_T", "IMMUTABLE_ROWS=true, STORAGE_SCHEME='PACKED_CELL'");
+    }
+
+    @Test
+    public void testEncodedColumns() throws Exception {
+        testStorageScheme("ENCODED_T", "STORAGE_SCHEME='ONE_CELL_PER_ENCODED_COLUMN'");
+        Connection conn = DriverManager.getConnection(getUrl());
+        try {
+            // Mutable rows may be updated and columns dropped, which must not disturb the other columns
+            conn.createStatement().execute("UPSERT INTO ENCODED_T(k, v3) VALUES ('a', 'pp')");
+            conn.commit();
+            conn.createStatement().execute("ALTER TABLE ENCODED_T DROP COLUMN v2");
+            conn.createStatement().execute("ALTER TABLE ENCODED_T ADD b.v5 INTEGER");
+            conn.createStatement().execute("UPSERT INTO ENCODED_T(k, v5) VALUES ('a', 5)");
+            conn.commit();
+            ResultSet rs = conn.createStatement().executeQuery("SELECT v1, v3, v5 FROM ENCODED_T WHERE k = 'a'");
+            assertTrue(rs.next());
+            assertEquals("x", rs.getString(1));
+            assertEquals("pp", rs.getString(2));
+            assertEquals(5, rs.getInt(3));
+            assertFalse(rs.next());
+        } finally {
+            conn.close();
+        }
+    }
+}
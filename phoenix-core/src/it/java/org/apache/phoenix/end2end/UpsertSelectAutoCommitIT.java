@@ -34,6 +34,7 @@ import java.util.Properties;
 
 import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.util.PropertiesUtil;
+import org.apache.phoenix.util.QueryUtil;
 import org.junit.Test;
 
 
@@ -157,4 +158,78 @@ public class UpsertSelectAutoCommitIT extends BaseHBaseManagedTimeIT {
         conn.close();
     }
 
+    private static void testUpsertSelectIntoOtherTable(String name, boolean onServer, boolean withIndex) throws Exception {
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        props.setProperty(QueryServices.UPSERT_SELECT_ON_SERVER_ATTRIB, Boolean.toString(onServer));
+        props.setProperty(QueryServices.MUTATE_BATCH_SIZE_ATTRIB, Integer.toString(7));
+        Connection conn = DriverManager.getConnection(getUrl(), props);
+        try {
+            conn.setAutoCommit(true);
+            String source = "SRC_" + name;
+            String target = "TGT_" + name;
+            conn.createStatement().execute("CREATE TABLE " + source + " (k INTEGER PRIMARY KEY, v1 VARCHAR, v2 INTEGER) SPLIT ON (25, 50, 75)");
+            conn.createStatement().execute("CREATE TABLE " + target + " (k INTEGER PRIMARY KEY, v1 VARCHAR, v2 INTEGER) SALT_BUCKETS=3");
+            if (withIndex) {
+                conn.createStatement().execute("CREATE INDEX IDX_" + name + " ON " + target + " (v1) INCLUDE (v2)");
+            }
+            PreparedStatement stmt = conn.prepareStatement("UPSERT INTO " + source + " VALUES(?,?,?)");
+            for (int i = 0; i < 100; i++) {
+                stmt.setInt(1, i);
+                stmt.setString(2, "v" + (i % 10));
+                stmt.setInt(3, i);
+                stmt.execute();
+            }
+            
+            String upsertSelect = "UPSERT INTO " + target + " SELECT k, v1, v2 * 2 FROM " + source + " WHERE k >= 10";
+            ResultSet rs = conn.createStatement().executeQuery("EXPLAIN " + upsertSelect);
+            assertEquals(onServer ? "UPSERT ROWS" : "UPSERT SELECT", QueryUtil.getExplainPlan(rs).split("\n")[0]);
+            assertEquals(90, conn.createStatement().executeUpdate(upsertSelect));
+            
+            rs = conn.createStatement().executeQuery("SELECT count(*), sum(v2) FROM " + target);
+            assertTrue(rs.next());
+            assertEquals(90, rs.getInt(1));
+            assertEquals(2 * (99 * 100 / 2 - 9 * 10 / 2), rs.getLong(2));
+            
+            // The source table is left unchanged
+            rs = conn.createStatement().executeQuery("SELECT count(*) FROM " + source);
+            assertTrue(rs.next());
+            assertEquals(100, rs.getInt(1));
+            
+            String query = "SELECT k, v2 FROM " + target + " WHERE v1 = 'v3' ORDER BY k";
+            if (withIndex) {
+                rs = conn.createStatement().executeQuery("EXPLAIN " + query);
+                assertTrue(QueryUtil.getExplainPlan(rs).contains("IDX_" + name));
+            }
+            rs = conn.createStatement().executeQuery(query);
+            for (int i = 13; i < 100; i += 10) {
+                assertTrue(rs.next());
+                assertEquals(i, rs.getInt(1));
+                assertEquals(2 * i, rs.getInt(2));
+            }
+            assertFalse(rs.next());
+        } finally {
+            conn.close();
+        }
+    }
+    
+    @Test
+    public void testUpsertSelectIntoOtherTableOnServer() throws Exception {
+        testUpsertSelectIntoOtherTable("SERVER", true, false);
+    }
+    
+    @Test
+    public void testUpsertSelectIntoOtherIndexedTableOnServer() throws Exception {
+        testUpsertSelectIntoOtherTable("SERVER_INDEXED", true, true);
+    }
+    
+    @Test
+    public void testUpsertSelectIntoOtherTableOnClient() throws Exception {
+        testUpsertSelectIntoOtherTable("CLIENT", false, false);
+    }
+    
+    @Test
+    public void testUpsertSelectIntoOtherIndexedTableOnClient() throws Exception {
+        testUpsertSelectIntoOtherTable("CLIENT_INDEXED", false, true);
+    }
+
 }
@@ -22,6 +22,7 @@ import static org.apache.phoenix.util.TestUtil.INDEX_DATA_TABLE;
 import static org.apache.phoenix.util.TestUtil.TEST_PROPERTIES;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -33,8 +34,15 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Properties;
 
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.client.HBaseAdmin;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.phoenix.end2end.BaseHBaseManagedTimeIT;
 import org.apache.phoenix.exception.SQLExceptionCode;
+import org.apache.phoenix.execute.CommitException;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.query.QueryConstants;
 import org.apache.phoenix.schema.PTableKey;
@@ -424,4 +432,55 @@ public class ImmutableIndexIT extends BaseHBaseManagedTimeIT {
             }
         }
     }
+
+    @Test
+    public void testFailedDataTableBatchWritesNoIndexRows() throws Exception {
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        Connection conn = DriverManager.getConnection(getUrl(), props);
+        try {
+            conn.createStatement().execute("CREATE TABLE COMMIT_OK (k VARCHAR NOT NULL PRIMARY KEY, v VARCHAR)");
+            conn.createStatement().execute("CREATE TABLE COMMIT_FAIL (k VARCHAR NOT NULL PRIMARY KEY, v VARCHAR) IMMUTABLE_ROWS=true");
+            conn.createStatement().execute("CREATE INDEX COMMIT_FAIL_IDX ON COMMIT_FAIL (v)");
+            conn.setAutoCommit(false);
+            conn.createStatement().execute("UPSERT INTO COMMIT_OK VALUES ('a', 'x')");
+            conn.createStatement().execute("UPSERT INTO COMMIT_FAIL VALUES ('a', 'x')");
+
+            // Make the data table batch fail once the rows are buffered
+            HBaseAdmin admin = conn.unwrap(PhoenixConnection.class).getQueryServices().getAdmin();
+            HTableDescriptor descriptor = admin.getTableDescriptor(Bytes.toBytes("COMMIT_FAIL"));
+            admin.disableTable("COMMIT_FAIL");
+            admin.deleteTable("COMMIT_FAIL");
+            try {
+                conn.commit();
+                fail();
+            } catch (CommitException e) {
+                // Only the table whose data batch succeeded is committed
+                assertEquals(1, e.getCommittedState().getUpdateCount());
+                assertEquals(1, e.getUncommittedState().getUpdateCount());
+            } finally {
+                admin.createTable(descriptor);
+                admin.close();
+            }
+
+            // No index row may point to the data row that was never written
+            HTableInterface indexTable = conn.unwrap(PhoenixConnection.class).getQueryServices().getTable(Bytes.toBytes("COMMIT_FAIL_IDX"));
+            try {
+                ResultScanner scanner = indexTable.getScanner(new Scan());
+                assertNull(scanner.next());
+                scanner.close();
+            } finally {
+                indexTable.close();
+            }
+            conn.rollback();
+            ResultSet rs = conn.createStatement().executeQuery("SELECT v FROM COMMIT_OK");
+            assertTrue(rs.next());
+            assertEquals("x", rs.getString(1));
+            assertFalse(rs.next());
+            rs = conn.createStatement().executeQuery("SELECT count(*) FROM COMMIT_FAIL");
+            assertTrue(rs.next());
+            assertEquals(0, rs.getLong(1));
+        } finally {
+            conn.close();
+        }
+    }
 }
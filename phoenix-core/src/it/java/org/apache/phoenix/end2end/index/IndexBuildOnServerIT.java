@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end.index;
+
+import static org.apache.phoenix.util.TestUtil.TEST_PROPERTIES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Properties;
+
+import org.apache.phoenix.end2end.BaseHBaseManagedTimeIT;
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.util.PropertiesUtil;
+import org.apache.phoenix.util.QueryUtil;
+import org.junit.Test;
+
+
+public class IndexBuildOnServerIT extends BaseHBaseManagedTimeIT {
+    private static final int NUM_ROWS = 100;
+    
+    private static Connection getConnection(boolean buildOnServer) throws Exception {
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        props.setProperty(QueryServices.INDEX_BUILD_ON_SERVER_ATTRIB, Boolean.toString(buildOnServer));
+        return DriverManager.getConnection(getUrl(), props);
+    }
+    
+    private static void populateTable(Connection conn, String tableName, String options) throws Exception {
+        conn.createStatement().execute("CREATE TABLE " + tableName + " (k VARCHAR NOT NULL PRIMARY KEY, v1 VARCHAR, v2 INTEGER) " + options);
+        PreparedStatement stmt = conn.prepareStatement("UPSERT INTO " + tableName + " VALUES(?,?,?)");
+        for (int i = 0; i < NUM_ROWS; i++) {
+            stmt.setString(1, String.format("k%03d", i));
+            // Leave some rows without an indexed value
+            if (i % 10 == 0) {
+                stmt.setString(2, null);
+            } else {
+                stmt.setString(2, "v" + (i % 7));
+            }
+            stmt.setInt(3, i);
+            stmt.execute();
+        }
+        conn.commit();
+    }
+    
+    private static void assertIndexBuilt(Connection conn, String tableName, String indexName) throws Exception {
+        String query = "SELECT k, v2 FROM " + tableName + " WHERE v1 = 'v3' ORDER BY k";
+        ResultSet rs = conn.createStatement().executeQuery("EXPLAIN " + query);
+        assertTrue(QueryUtil.getExplainPlan(rs).contains(indexName));
+        rs = conn.createStatement().executeQuery(query);
+        int count = 0;
+        for (int i = 0; i < NUM_ROWS; i++) {
+            if (i % 10 != 0 && i % 7 == 3) {
+                assertTrue(rs.next());
+                assertEquals(String.format("k%03d", i), rs.getString(1));
+                assertEquals(i, rs.getInt(2));
+                count++;
+            }
+        }
+        assertFalse(rs.next());
+        assertTrue(count > 0);
+        
+        // Every data row has a row in the index, including the ones with a null indexed value
+        rs = conn.createStatement().executeQuery("SELECT count(*) FROM " + indexName);
+        assertTrue(rs.next());
+        assertEquals(NUM_ROWS, rs.getInt(1));
+    }
+    
+    private static void testBuildIndex(String name, boolean buildOnServer, String tableOptions) throws Exception {
+        String tableName = "T_" + name;
+        String indexName = "I_" + name;
+        Connection conn = getConnection(buildOnServer);
+        try {
+            populateTable(conn, tableName, tableOptions);
+            int rowCount = conn.createStatement().executeUpdate("CREATE INDEX " + indexName + " ON " + tableName + " (v1) INCLUDE (v2)");
+            assertEquals(NUM_ROWS, rowCount);
+            assertIndexBuilt(conn, tableName, indexName);
+            
+            // Index is maintained as usual after it was built
+            conn.createStatement().execute("UPSERT INTO " + tableName + " VALUES('k001','v3',-1)");
+            conn.commit();
+            ResultSet rs = conn.createStatement().executeQuery("SELECT v2 FROM " + tableName + " WHERE v1 = 'v3' AND k = 'k001'");
+            assertTrue(rs.next());
+            assertEquals(-1, rs.getInt(1));
+            assertFalse(rs.next());
+        } finally {
+            conn.close();
+        }
+    }
+    
+    @Test
+    public void testBuildIndexOnServer() throws Exception {
+        testBuildIndex("SERVER", true, "SPLIT ON ('k025','k050','k075')");
+    }
+    
+    @Test
+    public void testBuildIndexOnClient() throws Exception {
+        testBuildIndex("CLIENT", false, "SPLIT ON ('k025','k050','k075')");
+    }
+    
+    @Test
+    public void testBuildIndexOfSaltedTableOnServer() throws Exception {
+        testBuildIndex("SALTED", true, "SALT_BUCKETS=4");
+    }
+    
+    @Test
+    public void testBuildIndexOfEmptyTableOnServer() throws Exception {
+        Connection conn = getConnection(true);
+        try {
+            conn.createStatement().execute("CREATE TABLE T_EMPTY (k VARCHAR NOT NULL PRIMARY KEY, v1 VARCHAR)");
+            assertEquals(0, conn.createStatement().executeUpdate("CREATE INDEX I_EMPTY ON T_EMPTY (v1)"));
+            ResultSet rs = conn.createStatement().executeQuery("SELECT count(*) FROM I_EMPTY");
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        } finally {
+            conn.close();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end.index;
+
+import static org.apache.phoenix.util.TestUtil.TEST_PROPERTIES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.end2end.BaseHBaseManagedTimeIT;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+import org.apache.phoenix.index.IndexMetaDataCacheClient;
+import org.apache.phoenix.index.IndexMetaDataKeyCache;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.schema.PTable;
+import org.apache.phoenix.util.PhoenixRuntime;
+import org.apache.phoenix.util.PropertiesUtil;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+
+public class IndexMaintainerCacheIT extends BaseHBaseManagedTimeIT {
+    private static final int BATCH_SIZE_THRESHOLD = 5;
+    private static final int NUM_ROWS = 20;
+    
+    private static Connection getConnection() throws Exception {
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        props.setProperty(QueryServices.INDEX_MUTATE_BATCH_SIZE_THRESHOLD_ATTRIB, Integer.toString(BATCH_SIZE_THRESHOLD));
+        return DriverManager.getConnection(getUrl(), props);
+    }
+    
+    private static void createTable(Connection conn, String tableName, String indexName) throws Exception {
+        conn.createStatement().execute("CREATE TABLE " + tableName + " (k VARCHAR NOT NULL PRIMARY KEY, v1 VARCHAR, v2 INTEGER) SALT_BUCKETS=4");
+        conn.createStatement().execute("CREATE INDEX " + indexName + " ON " + tableName + " (v1) INCLUDE (v2)");
+    }
+    
+    private static void upsertRows(Connection conn, String tableName, int value) throws Exception {
+        PreparedStatement stmt = conn.prepareStatement("UPSERT INTO " + tableName + " VALUES(?,?,?)");
+        // More rows than the threshold, so that the index maintainers are not sent along with each row
+        for (int i = 0; i < NUM_ROWS; i++) {
+            stmt.setString(1, "k" + i);
+            stmt.setString(2, "v" + (i + value));
+            stmt.setInt(3, i + value);
+            stmt.execute();
+        }
+        conn.commit();
+    }
+    
+    private static void assertIndexRows(Connection conn, String tableName, String indexName, int value) throws Exception {
+        ResultSet rs = conn.createStatement().executeQuery("SELECT COUNT(*) FROM " + indexName);
+        assertTrue(rs.next());
+        assertEquals(NUM_ROWS, rs.getInt(1));
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rs = conn.createStatement().executeQuery("SELECT k, v2 FROM " + tableName + " WHERE v1 = 'v" + (i + value) + "'");
+            assertTrue(rs.next());
+            assertEquals("k" + i, rs.getString(1));
+            assertEquals(i + value, rs.getInt(2));
+            assertFalse(rs.next());
+        }
+    }
+    
+    private static byte[] getIndexMetaDataKey(Connection conn, String tableName) throws Exception {
+        PhoenixConnection pconn = conn.unwrap(PhoenixConnection.class);
+        PTable table = PhoenixRuntime.getTable(conn, tableName);
+        ImmutableBytesPtr ptr = new ImmutableBytesPtr();
+        table.getIndexMaintainers(ptr);
+        byte[] key = IndexMetaDataCacheClient.getIndexMetaDataKey(pconn, table, ptr);
+        assertNotNull(key);
+        return key;
+    }
+    
+    private static Set<String> getAllRegionServers(Connection conn, String tableName) throws Exception {
+        List<HRegionLocation> regions = conn.unwrap(PhoenixConnection.class).getQueryServices().getAllTableRegions(Bytes.toBytes(tableName));
+        Set<String> servers = Sets.newHashSet();
+        for (HRegionLocation region : regions) {
+            servers.add(region.getHostnamePort());
+        }
+        return servers;
+    }
+    
+    @Test
+    public void testKeyOnlyAfterFirstCommit() throws Exception {
+        String tableName = "T_KEY_ONLY";
+        String indexName = "I_KEY_ONLY";
+        Connection conn = getConnection();
+        try {
+            createTable(conn, tableName, indexName);
+            IndexMetaDataKeyCache keyCache = conn.unwrap(PhoenixConnection.class).getQueryServices().getIndexMetaDataKeyCache();
+            byte[] key = getIndexMetaDataKey(conn, tableName);
+            Set<String> servers = getAllRegionServers(conn, tableName);
+            assertFalse(keyCache.isCached(key, servers));
+            
+            upsertRows(conn, tableName, 0);
+            // Every salt bucket was written to, so each server has now cached the index maintainers
+            assertTrue(keyCache.isCached(key, servers));
+            assertIndexRows(conn, tableName, indexName, 0);
+            
+            // Only the key is sent this time around
+            upsertRows(conn, tableName, 100);
+            assertTrue(keyCache.isCached(key, servers));
+            assertIndexRows(conn, tableName, indexName, 100);
+        } finally {
+            conn.close();
+        }
+    }
+    
+    @Test
+    public void testRetryOnIndexMetaDataNotFound() throws Exception {
+        String tableName = "T_NOT_FOUND";
+        String indexName = "I_NOT_FOUND";
+        Connection conn = getConnection();
+        try {
+            createTable(conn, tableName, indexName);
+            IndexMetaDataKeyCache keyCache = conn.unwrap(PhoenixConnection.class).getQueryServices().getIndexMetaDataKeyCache();
+            byte[] key = getIndexMetaDataKey(conn, tableName);
+            Set<String> servers = getAllRegionServers(conn, tableName);
+            // Pretend the region servers have the index maintainers, which they have never received,
+            // so that the first attempt fails with INDEX_METADATA_NOT_FOUND
+            keyCache.setCached(key, servers);
+            
+            upsertRows(conn, tableName, 0);
+            assertTrue(keyCache.isCached(key, servers));
+            assertIndexRows(conn, tableName, indexName, 0);
+        } finally {
+            conn.close();
+        }
+    }
+    
+    @Test
+    public void testRegionServersOfMutations() throws Exception {
+        String tableName = "T_SERVERS";
+        Connection conn = getConnection();
+        try {
+            conn.createStatement().execute("CREATE TABLE " + tableName + " (k VARCHAR NOT NULL PRIMARY KEY, v VARCHAR) SPLIT ON ('b', 'd')");
+            PhoenixConnection pconn = conn.unwrap(PhoenixConnection.class);
+            Set<String> servers = getAllRegionServers(conn, tableName);
+            List<Mutation> mutations = Lists.<Mutation>newArrayList(new Put(Bytes.toBytes("a")), new Put(Bytes.toBytes("c")), new Put(Bytes.toBytes("z")));
+            assertEquals(servers, IndexMetaDataCacheClient.getRegionServers(pconn, Bytes.toBytes(tableName), mutations));
+            assertTrue(IndexMetaDataCacheClient.getRegionServers(pconn, Bytes.toBytes(tableName), Lists.<Mutation>newArrayList()).isEmpty());
+        } finally {
+            conn.close();
+        }
+    }
+}
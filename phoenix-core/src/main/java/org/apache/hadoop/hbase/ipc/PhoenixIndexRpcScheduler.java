@@ -30,6 +30,9 @@ import com.google.common.annotations.VisibleForTesting;
  * We reserve the range (1000, 1050], by default (though it is configurable), for index priority
  * writes. Currently, we don't do any prioritization within that range - all index writes are
  * treated with the same priority and put into the same queue.
+ * <p>
+ * Optionally, a second range is reserved for large analytic scans, which are then served by their
+ * own handlers so that they cannot starve latency sensitive point lookups in the general queue.
  */
 public class PhoenixIndexRpcScheduler extends RpcScheduler {
 
@@ -43,9 +46,19 @@ public class PhoenixIndexRpcScheduler extends RpcScheduler {
     private int minPriority;
     private int maxPriority;
     private RpcExecutor callExecutor;
+    private int minAnalyticPriority;
+    private int maxAnalyticPriority;
+    private RpcExecutor analyticExecutor;
+    private Context context;
 
     public PhoenixIndexRpcScheduler(int indexHandlerCount, Configuration conf,
             RpcScheduler delegate, int minPriority, int maxPriority) {
+        this(indexHandlerCount, conf, delegate, minPriority, maxPriority, 0, 0, 0);
+    }
+
+    public PhoenixIndexRpcScheduler(int indexHandlerCount, Configuration conf,
+            RpcScheduler delegate, int minPriority, int maxPriority, int analyticHandlerCount,
+            int minAnalyticPriority, int maxAnalyticPriority) {
         int maxQueueLength =
                 conf.getInt("ipc.server.max.callqueue.length", indexHandlerCount
                         * DEFAULT_MAX_CALLQUEUE_LENGTH_PER_HANDLER);
@@ -62,22 +75,43 @@ public class PhoenixIndexRpcScheduler extends RpcScheduler {
         this.callExecutor =
                 new BalancedQueueRpcExecutor("Index", indexHandlerCount, numCallQueues,
                         maxQueueLength);
+
+        // no analytic handlers means analytic scans stay in the general queue
+        this.minAnalyticPriority = minAnalyticPriority;
+        this.maxAnalyticPriority = maxAnalyticPriority;
+        if (analyticHandlerCount > 0) {
+            int maxAnalyticQueueLength =
+                    conf.getInt("ipc.server.max.callqueue.length", analyticHandlerCount
+                            * DEFAULT_MAX_CALLQUEUE_LENGTH_PER_HANDLER);
+            int numAnalyticCallQueues =
+                    Math.max(1, Math.round(analyticHandlerCount * callQueuesHandlersFactor));
+            this.analyticExecutor =
+                    new BalancedQueueRpcExecutor("Analytic", analyticHandlerCount,
+                            numAnalyticCallQueues, maxAnalyticQueueLength);
+        }
     }
 
     @Override
     public void init(Context context) {
         delegate.init(context);
+        this.context = context;
     }
 
     @Override
     public void start() {
         delegate.start();
+        if (analyticExecutor != null) {
+            analyticExecutor.start(context.getListenerAddress().getPort());
+        }
     }
 
     @Override
     public void stop() {
         delegate.stop();
         callExecutor.stop();
+        if (analyticExecutor != null) {
+            analyticExecutor.stop();
+        }
     }
 
     @Override
@@ -86,6 +120,9 @@ public class PhoenixIndexRpcScheduler extends RpcScheduler {
         int priority = call.header.getPriority();
         if (minPriority <= priority && priority < maxPriority) {
             callExecutor.dispatch(callTask);
+        } else if (analyticExecutor != null && minAnalyticPriority <= priority
+                && priority < maxAnalyticPriority) {
+            analyticExecutor.dispatch(callTask);
         } else {
             delegate.dispatch(callTask);
         }
@@ -95,7 +132,8 @@ public class PhoenixIndexRpcScheduler extends RpcScheduler {
     public int getGeneralQueueLength() {
         // not the best way to calculate, but don't have a better way to hook
         // into metrics at the moment
-        return this.delegate.getGeneralQueueLength() + this.callExecutor.getQueueLength();
+        return this.delegate.getGeneralQueueLength() + this.callExecutor.getQueueLength()
+                + (this.analyticExecutor == null ? 0 : this.analyticExecutor.getQueueLength());
     }
 
     @Override
@@ -110,11 +148,17 @@ public class PhoenixIndexRpcScheduler extends RpcScheduler {
 
     @Override
     public int getActiveRpcHandlerCount() {
-        return this.delegate.getActiveRpcHandlerCount() + this.callExecutor.getActiveHandlerCount();
+        return this.delegate.getActiveRpcHandlerCount() + this.callExecutor.getActiveHandlerCount()
+                + (this.analyticExecutor == null ? 0 : this.analyticExecutor.getActiveHandlerCount());
     }
 
     @VisibleForTesting
     public void setExecutorForTesting(RpcExecutor executor) {
         this.callExecutor = executor;
     }
+
+    @VisibleForTesting
+    public void setAnalyticExecutorForTesting(RpcExecutor executor) {
+        this.analyticExecutor = executor;
+    }
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ import static org.apache.phoenix.query.QueryServices.MAX_MEMORY_SIZE_ATTRIB;
 import static org.apache.phoenix.query.QueryServices.MAX_MEMORY_WAIT_MS_ATTRIB;
 import static org.apache.phoenix.query.QueryServices.MAX_TENANT_MEMORY_PERC_ATTRIB;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
@@ -30,6 +31,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+import org.apache.phoenix.index.IndexMaintainer;
 import org.apache.phoenix.memory.ChildMemoryManager;
 import org.apache.phoenix.memory.GlobalMemoryManager;
 import org.apache.phoenix.query.QueryServices;
@@ -58,6 +60,8 @@ public class GlobalCache extends TenantCacheImpl {
     private final ConcurrentMap<ImmutableBytesWritable,TenantCache> perTenantCacheMap = new ConcurrentHashMap<ImmutableBytesWritable,TenantCache>();
     // Cache for lastest PTable for a given Phoenix table
     private Cache<ImmutableBytesPtr,PTable> metaDataCache;
+    // Cache for the deserialized index maintainers of a table, keyed by the index metadata key sent with mutations
+    private Cache<ImmutableBytesPtr,List<IndexMaintainer>> indexMaintainersCache;
     
     public void clearTenantCache() {
         perTenantCacheMap.clear();
@@ -95,6 +99,43 @@ public class GlobalCache extends TenantCacheImpl {
         return result;
     }
 
+    /**
+     * Get the cache of the deserialized index maintainers of the tables whose mutations were
+     * sent with a {@link org.apache.phoenix.index.PhoenixIndexCodec#INDEX_MD_KEY}. As the key
+     * changes whenever the index metadata of a table changes, entries are never invalidated
+     * and just age out.
+     */
+    public Cache<ImmutableBytesPtr,List<IndexMaintainer>> getIndexMaintainersCache() {
+        Cache<ImmutableBytesPtr,List<IndexMaintainer>> result = indexMaintainersCache;
+        if (result == null) {
+            synchronized(this) {
+                result = indexMaintainersCache;
+                if(result == null) {
+                    long maxTTL = config.getLong(
+                            QueryServices.MAX_SERVER_METADATA_CACHE_TIME_TO_LIVE_MS_ATTRIB,
+                            QueryServicesOptions.DEFAULT_MAX_SERVER_METADATA_CACHE_TIME_TO_LIVE_MS);
+                    long maxSize = config.getLong(QueryServices.MAX_SERVER_INDEX_MAINTAINER_CACHE_SIZE_ATTRIB,
+                            QueryServicesOptions.DEFAULT_MAX_SERVER_INDEX_MAINTAINER_CACHE_SIZE);
+                    indexMaintainersCache = result = CacheBuilder.newBuilder()
+                            .maximumWeight(maxSize)
+                            .expireAfterAccess(maxTTL, TimeUnit.MILLISECONDS)
+                            .weigher(new Weigher<ImmutableBytesPtr, List<IndexMaintainer>>() {
+                                @Override
+                                public int weigh(ImmutableBytesPtr key, List<IndexMaintainer> maintainers) {
+                                    int size = SizedUtil.IMMUTABLE_BYTES_PTR_SIZE + key.getLength();
+                                    for (IndexMaintainer maintainer : maintainers) {
+                                        size += maintainer.getEstimatedByteSize();
+                                    }
+                                    return size;
+                                }
+                            })
+                            .build();
+                }
+            }
+        }
+        return result;
+    }
+
     public static GlobalCache getInstance(RegionCoprocessorEnvironment env) {
         GlobalCache result = INSTANCE;
         if (result == null) {
@@ -121,6 +162,24 @@ public class GlobalCache extends TenantCacheImpl {
         return tenantCache;
     }
     
+    /**
+     * Get the tenant cache associated with the tenantId from the already initialized global cache.
+     * Used where no coprocessor environment is available, such as while deserializing an expression
+     * that refers to a server cache added before the scan was started.
+     * @param tenantId the tenant ID or null if not applicable.
+     * @return TenantCache or null if the global cache has not been initialized
+     */
+    public static TenantCache getTenantCache(ImmutableBytesWritable tenantId) {
+        GlobalCache globalCache;
+        synchronized(GlobalCache.class) {
+            globalCache = INSTANCE;
+        }
+        if (globalCache == null) {
+            return null;
+        }
+        return tenantId == null ? globalCache : globalCache.getChildTenantCache(tenantId);
+    }
+    
     private static long getMaxMemorySize(Configuration config) {
         long maxSize = Runtime.getRuntime().maxMemory() * 
                 config.getInt(MAX_MEMORY_PERC_ATTRIB, QueryServicesOptions.DEFAULT_MAX_MEMORY_PERC) / 100;
@@ -102,6 +102,7 @@ public class SpillableGroupByCache implements GroupByCache {
     // TODO Generally better to use Collection API with generics instead of
     // array types
     private final LinkedHashMap<ImmutableBytesWritable, Aggregator[]> cache;
+    private final ImmutableBytesPtr lookupKey = new ImmutableBytesPtr();
     private SpillManager spillManager = null;
     private long totalNumElements;
     private final ServerAggregators aggregators;
@@ -218,9 +219,11 @@ public class SpillableGroupByCache implements GroupByCache {
      */
     @Override
     public Aggregator[] cache(ImmutableBytesWritable cacheKey) {
-        ImmutableBytesPtr key = new ImmutableBytesPtr(cacheKey);
-        Aggregator[] rowAggregators = cache.get(key);
+        lookupKey.set(cacheKey);
+        Aggregator[] rowAggregators = cache.get(lookupKey);
         if (rowAggregators == null) {
+            // Copy the key, as it may point to scratch space reused for the next row
+            ImmutableBytesPtr key = new ImmutableBytesPtr(cacheKey.copyBytes());
             // If Aggregators not found for this distinct
             // value, clone our original one (we need one
             // per distinct value)
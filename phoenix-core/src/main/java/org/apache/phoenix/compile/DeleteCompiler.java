@@ -23,7 +23,6 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.hadoop.hbase.Cell;
@@ -38,6 +37,7 @@ import org.apache.phoenix.exception.SQLExceptionCode;
 import org.apache.phoenix.exception.SQLExceptionInfo;
 import org.apache.phoenix.execute.AggregatePlan;
 import org.apache.phoenix.execute.BaseQueryPlan;
+import org.apache.phoenix.execute.MutationBuffer;
 import org.apache.phoenix.execute.MutationState;
 import org.apache.phoenix.filter.SkipScanFilter;
 import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
@@ -67,7 +67,6 @@ import org.apache.phoenix.schema.PColumn;
 import org.apache.phoenix.schema.PDataType;
 import org.apache.phoenix.schema.PIndexState;
 import org.apache.phoenix.schema.PName;
-import org.apache.phoenix.schema.PRow;
 import org.apache.phoenix.schema.PTable;
 import org.apache.phoenix.schema.PTableKey;
 import org.apache.phoenix.schema.PTableType;
@@ -80,7 +79,6 @@ import org.apache.phoenix.util.ScanUtil;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.sun.istack.NotNull;
 
@@ -106,12 +104,12 @@ public class DeleteCompiler {
         ConnectionQueryServices services = connection.getQueryServices();
         final int maxSize = services.getProps().getInt(QueryServices.MAX_MUTATION_SIZE_ATTRIB,QueryServicesOptions.DEFAULT_MAX_MUTATION_SIZE);
         final int batchSize = Math.min(connection.getMutateBatchSize(), maxSize);
-        Map<ImmutableBytesPtr,Map<PColumn,byte[]>> mutations = Maps.newHashMapWithExpectedSize(batchSize);
-        Map<ImmutableBytesPtr,Map<PColumn,byte[]>> indexMutations = null;
+        MutationBuffer mutations = new MutationBuffer(batchSize);
+        MutationBuffer indexMutations = null;
         // If indexTableRef is set, we're deleting the rows from both the index table and
         // the data table through a single query to save executing an additional one.
         if (indexTableRef != null) {
-            indexMutations = Maps.newHashMapWithExpectedSize(batchSize);
+            indexMutations = new MutationBuffer(batchSize);
         }
         try {
             List<PColumn> pkColumns = table.getPKColumns();
@@ -127,8 +125,8 @@ public class DeleteCompiler {
             }
             PhoenixResultSet rs = new PhoenixResultSet(iterator, projector, statement);
             int rowCount = 0;
+            ImmutableBytesPtr ptr = new ImmutableBytesPtr(); // reused, as the buffer copies the row key
             while (rs.next()) {
-                ImmutableBytesPtr ptr = new ImmutableBytesPtr();  // allocate new as this is a key in a Map
                 // Use tuple directly, as projector would not have all the PK columns from
                 // our index table inside of our projection. Since the tables are equal,
                 // there's no transation required.
@@ -147,11 +145,10 @@ public class DeleteCompiler {
                     }
                     table.newKey(ptr, values);
                 }
-                mutations.put(ptr, PRow.DELETE_MARKER);
+                mutations.deleteRow(ptr);
                 if (indexTableRef != null) {
-                    ImmutableBytesPtr indexPtr = new ImmutableBytesPtr(); // allocate new as this is a key in a Map
-                    rs.getCurrentRow().getKey(indexPtr);
-                    indexMutations.put(indexPtr, PRow.DELETE_MARKER);
+                    rs.getCurrentRow().getKey(ptr);
+                    indexMutations.deleteRow(ptr);
                 }
                 if (mutations.size() > maxSize) {
                     throw new IllegalArgumentException("MutationState size of " + mutations.size() + " is bigger than max allowed size of " + maxSize);
@@ -429,9 +426,11 @@ public class DeleteCompiler {
                         // keys for our ranges
                         ScanRanges ranges = context.getScanRanges();
                         Iterator<KeyRange> iterator = ranges.getPointLookupKeyIterator(); 
-                        Map<ImmutableBytesPtr,Map<PColumn,byte[]>> mutation = Maps.newHashMapWithExpectedSize(ranges.getPointLookupCount());
+                        MutationBuffer mutation = new MutationBuffer(ranges.getPointLookupCount());
+                        ImmutableBytesPtr ptr = new ImmutableBytesPtr();
                         while (iterator.hasNext()) {
-                            mutation.put(new ImmutableBytesPtr(iterator.next().getLowerRange()), PRow.DELETE_MARKER);
+                            ptr.set(iterator.next().getLowerRange());
+                            mutation.deleteRow(ptr);
                         }
                         return new MutationState(tableRef, mutation, 0, maxSize, connection);
                     }
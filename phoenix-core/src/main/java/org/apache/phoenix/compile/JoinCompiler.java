@@ -701,7 +701,7 @@ public class JoinCompiler {
             for (ColumnRef columnRef : columnRefs.keySet()) {
                 if (columnRef.getTableRef().equals(tableRef)
                         && !SchemaUtil.isPKColumn(columnRef.getColumn())) {
-                    scan.addColumn(columnRef.getColumn().getFamilyName().getBytes(), columnRef.getColumn().getName().getBytes());
+                    scan.addColumn(columnRef.getColumn().getFamilyName().getBytes(), SchemaUtil.getColumnQualifier(tableRef.getTable(), columnRef.getColumn()));
                 }
             }
         }
@@ -83,6 +83,11 @@ public abstract class MutatingParallelIteratorFactory implements ParallelIterato
                 return tuple;
             }
 
+            @Override
+            public boolean isReadAheadSafe() {
+                return true;
+            }
+
             @Override
             public void explain(List<String> planSteps) {
             }
@@ -75,6 +75,7 @@ import org.apache.phoenix.schema.PDatum;
 import org.apache.phoenix.schema.PName;
 import org.apache.phoenix.schema.PTable;
 import org.apache.phoenix.schema.PTable.IndexType;
+import org.apache.phoenix.schema.PTable.StorageScheme;
 import org.apache.phoenix.schema.PTable.ViewType;
 import org.apache.phoenix.schema.PTableKey;
 import org.apache.phoenix.schema.PTableType;
@@ -397,18 +398,21 @@ public class ProjectionCompiler {
         int estimatedByteSize = 0;
         for (Map.Entry<byte[],NavigableSet<byte[]>> entry : scan.getFamilyMap().entrySet()) {
             PColumnFamily family = table.getColumnFamily(entry.getKey());
-            if (entry.getValue() == null) {
+            if (table.getStorageScheme() == StorageScheme.PACKED_CELL) {
+                // The values of all columns of the family come back in a single packed cell
+                int byteSize = 0;
                 for (PColumn column : family.getColumns()) {
-                    Integer maxLength = column.getMaxLength();
-                    int byteSize = column.getDataType().isFixedWidth() ? maxLength == null ? column.getDataType().getByteSize() : maxLength : RowKeySchema.ESTIMATED_VARIABLE_LENGTH_SIZE;
-                    estimatedByteSize += SizedUtil.KEY_VALUE_SIZE + estimatedKeySize + byteSize;
+                    byteSize += estimateValueSize(column);
+                }
+                estimatedByteSize += SizedUtil.KEY_VALUE_SIZE + estimatedKeySize + byteSize;
+            } else if (entry.getValue() == null) {
+                for (PColumn column : family.getColumns()) {
+                    estimatedByteSize += SizedUtil.KEY_VALUE_SIZE + estimatedKeySize + estimateValueSize(column);
                 }
             } else {
                 for (byte[] cq : entry.getValue()) {
                     PColumn column = family.getColumn(cq);
-                    Integer maxLength = column.getMaxLength();
-                    int byteSize = column.getDataType().isFixedWidth() ? maxLength == null ? column.getDataType().getByteSize() : maxLength : RowKeySchema.ESTIMATED_VARIABLE_LENGTH_SIZE;
-                    estimatedByteSize += SizedUtil.KEY_VALUE_SIZE + estimatedKeySize + byteSize;
+                    estimatedByteSize += SizedUtil.KEY_VALUE_SIZE + estimatedKeySize + estimateValueSize(column);
                 }
             }
         }
@@ -426,6 +430,11 @@ public class ProjectionCompiler {
         return new RowProjector(projectedColumns, estimatedByteSize, isProjectEmptyKeyValue);
     }
 
+    private static int estimateValueSize(PColumn column) {
+        Integer maxLength = column.getMaxLength();
+        return column.getDataType().isFixedWidth() ? maxLength == null ? column.getDataType().getByteSize() : maxLength : RowKeySchema.ESTIMATED_VARIABLE_LENGTH_SIZE;
+    }
+
     private static void projectAllColumnFamilies(PTable table, Scan scan) {
         // Will project all known/declared column families
         scan.getFamilyMap().clear();
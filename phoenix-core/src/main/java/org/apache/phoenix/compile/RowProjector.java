@@ -21,7 +21,12 @@ import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
 
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.expression.KeyValueColumnExpression;
+import org.apache.phoenix.expression.visitor.KeyValueExpressionVisitor;
 import org.apache.phoenix.schema.ColumnNotFoundException;
 import org.apache.phoenix.util.SchemaUtil;
 
@@ -125,4 +130,42 @@ public class RowProjector {
     public int getEstimatedRowByteSize() {
         return estimatedSize;
     }
+
+    /**
+     * Set the position at which the KeyValue of each column referenced by the projection
+     * is expected to be in a row returned by a scan projecting the given columns, since
+     * the KeyValues are returned sorted by column family and qualifier. Positions are only
+     * known for the column families preceding the first one projected in its entirety.
+     * @param familyMap the column families and qualifiers projected into the scan
+     */
+    public void setColumnPositions(final Map<byte[], NavigableSet<byte[]>> familyMap) {
+        final Map<byte[], Integer> familyOffsets = new TreeMap<byte[], Integer>(Bytes.BYTES_COMPARATOR);
+        int offset = 0;
+        for (Map.Entry<byte[], NavigableSet<byte[]>> entry : familyMap.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                break;
+            }
+            familyOffsets.put(entry.getKey(), offset);
+            offset += entry.getValue().size();
+        }
+        if (familyOffsets.isEmpty()) {
+            return;
+        }
+        KeyValueExpressionVisitor visitor = new KeyValueExpressionVisitor() {
+            @Override
+            public Void visit(KeyValueColumnExpression node) {
+                Integer familyOffset = familyOffsets.get(node.getColumnFamily());
+                if (familyOffset != null) {
+                    NavigableSet<byte[]> qualifiers = familyMap.get(node.getColumnFamily());
+                    if (qualifiers.contains(node.getColumnName())) {
+                        node.setPosition(familyOffset + qualifiers.headSet(node.getColumnName()).size());
+                    }
+                }
+                return null;
+            }
+        };
+        for (ColumnProjector projector : columnProjectors) {
+            projector.getExpression().accept(visitor);
+        }
+    }
 }
\ No newline at end of file
@@ -74,6 +74,7 @@ public class StatementContext {
     private TableRef currentTable;
     private List<Pair<byte[], byte[]>> whereConditionColumns;
     private TimeRange scanTimeRange = null;
+    private boolean isAnalyticScan = false;
 
     private Map<SelectStatement, Object> subqueryResults;
 
@@ -246,6 +247,17 @@ public class StatementContext {
     	this.scanTimeRange = value;
     }
 
+    /**
+     * @return true if the scan is a large analytic scan, which is sent with the analytic RPC priority
+     */
+    public boolean isAnalyticScan() {
+        return isAnalyticScan;
+    }
+
+    public void setAnalyticScan(boolean isAnalyticScan) {
+        this.isAnalyticScan = isAnalyticScan;
+    }
+
     public TimeRange getScanTimeRange() {
     	return this.scanTimeRange;
     }
@@ -26,13 +26,13 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.cache.ServerCacheClient;
 import org.apache.phoenix.cache.ServerCacheClient.ServerCache;
 import org.apache.phoenix.compile.GroupByCompiler.GroupBy;
 import org.apache.phoenix.compile.OrderByCompiler.OrderBy;
@@ -41,6 +41,7 @@ import org.apache.phoenix.coprocessor.UngroupedAggregateRegionObserver;
 import org.apache.phoenix.exception.SQLExceptionCode;
 import org.apache.phoenix.exception.SQLExceptionInfo;
 import org.apache.phoenix.execute.AggregatePlan;
+import org.apache.phoenix.execute.MutationBuffer;
 import org.apache.phoenix.execute.MutationState;
 import org.apache.phoenix.expression.Determinism;
 import org.apache.phoenix.expression.Expression;
@@ -91,12 +92,10 @@ import org.apache.phoenix.util.ScanUtil;
 import org.apache.phoenix.util.SchemaUtil;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 public class UpsertCompiler {
-    private static void setValues(byte[][] values, int[] pkSlotIndex, int[] columnIndexes, PTable table, Map<ImmutableBytesPtr,Map<PColumn,byte[]>> mutation) {
-        Map<PColumn,byte[]> columnValues = Maps.newHashMapWithExpectedSize(columnIndexes.length);
+    private static void setValues(byte[][] values, int[] pkSlotIndex, int[] columnIndexes, PTable table, MutationBuffer mutation) {
         byte[][] pkValues = new byte[table.getPKColumns().size()][];
         // If the table uses salting, the first byte is the salting byte, set to an empty array
         // here and we will fill in the byte later in PRowImpl.
@@ -108,13 +107,17 @@ public class UpsertCompiler {
             PColumn column = table.getColumns().get(columnIndexes[i]);
             if (SchemaUtil.isPKColumn(column)) {
                 pkValues[pkSlotIndex[i]] = value;
-            } else {
-                columnValues.put(column, value);
             }
         }
         ImmutableBytesPtr ptr = new ImmutableBytesPtr();
         table.newKey(ptr, pkValues);
-        mutation.put(ptr, columnValues);
+        int row = mutation.addRow(ptr);
+        for (int i = 0; i < values.length; i++) {
+            PColumn column = table.getColumns().get(columnIndexes[i]);
+            if (!SchemaUtil.isPKColumn(column)) {
+                mutation.setValue(row, column, values[i]);
+            }
+        }
     }
 
     private static MutationState upsertSelect(PhoenixStatement statement, 
@@ -128,7 +131,7 @@ public class UpsertCompiler {
             boolean isAutoCommit = connection.getAutoCommit();
             byte[][] values = new byte[columnIndexes.length][];
             int rowCount = 0;
-            Map<ImmutableBytesPtr,Map<PColumn,byte[]>> mutation = Maps.newHashMapWithExpectedSize(batchSize);
+            MutationBuffer mutation = new MutationBuffer(batchSize);
             PTable table = tableRef.getTable();
             ResultSet rs = new PhoenixResultSet(iterator, projector, statement);
             ImmutableBytesWritable ptr = new ImmutableBytesWritable();
@@ -236,6 +239,7 @@ public class UpsertCompiler {
         int nValuesToSet;
         boolean sameTable = false;
         boolean runOnServer = false;
+        TableRef selectTableRef = null;
         UpsertingParallelIteratorFactory parallelIteratorFactoryToBe = null;
         // Retry once if auto commit is off, as the meta data may
         // be out of date. We do not retry if auto commit is on, as we
@@ -381,11 +385,12 @@ public class UpsertCompiler {
                         selectResolver = FromCompiler.getResolverForQuery(transformedSelect, connection);
                         select = StatementNormalizer.normalize(transformedSelect, selectResolver);
                     }
-                    sameTable = !select.isJoin()
-                        && tableRefToBe.equals(selectResolver.getTables().get(0));
+                    selectTableRef = select.isJoin() ? null : selectResolver.getTables().get(0);
+                    sameTable = tableRefToBe.equals(selectTableRef);
                     tableRefToBe = adjustTimestampToMinOfSameTable(tableRefToBe, selectResolver.getTables());
                     /* We can run the upsert in a coprocessor if:
-                     * 1) from has only 1 table and the into table matches from table
+                     * 1) from has only 1 table and the into table matches from table, or the into table
+                     *    differs and the rows may be written from the regions to the into table
                      * 2) the select query isn't doing aggregation (which requires a client-side final merge)
                      * 3) autoCommit is on
                      * 4) the table is not immutable with indexes, as the client is the one that figures out the additional
@@ -402,7 +407,10 @@ public class UpsertCompiler {
                         parallelIteratorFactoryToBe = new UpsertingParallelIteratorFactory(connection, tableRefToBe);
                         // If we're in the else, then it's not an aggregate, distinct, limted, or sequence using query,
                         // so we might be able to run it entirely on the server side.
-                        runOnServer = sameTable && isAutoCommit && !(table.isImmutableRows() && !table.getIndexes().isEmpty());
+                        boolean writeFromServer = sameTable || (selectTableRef != null
+                                && !selectTableRef.getTable().getPhysicalName().equals(table.getPhysicalName())
+                                && services.getProps().getBoolean(QueryServices.UPSERT_SELECT_ON_SERVER_ATTRIB, QueryServicesOptions.DEFAULT_UPSERT_SELECT_ON_SERVER));
+                        runOnServer = writeFromServer && isAutoCommit && !(table.isImmutableRows() && !table.getIndexes().isEmpty());
                     }
                     // If we may be able to run on the server, add a hint that favors using the data table
                     // if all else is equal.
@@ -475,7 +483,7 @@ public class UpsertCompiler {
         if (valueNodes == null) {
             queryPlanToBe = new QueryOptimizer(services).optimize(queryPlanToBe, statement, targetColumns, parallelIteratorFactoryToBe);
             projectorToBe = queryPlanToBe.getProjector();
-            runOnServer &= queryPlanToBe.getTableRef().equals(tableRefToBe);
+            runOnServer &= queryPlanToBe.getTableRef().equals(selectTableRef);
         }
         final List<PColumn> allColumns = allColumnsToBe;
         final RowProjector projector = projectorToBe;
@@ -542,7 +550,8 @@ public class UpsertCompiler {
                 }
                 // If any pk slots are changing, be conservative and don't run this server side.
                 // If the row ends up living in a different region, we'll get an error otherwise.
-                for (int i = 0; i < table.getPKColumns().size(); i++) {
+                // When upserting into a different table, the rows are always written remotely.
+                for (int i = 0; sameTable && i < table.getPKColumns().size(); i++) {
                     PColumn column = table.getPKColumns().get(i);
                     Expression source = projectedExpressions.get(i);
                     if (source == null || !source.equals(new ColumnRef(tableRef, column.getPosition()).newColumnExpression())) {
@@ -579,8 +588,13 @@ public class UpsertCompiler {
                     final Scan scan = context.getScan();
                     scan.setAttribute(BaseScannerRegionObserver.UPSERT_SELECT_TABLE, UngroupedAggregateRegionObserver.serialize(projectedTable));
                     scan.setAttribute(BaseScannerRegionObserver.UPSERT_SELECT_EXPRS, UngroupedAggregateRegionObserver.serialize(projectedExpressions));
+                    if (!sameTable) {
+                        // Each region writes its rows to the into table in batches instead of to itself
+                        scan.setAttribute(BaseScannerRegionObserver.UPSERT_SELECT_TARGET_TABLE, table.getPhysicalName().getBytes());
+                    }
+                    final boolean isSameTable = sameTable;
                     // Ignore order by - it has no impact
-                    final QueryPlan aggPlan = new AggregatePlan(context, select, tableRef, aggProjector, null, OrderBy.EMPTY_ORDER_BY, null, GroupBy.EMPTY_GROUP_BY, null);
+                    final QueryPlan aggPlan = new AggregatePlan(context, select, queryPlan.getTableRef(), aggProjector, null, OrderBy.EMPTY_ORDER_BY, null, GroupBy.EMPTY_GROUP_BY, null);
                     return new MutationPlan() {
     
                         @Override
@@ -605,10 +619,23 @@ public class UpsertCompiler {
                             ServerCache cache = null;
                             try {
                                 if (ptr.getLength() > 0) {
-                                    IndexMetaDataCacheClient client = new IndexMetaDataCacheClient(connection, tableRef);
-                                    cache = client.addIndexMetadataCache(context.getScanRanges(), ptr);
-                                    byte[] uuidValue = cache.getId();
-                                    scan.setAttribute(PhoenixIndexCodec.INDEX_UUID, uuidValue);
+                                    if (isSameTable) {
+                                        IndexMetaDataCacheClient client = new IndexMetaDataCacheClient(connection, tableRef);
+                                        cache = client.addIndexMetadataCache(context.getScanRanges(), ptr);
+                                        byte[] uuidValue = cache.getId();
+                                        scan.setAttribute(PhoenixIndexCodec.INDEX_UUID, uuidValue);
+                                    } else {
+                                        // The rows of a different table may be written to any of its regions, so
+                                        // rather than sending the index metadata to all of them up front, the
+                                        // regions set it on the mutations they write. The key lets the region
+                                        // servers of the into table deserialize it only once.
+                                        scan.setAttribute(PhoenixIndexCodec.INDEX_UUID, ServerCacheClient.generateId());
+                                        scan.setAttribute(PhoenixIndexCodec.INDEX_MD, ByteUtil.copyKeyBytesIfNecessary(ptr));
+                                        byte[] indexMetaDataKey = IndexMetaDataCacheClient.getIndexMetaDataKey(connection, tableRef.getTable(), ptr);
+                                        if (indexMetaDataKey != null) {
+                                            scan.setAttribute(PhoenixIndexCodec.INDEX_MD_KEY, indexMetaDataKey);
+                                        }
+                                    }
                                 }
                                 ResultIterator iterator = aggPlan.iterator();
                                 try {
@@ -796,7 +823,7 @@ public class UpsertCompiler {
                         throw new IllegalStateException();
                     }
                 }
-                Map<ImmutableBytesPtr, Map<PColumn, byte[]>> mutation = Maps.newHashMapWithExpectedSize(1);
+                MutationBuffer mutation = new MutationBuffer(1);
                 setValues(values, pkSlotIndexes, columnIndexes, tableRef.getTable(), mutation);
                 return new MutationState(tableRef, mutation, 0, maxSize, connection);
             }
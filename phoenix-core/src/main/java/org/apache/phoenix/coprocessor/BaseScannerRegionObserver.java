@@ -48,6 +48,7 @@ abstract public class BaseScannerRegionObserver extends BaseRegionObserver {
     public static final String DELETE_AGG = "_DeleteAgg";
     public static final String UPSERT_SELECT_TABLE = "_UpsertSelectTable";
     public static final String UPSERT_SELECT_EXPRS = "_UpsertSelectExprs";
+    public static final String UPSERT_SELECT_TARGET_TABLE = "_UpsertSelectTargetTable";
     public static final String DELETE_CQ = "_DeleteCQ";
     public static final String DELETE_CF = "_DeleteCF";
     public static final String EMPTY_CF = "_EmptyCF";
@@ -55,6 +56,7 @@ abstract public class BaseScannerRegionObserver extends BaseRegionObserver {
     public static final String GROUP_BY_LIMIT = "_GroupByLimit";
     public static final String LOCAL_INDEX = "_LocalIndex";
     public static final String LOCAL_INDEX_BUILD = "_LocalIndexBuild";
+    public static final String GLOBAL_INDEX_BUILD = "_GlobalIndexBuild";
     public static final String LOCAL_INDEX_JOIN_SCHEMA = "_LocalIndexJoinSchema";
     public static final String DATA_TABLE_COLUMNS_TO_JOIN = "_DataTableColumnsToJoin";
     public static final String VIEW_CONSTANTS = "_ViewConstants";
@@ -72,6 +72,7 @@ import org.apache.phoenix.util.KeyValueUtil;
 import org.apache.phoenix.util.LogUtil;
 import org.apache.phoenix.util.ScanUtil;
 import org.apache.phoenix.util.SizedUtil;
+import org.apache.phoenix.util.TrustedByteArrayOutputStream;
 import org.apache.phoenix.util.TupleUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -234,6 +235,7 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
     private static final class InMemoryGroupByCache implements GroupByCache {
         private final MemoryChunk chunk;
         private final Map<ImmutableBytesPtr, Aggregator[]> aggregateMap;
+        private final ImmutableBytesPtr lookupKey = new ImmutableBytesPtr();
         private final ServerAggregators aggregators;
         private final RegionCoprocessorEnvironment env;
         private final byte[] customAnnotations;
@@ -259,9 +261,11 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
 
         @Override
         public Aggregator[] cache(ImmutableBytesWritable cacheKey) {
-            ImmutableBytesPtr key = new ImmutableBytesPtr(cacheKey);
-            Aggregator[] rowAggregators = aggregateMap.get(key);
+            lookupKey.set(cacheKey);
+            Aggregator[] rowAggregators = aggregateMap.get(lookupKey);
             if (rowAggregators == null) {
+                // Copy the key, as it may point to scratch space reused for the next row
+                ImmutableBytesPtr key = new ImmutableBytesPtr(cacheKey.copyBytes());
                 // If Aggregators not found for this distinct
                 // value, clone our original one (we need one
                 // per distinct value)
@@ -402,6 +406,9 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
                         env, ScanUtil.getTenantId(scan), ScanUtil.getCustomAnnotations(scan),
                         aggregators, estDistVals);
         ImmutableBytesWritable tempPtr = new ImmutableBytesWritable();
+        // The group by cache copies the key when it retains it, so scratch space may be used for it
+        ImmutableBytesWritable key = new ImmutableBytesWritable();
+        TrustedByteArrayOutputStream keyOutput = new TrustedByteArrayOutputStream(0);
         boolean success = false;
         try {
             boolean hasMore;
@@ -429,8 +436,7 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
                                 viewConstants, tempPtr);
                         }
                         result.setKeyValues(results);
-                        ImmutableBytesWritable key =
-                                TupleUtil.getConcatenatedValue(result, expressions);
+                        TupleUtil.getConcatenatedValue(result, expressions, key, keyOutput);
                         Aggregator[] rowAggregators = groupByCache.cache(key);
                         // Aggregate values here
                         aggregators.aggregate(rowAggregators, result);
@@ -45,6 +45,7 @@ import org.apache.phoenix.schema.KeyValueSchema;
 import org.apache.phoenix.schema.ValueBitSet;
 import org.apache.phoenix.schema.tuple.ResultTuple;
 import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.util.TrustedByteArrayOutputStream;
 import org.apache.phoenix.util.TupleUtil;
 
 public class HashJoinRegionScanner implements RegionScanner {
@@ -60,6 +61,9 @@ public class HashJoinRegionScanner implements RegionScanner {
     private List<Tuple>[] tempTuples;
     private ValueBitSet tempDestBitSet;
     private ValueBitSet[] tempSrcBitSet;
+    // Scratch space for the join keys, which are only used for hash cache lookups
+    private final ImmutableBytesPtr tempKey = new ImmutableBytesPtr();
+    private final TrustedByteArrayOutputStream tempKeyOutput = new TrustedByteArrayOutputStream(0);
     
     @SuppressWarnings("unchecked")
     public HashJoinRegionScanner(RegionScanner scanner, TupleProjector projector, HashJoinInfo joinInfo, ImmutableBytesWritable tenantId, RegionCoprocessorEnvironment env) throws IOException {
@@ -127,8 +131,8 @@ public class HashJoinRegionScanner implements RegionScanner {
         for (int i = 0; i < count; i++) {
             if (!(joinInfo.earlyEvaluation()[i]) || hashCaches[i] == null)
                 continue;
-            ImmutableBytesPtr key = TupleUtil.getConcatenatedValue(tuple, joinInfo.getJoinExpressions()[i]);
-            tempTuples[i] = hashCaches[i].get(key);
+            TupleUtil.getConcatenatedValue(tuple, joinInfo.getJoinExpressions()[i], tempKey, tempKeyOutput);
+            tempTuples[i] = hashCaches[i].get(tempKey);
             JoinType type = joinInfo.getJoinTypes()[i];
             if (((type == JoinType.Inner || type == JoinType.Semi) && tempTuples[i] == null)
                     || (type == JoinType.Anti && tempTuples[i] != null)) {
@@ -160,8 +164,8 @@ public class HashJoinRegionScanner implements RegionScanner {
                     while (j-- > 0) {
                         Tuple lhs = resultQueue.poll();
                         if (!earlyEvaluation) {
-                            ImmutableBytesPtr key = TupleUtil.getConcatenatedValue(lhs, joinInfo.getJoinExpressions()[i]);
-                            tempTuples[i] = hashCaches[i].get(key);                        	
+                            TupleUtil.getConcatenatedValue(lhs, joinInfo.getJoinExpressions()[i], tempKey, tempKeyOutput);
+                            tempTuples[i] = hashCaches[i].get(tempKey);                        	
                             if (tempTuples[i] == null) {
                                 if (type == JoinType.Inner || type == JoinType.Semi) {
                                     continue;
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.coprocessor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
+import org.apache.hadoop.hbase.regionserver.HRegion;
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.query.QueryServicesOptions;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * 
+ * Double buffered writer for the mutations produced by server-side UPSERT SELECT,
+ * DELETE and index builds. While one batch is being written on a background thread,
+ * the scan keeps filling the next one, so a region never runs more than one batch
+ * ahead of the table being written to. The batch size adapts to the memstore pressure
+ * of the region being written: it grows while the memstore is well below its flush
+ * size and shrinks as it approaches it.
+ *
+ * 
+ * @since 5.0.0
+ */
+abstract class MutationPipeline {
+    // Memstore fill ratios below and above which the batch size is grown or shrunk
+    private static final double LOW_MEMSTORE_PRESSURE = 0.5;
+    private static final double HIGH_MEMSTORE_PRESSURE = 0.9;
+    private static final int MIN_BATCH_SIZE_DIVISOR = 4;
+    private static final int INITIAL_BATCH_CAPACITY = 1024;
+    
+    private static volatile ExecutorService executor;
+    
+    private final boolean isPipelined;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private int batchSize;
+    private List<Mutation> batch;
+    private Future<Void> inFlightBatch;
+    
+    protected MutationPipeline(Configuration config, int batchSize) {
+        this.isPipelined = config.getBoolean(QueryServices.SERVER_MUTATE_PIPELINED_ATTRIB, QueryServicesOptions.DEFAULT_SERVER_MUTATE_PIPELINED);
+        // A non positive batch size means all mutations are written when the pipeline is closed
+        this.batchSize = batchSize > 0 ? batchSize : Integer.MAX_VALUE;
+        this.minBatchSize = Math.max(1, this.batchSize / MIN_BATCH_SIZE_DIVISOR);
+        this.maxBatchSize = Math.max(this.batchSize, config.getInt(QueryServices.SERVER_MUTATE_MAX_BATCH_SIZE_ATTRIB, QueryServicesOptions.DEFAULT_SERVER_MUTATE_MAX_BATCH_SIZE));
+        this.batch = newBatch();
+    }
+    
+    /**
+     * Write the mutations synchronously
+     */
+    protected abstract void commit(List<Mutation> mutations) throws IOException;
+    
+    /**
+     * @return the fraction of the memstore flush size currently in use by the region
+     * being written to or -1 if it is not known, in which case the batch size is not adapted.
+     */
+    protected double getMemstorePressure() {
+        return -1;
+    }
+    
+    private List<Mutation> newBatch() {
+        return Lists.newArrayListWithExpectedSize(Math.min(batchSize, INITIAL_BATCH_CAPACITY));
+    }
+    
+    private static ExecutorService getExecutor() {
+        ExecutorService result = executor;
+        if (result == null) {
+            synchronized (MutationPipeline.class) {
+                result = executor;
+                if (result == null) {
+                    // At most one batch per scan is in flight, so the number of threads is bounded
+                    // by the number of handlers running server-side mutations.
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                            new SynchronousQueue<Runnable>(), new ThreadFactoryBuilder()
+                                .setNameFormat("phoenix-server-mutation-%s")
+                                .setDaemon(true)
+                                .build());
+                    executor = result = pool;
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Add a mutation to the batch being filled, handing the batch off to be written
+     * once it reaches the current batch size.
+     */
+    public void add(Mutation mutation) throws IOException {
+        batch.add(mutation);
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    /**
+     * Hand off the batch being filled to be written. Waits for the previously handed
+     * off batch to be written first, surfacing any failure it had.
+     */
+    public void flush() throws IOException {
+        waitForInFlightBatch();
+        if (batch.isEmpty()) {
+            return;
+        }
+        final List<Mutation> mutations = batch;
+        batch = newBatch();
+        if (isPipelined) {
+            inFlightBatch = getExecutor().submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    commit(mutations);
+                    return null;
+                }
+            });
+        } else {
+            commit(mutations);
+            adaptBatchSize();
+        }
+    }
+    
+    /**
+     * Write any remaining mutations and wait until all of them have been written.
+     */
+    public void close() throws IOException {
+        flush();
+        waitForInFlightBatch();
+    }
+    
+    /**
+     * Wait for the batch in flight, if any, without surfacing its failure. Used
+     * when the scan itself failed and its exception takes precedence.
+     */
+    public void abort() {
+        try {
+            waitForInFlightBatch();
+        } catch (IOException e) {
+            // Ignore, as the caller is already failing
+        }
+    }
+    
+    private void waitForInFlightBatch() throws IOException {
+        if (inFlightBatch == null) {
+            return;
+        }
+        Future<Void> future = inFlightBatch;
+        inFlightBatch = null;
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            throw new IOException(cause);
+        }
+        adaptBatchSize();
+    }
+    
+    private void adaptBatchSize() {
+        batchSize = getAdaptedBatchSize(batchSize, minBatchSize, maxBatchSize, getMemstorePressure());
+    }
+    
+    static int getAdaptedBatchSize(int batchSize, int minBatchSize, int maxBatchSize, double memstorePressure) {
+        if (memstorePressure < 0) {
+            return batchSize;
+        }
+        if (memstorePressure < LOW_MEMSTORE_PRESSURE) {
+            return (int)Math.min(maxBatchSize, batchSize * 2L);
+        }
+        if (memstorePressure > HIGH_MEMSTORE_PRESSURE) {
+            return Math.max(minBatchSize, batchSize / 2);
+        }
+        return batchSize;
+    }
+    
+    /**
+     * Pipeline writing to a region hosted by this region server through {@link HRegion#batchMutate(Mutation[])}
+     */
+    static class RegionMutationPipeline extends MutationPipeline {
+        private final HRegion region;
+        private final byte[] indexUUID;
+        private final long memstoreFlushSize;
+        
+        RegionMutationPipeline(Configuration config, int batchSize, HRegion region, byte[] indexUUID) {
+            super(config, batchSize);
+            this.region = region;
+            this.indexUUID = indexUUID;
+            HTableDescriptor tableDesc = region.getTableDesc();
+            long flushSize = tableDesc == null ? -1 : tableDesc.getMemStoreFlushSize();
+            this.memstoreFlushSize = flushSize > 0 ? flushSize :
+                config.getLong(HConstants.HREGION_MEMSTORE_FLUSH_SIZE, HTableDescriptor.DEFAULT_MEMSTORE_FLUSH_SIZE);
+        }
+
+        @Override
+        protected void commit(List<Mutation> mutations) throws IOException {
+            UngroupedAggregateRegionObserver.commitBatch(region, mutations, indexUUID);
+        }
+        
+        @Override
+        protected double getMemstorePressure() {
+            return memstoreFlushSize <= 0 ? -1 : (double)region.getMemstoreSize().get() / memstoreFlushSize;
+        }
+    }
+    
+    /**
+     * Pipeline writing to another table, possibly hosted by other region servers
+     */
+    static class TableMutationPipeline extends MutationPipeline {
+        private final RegionCoprocessorEnvironment env;
+        private final byte[] tableName;
+        private final byte[] indexUUID;
+        private final byte[] indexMetaData;
+        private final byte[] indexMetaDataKey;
+        
+        TableMutationPipeline(RegionCoprocessorEnvironment env, int batchSize, byte[] tableName, byte[] indexUUID, byte[] indexMetaData, byte[] indexMetaDataKey) {
+            super(env.getConfiguration(), batchSize);
+            this.env = env;
+            this.tableName = tableName;
+            this.indexUUID = indexUUID;
+            this.indexMetaData = indexMetaData;
+            this.indexMetaDataKey = indexMetaDataKey;
+        }
+
+        @Override
+        protected void commit(List<Mutation> mutations) throws IOException {
+            UngroupedAggregateRegionObserver.commitBatch(env, tableName, mutations, indexUUID, indexMetaData, indexMetaDataKey);
+        }
+    }
+}
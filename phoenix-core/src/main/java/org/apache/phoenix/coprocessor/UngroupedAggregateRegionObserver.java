@@ -41,6 +41,7 @@ import org.apache.hadoop.hbase.HRegionInfo;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.HTableInterface;
 import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Scan;
@@ -65,7 +66,9 @@ import org.apache.phoenix.expression.aggregator.Aggregators;
 import org.apache.phoenix.expression.aggregator.ServerAggregators;
 import org.apache.phoenix.hbase.index.ValueGetter;
 import org.apache.phoenix.hbase.index.covered.update.ColumnReference;
+import org.apache.phoenix.hbase.index.table.CoprocessorHTableFactory;
 import org.apache.phoenix.hbase.index.util.GenericKeyValueBuilder;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
 import org.apache.phoenix.hbase.index.util.KeyValueBuilder;
 import org.apache.phoenix.index.IndexMaintainer;
 import org.apache.phoenix.index.PhoenixIndexCodec;
@@ -124,7 +127,7 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
         this.kvBuilder = GenericKeyValueBuilder.INSTANCE;
     }
 
-    private static void commitBatch(HRegion region, List<Mutation> mutations, byte[] indexUUID) throws IOException {
+    static void commitBatch(HRegion region, List<Mutation> mutations, byte[] indexUUID) throws IOException {
       if (indexUUID != null) {
           for (Mutation m : mutations) {
               m.setAttribute(PhoenixIndexCodec.INDEX_UUID, indexUUID);
@@ -135,6 +138,36 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
       region.batchMutate(mutations.toArray(mutationArray));
     }
     
+    /**
+     * Write the mutations to another table. The batch is written synchronously.
+     * See {@link MutationPipeline} for how a region is kept from scanning too far ahead
+     * of the table being written to. The writes are sent with the index priority, like
+     * the index updates of the {@link org.apache.phoenix.hbase.index.Indexer}, so that
+     * handlers blocked on them while scanning can't starve the handlers serving them.
+     */
+    static void commitBatch(RegionCoprocessorEnvironment env, byte[] tableName, List<Mutation> mutations, byte[] indexUUID, byte[] indexMetaData, byte[] indexMetaDataKey) throws IOException {
+        if (indexUUID != null) {
+            for (Mutation m : mutations) {
+                m.setAttribute(PhoenixIndexCodec.INDEX_UUID, indexUUID);
+                if (indexMetaData != null) {
+                    m.setAttribute(PhoenixIndexCodec.INDEX_MD, indexMetaData);
+                }
+                if (indexMetaDataKey != null) {
+                    m.setAttribute(PhoenixIndexCodec.INDEX_MD_KEY, indexMetaDataKey);
+                }
+            }
+        }
+        HTableInterface table = new CoprocessorHTableFactory(env).getTable(new ImmutableBytesPtr(tableName));
+        try {
+            table.batch(mutations);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            table.close();
+        }
+    }
+    
     public static void serializeIntoScan(Scan scan) {
         scan.setAttribute(BaseScannerRegionObserver.UNGROUPED_AGG, QueryConstants.TRUE);
     }
@@ -175,8 +208,18 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
 
         byte[] localIndexBytes = scan.getAttribute(LOCAL_INDEX_BUILD);
         List<IndexMaintainer> indexMaintainers = localIndexBytes == null ? null : IndexMaintainer.deserialize(localIndexBytes);
-        List<Mutation> indexMutations = localIndexBytes == null ? Collections.<Mutation>emptyList() : Lists.<Mutation>newArrayListWithExpectedSize(1024);
+        MutationPipeline indexMutations = null;
         boolean localIndexScan = ScanUtil.isLocalIndex(scan);
+        byte[] globalIndexBytes = scan.getAttribute(GLOBAL_INDEX_BUILD);
+        List<IndexMaintainer> globalIndexMaintainers = globalIndexBytes == null ? null : IndexMaintainer.deserialize(globalIndexBytes);
+        List<MutationPipeline> globalIndexMutations = Collections.emptyList();
+        if (globalIndexMaintainers != null) {
+            globalIndexMutations = Lists.newArrayListWithExpectedSize(globalIndexMaintainers.size());
+            int globalIndexBatchSize = c.getEnvironment().getConfiguration().getInt(QueryServices.INDEX_BUILD_BATCH_SIZE_ATTRIB, QueryServicesOptions.DEFAULT_INDEX_BUILD_BATCH_SIZE);
+            for (IndexMaintainer maintainer : globalIndexMaintainers) {
+                globalIndexMutations.add(new MutationPipeline.TableMutationPipeline(c.getEnvironment(), globalIndexBatchSize, maintainer.getIndexTableName(), null, null, null));
+            }
+        }
         
         final TupleProjector p = TupleProjector.deserializeProjectorFromScan(scan);
         final HashJoinInfo j = HashJoinInfo.deserializeHashJoinFromScan(scan);
@@ -189,6 +232,8 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
         PTable projectedTable = null;
         List<Expression> selectExpressions = null;
         byte[] upsertSelectTable = scan.getAttribute(BaseScannerRegionObserver.UPSERT_SELECT_TABLE);
+        // Set when upserting into a different table than the one being scanned
+        byte[] upsertTargetTable = scan.getAttribute(BaseScannerRegionObserver.UPSERT_SELECT_TARGET_TABLE);
         boolean isUpsert = false;
         boolean isDelete = false;
         byte[] deleteCQ = null;
@@ -211,7 +256,7 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
             }
             emptyCF = scan.getAttribute(BaseScannerRegionObserver.EMPTY_CF);
         }
-        if(localIndexBytes != null) {
+        if(localIndexBytes != null || globalIndexBytes != null) {
             ptr = new ImmutableBytesWritable();
         }
         TupleProjector scanProjector = null;
@@ -229,12 +274,18 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
         innerScanner = theScanner;
         
         int batchSize = 0;
-        List<Mutation> mutations = Collections.emptyList();
+        MutationPipeline mutations = null;
         boolean buildLocalIndex = indexMaintainers != null && dataColumns==null && !localIndexScan;
         if (isDelete || isUpsert || (deleteCQ != null && deleteCF != null) || emptyCF != null || buildLocalIndex) {
-            // TODO: size better
-            mutations = Lists.newArrayListWithExpectedSize(1024);
+            // Commit in batches based on MUTATE_BATCH_SIZE_ATTRIB in config, adapted to memstore pressure
             batchSize = c.getEnvironment().getConfiguration().getInt(MUTATE_BATCH_SIZE_ATTRIB, QueryServicesOptions.DEFAULT_MUTATE_BATCH_SIZE);
+            if (upsertTargetTable != null) {
+                // The index metadata of the into table travels with the mutations
+                mutations = new MutationPipeline.TableMutationPipeline(c.getEnvironment(), batchSize, upsertTargetTable, indexUUID,
+                        scan.getAttribute(PhoenixIndexCodec.INDEX_MD), scan.getAttribute(PhoenixIndexCodec.INDEX_MD_KEY));
+            } else {
+                mutations = new MutationPipeline.RegionMutationPipeline(c.getEnvironment().getConfiguration(), batchSize, region, indexUUID);
+            }
         }
         Aggregators aggregators = ServerAggregators.deserialize(
                 scan.getAttribute(BaseScannerRegionObserver.AGGREGATORS), c.getEnvironment().getConfiguration());
@@ -248,6 +299,7 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
         long rowCount = 0;
         region.startRegionOperation();
         ImmutableBytesWritable tempPtr = new ImmutableBytesWritable();
+        boolean isScanComplete = false;
         try {
             do {
                 List<Cell> results = new ArrayList<Cell>();
@@ -269,6 +321,10 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
                     result.setKeyValues(results);
                     try {
                         if (buildLocalIndex) {
+                            if (indexMutations == null) {
+                                // Get indexRegion corresponding to data region
+                                indexMutations = new MutationPipeline.RegionMutationPipeline(c.getEnvironment().getConfiguration(), batchSize, getIndexRegion(c.getEnvironment()), null);
+                            }
                             for (IndexMaintainer maintainer : indexMaintainers) {
                                 if (!results.isEmpty()) {
                                     result.getKey(ptr);
@@ -278,6 +334,16 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
                                 }
                             }
                             result.setKeyValues(results);
+                        } else if (globalIndexMaintainers != null) {
+                            // Compute the index rows here instead of returning the data rows to
+                            // the client and write them to the index table in large batches
+                            result.getKey(ptr);
+                            for (int i = 0; i < globalIndexMaintainers.size(); i++) {
+                                IndexMaintainer maintainer = globalIndexMaintainers.get(i);
+                                ValueGetter valueGetter = maintainer.createGetterFromKeyValues(results);
+                                Put put = maintainer.buildUpdateMutation(kvBuilder, valueGetter, ptr, ts, null, null);
+                                globalIndexMutations.get(i).add(put);
+                            }
                         } else if (isDelete) {
                             // FIXME: the version of the Delete constructor without the lock args was introduced
                             // in 0.94.4, thus if we try to use it here we can no longer use the 0.94.2 version
@@ -354,19 +420,6 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
                                 }
                             }
                         }
-                        // Commit in batches based on UPSERT_BATCH_SIZE_ATTRIB in config
-                        if (!mutations.isEmpty() && batchSize > 0 && mutations.size() % batchSize == 0) {
-                            commitBatch(region, mutations, indexUUID);
-                            mutations.clear();
-                        }
-                        // Commit in batches based on UPSERT_BATCH_SIZE_ATTRIB in config
-                        if (!indexMutations.isEmpty() && batchSize > 0 && indexMutations.size() % batchSize == 0) {
-                            HRegion indexRegion = getIndexRegion(c.getEnvironment());
-                            // Get indexRegion corresponding to data region
-                            commitBatch(indexRegion, indexMutations, null);
-                            indexMutations.clear();
-                        }
-
                     } catch (ConstraintViolationException e) {
                         // Log and ignore in count
                         logger.error(LogUtil.addCustomAnnotations("Failed to create row in " + region.getRegionNameAsString() + " with values " + SchemaUtil.toString(values), ScanUtil.getCustomAnnotations(scan)), e);
@@ -376,8 +429,17 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
                     hasAny = true;
                 }
             } while (hasMore);
+            isScanComplete = true;
         } finally {
             try {
+                if (!isScanComplete) {
+                    // Let the batches already handed off finish before failing the scan
+                    abort(mutations);
+                    abort(indexMutations);
+                    for (MutationPipeline pipeline : globalIndexMutations) {
+                        pipeline.abort();
+                    }
+                }
                 if (stats != null) {
                     try {
                         stats.updateStatistic(region);
@@ -398,15 +460,16 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
         	logger.debug(LogUtil.addCustomAnnotations("Finished scanning " + rowCount + " rows for ungrouped coprocessor scan " + scan, ScanUtil.getCustomAnnotations(scan)));
         }
 
-        if (!mutations.isEmpty()) {
-            commitBatch(region,mutations, indexUUID);
+        List<MutationPipeline> pipelines = Lists.newArrayListWithExpectedSize(globalIndexMutations.size() + 2);
+        pipelines.add(mutations);
+        pipelines.add(indexMutations);
+        pipelines.addAll(globalIndexMutations);
+        close(pipelines);
+        if (upsertTargetTable != null && logger.isDebugEnabled()) {
+            logger.debug(LogUtil.addCustomAnnotations("Upserted " + rowCount + " rows of " + region.getRegionInfo() + " into " + Bytes.toString(upsertTargetTable), ScanUtil.getCustomAnnotations(scan)));
         }
-
-        if (!indexMutations.isEmpty()) {
-            HRegion indexRegion = getIndexRegion(c.getEnvironment());
-            // Get indexRegion corresponding to data region
-            commitBatch(indexRegion, indexMutations, null);
-            indexMutations.clear();
+        if (globalIndexMaintainers != null && logger.isDebugEnabled()) {
+            logger.debug(LogUtil.addCustomAnnotations("Built index rows for " + rowCount + " rows of " + region.getRegionInfo(), ScanUtil.getCustomAnnotations(scan)));
         }
 
         final boolean hadAny = hasAny;
@@ -507,6 +570,40 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
         }
     }
 
+    private static void abort(MutationPipeline pipeline) {
+        if (pipeline != null) {
+            pipeline.abort();
+        }
+    }
+    
+    /**
+     * Close the pipelines, writing their remaining mutations. Once one of them fails,
+     * the rest are aborted instead, so that none has a batch still being written once
+     * the failure is thrown.
+     */
+    private static void close(List<MutationPipeline> pipelines) throws IOException {
+        IOException failure = null;
+        for (MutationPipeline pipeline : pipelines) {
+            if (pipeline == null) {
+                continue;
+            }
+            if (failure != null) {
+                pipeline.abort();
+                continue;
+            }
+            try {
+                pipeline.close();
+            } catch (IOException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new IOException(e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
     private HRegion getIndexRegion(RegionCoprocessorEnvironment environment) throws IOException {
         HRegion userRegion = environment.getRegion();
         TableName indexTableName = TableName.valueOf(MetaDataUtil.getLocalIndexPhysicalName(userRegion.getTableDesc().getName()));
@@ -234,6 +234,16 @@ public final class PTableProtos {
      * <code>optional bool viewReferenced = 11;</code>
      */
     boolean getViewReferenced();
+
+    // optional bytes columnQualifierBytes = 12;
+    /**
+     * <code>optional bytes columnQualifierBytes = 12;</code>
+     */
+    boolean hasColumnQualifierBytes();
+    /**
+     * <code>optional bytes columnQualifierBytes = 12;</code>
+     */
+    com.google.protobuf.ByteString getColumnQualifierBytes();
   }
   /**
    * Protobuf type {@code PColumn}
@@ -341,6 +351,11 @@ public final class PTableProtos {
               viewReferenced_ = input.readBool();
               break;
             }
+            case 98: {
+              bitField0_ |= 0x00000800;
+              columnQualifierBytes_ = input.readBytes();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -584,6 +599,22 @@ public final class PTableProtos {
       return viewReferenced_;
     }
 
+    // optional bytes columnQualifierBytes = 12;
+    public static final int COLUMNQUALIFIERBYTES_FIELD_NUMBER = 12;
+    private com.google.protobuf.ByteString columnQualifierBytes_;
+    /**
+     * <code>optional bytes columnQualifierBytes = 12;</code>
+     */
+    public boolean hasColumnQualifierBytes() {
+      return ((bitField0_ & 0x00000800) == 0x00000800);
+    }
+    /**
+     * <code>optional bytes columnQualifierBytes = 12;</code>
+     */
+    public com.google.protobuf.ByteString getColumnQualifierBytes() {
+      return columnQualifierBytes_;
+    }
+
     private void initFields() {
       columnNameBytes_ = com.google.protobuf.ByteString.EMPTY;
       familyNameBytes_ = com.google.protobuf.ByteString.EMPTY;
@@ -596,6 +627,7 @@ public final class PTableProtos {
       arraySize_ = 0;
       viewConstant_ = com.google.protobuf.ByteString.EMPTY;
       viewReferenced_ = false;
+      columnQualifierBytes_ = com.google.protobuf.ByteString.EMPTY;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -662,6 +694,9 @@ public final class PTableProtos {
       if (((bitField0_ & 0x00000400) == 0x00000400)) {
         output.writeBool(11, viewReferenced_);
       }
+      if (((bitField0_ & 0x00000800) == 0x00000800)) {
+        output.writeBytes(12, columnQualifierBytes_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -715,6 +750,10 @@ public final class PTableProtos {
         size += com.google.protobuf.CodedOutputStream
           .computeBoolSize(11, viewReferenced_);
       }
+      if (((bitField0_ & 0x00000800) == 0x00000800)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(12, columnQualifierBytes_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -793,6 +832,11 @@ public final class PTableProtos {
         result = result && (getViewReferenced()
             == other.getViewReferenced());
       }
+      result = result && (hasColumnQualifierBytes() == other.hasColumnQualifierBytes());
+      if (hasColumnQualifierBytes()) {
+        result = result && getColumnQualifierBytes()
+            .equals(other.getColumnQualifierBytes());
+      }
       result = result &&
           getUnknownFields().equals(other.getUnknownFields());
       return result;
@@ -850,6 +894,10 @@ public final class PTableProtos {
         hash = (37 * hash) + VIEWREFERENCED_FIELD_NUMBER;
         hash = (53 * hash) + hashBoolean(getViewReferenced());
       }
+      if (hasColumnQualifierBytes()) {
+        hash = (37 * hash) + COLUMNQUALIFIERBYTES_FIELD_NUMBER;
+        hash = (53 * hash) + getColumnQualifierBytes().hashCode();
+      }
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -981,6 +1029,8 @@ public final class PTableProtos {
         bitField0_ = (bitField0_ & ~0x00000200);
         viewReferenced_ = false;
         bitField0_ = (bitField0_ & ~0x00000400);
+        columnQualifierBytes_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000800);
         return this;
       }
 
@@ -1053,6 +1103,10 @@ public final class PTableProtos {
           to_bitField0_ |= 0x00000400;
         }
         result.viewReferenced_ = viewReferenced_;
+        if (((from_bitField0_ & 0x00000800) == 0x00000800)) {
+          to_bitField0_ |= 0x00000800;
+        }
+        result.columnQualifierBytes_ = columnQualifierBytes_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -1104,6 +1158,9 @@ public final class PTableProtos {
         if (other.hasViewReferenced()) {
           setViewReferenced(other.getViewReferenced());
         }
+        if (other.hasColumnQualifierBytes()) {
+          setColumnQualifierBytes(other.getColumnQualifierBytes());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -1564,6 +1621,42 @@ public final class PTableProtos {
         return this;
       }
 
+      // optional bytes columnQualifierBytes = 12;
+      private com.google.protobuf.ByteString columnQualifierBytes_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes columnQualifierBytes = 12;</code>
+       */
+      public boolean hasColumnQualifierBytes() {
+        return ((bitField0_ & 0x00000800) == 0x00000800);
+      }
+      /**
+       * <code>optional bytes columnQualifierBytes = 12;</code>
+       */
+      public com.google.protobuf.ByteString getColumnQualifierBytes() {
+        return columnQualifierBytes_;
+      }
+      /**
+       * <code>optional bytes columnQualifierBytes = 12;</code>
+       */
+      public Builder setColumnQualifierBytes(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000800;
+        columnQualifierBytes_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bytes columnQualifierBytes = 12;</code>
+       */
+      public Builder clearColumnQualifierBytes() {
+        bitField0_ = (bitField0_ & ~0x00000800);
+        columnQualifierBytes_ = getDefaultInstance().getColumnQualifierBytes();
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:PColumn)
     }
 
@@ -2732,6 +2825,16 @@ public final class PTableProtos {
      * <code>optional int64 statsTimeStamp = 23;</code>
      */
     long getStatsTimeStamp();
+
+    // optional bytes storageScheme = 24;
+    /**
+     * <code>optional bytes storageScheme = 24;</code>
+     */
+    boolean hasStorageScheme();
+    /**
+     * <code>optional bytes storageScheme = 24;</code>
+     */
+    com.google.protobuf.ByteString getStorageScheme();
   }
   /**
    * Protobuf type {@code PTable}
@@ -2917,6 +3020,11 @@ public final class PTableProtos {
               statsTimeStamp_ = input.readInt64();
               break;
             }
+            case 194: {
+              bitField0_ |= 0x00080000;
+              storageScheme_ = input.readBytes();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -3431,6 +3539,22 @@ public final class PTableProtos {
       return statsTimeStamp_;
     }
 
+    // optional bytes storageScheme = 24;
+    public static final int STORAGESCHEME_FIELD_NUMBER = 24;
+    private com.google.protobuf.ByteString storageScheme_;
+    /**
+     * <code>optional bytes storageScheme = 24;</code>
+     */
+    public boolean hasStorageScheme() {
+      return ((bitField0_ & 0x00080000) == 0x00080000);
+    }
+    /**
+     * <code>optional bytes storageScheme = 24;</code>
+     */
+    public com.google.protobuf.ByteString getStorageScheme() {
+      return storageScheme_;
+    }
+
     private void initFields() {
       schemaNameBytes_ = com.google.protobuf.ByteString.EMPTY;
       tableNameBytes_ = com.google.protobuf.ByteString.EMPTY;
@@ -3455,6 +3579,7 @@ public final class PTableProtos {
       viewIndexId_ = 0;
       indexType_ = com.google.protobuf.ByteString.EMPTY;
       statsTimeStamp_ = 0L;
+      storageScheme_ = com.google.protobuf.ByteString.EMPTY;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -3591,6 +3716,9 @@ public final class PTableProtos {
       if (((bitField0_ & 0x00040000) == 0x00040000)) {
         output.writeInt64(23, statsTimeStamp_);
       }
+      if (((bitField0_ & 0x00080000) == 0x00080000)) {
+        output.writeBytes(24, storageScheme_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -3697,6 +3825,10 @@ public final class PTableProtos {
         size += com.google.protobuf.CodedOutputStream
           .computeInt64Size(23, statsTimeStamp_);
       }
+      if (((bitField0_ & 0x00080000) == 0x00080000)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(24, storageScheme_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -3823,6 +3955,11 @@ public final class PTableProtos {
         result = result && (getStatsTimeStamp()
             == other.getStatsTimeStamp());
       }
+      result = result && (hasStorageScheme() == other.hasStorageScheme());
+      if (hasStorageScheme()) {
+        result = result && getStorageScheme()
+            .equals(other.getStorageScheme());
+      }
       result = result &&
           getUnknownFields().equals(other.getUnknownFields());
       return result;
@@ -3928,6 +4065,10 @@ public final class PTableProtos {
         hash = (37 * hash) + STATSTIMESTAMP_FIELD_NUMBER;
         hash = (53 * hash) + hashLong(getStatsTimeStamp());
       }
+      if (hasStorageScheme()) {
+        hash = (37 * hash) + STORAGESCHEME_FIELD_NUMBER;
+        hash = (53 * hash) + getStorageScheme().hashCode();
+      }
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -4098,6 +4239,8 @@ public final class PTableProtos {
         bitField0_ = (bitField0_ & ~0x00200000);
         statsTimeStamp_ = 0L;
         bitField0_ = (bitField0_ & ~0x00400000);
+        storageScheme_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00800000);
         return this;
       }
 
@@ -4234,6 +4377,10 @@ public final class PTableProtos {
           to_bitField0_ |= 0x00040000;
         }
         result.statsTimeStamp_ = statsTimeStamp_;
+        if (((from_bitField0_ & 0x00800000) == 0x00800000)) {
+          to_bitField0_ |= 0x00080000;
+        }
+        result.storageScheme_ = storageScheme_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -4397,6 +4544,9 @@ public final class PTableProtos {
         if (other.hasStatsTimeStamp()) {
           setStatsTimeStamp(other.getStatsTimeStamp());
         }
+        if (other.hasStorageScheme()) {
+          setStorageScheme(other.getStorageScheme());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -5968,6 +6118,42 @@ public final class PTableProtos {
         return this;
       }
 
+      // optional bytes storageScheme = 24;
+      private com.google.protobuf.ByteString storageScheme_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes storageScheme = 24;</code>
+       */
+      public boolean hasStorageScheme() {
+        return ((bitField0_ & 0x00800000) == 0x00800000);
+      }
+      /**
+       * <code>optional bytes storageScheme = 24;</code>
+       */
+      public com.google.protobuf.ByteString getStorageScheme() {
+        return storageScheme_;
+      }
+      /**
+       * <code>optional bytes storageScheme = 24;</code>
+       */
+      public Builder setStorageScheme(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00800000;
+        storageScheme_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bytes storageScheme = 24;</code>
+       */
+      public Builder clearStorageScheme() {
+        bitField0_ = (bitField0_ & ~0x00800000);
+        storageScheme_ = getDefaultInstance().getStorageScheme();
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:PTable)
     }
 
@@ -6003,33 +6189,34 @@ public final class PTableProtos {
       descriptor;
   static {
     java.lang.String[] descriptorData = {
-      "\n\014PTable.proto\"\347\001\n\007PColumn\022\027\n\017columnName" +
+      "\n\014PTable.proto\"\205\002\n\007PColumn\022\027\n\017columnName" +
       "Bytes\030\001 \002(\014\022\027\n\017familyNameBytes\030\002 \001(\014\022\020\n\010" +
       "dataType\030\003 \002(\t\022\021\n\tmaxLength\030\004 \001(\005\022\r\n\005sca" +
       "le\030\005 \001(\005\022\020\n\010nullable\030\006 \002(\010\022\020\n\010position\030\007" +
       " \002(\005\022\021\n\tsortOrder\030\010 \002(\005\022\021\n\tarraySize\030\t \001" +
       "(\005\022\024\n\014viewConstant\030\n \001(\014\022\026\n\016viewReferenc" +
-      "ed\030\013 \001(\010\"w\n\013PTableStats\022\013\n\003key\030\001 \002(\014\022\016\n\006" +
-      "values\030\002 \003(\014\022\033\n\023guidePostsByteCount\030\003 \001(" +
-      "\003\022\025\n\rkeyBytesCount\030\004 \001(\003\022\027\n\017guidePostsCo" +
-      "unt\030\005 \001(\005\"\242\004\n\006PTable\022\027\n\017schemaNameBytes\030",
-      "\001 \002(\014\022\026\n\016tableNameBytes\030\002 \002(\014\022\036\n\ttableTy" +
-      "pe\030\003 \002(\0162\013.PTableType\022\022\n\nindexState\030\004 \001(" +
-      "\t\022\026\n\016sequenceNumber\030\005 \002(\003\022\021\n\ttimeStamp\030\006" +
-      " \002(\003\022\023\n\013pkNameBytes\030\007 \001(\014\022\021\n\tbucketNum\030\010" +
-      " \002(\005\022\031\n\007columns\030\t \003(\0132\010.PColumn\022\030\n\007index" +
-      "es\030\n \003(\0132\007.PTable\022\027\n\017isImmutableRows\030\013 \002" +
-      "(\010\022 \n\nguidePosts\030\014 \003(\0132\014.PTableStats\022\032\n\022" +
-      "dataTableNameBytes\030\r \001(\014\022\031\n\021defaultFamil" +
-      "yName\030\016 \001(\014\022\022\n\ndisableWAL\030\017 \002(\010\022\023\n\013multi" +
-      "Tenant\030\020 \002(\010\022\020\n\010viewType\030\021 \001(\014\022\025\n\rviewSt",
-      "atement\030\022 \001(\014\022\025\n\rphysicalNames\030\023 \003(\014\022\020\n\010" +
-      "tenantId\030\024 \001(\014\022\023\n\013viewIndexId\030\025 \001(\005\022\021\n\ti" +
-      "ndexType\030\026 \001(\014\022\026\n\016statsTimeStamp\030\027 \001(\003*A" +
-      "\n\nPTableType\022\n\n\006SYSTEM\020\000\022\010\n\004USER\020\001\022\010\n\004VI" +
-      "EW\020\002\022\t\n\005INDEX\020\003\022\010\n\004JOIN\020\004B@\n(org.apache." +
-      "phoenix.coprocessor.generatedB\014PTablePro" +
-      "tosH\001\210\001\001\240\001\001"
+      "ed\030\013 \001(\010\022\034\n\024columnQualifierBytes\030\014 \001(\014\"w" +
+      "\n\013PTableStats\022\013\n\003key\030\001 \002(\014\022\016\n\006values\030\002 \003" +
+      "(\014\022\033\n\023guidePostsByteCount\030\003 \001(\003\022\025\n\rkeyBy" +
+      "tesCount\030\004 \001(\003\022\027\n\017guidePostsCount\030\005 \001(\005\"",
+      "\271\004\n\006PTable\022\027\n\017schemaNameBytes\030\001 \002(\014\022\026\n\016t" +
+      "ableNameBytes\030\002 \002(\014\022\036\n\ttableType\030\003 \002(\0162\013" +
+      ".PTableType\022\022\n\nindexState\030\004 \001(\t\022\026\n\016seque" +
+      "nceNumber\030\005 \002(\003\022\021\n\ttimeStamp\030\006 \002(\003\022\023\n\013pk" +
+      "NameBytes\030\007 \001(\014\022\021\n\tbucketNum\030\010 \002(\005\022\031\n\007co" +
+      "lumns\030\t \003(\0132\010.PColumn\022\030\n\007indexes\030\n \003(\0132\007" +
+      ".PTable\022\027\n\017isImmutableRows\030\013 \002(\010\022 \n\nguid" +
+      "ePosts\030\014 \003(\0132\014.PTableStats\022\032\n\022dataTableN" +
+      "ameBytes\030\r \001(\014\022\031\n\021defaultFamilyName\030\016 \001(" +
+      "\014\022\022\n\ndisableWAL\030\017 \002(\010\022\023\n\013multiTenant\030\020 \002",
+      "(\010\022\020\n\010viewType\030\021 \001(\014\022\025\n\rviewStatement\030\022 " +
+      "\001(\014\022\025\n\rphysicalNames\030\023 \003(\014\022\020\n\010tenantId\030\024" +
+      " \001(\014\022\023\n\013viewIndexId\030\025 \001(\005\022\021\n\tindexType\030\026" +
+      " \001(\014\022\026\n\016statsTimeStamp\030\027 \001(\003\022\025\n\rstorageS" +
+      "cheme\030\030 \001(\014*A\n\nPTableType\022\n\n\006SYSTEM\020\000\022\010\n" +
+      "\004USER\020\001\022\010\n\004VIEW\020\002\022\t\n\005INDEX\020\003\022\010\n\004JOIN\020\004B@" +
+      "\n(org.apache.phoenix.coprocessor.generat" +
+      "edB\014PTableProtosH\001\210\001\001\240\001\001"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
       new com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner() {
@@ -6041,7 +6228,7 @@ public final class PTableProtos {
           internal_static_PColumn_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_PColumn_descriptor,
-              new java.lang.String[] { "ColumnNameBytes", "FamilyNameBytes", "DataType", "MaxLength", "Scale", "Nullable", "Position", "SortOrder", "ArraySize", "ViewConstant", "ViewReferenced", });
+              new java.lang.String[] { "ColumnNameBytes", "FamilyNameBytes", "DataType", "MaxLength", "Scale", "Nullable", "Position", "SortOrder", "ArraySize", "ViewConstant", "ViewReferenced", "ColumnQualifierBytes", });
           internal_static_PTableStats_descriptor =
             getDescriptor().getMessageTypes().get(1);
           internal_static_PTableStats_fieldAccessorTable = new
@@ -6053,7 +6240,7 @@ public final class PTableProtos {
           internal_static_PTable_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_PTable_descriptor,
-              new java.lang.String[] { "SchemaNameBytes", "TableNameBytes", "TableType", "IndexState", "SequenceNumber", "TimeStamp", "PkNameBytes", "BucketNum", "Columns", "Indexes", "IsImmutableRows", "GuidePosts", "DataTableNameBytes", "DefaultFamilyName", "DisableWAL", "MultiTenant", "ViewType", "ViewStatement", "PhysicalNames", "TenantId", "ViewIndexId", "IndexType", "StatsTimeStamp", });
+              new java.lang.String[] { "SchemaNameBytes", "TableNameBytes", "TableType", "IndexState", "SequenceNumber", "TimeStamp", "PkNameBytes", "BucketNum", "Columns", "Indexes", "IsImmutableRows", "GuidePosts", "DataTableNameBytes", "DefaultFamilyName", "DisableWAL", "MultiTenant", "ViewType", "ViewStatement", "PhysicalNames", "TenantId", "ViewIndexId", "IndexType", "StatsTimeStamp", "StorageScheme", });
           return null;
         }
       };
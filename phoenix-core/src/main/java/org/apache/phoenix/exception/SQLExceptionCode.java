@@ -223,6 +223,9 @@ public enum SQLExceptionCode {
     CANNOT_UPDATE_VIEW_COLUMN(1046, "43A03", "Column updated in VIEW may not differ from value specified in WHERE clause."),
     TOO_MANY_INDEXES(1047, "43A04", "Too many indexes have already been created on the physical table."),
     NO_LOCAL_INDEX_ON_TABLE_WITH_IMMUTABLE_ROWS(1048,"43A04","Local indexes aren't allowed on tables with immutable rows."),
+    PACKED_CELL_ONLY_ON_IMMUTABLE_ROWS(1049, "43A05", "The PACKED_CELL storage scheme may only be used for a table with immutable rows."),
+    PACKED_CELL_NOT_SUPPORTED(1050, "43A06", "Views, indexes, dynamic columns and dropping columns are not supported for a table with the PACKED_CELL storage scheme."),
+    STORAGE_SCHEME_ONLY_ON_CREATE_TABLE(1051, "43A07", "Storage scheme may only be specified when creating a table."),
         
     /** Sequence related */
     SEQUENCE_ALREADY_EXIST(1200, "42Z00", "Sequence already exists.", new Factory() {
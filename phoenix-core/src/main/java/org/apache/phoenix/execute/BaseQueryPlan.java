@@ -41,6 +41,8 @@ import org.apache.phoenix.compile.RowProjector;
 import org.apache.phoenix.compile.ScanRanges;
 import org.apache.phoenix.compile.StatementContext;
 import org.apache.phoenix.coprocessor.BaseScannerRegionObserver;
+import org.apache.phoenix.expression.InListCacheClient;
+import org.apache.phoenix.expression.InListExpression;
 import org.apache.phoenix.expression.ProjectedColumnExpression;
 import org.apache.phoenix.index.IndexMaintainer;
 import org.apache.phoenix.iterate.DelegateResultIterator;
@@ -66,6 +68,7 @@ import org.apache.phoenix.util.LogUtil;
 import org.apache.phoenix.util.SQLCloseable;
 import org.apache.phoenix.util.SQLCloseables;
 import org.apache.phoenix.util.ScanUtil;
+import org.apache.phoenix.util.SchemaUtil;
 import org.cloudera.htrace.TraceScope;
 
 import com.google.common.collect.Lists;
@@ -224,15 +227,16 @@ public abstract class BaseQueryPlan implements QueryPlan {
         	LOG.debug(LogUtil.addCustomAnnotations("Scan ready for iteration: " + scan, connection));
         }
         
+        final List<SQLCloseable> closeables = addInListCaches(scan, dependencies);
         ResultIterator iterator = newIterator();
-        iterator = dependencies.isEmpty() ?
+        iterator = closeables.isEmpty() ?
                 iterator : new DelegateResultIterator(iterator) {
             @Override
             public void close() throws SQLException {
                 try {
                     super.close();
                 } finally {
-                    SQLCloseables.closeAll(dependencies);
+                    SQLCloseables.closeAll(closeables);
                 }
             }
         };
@@ -248,6 +252,35 @@ public abstract class BaseQueryPlan implements QueryPlan {
         return (scope.getSpan() != null) ? new TracingIterator(scope, iterator) : iterator;
     }
 
+    /**
+     * Send the values of large IN lists in the filter once to each region server, so that
+     * only the id of the cache is serialized into the scan of each chunk.
+     * @return the dependencies followed by the caches to remove when the iterator is closed
+     */
+    private List<SQLCloseable> addInListCaches(Scan scan, List<? extends SQLCloseable> dependencies) throws SQLException {
+        List<InListExpression> inLists = InListCacheClient.getCacheableInLists(context.getConnection(), scan);
+        if (inLists.isEmpty()) {
+            return Collections.<SQLCloseable>unmodifiableList(dependencies);
+        }
+        List<SQLCloseable> closeables = Lists.newArrayListWithExpectedSize(dependencies.size() + inLists.size());
+        closeables.addAll(dependencies);
+        List<SQLCloseable> caches = Lists.newArrayListWithExpectedSize(inLists.size());
+        boolean success = false;
+        try {
+            InListCacheClient client = new InListCacheClient(context.getConnection(), tableRef);
+            for (InListExpression inList : inLists) {
+                caches.add(client.addInListCache(context.getScanRanges(), inList));
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                SQLCloseables.closeAllQuietly(caches);
+            }
+        }
+        closeables.addAll(caches);
+        return closeables;
+    }
+
     private void serializeIndexMaintainerIntoScan(Scan scan, PTable dataTable) {
         PName name = context.getCurrentTable().getTable().getName();
         List<PTable> indexes = Lists.newArrayListWithExpectedSize(1);
@@ -319,7 +352,7 @@ public abstract class BaseQueryPlan implements QueryPlan {
             WritableUtils.writeVInt(output, dataColumns.size());
             for (PColumn column : dataColumns) {
                 Bytes.writeByteArray(output, column.getFamilyName().getBytes());
-                Bytes.writeByteArray(output, column.getName().getBytes());
+                Bytes.writeByteArray(output, SchemaUtil.getColumnQualifier(column));
             }
             scan.setAttribute(BaseScannerRegionObserver.DATA_TABLE_COLUMNS_TO_JOIN, stream.toByteArray());
         } catch (IOException e) {
@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.execute;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+import org.apache.phoenix.hbase.index.util.KeyValueBuilder;
+import org.apache.phoenix.schema.PColumn;
+import org.apache.phoenix.schema.PRow;
+import org.apache.phoenix.schema.PTable;
+
+import com.google.common.collect.Lists;
+
+/**
+ * 
+ * Compact buffer of the uncommitted rows of a single table. Rather than
+ * holding a map of {@link PColumn} to value per row, row keys and column
+ * values are appended to contiguous byte arenas and each column position
+ * keeps a bitmap of the rows for which it has a value, together with the
+ * offset and length of that value in the value arena. Rows are looked up
+ * by key through an open addressing table of row indexes, so no per row
+ * objects are retained until the buffer is turned into HBase mutations.
+ *
+ * 
+ * @since 5.0
+ */
+public class MutationBuffer {
+    private static final int INITIAL_ROW_CAPACITY = 16;
+    private static final int INITIAL_ARENA_CAPACITY = 256;
+    private static final int NULL_VALUE_LENGTH = -1;
+
+    private byte[] keyArena;
+    private int keyArenaSize;
+    // Key of row i spans keyOffsets[i] up to keyOffsets[i+1]
+    private int[] keyOffsets;
+    private byte[] valueArena;
+    private int valueArenaSize;
+    // Open addressing table holding row index + 1 (zero means empty) by row key hash
+    private int[] hashSlots;
+    private final BitSet deletedRows = new BitSet();
+    private PColumn[] columns = new PColumn[0];
+    private ColumnValues[] columnValues = new ColumnValues[0];
+    private int size;
+
+    private static class ColumnValues {
+        private final BitSet rows = new BitSet();
+        private int[] offsets;
+        private int[] lengths;
+        
+        private ColumnValues(int rowCapacity) {
+            offsets = new int[rowCapacity];
+            lengths = new int[rowCapacity];
+        }
+        
+        private void ensureCapacity(int row) {
+            if (row >= offsets.length) {
+                int capacity = Math.max(row + 1, offsets.length * 2);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+        }
+    }
+    
+    public MutationBuffer() {
+        this(INITIAL_ROW_CAPACITY);
+    }
+    
+    public MutationBuffer(int expectedRows) {
+        int rowCapacity = Math.max(expectedRows, INITIAL_ROW_CAPACITY);
+        keyArena = new byte[INITIAL_ARENA_CAPACITY];
+        valueArena = new byte[INITIAL_ARENA_CAPACITY];
+        keyOffsets = new int[rowCapacity + 1];
+        hashSlots = new int[Integer.highestOneBit(rowCapacity * 2 - 1) << 1];
+    }
+    
+    /**
+     * @return the number of distinct rows in the buffer
+     */
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * @return approximate number of bytes of heap used by the buffer
+     */
+    public long getByteSize() {
+        long byteSize = keyArena.length + valueArena.length + (keyOffsets.length + hashSlots.length) * Bytes.SIZEOF_INT;
+        for (ColumnValues values : columnValues) {
+            if (values != null) {
+                byteSize += (values.offsets.length + values.lengths.length) * Bytes.SIZEOF_INT + values.rows.size() / Byte.SIZE;
+            }
+        }
+        return byteSize;
+    }
+    
+    public void clear() {
+        keyArenaSize = 0;
+        valueArenaSize = 0;
+        size = 0;
+        Arrays.fill(hashSlots, 0);
+        deletedRows.clear();
+        for (ColumnValues values : columnValues) {
+            if (values != null) {
+                values.rows.clear();
+            }
+        }
+    }
+    
+    private static int hash(byte[] b, int offset, int length) {
+        int h = Bytes.hashCode(b, offset, length);
+        return h ^ (h >>> 16);
+    }
+    
+    private boolean keyEquals(int row, byte[] key, int offset, int length) {
+        int rowOffset = keyOffsets[row];
+        return Bytes.equals(keyArena, rowOffset, keyOffsets[row + 1] - rowOffset, key, offset, length);
+    }
+    
+    private void rehash(int capacity) {
+        int[] slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int row = 0; row < size; row++) {
+            int rowOffset = keyOffsets[row];
+            int slot = hash(keyArena, rowOffset, keyOffsets[row + 1] - rowOffset) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = row + 1;
+        }
+        hashSlots = slots;
+    }
+    
+    private static byte[] ensureCapacity(byte[] arena, int required) {
+        if (required <= arena.length) {
+            return arena;
+        }
+        return Arrays.copyOf(arena, Math.max(required, arena.length * 2));
+    }
+    
+    /**
+     * Find the row with the given key, adding it if it is not yet in the buffer.
+     * @return the index of the row
+     */
+    public int addRow(ImmutableBytesWritable key) {
+        return addRow(key.get(), key.getOffset(), key.getLength());
+    }
+    
+    public int addRow(byte[] key, int offset, int length) {
+        int mask = hashSlots.length - 1;
+        int slot = hash(key, offset, length) & mask;
+        int entry;
+        while ((entry = hashSlots[slot]) != 0) {
+            if (keyEquals(entry - 1, key, offset, length)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int row = size++;
+        hashSlots[slot] = row + 1;
+        if (row + 1 >= keyOffsets.length) {
+            keyOffsets = Arrays.copyOf(keyOffsets, keyOffsets.length * 2);
+        }
+        keyArena = ensureCapacity(keyArena, keyArenaSize + length);
+        System.arraycopy(key, offset, keyArena, keyArenaSize, length);
+        keyOffsets[row] = keyArenaSize;
+        keyArenaSize += length;
+        keyOffsets[row + 1] = keyArenaSize;
+        if (size * 2 > hashSlots.length) {
+            rehash(hashSlots.length * 2);
+        }
+        return row;
+    }
+    
+    /**
+     * Set a column value for a row, cancelling any prior delete of the row
+     * @param row the row index returned by {@link #addRow(ImmutableBytesWritable)}
+     */
+    public void setValue(int row, PColumn column, byte[] value) {
+        setValue(row, column, value, 0, value == null ? NULL_VALUE_LENGTH : value.length);
+    }
+    
+    private void setValue(int row, PColumn column, byte[] value, int offset, int length) {
+        int position = column.getPosition();
+        if (position >= columns.length) {
+            int capacity = Math.max(position + 1, columns.length * 2);
+            columns = Arrays.copyOf(columns, capacity);
+            columnValues = Arrays.copyOf(columnValues, capacity);
+        }
+        // Keep the latest column, as the table may have been updated since the first value was set
+        columns[position] = column;
+        ColumnValues values = columnValues[position];
+        if (values == null) {
+            values = columnValues[position] = new ColumnValues(keyOffsets.length - 1);
+        }
+        values.ensureCapacity(row);
+        deletedRows.clear(row);
+        if (length != NULL_VALUE_LENGTH) {
+            // Overwrite the previous value in place when it fits, otherwise append
+            if (!values.rows.get(row) || values.lengths[row] < length) {
+                valueArena = ensureCapacity(valueArena, valueArenaSize + length);
+                values.offsets[row] = valueArenaSize;
+                valueArenaSize += length;
+            }
+            System.arraycopy(value, offset, valueArena, values.offsets[row], length);
+        }
+        values.lengths[row] = length;
+        values.rows.set(row);
+    }
+    
+    /**
+     * Delete a row, cancelling any prior values set for it
+     * @param row the row index returned by {@link #addRow(ImmutableBytesWritable)}
+     */
+    public void delete(int row) {
+        deletedRows.set(row);
+        for (ColumnValues values : columnValues) {
+            if (values != null) {
+                values.rows.clear(row);
+            }
+        }
+    }
+    
+    public void deleteRow(ImmutableBytesWritable key) {
+        delete(addRow(key));
+    }
+    
+    /**
+     * Add a row in the form of a column to value map, with {@link PRow#DELETE_MARKER}
+     * denoting a delete of the row.
+     */
+    public void putRow(ImmutableBytesWritable key, Map<PColumn,byte[]> values) {
+        int row = addRow(key);
+        if (values == PRow.DELETE_MARKER) {
+            delete(row);
+        } else {
+            for (Map.Entry<PColumn,byte[]> entry : values.entrySet()) {
+                setValue(row, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+    
+    /**
+     * Merge newer rows into this buffer. For rows in both buffers, a newer delete
+     * replaces the existing row, while newer column values replace existing values
+     * of the same column and cancel an existing delete.
+     * @param newer the buffer with the newer rows
+     * @return the number of rows that were not already in this buffer
+     */
+    public int putAll(MutationBuffer newer) {
+        int oldSize = size;
+        for (int newerRow = 0; newerRow < newer.size; newerRow++) {
+            int newerKeyOffset = newer.keyOffsets[newerRow];
+            int row = addRow(newer.keyArena, newerKeyOffset, newer.keyOffsets[newerRow + 1] - newerKeyOffset);
+            if (newer.deletedRows.get(newerRow)) {
+                delete(row);
+                continue;
+            }
+            for (int position = 0; position < newer.columnValues.length; position++) {
+                ColumnValues values = newer.columnValues[position];
+                if (values != null && values.rows.get(newerRow)) {
+                    setValue(row, newer.columns[position], newer.valueArena, values.offsets[newerRow], values.lengths[newerRow]);
+                }
+            }
+        }
+        return size - oldSize;
+    }
+    
+    public void getRowKey(int row, ImmutableBytesWritable ptr) {
+        ptr.set(keyArena, keyOffsets[row], keyOffsets[row + 1] - keyOffsets[row]);
+    }
+    
+    public boolean isDelete(int row) {
+        return deletedRows.get(row);
+    }
+    
+    /**
+     * Get the value of a column for a row
+     * @return false if the column has no value for the row and true otherwise,
+     * in which case ptr is set to the value or to null if the value was null
+     */
+    public boolean getValue(int row, PColumn column, ImmutableBytesWritable ptr) {
+        int position = column.getPosition();
+        ColumnValues values = position < columnValues.length ? columnValues[position] : null;
+        if (values == null || !values.rows.get(row)) {
+            return false;
+        }
+        int length = values.lengths[row];
+        if (length == NULL_VALUE_LENGTH) {
+            ptr.set(null, 0, 0);
+        } else {
+            ptr.set(valueArena, values.offsets[row], length);
+        }
+        return true;
+    }
+    
+    /**
+     * @return the columns for which a value has been set on any row
+     */
+    public List<PColumn> getColumns() {
+        List<PColumn> setColumns = Lists.newArrayListWithExpectedSize(columns.length);
+        for (int position = 0; position < columns.length; position++) {
+            if (columns[position] != null && !columnValues[position].rows.isEmpty()) {
+                setColumns.add(columns[position]);
+            }
+        }
+        return setColumns;
+    }
+    
+    /**
+     * Create the {@link PRow} for a buffered row, from which the HBase mutations are obtained
+     * through {@link PRow#toRowMutations()}.
+     */
+    public PRow newRow(PTable table, KeyValueBuilder builder, long timestamp, int row) {
+        ImmutableBytesPtr key = new ImmutableBytesPtr();
+        getRowKey(row, key);
+        PRow pRow = table.newRow(builder, timestamp, key);
+        if (deletedRows.get(row)) {
+            pRow.delete();
+            return pRow;
+        }
+        for (int position = 0; position < columnValues.length; position++) {
+            ColumnValues values = columnValues[position];
+            if (values != null && values.rows.get(row)) {
+                int length = values.lengths[row];
+                byte[] value = length == NULL_VALUE_LENGTH ? null : Arrays.copyOfRange(valueArena, values.offsets[row], values.offsets[row] + length);
+                pRow.setValue(columns[position], value);
+            }
+        }
+        return pRow;
+    }
+}
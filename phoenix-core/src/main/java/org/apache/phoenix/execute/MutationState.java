@@ -19,11 +19,22 @@ package org.apache.phoenix.execute;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellUtil;
@@ -36,12 +47,16 @@ import org.apache.phoenix.cache.ServerCacheClient;
 import org.apache.phoenix.cache.ServerCacheClient.ServerCache;
 import org.apache.phoenix.coprocessor.MetaDataProtocol.MetaDataMutationResult;
 import org.apache.phoenix.exception.SQLExceptionCode;
+import org.apache.phoenix.exception.SQLExceptionInfo;
 import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
 import org.apache.phoenix.index.IndexMaintainer;
 import org.apache.phoenix.index.IndexMetaDataCacheClient;
+import org.apache.phoenix.index.IndexMetaDataKeyCache;
 import org.apache.phoenix.index.PhoenixIndexCodec;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.query.QueryConstants;
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.query.QueryServicesOptions;
 import org.apache.phoenix.schema.IllegalDataException;
 import org.apache.phoenix.schema.MetaDataClient;
 import org.apache.phoenix.schema.PColumn;
@@ -54,6 +69,7 @@ import org.apache.phoenix.util.ByteUtil;
 import org.apache.phoenix.util.IndexUtil;
 import org.apache.phoenix.util.LogUtil;
 import org.apache.phoenix.util.PhoenixRuntime;
+import org.apache.phoenix.util.ReadOnlyProps;
 import org.apache.phoenix.util.SQLCloseable;
 import org.apache.phoenix.util.ServerUtil;
 import org.cloudera.htrace.Span;
@@ -64,6 +80,11 @@ import org.slf4j.LoggerFactory;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 
 /**
  * 
@@ -78,9 +99,13 @@ public class MutationState implements SQLCloseable {
     private PhoenixConnection connection;
     private final long maxSize;
     private final ImmutableBytesPtr tempPtr = new ImmutableBytesPtr();
-    private final Map<TableRef, Map<ImmutableBytesPtr,Map<PColumn,byte[]>>> mutations = Maps.newHashMapWithExpectedSize(3); // TODO: Sizing?
+    private final Map<TableRef, MutationBuffer> mutations = Maps.newHashMapWithExpectedSize(3); // TODO: Sizing?
     private long sizeOffset;
     private int numRows = 0;
+    // Asynchronous commits, oldest first, and write-behind state of the MutationState of a connection
+    private final Deque<InFlightCommit> inFlightCommits = new ArrayDeque<InFlightCommit>();
+    private long firstUncommittedTime;
+    private FutureCallback<Long> writeBehindCallback;
 
     public MutationState(int maxSize, PhoenixConnection connection) {
         this(maxSize,connection,0);
@@ -92,7 +117,7 @@ public class MutationState implements SQLCloseable {
         this.sizeOffset = sizeOffset;
     }
     
-    public MutationState(TableRef table, Map<ImmutableBytesPtr,Map<PColumn,byte[]>> mutations, long sizeOffset, long maxSize, PhoenixConnection connection) {
+    public MutationState(TableRef table, MutationBuffer mutations, long sizeOffset, long maxSize, PhoenixConnection connection) {
         this.maxSize = maxSize;
         this.connection = connection;
         this.mutations.put(table, mutations);
@@ -101,11 +126,11 @@ public class MutationState implements SQLCloseable {
         throwIfTooBig();
     }
     
-    private MutationState(List<Map.Entry<TableRef, Map<ImmutableBytesPtr,Map<PColumn,byte[]>>>> entries, long sizeOffset, long maxSize, PhoenixConnection connection) {
+    private MutationState(List<Map.Entry<TableRef, MutationBuffer>> entries, long sizeOffset, long maxSize, PhoenixConnection connection) {
         this.maxSize = maxSize;
         this.connection = connection;
         this.sizeOffset = sizeOffset;
-        for (Map.Entry<TableRef, Map<ImmutableBytesPtr,Map<PColumn,byte[]>>> entry : entries) {
+        for (Map.Entry<TableRef, MutationBuffer> entry : entries) {
             numRows += entry.getValue().size();
             this.mutations.put(entry.getKey(), entry.getValue());
         }
@@ -134,77 +159,42 @@ public class MutationState implements SQLCloseable {
         }
         this.sizeOffset += newMutation.sizeOffset;
         // Merge newMutation with this one, keeping state from newMutation for any overlaps
-        for (Map.Entry<TableRef, Map<ImmutableBytesPtr,Map<PColumn,byte[]>>> entry : newMutation.mutations.entrySet()) {
-            // Replace existing entries for the table with new entries
+        for (Map.Entry<TableRef, MutationBuffer> entry : newMutation.mutations.entrySet()) {
             TableRef tableRef = entry.getKey();
             PTable table = tableRef.getTable();
             boolean isIndex = table.getType() == PTableType.INDEX;
-            Map<ImmutableBytesPtr,Map<PColumn,byte[]>> existingRows = this.mutations.put(tableRef, entry.getValue());
+            MutationBuffer existingRows = this.mutations.get(tableRef);
+            int newRowCount;
             if (existingRows != null) { // Rows for that table already exist
-                // Loop through new rows and replace existing with new
-                for (Map.Entry<ImmutableBytesPtr,Map<PColumn,byte[]>> rowEntry : entry.getValue().entrySet()) {
-                    // Replace existing row with new row
-                    Map<PColumn,byte[]> existingValues = existingRows.put(rowEntry.getKey(), rowEntry.getValue());
-                    if (existingValues != null) {
-                        if (existingValues != PRow.DELETE_MARKER) {
-                            Map<PColumn,byte[]> newRow = rowEntry.getValue();
-                            // if new row is PRow.DELETE_MARKER, it means delete, and we don't need to merge it with existing row. 
-                            if (newRow != PRow.DELETE_MARKER) {
-                                // Replace existing column values with new column values
-                                for (Map.Entry<PColumn,byte[]> valueEntry : newRow.entrySet()) {
-                                    existingValues.put(valueEntry.getKey(), valueEntry.getValue());
-                                }
-                                // Now that the existing row has been merged with the new row, replace it back
-                                // again (since it was replaced with the new one above).
-                                existingRows.put(rowEntry.getKey(), existingValues);
-                            }
-                        }
-                    } else {
-                        if (!isIndex) { // Don't count index rows in row count
-                            numRows++;
-                        }
-                    }
-                }
-                // Put the existing one back now that it's merged
-                this.mutations.put(entry.getKey(), existingRows);
+                // Merge new rows into the existing ones, with new column values replacing existing
+                // ones and a new delete replacing the existing row.
+                newRowCount = existingRows.putAll(entry.getValue());
             } else {
-                if (!isIndex) {
-                    numRows += entry.getValue().size();
-                }
+                this.mutations.put(tableRef, entry.getValue());
+                newRowCount = entry.getValue().size();
+            }
+            if (!isIndex) { // Don't count index rows in row count
+                numRows += newRowCount;
             }
         }
         throwIfTooBig();
     }
     
-    private Iterator<Pair<byte[],List<Mutation>>> addRowMutations(final TableRef tableRef, final Map<ImmutableBytesPtr, Map<PColumn, byte[]>> values, long timestamp, boolean includeMutableIndexes) {
+    private Iterator<Pair<byte[],List<Mutation>>> addRowMutations(final TableRef tableRef, final MutationBuffer values, long timestamp, boolean includeMutableIndexes) {
         final Iterator<PTable> indexes = // Only maintain tables with immutable rows through this client-side mechanism
                 (tableRef.getTable().isImmutableRows() || includeMutableIndexes) ? 
                         IndexMaintainer.nonDisabledIndexIterator(tableRef.getTable().getIndexes().iterator()) : 
                         Iterators.<PTable>emptyIterator();
         final List<Mutation> mutations = Lists.newArrayListWithExpectedSize(values.size());
         final List<Mutation> mutationsPertainingToIndex = indexes.hasNext() ? Lists.<Mutation>newArrayListWithExpectedSize(values.size()) : null;
-        Iterator<Map.Entry<ImmutableBytesPtr,Map<PColumn,byte[]>>> iterator = values.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<ImmutableBytesPtr,Map<PColumn,byte[]>> rowEntry = iterator.next();
-            ImmutableBytesPtr key = rowEntry.getKey();
-            PRow row = tableRef.getTable().newRow(connection.getKeyValueBuilder(), timestamp, key);
-            List<Mutation> rowMutations, rowMutationsPertainingToIndex;
-            if (rowEntry.getValue() == PRow.DELETE_MARKER) { // means delete
-                row.delete();
-                rowMutations = row.toRowMutations();
-                // Row deletes for index tables are processed by running a re-written query
-                // against the index table (as this allows for flexibility in being able to
-                // delete rows).
-                rowMutationsPertainingToIndex = Collections.emptyList();
-            } else {
-                for (Map.Entry<PColumn,byte[]> valueEntry : rowEntry.getValue().entrySet()) {
-                    row.setValue(valueEntry.getKey(), valueEntry.getValue());
-                }
-                rowMutations = row.toRowMutations();
-                rowMutationsPertainingToIndex = rowMutations;
-            }
+        for (int i = 0; i < values.size(); i++) {
+            PRow row = values.newRow(tableRef.getTable(), connection.getKeyValueBuilder(), timestamp, i);
+            List<Mutation> rowMutations = row.toRowMutations();
             mutations.addAll(rowMutations);
-            if (mutationsPertainingToIndex != null) mutationsPertainingToIndex.addAll(rowMutationsPertainingToIndex);
+            // Row deletes for index tables are processed by running a re-written query
+            // against the index table (as this allows for flexibility in being able to
+            // delete rows).
+            if (mutationsPertainingToIndex != null && !values.isDelete(i)) mutationsPertainingToIndex.addAll(rowMutations);
         }
         return new Iterator<Pair<byte[],List<Mutation>>>() {
             boolean isFirst = true;
@@ -249,14 +239,14 @@ public class MutationState implements SQLCloseable {
     }
     
     public Iterator<Pair<byte[],List<Mutation>>> toMutations(final boolean includeMutableIndexes) {
-        final Iterator<Map.Entry<TableRef, Map<ImmutableBytesPtr,Map<PColumn,byte[]>>>> iterator = this.mutations.entrySet().iterator();
+        final Iterator<Map.Entry<TableRef, MutationBuffer>> iterator = this.mutations.entrySet().iterator();
         if (!iterator.hasNext()) {
             return Iterators.emptyIterator();
         }
         Long scn = connection.getSCN();
         final long timestamp = scn == null ? HConstants.LATEST_TIMESTAMP : scn;
         return new Iterator<Pair<byte[],List<Mutation>>>() {
-            private Map.Entry<TableRef, Map<ImmutableBytesPtr,Map<PColumn,byte[]>>> current = iterator.next();
+            private Map.Entry<TableRef, MutationBuffer> current = iterator.next();
             private Iterator<Pair<byte[],List<Mutation>>> innerIterator = init();
                     
             private Iterator<Pair<byte[],List<Mutation>>> init() {
@@ -297,7 +287,7 @@ public class MutationState implements SQLCloseable {
         Long scn = connection.getSCN();
         MetaDataClient client = new MetaDataClient(connection);
         long[] timeStamps = new long[this.mutations.size()];
-        for (Map.Entry<TableRef, Map<ImmutableBytesPtr,Map<PColumn,byte[]>>> entry : mutations.entrySet()) {
+        for (Map.Entry<TableRef, MutationBuffer> entry : mutations.entrySet()) {
             TableRef tableRef = entry.getKey();
             long serverTimeStamp = tableRef.getTimeStamp();
             PTable table = tableRef.getTable();
@@ -309,21 +299,9 @@ public class MutationState implements SQLCloseable {
                 if (timestamp != QueryConstants.UNSET_TIMESTAMP) {
                     serverTimeStamp = timestamp;
                     if (result.wasUpdated()) {
-                        // TODO: use bitset?
                         table = result.getTable();
-                        PColumn[] columns = new PColumn[table.getColumns().size()];
-                        for (Map.Entry<ImmutableBytesPtr,Map<PColumn,byte[]>> rowEntry : entry.getValue().entrySet()) {
-                            Map<PColumn,byte[]> valueEntry = rowEntry.getValue();
-                            if (valueEntry != PRow.DELETE_MARKER) {
-                                for (PColumn column : valueEntry.keySet()) {
-                                    columns[column.getPosition()] = column;
-                                }
-                            }
-                        }
-                        for (PColumn column : columns) {
-                            if (column != null) {
-                                table.getColumnFamily(column.getFamilyName().getString()).getColumn(column.getName().getString());
-                            }
+                        for (PColumn column : entry.getValue().getColumns()) {
+                            table.getColumnFamily(column.getFamilyName().getString()).getColumn(column.getName().getString());
                         }
                         tableRef.setTable(table);
                     }
@@ -352,140 +330,567 @@ public class MutationState implements SQLCloseable {
         logger.debug(LogUtil.addCustomAnnotations("Sending " + mutations.size() + " mutations for " + Bytes.toString(htable.getTableName()) + " with " + keyValueCount + " key values of total size " + byteSize + " bytes", connection));
     }
     
-    @SuppressWarnings("deprecation")
     public void commit() throws SQLException {
-        int i = 0;
-        byte[] tenantId = connection.getTenantId() == null ? null : connection.getTenantId().getBytes();
-        long[] serverTimeStamps = validate();
-        Iterator<Map.Entry<TableRef, Map<ImmutableBytesPtr,Map<PColumn,byte[]>>>> iterator = this.mutations.entrySet().iterator();
-        List<Map.Entry<TableRef, Map<ImmutableBytesPtr,Map<PColumn,byte[]>>>> committedList = Lists.newArrayListWithCapacity(this.mutations.size());
-
+        // Wait for all asynchronous commits first, as they must be applied before this one.
+        // The rows of failed write-behind commits are then committed again along with the
+        // uncommitted rows.
+        waitForInFlightCommits(-1);
+        send(validate());
+    }
+    
+    /**
+     * Commits the uncommitted rows asynchronously on the query services executor, allowing the
+     * caller to continue buffering rows while they are written. Asynchronous commits are applied
+     * in the order in which they were started, and {@link #commit()} waits for all of them. If
+     * the uncommitted rows would push the bytes being committed asynchronously above
+     * {@link QueryServices#MAX_IN_FLIGHT_COMMIT_BYTES_ATTRIB}, the caller first waits for the
+     * oldest asynchronous commits to complete. Asynchronous commits not yet started are
+     * cancelled by {@link #rollback(PhoenixConnection)}.
+     * @return a future for the number of rows committed, which fails with a {@link CommitException}
+     * if the rows could not be committed
+     * @throws SQLException if the table or any columns no longer exist
+     */
+    public ListenableFuture<Long> commitAsync() throws SQLException {
+        return commitAsync(false);
+    }
+    
+    private ListenableFuture<Long> commitAsync(boolean isWriteBehind) throws SQLException {
+        if (mutations.isEmpty()) {
+            return Futures.immediateFuture(0L);
+        }
+        long byteSize = 0;
+        for (MutationBuffer buffer : mutations.values()) {
+            byteSize += buffer.getByteSize();
+        }
+        long maxInFlightBytes = connection.getQueryServices().getProps().getLong(QueryServices.MAX_IN_FLIGHT_COMMIT_BYTES_ATTRIB, QueryServicesOptions.DEFAULT_MAX_IN_FLIGHT_COMMIT_BYTES);
+        waitForInFlightCommits(Math.max(0, maxInFlightBytes - byteSize));
+        final MutationState batch = new MutationState((int)maxSize, connection);
+        batch.mutations.putAll(this.mutations);
+        batch.numRows = this.numRows;
+        final long[] serverTimeStamps = batch.validate();
+        final long rowCount = batch.numRows;
+        this.mutations.clear();
+        this.numRows = 0;
+        this.firstUncommittedTime = 0;
+        
+        final InFlightCommit previous = inFlightCommits.peekLast();
+        final InFlightCommit inFlightCommit = new InFlightCommit(batch, byteSize, isWriteBehind);
+        final SettableFuture<Long> future = inFlightCommit.future;
+        final Runnable commit = new Runnable() {
+            @Override
+            public void run() {
+                if (!inFlightCommit.start()) {
+                    return; // Cancelled by a rollback
+                }
+                try {
+                    // Don't apply this commit out of order when the previous one failed
+                    Throwable previousFailure = previous == null ? null : getFailure(previous.future);
+                    if (previousFailure != null) {
+                        throw new CommitException(ServerUtil.parseServerException(previousFailure), batch, new MutationState((int)maxSize, connection));
+                    }
+                    batch.send(serverTimeStamps);
+                    future.set(rowCount);
+                } catch (Throwable t) {
+                    future.setException(t);
+                } finally {
+                    inFlightCommit.finish();
+                }
+            }
+        };
+        Runnable submit = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    connection.getQueryServices().getExecutor().submit(commit);
+                } catch (RejectedExecutionException e) {
+                    commit.run();
+                }
+            }
+        };
+        // Start once the previous asynchronous commit is done so that they're applied in order
+        if (previous == null) {
+            submit.run();
+        } else {
+            previous.future.addListener(submit, MoreExecutors.sameThreadExecutor());
+        }
+        inFlightCommits.add(inFlightCommit);
+        return future;
+    }
+    
+    private static Throwable getFailure(Future<Long> future) {
+        try {
+            future.get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (CancellationException e) {
+            return e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return e;
+        }
+    }
+    
+    /**
+     * Starts an asynchronous commit of the uncommitted rows when write-behind is enabled and either
+     * {@link QueryServices#WRITE_BEHIND_ROW_COUNT_ATTRIB} rows are uncommitted or the first of them
+     * was buffered more than {@link QueryServices#WRITE_BEHIND_INTERVAL_MS_ATTRIB} milliseconds ago.
+     * The failure of such a commit is passed to the write-behind callback, if any. The rows it did
+     * not commit are then put back with the uncommitted rows, older than any of them, so that they
+     * are committed again by the next commit.
+     */
+    public void writeBehindIfNeeded() throws SQLException {
+        if (mutations.isEmpty()) {
+            return;
+        }
+        ReadOnlyProps props = connection.getQueryServices().getProps();
+        int writeBehindRowCount = props.getInt(QueryServices.WRITE_BEHIND_ROW_COUNT_ATTRIB, QueryServicesOptions.DEFAULT_WRITE_BEHIND_ROW_COUNT);
+        long writeBehindIntervalMs = props.getLong(QueryServices.WRITE_BEHIND_INTERVAL_MS_ATTRIB, QueryServicesOptions.DEFAULT_WRITE_BEHIND_INTERVAL_MS);
+        if (writeBehindRowCount <= 0 && writeBehindIntervalMs <= 0) {
+            return;
+        }
+        long currentTime = System.currentTimeMillis();
+        if (firstUncommittedTime == 0) {
+            firstUncommittedTime = currentTime;
+        }
+        if ((writeBehindRowCount > 0 && numRows >= writeBehindRowCount)
+                || (writeBehindIntervalMs > 0 && currentTime - firstUncommittedTime >= writeBehindIntervalMs)) {
+            ListenableFuture<Long> future = commitAsync(true);
+            if (writeBehindCallback != null) {
+                Futures.addCallback(future, writeBehindCallback);
+            }
+        }
+    }
+    
+    /**
+     * Set the callback invoked upon completion of each commit started by {@link #writeBehindIfNeeded()}
+     */
+    public void setWriteBehindCallback(FutureCallback<Long> writeBehindCallback) {
+        this.writeBehindCallback = writeBehindCallback;
+    }
+    
+    /**
+     * Waits for the oldest asynchronous commits until at most the given number of bytes are being
+     * committed asynchronously. The rows not committed by failed write-behind commits are put back
+     * with the uncommitted rows.
+     */
+    private void waitForInFlightCommits(long maxInFlightBytes) throws SQLException {
+        long inFlightBytes = 0;
+        for (InFlightCommit inFlightCommit : inFlightCommits) {
+            inFlightBytes += inFlightCommit.byteSize;
+        }
+        List<MutationState> failedBatches = Collections.emptyList();
+        try {
+            while (!inFlightCommits.isEmpty() && (inFlightBytes > maxInFlightBytes || inFlightCommits.peek().future.isDone())) {
+                InFlightCommit inFlightCommit = inFlightCommits.peek();
+                try {
+                    inFlightCommit.future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLExceptionInfo.Builder(SQLExceptionCode.INTERRUPTED_EXCEPTION).setRootCause(e).build().buildException();
+                } catch (ExecutionException e) {
+                    // The failure of a commit started by the caller is reported through its future
+                    if (inFlightCommit.isWriteBehind) {
+                        if (failedBatches.isEmpty()) {
+                            failedBatches = Lists.newArrayListWithExpectedSize(inFlightCommits.size());
+                        }
+                        failedBatches.add(inFlightCommit.batch);
+                    }
+                } catch (CancellationException e) {
+                    // Rolled back
+                }
+                inFlightCommits.poll();
+                inFlightBytes -= inFlightCommit.byteSize;
+            }
+        } finally {
+            // Newest first, so that each batch ends up older than the ones put back before it
+            for (int i = failedBatches.size() - 1; i >= 0; i--) {
+                joinOlder(failedBatches.get(i));
+            }
+        }
+    }
+    
+    /**
+     * Combine an older mutation with this one, where in the event of overlaps,
+     * this one will take precedence.
+     */
+    private void joinOlder(MutationState olderMutation) {
+        MutationState newerMutation = new MutationState((int)maxSize, connection);
+        newerMutation.mutations.putAll(this.mutations);
+        newerMutation.numRows = this.numRows;
+        this.mutations.clear();
+        this.mutations.putAll(olderMutation.mutations);
+        this.numRows = olderMutation.numRows;
+        join(newerMutation);
+    }
+    
+    /**
+     * Cancels the asynchronous commits not yet started and waits for the ones being written,
+     * as those cannot be undone.
+     */
+    private void cancelInFlightCommits() throws SQLException {
+        // Newest first, as cancelling a commit starts the one after it
+        Iterator<InFlightCommit> iterator = inFlightCommits.descendingIterator();
+        while (iterator.hasNext()) {
+            iterator.next().cancel();
+        }
+        try {
+            for (InFlightCommit inFlightCommit : inFlightCommits) {
+                inFlightCommit.awaitFinish();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLExceptionInfo.Builder(SQLExceptionCode.INTERRUPTED_EXCEPTION).setRootCause(e).build().buildException();
+        }
+        inFlightCommits.clear();
+    }
+    
+    private void send(long[] serverTimeStamps) throws SQLException {
         // add tracing for this operation
         TraceScope trace = Tracing.startNewSpan(connection, "Committing mutations to tables");
         Span span = trace.getSpan();
+        if (connection.getQueryServices().getProps().getBoolean(QueryServices.PARALLEL_COMMIT_ATTRIB, QueryServicesOptions.DEFAULT_PARALLEL_COMMIT)) {
+            parallelCommit(serverTimeStamps, span);
+        } else {
+            serialCommit(serverTimeStamps, span);
+        }
+        trace.close();
+        assert(numRows==0);
+        assert(this.mutations.isEmpty());
+    }
+    
+    private void serialCommit(long[] serverTimeStamps, Span span) throws SQLException {
+        int i = 0;
+        Iterator<Map.Entry<TableRef, MutationBuffer>> iterator = this.mutations.entrySet().iterator();
+        List<Map.Entry<TableRef, MutationBuffer>> committedList = Lists.newArrayListWithCapacity(this.mutations.size());
         while (iterator.hasNext()) {
-            Map.Entry<TableRef, Map<ImmutableBytesPtr,Map<PColumn,byte[]>>> entry = iterator.next();
-            Map<ImmutableBytesPtr,Map<PColumn,byte[]>> valuesMap = entry.getValue();
+            Map.Entry<TableRef, MutationBuffer> entry = iterator.next();
             TableRef tableRef = entry.getKey();
-            PTable table = tableRef.getTable();
-            table.getIndexMaintainers(tempPtr);
-            boolean hasIndexMaintainers = tempPtr.getLength() > 0;
-            boolean isDataTable = true;
+            // Only the mutations of the data table carry the index metadata
+            ImmutableBytesPtr indexMetaDataPtr = getIndexMetaData(tableRef.getTable());
             long serverTimestamp = serverTimeStamps[i++];
-            Iterator<Pair<byte[],List<Mutation>>> mutationsIterator = addRowMutations(tableRef, valuesMap, serverTimestamp, false);
+            Iterator<Pair<byte[],List<Mutation>>> mutationsIterator = addRowMutations(tableRef, entry.getValue(), serverTimestamp, false);
+            boolean isDataTable = true;
             while (mutationsIterator.hasNext()) {
                 Pair<byte[],List<Mutation>> pair = mutationsIterator.next();
-                byte[] htableName = pair.getFirst();
-                List<Mutation> mutations = pair.getSecond();
-                
-                //create a span per target table
-                //TODO maybe we can be smarter about the table name to string here?
-                Span child = Tracing.child(span,"Writing mutation batch for table: "+Bytes.toString(htableName));
+                try {
+                    commitBatch(tableRef, pair.getFirst(), pair.getSecond(), isDataTable ? indexMetaDataPtr : null, span);
+                } catch (Exception e) {
+                    // Throw to client with both what was committed so far and what is left to be committed.
+                    // That way, client can either undo what was done or try again with what was not done.
+                    throw new CommitException(e, this, new MutationState(committedList, this.sizeOffset, this.maxSize, this.connection));
+                }
+                if (isDataTable) {
+                    committedList.add(entry);
+                }
+                isDataTable = false;
+            }
+            if (tableRef.getTable().getType() != PTableType.INDEX) {
+                numRows -= entry.getValue().size();
+            }
+            iterator.remove(); // Remove batches as we process them
+        }
+    }
+    
+    /**
+     * Sends the batches of mutations of the tables concurrently on the query services executor
+     * instead of one round trip after the other. The batches of the immutable indexes of a
+     * table are only written after its data table batch succeeded, so that a failed commit
+     * never leaves index rows behind that point to missing data rows. A table whose batches
+     * all succeeded is removed from this state, while a table whose data table batch succeeded
+     * is part of the committed state of the {@link CommitException} thrown when any batch
+     * fails, same as for a serial commit.
+     */
+    private void parallelCommit(long[] serverTimeStamps, Span span) throws SQLException {
+        int i = 0;
+        List<Map.Entry<TableRef, MutationBuffer>> entries = Lists.newArrayList(this.mutations.entrySet());
+        List<CommitBatches> batchesPerEntry = Lists.newArrayListWithExpectedSize(entries.size());
+        // Build all batches up front, as building the index mutations is not thread safe
+        for (Map.Entry<TableRef, MutationBuffer> entry : entries) {
+            TableRef tableRef = entry.getKey();
+            ImmutableBytesPtr indexMetaDataPtr = getIndexMetaData(tableRef.getTable());
+            long serverTimestamp = serverTimeStamps[i++];
+            Iterator<Pair<byte[],List<Mutation>>> mutationsIterator = addRowMutations(tableRef, entry.getValue(), serverTimestamp, false);
+            batchesPerEntry.add(new CommitBatches(tableRef, Lists.newArrayList(mutationsIterator), indexMetaDataPtr, span));
+        }
+        if (batchesPerEntry.size() > 1) {
+            ExecutorService executor = connection.getQueryServices().getExecutor();
+            for (CommitBatches batches : batchesPerEntry) {
+                try {
+                    executor.submit(batches);
+                } catch (RejectedExecutionException e) {
+                    // Run below by this thread
+                }
+            }
+        }
+        // Run the batches not yet picked up by the executor on this thread, as a commit done from
+        // an executor thread could otherwise wait forever for a batch queued behind it.
+        for (CommitBatches batches : batchesPerEntry) {
+            batches.call();
+        }
+        Exception failure = null;
+        List<Map.Entry<TableRef, MutationBuffer>> committedList = Lists.newArrayListWithCapacity(entries.size());
+        for (int j = 0; j < entries.size(); j++) {
+            Map.Entry<TableRef, MutationBuffer> entry = entries.get(j);
+            CommitBatches batches = batchesPerEntry.get(j);
+            Exception e = batches.getFailure();
+            if (batches.isDataCommitted()) {
+                committedList.add(entry);
+            }
+            if (e == null) {
+                if (entry.getKey().getTable().getType() != PTableType.INDEX) {
+                    numRows -= entry.getValue().size();
+                }
+                this.mutations.remove(entry.getKey());
+            } else if (failure == null) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            // Throw to client with both what was committed and what is left to be committed.
+            throw new CommitException(failure, this, new MutationState(committedList, this.sizeOffset, this.maxSize, this.connection));
+        }
+    }
+    
+    private static ImmutableBytesPtr getIndexMetaData(PTable table) {
+        ImmutableBytesPtr ptr = new ImmutableBytesPtr();
+        table.getIndexMaintainers(ptr);
+        return ptr.getLength() > 0 ? ptr : null;
+    }
+    
+    /**
+     * Write a batch of mutations to a single HBase table.
+     * @param indexMetaDataPtr the serialized index maintainers to send along with the mutations
+     * of a data table or null if there are none
+     * @throws Exception the failure of the batch, as a SQLException if one can be inferred
+     */
+    @SuppressWarnings("deprecation")
+    private void commitBatch(TableRef tableRef, byte[] htableName, List<Mutation> mutations, ImmutableBytesPtr indexMetaDataPtr, Span span) throws Exception {
+        byte[] tenantId = connection.getTenantId() == null ? null : connection.getTenantId().getBytes();
+        PTable table = tableRef.getTable();
+        //create a span per target table
+        //TODO maybe we can be smarter about the table name to string here?
+        Span child = Tracing.child(span,"Writing mutation batch for table: "+Bytes.toString(htableName));
 
-                int retryCount = 0;
-                boolean shouldRetry = false;
-                do {
-                    ServerCache cache = null;
-                    if (hasIndexMaintainers && isDataTable) {
-                        byte[] attribValue = null;
-                        byte[] uuidValue;
-                        if (IndexMetaDataCacheClient.useIndexMetadataCache(connection, mutations, tempPtr.getLength())) {
-                            IndexMetaDataCacheClient client = new IndexMetaDataCacheClient(connection, tableRef);
-                            cache = client.addIndexMetadataCache(mutations, tempPtr);
-                            child.addTimelineAnnotation("Updated index metadata cache");
-                            uuidValue = cache.getId();
-                            // If we haven't retried yet, retry for this case only, as it's possible that
-                            // a split will occur after we send the index metadata cache to all known
-                            // region servers.
-                            shouldRetry = true;
-                        } else {
-                            attribValue = ByteUtil.copyKeyBytesIfNecessary(tempPtr);
-                            uuidValue = ServerCacheClient.generateId();
+        int retryCount = 0;
+        boolean shouldRetry = false;
+        byte[] indexMetaDataKey = indexMetaDataPtr == null ? null : IndexMetaDataCacheClient.getIndexMetaDataKey(connection, table, indexMetaDataPtr);
+        IndexMetaDataKeyCache indexMetaDataKeyCache = connection.getQueryServices().getIndexMetaDataKeyCache();
+        Set<String> regionServers = indexMetaDataKey == null ? null : IndexMetaDataCacheClient.getRegionServers(connection, htableName, mutations);
+        // One more retry is needed if the region servers turn out to no longer cache the index metadata
+        boolean isIndexMetaDataCached = indexMetaDataKey != null && indexMetaDataKeyCache.isCached(indexMetaDataKey, regionServers);
+        int maxRetryCount = isIndexMetaDataCached ? 2 : 1;
+        do {
+            ServerCache cache = null;
+            if (indexMetaDataPtr != null) {
+                byte[] attribValue = null;
+                byte[] uuidValue;
+                if (isIndexMetaDataCached) {
+                    // The region servers already hold the deserialized index maintainers
+                    uuidValue = ServerCacheClient.generateId();
+                    shouldRetry = true;
+                } else if (IndexMetaDataCacheClient.useIndexMetadataCache(connection, mutations, indexMetaDataPtr.getLength())) {
+                    IndexMetaDataCacheClient client = new IndexMetaDataCacheClient(connection, tableRef);
+                    cache = client.addIndexMetadataCache(mutations, indexMetaDataPtr);
+                    child.addTimelineAnnotation("Updated index metadata cache");
+                    uuidValue = cache.getId();
+                    // If we haven't retried yet, retry for this case only, as it's possible that
+                    // a split will occur after we send the index metadata cache to all known
+                    // region servers.
+                    shouldRetry = true;
+                } else {
+                    attribValue = ByteUtil.copyKeyBytesIfNecessary(indexMetaDataPtr);
+                    uuidValue = ServerCacheClient.generateId();
+                }
+                // Either set the UUID to be able to access the index metadata from the cache
+                // or set the index metadata directly on the Mutation
+                for (Mutation mutation : mutations) {
+                    if (tenantId != null) {
+                        mutation.setAttribute(PhoenixRuntime.TENANT_ID_ATTRIB, tenantId);
+                    }
+                    mutation.setAttribute(PhoenixIndexCodec.INDEX_UUID, uuidValue);
+                    if (attribValue != null) {
+                        mutation.setAttribute(PhoenixIndexCodec.INDEX_MD, attribValue);
+                    }
+                    if (indexMetaDataKey != null) {
+                        mutation.setAttribute(PhoenixIndexCodec.INDEX_MD_KEY, indexMetaDataKey);
+                    }
+                }
+            }
+            
+            Exception failure = null;
+            HTableInterface hTable = connection.getQueryServices().getTable(htableName);
+            try {
+                if (logger.isDebugEnabled()) logMutationSize(hTable, mutations, connection);
+                long startTime = System.currentTimeMillis();
+                child.addTimelineAnnotation("Attempt " + retryCount);
+                hTable.batch(mutations);
+                child.stop();
+                shouldRetry = false;
+                if (indexMetaDataKey != null && !isIndexMetaDataCached) {
+                    indexMetaDataKeyCache.setCached(indexMetaDataKey, regionServers);
+                }
+                if (logger.isDebugEnabled()) logger.debug(LogUtil.addCustomAnnotations("Total time for batch call of  " + mutations.size() + " mutations into " + table.getName().getString() + ": " + (System.currentTimeMillis() - startTime) + " ms", connection));
+            } catch (Exception e) {
+                SQLException inferredE = ServerUtil.parseServerExceptionOrNull(e);
+                if (inferredE != null) {
+                    if (shouldRetry && retryCount < maxRetryCount && inferredE.getErrorCode() == SQLExceptionCode.INDEX_METADATA_NOT_FOUND.getErrorCode()) {
+                        // Swallow this exception once, as it's possible that we split after sending the index metadata
+                        // and one of the region servers doesn't have it. This will cause it to have it the next go around.
+                        // If it fails again, we don't retry.
+                        if (isIndexMetaDataCached) {
+                            // A region server evicted or never had the index maintainers, so send them again
+                            indexMetaDataKeyCache.invalidate(indexMetaDataKey);
+                            isIndexMetaDataCached = false;
                         }
-                        // Either set the UUID to be able to access the index metadata from the cache
-                        // or set the index metadata directly on the Mutation
-                        for (Mutation mutation : mutations) {
-                            if (tenantId != null) {
-                                mutation.setAttribute(PhoenixRuntime.TENANT_ID_ATTRIB, tenantId);
-                            }
-                            mutation.setAttribute(PhoenixIndexCodec.INDEX_UUID, uuidValue);
-                            if (attribValue != null) {
-                                mutation.setAttribute(PhoenixIndexCodec.INDEX_MD, attribValue);
-                            }
+                        String msg = "Swallowing exception and retrying after clearing meta cache on connection. " + inferredE;
+                        logger.warn(LogUtil.addCustomAnnotations(msg, connection));
+                        connection.getQueryServices().clearTableRegionCache(htableName);
+                        if (indexMetaDataKey != null) {
+                            // The regions may have moved, so find out again which servers will cache the index maintainers
+                            regionServers = IndexMetaDataCacheClient.getRegionServers(connection, htableName, mutations);
                         }
-                    }
-                    
-                    SQLException sqlE = null;
-                    HTableInterface hTable = connection.getQueryServices().getTable(htableName);
-                    try {
-                        if (logger.isDebugEnabled()) logMutationSize(hTable, mutations, connection);
-                        long startTime = System.currentTimeMillis();
-                        child.addTimelineAnnotation("Attempt " + retryCount);
-                        hTable.batch(mutations);
-                        child.stop();
-                        shouldRetry = false;
-                        if (logger.isDebugEnabled()) logger.debug(LogUtil.addCustomAnnotations("Total time for batch call of  " + mutations.size() + " mutations into " + table.getName().getString() + ": " + (System.currentTimeMillis() - startTime) + " ms", connection));
-                        committedList.add(entry);
-                    } catch (Exception e) {
-                        SQLException inferredE = ServerUtil.parseServerExceptionOrNull(e);
-                        if (inferredE != null) {
-                            if (shouldRetry && retryCount == 0 && inferredE.getErrorCode() == SQLExceptionCode.INDEX_METADATA_NOT_FOUND.getErrorCode()) {
-                                // Swallow this exception once, as it's possible that we split after sending the index metadata
-                                // and one of the region servers doesn't have it. This will cause it to have it the next go around.
-                                // If it fails again, we don't retry.
-                                String msg = "Swallowing exception and retrying after clearing meta cache on connection. " + inferredE;
-                                logger.warn(LogUtil.addCustomAnnotations(msg, connection));
-                                connection.getQueryServices().clearTableRegionCache(htableName);
 
-                                // add a new child span as this one failed
-                                child.addTimelineAnnotation(msg);
-                                child.stop();
-                                child = Tracing.child(span,"Failed batch, attempting retry");
+                        // add a new child span as this one failed
+                        child.addTimelineAnnotation(msg);
+                        child.stop();
+                        child = Tracing.child(span,"Failed batch, attempting retry");
 
-                                continue;
-                            }
-                            e = inferredE;
+                        continue;
+                    }
+                    e = inferredE;
+                }
+                failure = e;
+            } finally {
+                try {
+                    hTable.close();
+                } catch (IOException e) {
+                    SQLException closeE = ServerUtil.parseServerException(e);
+                    if (failure == null) {
+                        failure = closeE;
+                    } else if (failure instanceof SQLException) {
+                        ((SQLException)failure).setNextException(closeE);
+                    }
+                } finally {
+                    try {
+                        if (cache != null) {
+                            cache.close();
                         }
-                        // Throw to client with both what was committed so far and what is left to be committed.
-                        // That way, client can either undo what was done or try again with what was not done.
-                        sqlE = new CommitException(e, this, new MutationState(committedList, this.sizeOffset, this.maxSize, this.connection));
                     } finally {
-                        try {
-                            hTable.close();
-                        } catch (IOException e) {
-                            if (sqlE != null) {
-                                sqlE.setNextException(ServerUtil.parseServerException(e));
-                            } else {
-                                sqlE = ServerUtil.parseServerException(e);
-                            }
-                        } finally {
-                            try {
-                                if (cache != null) {
-                                    cache.close();
-                                }
-                            } finally {
-                                if (sqlE != null) {
-                                    throw sqlE;
-                                }
-                            }
+                        if (failure != null) {
+                            throw failure;
                         }
                     }
-                } while (shouldRetry && retryCount++ < 1);
-                isDataTable = false;
+                }
             }
-            if (tableRef.getTable().getType() != PTableType.INDEX) {
-                numRows -= entry.getValue().size();
+        } while (shouldRetry && retryCount++ < maxRetryCount);
+    }
+    
+    /**
+     * The batches of mutations of a table, written one after the other by whichever thread
+     * gets to them first: the data table batch first, followed by the batches of its
+     * immutable indexes unless the data table batch failed.
+     */
+    private class CommitBatches implements Callable<Void> {
+        private final TableRef tableRef;
+        private final List<Pair<byte[],List<Mutation>>> batches;
+        private final ImmutableBytesPtr indexMetaDataPtr;
+        private final Span span;
+        private final AtomicBoolean isStarted = new AtomicBoolean();
+        private final CountDownLatch isDone = new CountDownLatch(1);
+        private int committedCount;
+        private Exception failure;
+        
+        private CommitBatches(TableRef tableRef, List<Pair<byte[],List<Mutation>>> batches, ImmutableBytesPtr indexMetaDataPtr, Span span) {
+            this.tableRef = tableRef;
+            this.batches = batches;
+            this.indexMetaDataPtr = indexMetaDataPtr;
+            this.span = span;
+        }
+        
+        @Override
+        public Void call() {
+            if (isStarted.compareAndSet(false, true)) {
+                try {
+                    for (Pair<byte[],List<Mutation>> batch : batches) {
+                        // Only the mutations of the data table carry the index metadata
+                        commitBatch(tableRef, batch.getFirst(), batch.getSecond(), committedCount == 0 ? indexMetaDataPtr : null, span);
+                        committedCount++;
+                    }
+                } catch (Exception e) {
+                    failure = e;
+                } finally {
+                    isDone.countDown();
+                }
             }
-            iterator.remove(); // Remove batches as we process them
+            return null;
+        }
+        
+        private Exception getFailure() throws SQLException {
+            try {
+                isDone.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLExceptionInfo.Builder(SQLExceptionCode.INTERRUPTED_EXCEPTION).setRootCause(e).build().buildException();
+            }
+            return failure;
+        }
+        
+        private boolean isDataCommitted() {
+            return committedCount > 0;
         }
-        trace.close();
-        assert(numRows==0);
-        assert(this.mutations.isEmpty());
     }
     
+    /**
+     * Discards the uncommitted rows, including the ones of asynchronous commits that have not
+     * started yet. Waits for the asynchronous commits being written, so that no more rows are
+     * written once this returns. Also done when the connection is closed.
+     */
     public void rollback(PhoenixConnection connection) throws SQLException {
-        this.mutations.clear();
-        numRows = 0;
+        try {
+            cancelInFlightCommits();
+        } finally {
+            this.mutations.clear();
+            numRows = 0;
+            firstUncommittedTime = 0;
+        }
+    }
+    
+    private static class InFlightCommit {
+        private final MutationState batch;
+        private final SettableFuture<Long> future = SettableFuture.create();
+        private final long byteSize;
+        private final boolean isWriteBehind;
+        private final AtomicBoolean isStartedOrCancelled = new AtomicBoolean();
+        private final CountDownLatch isFinished = new CountDownLatch(1);
+        
+        private InFlightCommit(MutationState batch, long byteSize, boolean isWriteBehind) {
+            this.batch = batch;
+            this.byteSize = byteSize;
+            this.isWriteBehind = isWriteBehind;
+        }
+        
+        /**
+         * @return true if the commit may be written and false if it was cancelled
+         */
+        private boolean start() {
+            return isStartedOrCancelled.compareAndSet(false, true);
+        }
+        
+        private void finish() {
+            isFinished.countDown();
+        }
+        
+        private void cancel() {
+            if (isStartedOrCancelled.compareAndSet(false, true)) {
+                future.cancel(false);
+                isFinished.countDown();
+            }
+        }
+        
+        private void awaitFinish() throws InterruptedException {
+            isFinished.await();
+        }
     }
     
     @Override
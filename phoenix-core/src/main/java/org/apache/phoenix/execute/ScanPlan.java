@@ -19,6 +19,7 @@ package org.apache.phoenix.execute;
 
 
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.hadoop.hbase.HTableDescriptor;
@@ -36,6 +37,7 @@ import org.apache.phoenix.iterate.MergeSortRowKeyResultIterator;
 import org.apache.phoenix.iterate.MergeSortTopNResultIterator;
 import org.apache.phoenix.iterate.ParallelIteratorFactory;
 import org.apache.phoenix.iterate.ParallelIterators;
+import org.apache.phoenix.iterate.PointLookupResultIterator;
 import org.apache.phoenix.iterate.ResultIterator;
 import org.apache.phoenix.iterate.ResultIterators;
 import org.apache.phoenix.iterate.SequenceResultIterator;
@@ -168,6 +170,21 @@ public class ScanPlan extends BaseQueryPlan {
          * limit is provided, run query serially.
          */
         boolean isOrdered = !orderBy.getOrderByExpressions().isEmpty();
+        int maxPointLookupGets = context.getConnection().getQueryServices().getProps().getInt(
+                QueryServices.POINT_LOOKUP_GET_THRESHOLD_ATTRIB, QueryServicesOptions.DEFAULT_POINT_LOOKUP_GET_THRESHOLD);
+        if (PointLookupResultIterator.isApplicable(context, tableRef, orderBy, maxPointLookupGets)) {
+            // Fetch the few rows directly with Gets instead of setting up parallel scans
+            splits = Collections.emptyList();
+            scans = Collections.singletonList(Collections.singletonList(scan));
+            scanner = new PointLookupResultIterator(context, tableRef);
+            if (limit != null) {
+                scanner = new LimitingResultIterator(scanner, limit);
+            }
+            if (context.getSequenceManager().getSequenceCount() > 0) {
+                scanner = new SequenceResultIterator(scanner, context.getSequenceManager());
+            }
+            return scanner;
+        }
         boolean isSerial = isSerial(context, tableRef, orderBy, limit, allowPageFilter);
         Integer perScanLimit = !allowPageFilter || isOrdered ? null : limit;
         ResultIterators iterators;
@@ -305,6 +305,11 @@ public class SortMergeJoinPlan implements QueryPlan {
             return next;
         }
 
+        @Override
+        public boolean isReadAheadSafe() {
+            return true;
+        }
+
         @Override
         public void explain(List<String> planSteps) {
         }
@@ -446,6 +451,11 @@ public class SortMergeJoinPlan implements QueryPlan {
             return next;
         }
 
+        @Override
+        public boolean isReadAheadSafe() {
+            return true;
+        }
+
         @Override
         public void explain(List<String> planSteps) {
         }
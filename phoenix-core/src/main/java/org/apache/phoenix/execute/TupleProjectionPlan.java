@@ -23,6 +23,8 @@ import java.util.List;
 import org.apache.phoenix.compile.ExplainPlan;
 import org.apache.phoenix.compile.QueryPlan;
 import org.apache.phoenix.expression.Expression;
+import org.apache.phoenix.iterate.BatchResultIterator;
+import org.apache.phoenix.iterate.BatchResultIterators;
 import org.apache.phoenix.iterate.DelegateResultIterator;
 import org.apache.phoenix.iterate.FilterResultIterator;
 import org.apache.phoenix.iterate.ResultIterator;
@@ -53,22 +55,7 @@ public class TupleProjectionPlan extends DelegateQueryPlan {
 
     @Override
     public ResultIterator iterator() throws SQLException {
-        ResultIterator iterator = new DelegateResultIterator(delegate.iterator()) {
-            
-            @Override
-            public Tuple next() throws SQLException {
-                Tuple tuple = super.next();
-                if (tuple == null)
-                    return null;
-                
-                return tupleProjector.projectResults(tuple);
-            }
-
-            @Override
-            public String toString() {
-                return "TupleProjectionResultIterator [projector=" + tupleProjector + "]";
-            }            
-        };
+        ResultIterator iterator = new TupleProjectionResultIterator(delegate.iterator(), tupleProjector);
         
         if (postFilter != null) {
             iterator = new FilterResultIterator(iterator, postFilter);
@@ -76,4 +63,36 @@ public class TupleProjectionPlan extends DelegateQueryPlan {
         
         return iterator;
     }
+    
+    private static class TupleProjectionResultIterator extends DelegateResultIterator implements BatchResultIterator {
+        private final TupleProjector tupleProjector;
+        
+        private TupleProjectionResultIterator(ResultIterator delegate, TupleProjector tupleProjector) {
+            super(delegate);
+            this.tupleProjector = tupleProjector;
+        }
+        
+        @Override
+        public Tuple next() throws SQLException {
+            Tuple tuple = super.next();
+            if (tuple == null)
+                return null;
+            
+            return tupleProjector.projectResults(tuple);
+        }
+        
+        @Override
+        public int nextBatch(Tuple[] batch, int offset, int length) throws SQLException {
+            int count = BatchResultIterators.nextBatch(getDelegate(), batch, offset, length);
+            for (int i = offset; i < offset + count; i++) {
+                batch[i] = tupleProjector.projectResults(batch[i]);
+            }
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return "TupleProjectionResultIterator [projector=" + tupleProjector + "]";
+        }            
+    }
 }
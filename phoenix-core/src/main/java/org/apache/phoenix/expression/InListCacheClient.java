@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression;
+
+import static org.apache.phoenix.query.QueryServices.IN_LIST_SERVER_CACHE_THRESHOLD_ATTRIB;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.cache.ServerCacheClient;
+import org.apache.phoenix.cache.ServerCacheClient.ServerCache;
+import org.apache.phoenix.compile.ScanRanges;
+import org.apache.phoenix.expression.visitor.TraverseAllExpressionVisitor;
+import org.apache.phoenix.filter.BooleanExpressionFilter;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.query.QueryServicesOptions;
+import org.apache.phoenix.schema.TableRef;
+import org.apache.phoenix.util.SQLCloseable;
+import org.apache.phoenix.util.TrustedByteArrayOutputStream;
+
+import com.google.common.collect.Lists;
+
+public class InListCacheClient {
+
+    private final ServerCacheClient serverCache;
+    private final TableRef cacheUsingTableRef;
+    
+    /**
+     * Construct client used to send the values of large IN lists to each region server
+     * for caching during the scans of a query.
+     * @param connection the client connection
+     * @param cacheUsingTableRef table ref to table that will use the cache during its scan
+     */
+    public InListCacheClient(PhoenixConnection connection, TableRef cacheUsingTableRef) {
+        serverCache = new ServerCacheClient(connection);
+        this.cacheUsingTableRef = cacheUsingTableRef;
+    }
+
+    /**
+     * Find the IN lists in the filter of the scan with enough values to be sent
+     * to the region servers through the server cache.
+     * @param connection the client connection
+     * @param scan the scan whose filter is searched
+     * @return the IN list expressions to cache, or an empty list if there are none
+     */
+    public static List<InListExpression> getCacheableInLists(PhoenixConnection connection, Scan scan) {
+        final int threshold = connection.getQueryServices().getProps().getInt(IN_LIST_SERVER_CACHE_THRESHOLD_ATTRIB, QueryServicesOptions.DEFAULT_IN_LIST_SERVER_CACHE_THRESHOLD);
+        if (threshold <= 0 || scan.getFilter() == null) {
+            return Collections.emptyList();
+        }
+        final List<InListExpression> inLists = Lists.newArrayListWithExpectedSize(1);
+        TraverseAllExpressionVisitor<Void> visitor = new TraverseAllExpressionVisitor<Void>() {
+            @Override
+            public Iterator<Expression> visitEnter(InListExpression node) {
+                if (node.getValues().size() >= threshold) {
+                    inLists.add(node);
+                }
+                return null;
+            }
+        };
+        List<Filter> filters = scan.getFilter() instanceof FilterList ? ((FilterList)scan.getFilter()).getFilters() : Collections.singletonList(scan.getFilter());
+        for (Filter filter : filters) {
+            if (filter instanceof BooleanExpressionFilter) {
+                ((BooleanExpressionFilter)filter).getExpression().accept(visitor);
+            }
+        }
+        return inLists;
+    }
+
+    /**
+     * Send the values of the IN list to all region servers for regions that will be scanned and
+     * have the expression serialize the id of the cache instead of its values until the returned
+     * {@link SQLCloseable} is closed.
+     * @return client-side {@link SQLCloseable} that removes the cache from the region servers
+     * @throws SQLException 
+     */
+    public SQLCloseable addInListCache(ScanRanges ranges, final InListExpression expression) throws SQLException {
+        TrustedByteArrayOutputStream stream = new TrustedByteArrayOutputStream(expression.getValues().getByteSize() + 16);
+        try {
+            expression.getValues().write(new DataOutputStream(stream));
+        } catch (IOException e) {
+            throw new RuntimeException(e); // Impossible
+        }
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable(stream.getBuffer(), 0, stream.size());
+        final ServerCache cache = serverCache.addServerCache(ranges, ptr, new InListCacheFactory(), cacheUsingTableRef);
+        PhoenixConnection connection = serverCache.getConnection();
+        expression.setServerCacheId(connection.getTenantId() == null ? null : connection.getTenantId().getBytes(), cache.getId());
+        return new SQLCloseable() {
+            @Override
+            public void close() throws SQLException {
+                expression.setServerCacheId(null, null);
+                cache.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.sql.SQLException;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.cache.InListCache;
+import org.apache.phoenix.coprocessor.ServerCachingProtocol.ServerCacheFactory;
+import org.apache.phoenix.memory.MemoryManager.MemoryChunk;
+import org.apache.phoenix.util.CompactByteSet;
+import org.apache.phoenix.util.ServerUtil;
+
+public class InListCacheFactory implements ServerCacheFactory {
+    public InListCacheFactory() {
+    }
+
+    @Override
+    public void readFields(DataInput input) throws IOException {
+    }
+
+    @Override
+    public void write(DataOutput output) throws IOException {
+    }
+
+    @Override
+    public Closeable newCache(ImmutableBytesWritable cachePtr, final MemoryChunk chunk) throws SQLException {
+        final CompactByteSet values;
+        try {
+            values = CompactByteSet.read(new DataInputStream(
+                    new ByteArrayInputStream(cachePtr.get(), cachePtr.getOffset(), cachePtr.getLength())));
+        } catch (IOException e) {
+            throw ServerUtil.parseServerException(e);
+        }
+        return new InListCache() {
+
+            @Override
+            public void close() throws IOException {
+                chunk.close();
+            }
+
+            @Override
+            public CompactByteSet getValues() {
+                return values;
+            }
+        };
+    }
+}
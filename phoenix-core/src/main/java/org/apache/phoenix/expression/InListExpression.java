@@ -22,21 +22,25 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.hadoop.hbase.DoNotRetryIOException;
 import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.io.WritableUtils;
+import org.apache.phoenix.cache.GlobalCache;
+import org.apache.phoenix.cache.InListCache;
+import org.apache.phoenix.cache.ServerCacheClient;
+import org.apache.phoenix.cache.TenantCache;
 import org.apache.phoenix.expression.visitor.ExpressionVisitor;
 import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
 import org.apache.phoenix.schema.PDataType;
 import org.apache.phoenix.schema.SortOrder;
 import org.apache.phoenix.schema.tuple.Tuple;
 import org.apache.phoenix.util.ByteUtil;
+import org.apache.phoenix.util.CompactByteSet;
 import org.apache.phoenix.util.ExpressionUtil;
 
 import com.google.common.collect.Lists;
@@ -47,14 +51,23 @@ import com.google.common.collect.Sets;
  * Implementation of a SQL foo IN (a,b,c) expression. Other than the first
  * expression, child expressions must be constants.
  *
+ * The values are kept sorted and prefix compressed in a {@link CompactByteSet}, which
+ * is serialized as is and may instead be sent once to each region server through
+ * {@link InListCacheClient}, in which case only the cache id is serialized.
+ *
  */
 public class InListExpression extends BaseSingleExpression {
-    private Set<ImmutableBytesPtr> values;
+    // Format of the serialized values. The legacy format was preceded by a false boolean.
+    private static final byte LEGACY_FORMAT = 0;
+    private static final byte COMPACT_FORMAT = 1;
+    private static final byte SERVER_CACHE_FORMAT = 2;
+    
+    private CompactByteSet values;
     private ImmutableBytesPtr minValue;
     private ImmutableBytesPtr maxValue;
-    private int valuesByteLength;
-    private int fixedWidth = -1;
     private List<Expression> keyExpressions; // client side only
+    private byte[] serverCacheTenantId; // client side only
+    private byte[] serverCacheId; // client side only
 
     public static Expression create (List<Expression> children, boolean isNegate, ImmutableBytesWritable ptr) throws SQLException {
         Expression firstChild = children.get(0);
@@ -101,43 +114,29 @@ public class InListExpression extends BaseSingleExpression {
     public InListExpression() {
     }
 
+
     private InListExpression(List<Expression> keyExpressions) throws SQLException {
         super(keyExpressions.get(0));
         this.keyExpressions = keyExpressions.subList(1, keyExpressions.size());
         Set<ImmutableBytesPtr> values = Sets.newHashSetWithExpectedSize(keyExpressions.size()-1);
-        int fixedWidth = -1;
-        boolean isFixedLength = true;
         for (int i = 1; i < keyExpressions.size(); i++) {
             ImmutableBytesPtr ptr = new ImmutableBytesPtr();
             Expression child = keyExpressions.get(i);
             child.evaluate(null, ptr);
             if (ptr.getLength() > 0) { // filter null as it has no impact
-                if (values.add(ptr)) {
-                    int length = ptr.getLength();
-                    if (fixedWidth == -1) {
-                        fixedWidth = length;
-                    } else {
-                        isFixedLength &= fixedWidth == length;
-                    }
-                    
-                    valuesByteLength += ptr.getLength();
-                }
+                values.add(ptr);
             }
         }
-        this.fixedWidth = isFixedLength ? fixedWidth : -1;
-        // Sort values by byte value so we can get min/max easily
+        // Sort values by byte value so we can get min/max easily and binary search them
         ImmutableBytesPtr[] valuesArray = values.toArray(new ImmutableBytesPtr[values.size()]);
         Arrays.sort(valuesArray, ByteUtil.BYTES_PTR_COMPARATOR);
-        if (values.isEmpty()) {
+        this.values = CompactByteSet.create(valuesArray);
+        if (valuesArray.length == 0) {
             this.minValue = ByteUtil.EMPTY_BYTE_ARRAY_PTR;
             this.maxValue = ByteUtil.EMPTY_BYTE_ARRAY_PTR;
-            this.values = Collections.emptySet();
         } else {
             this.minValue = valuesArray[0];
             this.maxValue = valuesArray[valuesArray.length-1];
-            // Use LinkedHashSet on client-side so that we don't need to serialize the
-            // minValue and maxValue but can infer them based on the first and last position.
-            this.values = new LinkedHashSet<ImmutableBytesPtr>(Arrays.asList(valuesArray));
         }
     }
 
@@ -150,7 +149,7 @@ public class InListExpression extends BaseSingleExpression {
             ptr.set(ByteUtil.EMPTY_BYTE_ARRAY);
             return true;
         }
-        if (values.contains(ptr)) {
+        if (values.contains(ptr.get(), ptr.getOffset(), ptr.getLength())) {
             ptr.set(PDataType.TRUE_BYTES);
             return true;
         }
@@ -181,53 +180,72 @@ public class InListExpression extends BaseSingleExpression {
         return PDataType.BOOLEAN;
     }
 
-    private int readValue(DataInput input, byte[] valuesBytes, int offset, ImmutableBytesPtr ptr) throws IOException {
-        int valueLen = fixedWidth == -1 ? WritableUtils.readVInt(input) : fixedWidth;
-        values.add(new ImmutableBytesPtr(valuesBytes,offset,valueLen));
-        return offset + valueLen;
+    /**
+     * Reads the values written by prior versions, in which the concatenated values
+     * were followed by their lengths unless they all had the same fixed width.
+     */
+    private static CompactByteSet readLegacyValues(DataInput input) throws IOException {
+        int fixedWidth = WritableUtils.readVInt(input);
+        byte[] valuesBytes = Bytes.readByteArray(input);
+        int len = fixedWidth == -1 ? WritableUtils.readVInt(input) : valuesBytes.length / fixedWidth;
+        // Values were written in sorted order
+        ImmutableBytesPtr[] valuesArray = new ImmutableBytesPtr[len];
+        int offset = 0;
+        for (int i = 0; i < len; i++) {
+            int valueLen = fixedWidth == -1 ? WritableUtils.readVInt(input) : fixedWidth;
+            valuesArray[i] = new ImmutableBytesPtr(valuesBytes, offset, valueLen);
+            offset += valueLen;
+        }
+        return CompactByteSet.create(valuesArray);
+    }
+    
+    private static CompactByteSet readServerCacheValues(DataInput input) throws IOException {
+        byte[] tenantId = Bytes.readByteArray(input);
+        byte[] cacheId = Bytes.readByteArray(input);
+        TenantCache tenantCache = GlobalCache.getTenantCache(tenantId.length == 0 ? null : new ImmutableBytesPtr(tenantId));
+        InListCache cache = tenantCache == null ? null : (InListCache)tenantCache.getServerCache(new ImmutableBytesPtr(cacheId));
+        if (cache == null) {
+            throw new DoNotRetryIOException("Could not find IN list cache for cacheId: "
+                    + ServerCacheClient.idToString(cacheId) + ". The cache may have expired and have been removed.");
+        }
+        return cache.getValues();
     }
     
     @Override
     public void readFields(DataInput input) throws IOException {
         super.readFields(input);
-        input.readBoolean(); // Unused, but left for b/w compat. TODO: remove in next major release
-        fixedWidth = WritableUtils.readVInt(input);
-        byte[] valuesBytes = Bytes.readByteArray(input);
-        valuesByteLength = valuesBytes.length;
-        int len = fixedWidth == -1 ? WritableUtils.readVInt(input) : valuesByteLength / fixedWidth;
-        // TODO: consider using a regular HashSet as we never serialize from the server-side
-        values = Sets.newLinkedHashSetWithExpectedSize(len);
-        int offset = 0;
-        int i  = 0;
-        if (i < len) {
-            offset = readValue(input, valuesBytes, offset, minValue = new ImmutableBytesPtr());
-            while (++i < len-1) {
-                offset = readValue(input, valuesBytes, offset, new ImmutableBytesPtr());
-            }
-            if (i < len) {
-                offset = readValue(input, valuesBytes, offset, maxValue = new ImmutableBytesPtr());
-            } else {
-                maxValue = minValue;
-            }
-        } else {
+        byte format = input.readByte();
+        switch (format) {
+        case LEGACY_FORMAT:
+            values = readLegacyValues(input);
+            break;
+        case COMPACT_FORMAT:
+            values = CompactByteSet.read(input);
+            break;
+        case SERVER_CACHE_FORMAT:
+            values = readServerCacheValues(input);
+            break;
+        default:
+            throw new IOException("Unknown IN list format " + format);
+        }
+        if (values.isEmpty()) {
             minValue = maxValue = new ImmutableBytesPtr(ByteUtil.EMPTY_BYTE_ARRAY);
+        } else {
+            minValue = values.first();
+            maxValue = values.last();
         }
     }
 
     @Override
     public void write(DataOutput output) throws IOException {
         super.write(output);
-        output.writeBoolean(false); // Unused, but left for b/w compat. TODO: remove in next major release
-        WritableUtils.writeVInt(output, fixedWidth);
-        WritableUtils.writeVInt(output, valuesByteLength);
-        for (ImmutableBytesPtr ptr : values) {
-            output.write(ptr.get(), ptr.getOffset(), ptr.getLength());
-        }
-        if (fixedWidth == -1) {
-            WritableUtils.writeVInt(output, values.size());
-            for (ImmutableBytesPtr ptr : values) {
-                WritableUtils.writeVInt(output, ptr.getLength());
-            }
+        if (serverCacheId != null) {
+            output.writeByte(SERVER_CACHE_FORMAT);
+            Bytes.writeByteArray(output, serverCacheTenantId == null ? ByteUtil.EMPTY_BYTE_ARRAY : serverCacheTenantId);
+            Bytes.writeByteArray(output, serverCacheId);
+        } else {
+            output.writeByte(COMPACT_FORMAT);
+            values.write(output);
         }
     }
 
@@ -253,6 +271,22 @@ public class InListExpression extends BaseSingleExpression {
         return maxValue;
     }
 
+    public CompactByteSet getValues() {
+        return values;
+    }
+
+    /**
+     * Serialize only the id of a server cache holding the values instead of the values
+     * themselves. Called on the client before the scans are started and again with a
+     * null cacheId once the cache has been removed.
+     * @param tenantId the tenant ID the cache was added for or null if not applicable
+     * @param cacheId the id of the cache added through {@link InListCacheClient}
+     */
+    public void setServerCacheId(byte[] tenantId, byte[] cacheId) {
+        this.serverCacheTenantId = tenantId;
+        this.serverCacheId = cacheId;
+    }
+
     @Override
     public String toString() {
         int maxToStringLen = 200;
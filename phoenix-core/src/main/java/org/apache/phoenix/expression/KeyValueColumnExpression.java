@@ -42,6 +42,7 @@ public class KeyValueColumnExpression extends ColumnExpression {
     private byte[] cf;
     private byte[] cq;
     private String displayName; // client-side only
+    private int position = -1; // client-side only
 
     public KeyValueColumnExpression() {
     }
@@ -57,9 +58,13 @@ public class KeyValueColumnExpression extends ColumnExpression {
     }
 
     public KeyValueColumnExpression(PColumn column, String displayName) {
+        this(column, SchemaUtil.getColumnQualifier(column), displayName);
+    }
+
+    public KeyValueColumnExpression(PColumn column, byte[] cq, String displayName) {
         super(column);
         this.cf = column.getFamilyName().getBytes();
-        this.cq = column.getName().getBytes();
+        this.cq = cq;
         this.displayName = displayName;
     }
 
@@ -71,6 +76,23 @@ public class KeyValueColumnExpression extends ColumnExpression {
         return cq;
     }
 
+    /**
+     * @return the index at which the KeyValue of the column is expected to be in
+     * the tuple being evaluated or -1 if not known.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Set the index at which the KeyValue of the column is expected to be in the
+     * tuple being evaluated, based on the columns projected into the scan. Only used
+     * as a starting point when looking up the KeyValue.
+     */
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -102,7 +124,7 @@ public class KeyValueColumnExpression extends ColumnExpression {
 
     @Override
     public boolean evaluate(Tuple tuple, ImmutableBytesWritable ptr) {
-        return tuple.getValue(cf, cq, ptr);
+        return tuple.getValue(cf, cq, position, ptr);
     }
 
     @Override
@@ -20,7 +20,9 @@ package org.apache.phoenix.expression;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
@@ -28,6 +30,7 @@ import org.apache.phoenix.expression.visitor.ExpressionVisitor;
 import org.apache.phoenix.parse.LikeParseNode.LikeType;
 import org.apache.phoenix.schema.PDataType;
 import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.util.LikeMatcher;
 import org.apache.phoenix.util.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -200,7 +203,25 @@ public class LikeExpression extends BaseCompoundExpression {
             LIKE_TYPE_LITERAL[likeType.ordinal()] = LiteralExpression.newConstant(likeType.name());
         }
     }
+    private static final int MAX_CACHED_PATTERNS = 32;
+    
     private Pattern pattern;
+    private LikeMatcher matcher;
+    private Map<String, CompiledPattern> patternCache;
+
+    /**
+     * A pattern compiled for evaluation, with a matcher for the UTF-8 bytes
+     * if the pattern permits it, and the equivalent regular expression otherwise.
+     */
+    private static class CompiledPattern {
+        private final Pattern pattern;
+        private final LikeMatcher matcher;
+        
+        private CompiledPattern(Pattern pattern, LikeMatcher matcher) {
+            this.pattern = pattern;
+            this.matcher = matcher;
+        }
+    }
 
     public LikeExpression() {
     }
@@ -239,14 +260,40 @@ public class LikeExpression extends BaseCompoundExpression {
             LiteralExpression patternExpression = (LiteralExpression)e;
             String value = (String)patternExpression.getValue();
             pattern = compilePattern(value);
+            matcher = compileMatcher(value);
         }
     }
 
     protected Pattern compilePattern (String value) {
+        // Allow the wildcards to match line terminators too, as the byte matcher does
         if (likeType == LikeType.CASE_SENSITIVE)
-            return Pattern.compile(toPattern(value));
+            return Pattern.compile(toPattern(value), Pattern.DOTALL);
         else
-            return Pattern.compile("(?i)" + toPattern(value));
+            return Pattern.compile("(?i)" + toPattern(value), Pattern.DOTALL);
+    }
+    
+    private LikeMatcher compileMatcher(String value) {
+        return likeType == LikeType.CASE_SENSITIVE ? LikeMatcher.compile(value) : null;
+    }
+    
+    private CompiledPattern getCompiledPattern(String value) {
+        if (patternCache == null) {
+            patternCache = new LinkedHashMap<String, CompiledPattern>(MAX_CACHED_PATTERNS, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompiledPattern> eldest) {
+                    return size() > MAX_CACHED_PATTERNS;
+                }
+            };
+        }
+        CompiledPattern compiled = patternCache.get(value);
+        if (compiled == null) {
+            LikeMatcher matcher = compileMatcher(value);
+            compiled = new CompiledPattern(matcher == null ? compilePattern(value) : null, matcher);
+            patternCache.put(value, compiled);
+        }
+        return compiled;
     }
 
     private Expression getStrExpression() {
@@ -260,7 +307,8 @@ public class LikeExpression extends BaseCompoundExpression {
     @Override
     public boolean evaluate(Tuple tuple, ImmutableBytesWritable ptr) {
         Pattern pattern = this.pattern;
-        if (pattern == null) { // TODO: don't allow? this is going to be slooowwww
+        LikeMatcher matcher = this.matcher;
+        if (pattern == null) {
             if (!getPatternExpression().evaluate(tuple, ptr)) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("LIKE is FALSE: pattern is null");
@@ -268,9 +316,11 @@ public class LikeExpression extends BaseCompoundExpression {
                 return false;
             }
             String value = (String)PDataType.VARCHAR.toObject(ptr, getPatternExpression().getSortOrder());
-            pattern = compilePattern(value);
+            CompiledPattern compiled = getCompiledPattern(value);
+            pattern = compiled.pattern;
+            matcher = compiled.matcher;
             if (logger.isDebugEnabled()) {
-                logger.debug("LIKE pattern is expression: " + pattern.pattern());
+                logger.debug("LIKE pattern is expression: " + value);
             }
         }
 
@@ -284,12 +334,18 @@ public class LikeExpression extends BaseCompoundExpression {
             return true;
         }
 
-        String value = (String)PDataType.VARCHAR.toObject(ptr, getStrExpression().getSortOrder());
-        boolean matched = pattern.matcher(value).matches();
-        ptr.set(matched ? PDataType.TRUE_BYTES : PDataType.FALSE_BYTES);
+        boolean matched;
+        if (matcher != null) {
+            // Match the UTF-8 bytes directly instead of decoding them into a String
+            matched = matcher.matches(ptr.get(), ptr.getOffset(), ptr.getLength(), getStrExpression().getSortOrder());
+        } else {
+            String value = (String)PDataType.VARCHAR.toObject(ptr, getStrExpression().getSortOrder());
+            matched = pattern.matcher(value).matches();
+        }
         if (logger.isDebugEnabled()) {
-            logger.debug("LIKE(value='" + value + "'pattern='" + pattern.pattern() + "' is " + matched);
+            logger.debug("LIKE(value='" + PDataType.VARCHAR.toObject(ptr, getStrExpression().getSortOrder()) + "'pattern='" + getPatternExpression() + "' is " + matched);
         }
+        ptr.set(matched ? PDataType.TRUE_BYTES : PDataType.FALSE_BYTES);
         return true;
     }
 
@@ -17,6 +17,7 @@
  */
 package org.apache.phoenix.expression.function;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.IOException;
 import java.util.List;
@@ -29,7 +30,10 @@ import org.apache.phoenix.expression.LiteralExpression;
 import org.apache.phoenix.parse.FunctionParseNode.Argument;
 import org.apache.phoenix.parse.FunctionParseNode.BuiltInFunction;
 import org.apache.phoenix.schema.PDataType;
+import org.apache.phoenix.schema.SortOrder;
 import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.util.LikeMatcher;
+import org.apache.phoenix.util.StringUtil;
 
 
 /**
@@ -56,6 +60,10 @@ public class RegexpReplaceFunction extends ScalarFunction {
 
     private boolean hasReplaceStr;
     private Pattern pattern;
+    // Set when the pattern and replacement are plain literals, in which case the
+    // replacement is done directly on the UTF-8 bytes of the source string.
+    private byte[] literalBytes;
+    private byte[] replaceBytes;
     
     public RegexpReplaceFunction() { }
 
@@ -66,10 +74,17 @@ public class RegexpReplaceFunction extends ScalarFunction {
     }
 
     private void init() {
-        hasReplaceStr = ((LiteralExpression)getReplaceStrExpression()).getValue() != null;
+        String replaceStr = (String)((LiteralExpression)getReplaceStrExpression()).getValue();
+        hasReplaceStr = replaceStr != null;
         Object patternString = ((LiteralExpression)children.get(1)).getValue();
+        literalBytes = replaceBytes = null;
         if (patternString != null) {
             pattern = Pattern.compile((String)patternString);
+            String literal = StringUtil.getRegexLiteral((String)patternString);
+            if (literal != null && (replaceStr == null || (replaceStr.indexOf('$') < 0 && replaceStr.indexOf('\\') < 0))) {
+                literalBytes = PDataType.VARCHAR.toBytes(literal);
+                replaceBytes = StringUtil.toBytes(replaceStr);
+            }
         }
     }
 
@@ -83,6 +98,9 @@ public class RegexpReplaceFunction extends ScalarFunction {
         if (!sourceStrExpression.evaluate(tuple, ptr)) {
             return false;
         }
+        if (literalBytes != null && sourceStrExpression.getSortOrder() == SortOrder.ASC) {
+            return replaceLiteral(ptr);
+        }
         String sourceStr = (String)PDataType.VARCHAR.toObject(ptr, sourceStrExpression.getSortOrder());
         if (sourceStr == null) {
             return false;
@@ -102,6 +120,29 @@ public class RegexpReplaceFunction extends ScalarFunction {
         return true;
     }
 
+    private boolean replaceLiteral(ImmutableBytesWritable ptr) {
+        if (ptr.getLength() == 0) {
+            return false;
+        }
+        byte[] b = ptr.get();
+        int offset = ptr.getOffset();
+        int endOffset = offset + ptr.getLength();
+        int index = LikeMatcher.indexOf(b, offset, endOffset, literalBytes);
+        if (index < 0) {
+            // Nothing to replace, so the source bytes are the result
+            return true;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ptr.getLength());
+        do {
+            out.write(b, offset, index - offset);
+            out.write(replaceBytes, 0, replaceBytes.length);
+            offset = index + literalBytes.length;
+        } while ((index = LikeMatcher.indexOf(b, offset, endOffset, literalBytes)) >= 0);
+        out.write(b, offset, endOffset - offset);
+        ptr.set(out.toByteArray());
+        return true;
+    }
+
     private Expression getSourceStrExpression() {
         return children.get(0);
     }
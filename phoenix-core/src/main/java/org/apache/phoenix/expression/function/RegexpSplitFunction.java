@@ -19,7 +19,9 @@ package org.apache.phoenix.expression.function;
 
 import java.io.DataInput;
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.phoenix.expression.Expression;
@@ -51,7 +53,12 @@ public class RegexpSplitFunction extends ScalarFunction {
 
     public static final String NAME = "REGEXP_SPLIT";
 
+    private static final int MAX_CACHED_SPLITTERS = 32;
+
     private Splitter initializedSplitter = null;
+    // Splitters for patterns that are evaluated per row, so that the same
+    // pattern is not recompiled for every row
+    private Map<String, Splitter> splitterCache;
 
     public RegexpSplitFunction() {}
 
@@ -110,7 +117,7 @@ public class RegexpSplitFunction extends ScalarFunction {
 
             String patternStr = (String) PDataType.VARCHAR.toObject(
                     ptr, patternExpression.getSortOrder());
-            splitter = Splitter.onPattern(patternStr);
+            splitter = getSplitter(patternStr);
         }
 
         List<String> splitStrings = Lists.newArrayList(splitter.split(sourceStr));
@@ -119,6 +126,24 @@ public class RegexpSplitFunction extends ScalarFunction {
         return true;
     }
 
+    private Splitter getSplitter(String patternStr) {
+        if (splitterCache == null) {
+            splitterCache = new LinkedHashMap<String, Splitter>(MAX_CACHED_SPLITTERS, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Splitter> eldest) {
+                    return size() > MAX_CACHED_SPLITTERS;
+                }
+            };
+        }
+        Splitter splitter = splitterCache.get(patternStr);
+        if (splitter == null) {
+            splitter = Splitter.onPattern(patternStr);
+            splitterCache.put(patternStr, splitter);
+        }
+        return splitter;
+    }
 
     @Override
     public PDataType getDataType() {
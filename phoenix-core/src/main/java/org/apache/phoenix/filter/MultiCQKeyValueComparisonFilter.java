@@ -22,7 +22,6 @@ import java.io.IOException;
 import org.apache.hadoop.hbase.exceptions.DeserializationException;
 import org.apache.hadoop.hbase.util.Writables;
 import org.apache.phoenix.expression.Expression;
-import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
 
 /**
  *
@@ -33,8 +32,6 @@ import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
  * @since 0.1
  */
 public class MultiCQKeyValueComparisonFilter extends MultiKeyValueComparisonFilter {
-    private ImmutableBytesPtr ptr = new ImmutableBytesPtr();
-
     public MultiCQKeyValueComparisonFilter() {
     }
 
@@ -43,24 +40,8 @@ public class MultiCQKeyValueComparisonFilter extends MultiKeyValueComparisonFilt
     }
 
     @Override
-    protected Object setColumnKey(byte[] cf, int cfOffset, int cfLength, byte[] cq, int cqOffset,
-            int cqLength) {
-        ptr.set(cq, cqOffset, cqLength);
-        return ptr;
-    }
-
-    @Override
-    protected Object newColumnKey(byte[] cf, int cfOffset, int cfLength, byte[] cq, int cqOffset,
-            int cqLength) {
-        byte[] cfKey;
-        if (cfOffset == 0 && cf.length == cfLength) {
-            cfKey = cf;
-        } else {
-            cfKey = new byte[cfLength];
-            System.arraycopy(cf, cfOffset, cfKey, 0, cfLength);
-        }
-        cfSet.add(cfKey);
-        return new ImmutableBytesPtr(cq, cqOffset, cqLength);
+    protected boolean isQualifierUnique() {
+        return true;
     }
 
     public static MultiCQKeyValueComparisonFilter parseFrom(final byte [] pbBytes) throws DeserializationException {
@@ -19,8 +19,9 @@ package org.apache.phoenix.filter;
 
 import java.io.DataInput;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.TreeSet;
 
 import org.apache.hadoop.hbase.Cell;
@@ -33,12 +34,18 @@ import org.apache.phoenix.expression.KeyValueColumnExpression;
 import org.apache.phoenix.expression.visitor.TraverseAllExpressionVisitor;
 import org.apache.phoenix.schema.tuple.BaseTuple;
 
+import com.google.common.collect.Lists;
+
 
 /**
  * 
  * Modeled after {@link org.apache.hadoop.hbase.filter.SingleColumnValueFilter},
  * but for general expression evaluation in the case where multiple KeyValue
  * columns are referenced in the expression.
+ * 
+ * The referenced columns are assigned dense slots at construction, sorted by qualifier
+ * and then column family, so that resolving an incoming cell and looking up a column
+ * value during evaluation are a binary search over byte arrays and never allocate.
  *
  * 
  * @since 0.1
@@ -49,6 +56,10 @@ public abstract class MultiKeyValueComparisonFilter extends BooleanExpressionFil
     private Boolean matchedColumn;
     protected final IncrementalResultTuple inputTuple = new IncrementalResultTuple();
     protected TreeSet<byte[]> cfSet;
+    // Column family and qualifier of each slot
+    private byte[][] families;
+    private byte[][] qualifiers;
+    private boolean isQualifierUnique;
 
     public MultiKeyValueComparisonFilter() {
     }
@@ -58,53 +69,69 @@ public abstract class MultiKeyValueComparisonFilter extends BooleanExpressionFil
         init();
     }
 
-    private static final class KeyValueRef {
-        public KeyValue keyValue;
-        
-        @Override
-        public String toString() {
-            if(keyValue != null) {
-                return keyValue.toString() + " value = " + Bytes.toStringBinary(
-                		keyValue.getValueArray(), keyValue.getValueOffset(), keyValue.getValueLength());
+    /**
+     * @return true if the column qualifiers referenced by the expression are unique
+     * across column families, in which case a column is identified by its qualifier alone.
+     */
+    protected abstract boolean isQualifierUnique();
+    
+    private int compareColumn(int slot, byte[] cf, int cfOffset, int cfLength, byte[] cq, int cqOffset, int cqLength) {
+        byte[] qualifier = qualifiers[slot];
+        int c = Bytes.compareTo(qualifier, 0, qualifier.length, cq, cqOffset, cqLength);
+        if (c != 0 || isQualifierUnique) {
+            return c;
+        }
+        byte[] family = families[slot];
+        return Bytes.compareTo(family, 0, family.length, cf, cfOffset, cfLength);
+    }
+    
+    /**
+     * @return the slot of the column, or -1 if the column is not referenced by the expression
+     */
+    private int getSlot(byte[] cf, int cfOffset, int cfLength, byte[] cq, int cqOffset, int cqLength) {
+        int low = 0;
+        int high = qualifiers.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = compareColumn(mid, cf, cfOffset, cfLength, cq, cqOffset, cqLength);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
             } else {
-                return super.toString();
+                return mid;
             }
         }
+        return -1;
     }
     
-    protected abstract Object setColumnKey(byte[] cf, int cfOffset, int cfLength, byte[] cq, int cqOffset, int cqLength);
-    protected abstract Object newColumnKey(byte[] cf, int cfOffset, int cfLength, byte[] cq, int cqOffset, int cqLength);
-    
     private final class IncrementalResultTuple extends BaseTuple {
         private int refCount;
         private final ImmutableBytesWritable keyPtr = new ImmutableBytesWritable(UNITIALIZED_KEY_BUFFER);
-        private final Map<Object,KeyValueRef> foundColumns = new HashMap<Object,KeyValueRef>(5);
+        private KeyValue[] foundColumns;
         
         public void reset() {
             refCount = 0;
             keyPtr.set(UNITIALIZED_KEY_BUFFER);
-            for (KeyValueRef ref : foundColumns.values()) {
-                ref.keyValue = null;
-            }
+            Arrays.fill(foundColumns, null);
         }
         
         @Override
         public boolean isImmutable() {
-            return refCount == foundColumns.size();
+            return refCount == foundColumns.length;
         }
         
         public void setImmutable() {
-            refCount = foundColumns.size();
+            refCount = foundColumns.length;
         }
         
         public ReturnCode resolveColumn(KeyValue value) {
             // Always set key, in case we never find a key value column of interest,
             // and our expression uses row key columns.
             setKey(value);
-            Object ptr = setColumnKey(value.getFamilyArray(), value.getFamilyOffset(), value.getFamilyLength(), 
+            int slot = getSlot(value.getFamilyArray(), value.getFamilyOffset(), value.getFamilyLength(), 
             		value.getQualifierArray(), value.getQualifierOffset(), value.getQualifierLength());
-            KeyValueRef ref = foundColumns.get(ptr);
-            if (ref == null) {
+            if (slot < 0) {
                 // Return INCLUDE here. Although this filter doesn't need this KV
                 // it should still be projected into the Result
                 return ReturnCode.INCLUDE;
@@ -114,21 +141,16 @@ public abstract class MultiKeyValueComparisonFilter extends BooleanExpressionFil
             // TODO: test with older versions to confirm this doesn't get tripped
             // This shouldn't be necessary, because a scan only looks at the latest
             // version
-            if (ref.keyValue != null) {
+            if (foundColumns[slot] != null) {
                 // Can't do NEXT_ROW, because then we don't match the other columns
                 // SKIP, INCLUDE, and NEXT_COL seem to all act the same
                 return ReturnCode.NEXT_COL;
             }
-            ref.keyValue = value;
+            foundColumns[slot] = value;
             refCount++;
             return null;
         }
         
-        public void addColumn(byte[] cf, byte[] cq) {
-            Object ptr = MultiKeyValueComparisonFilter.this.newColumnKey(cf, 0, cf.length, cq, 0, cq.length);
-            foundColumns.put(ptr, new KeyValueRef());
-        }
-        
         public void setKey(KeyValue value) {
             keyPtr.set(value.getRowArray(), value.getRowOffset(), value.getRowLength());
         }
@@ -140,14 +162,30 @@ public abstract class MultiKeyValueComparisonFilter extends BooleanExpressionFil
         
         @Override
         public KeyValue getValue(byte[] cf, byte[] cq) {
-            Object ptr = setColumnKey(cf, 0, cf.length, cq, 0, cq.length);
-            KeyValueRef ref = foundColumns.get(ptr);
-            return ref == null ? null : ref.keyValue;
+            // The expression passes the same arrays that the slots were built from,
+            // so try an identity match before searching
+            for (int i = 0; i < qualifiers.length; i++) {
+                if (qualifiers[i] == cq && (isQualifierUnique || families[i] == cf)) {
+                    return foundColumns[i];
+                }
+            }
+            int slot = getSlot(cf, 0, cf.length, cq, 0, cq.length);
+            return slot < 0 ? null : foundColumns[slot];
         }
         
         @Override
         public String toString() {
-            return foundColumns.toString();
+            StringBuilder buf = new StringBuilder("{");
+            for (int i = 0; i < foundColumns.length; i++) {
+                if (i > 0) {
+                    buf.append(", ");
+                }
+                buf.append(Bytes.toStringBinary(families[i])).append(':').append(Bytes.toStringBinary(qualifiers[i])).append('=');
+                KeyValue kv = foundColumns[i];
+                buf.append(kv == null ? "null" : kv.toString() + " value = " + Bytes.toStringBinary(
+                        kv.getValueArray(), kv.getValueOffset(), kv.getValueLength()));
+            }
+            return buf.append('}').toString();
         }
 
         @Override
@@ -157,14 +195,12 @@ public abstract class MultiKeyValueComparisonFilter extends BooleanExpressionFil
 
         @Override
         public KeyValue getValue(int index) {
-            // This won't perform very well, but it's not
-            // currently used anyway
-            for (KeyValueRef ref : foundColumns.values()) {
-                if (ref.keyValue == null) {
+            for (KeyValue kv : foundColumns) {
+                if (kv == null) {
                     continue;
                 }
                 if (index == 0) {
-                    return ref.keyValue;
+                    return kv;
                 }
                 index--;
             }
@@ -184,15 +220,36 @@ public abstract class MultiKeyValueComparisonFilter extends BooleanExpressionFil
     
     protected void init() {
         cfSet = new TreeSet<byte[]>(Bytes.BYTES_COMPARATOR);
+        isQualifierUnique = isQualifierUnique();
+        final List<byte[][]> columns = Lists.newArrayList();
         TraverseAllExpressionVisitor<Void> visitor = new TraverseAllExpressionVisitor<Void>() {
             @Override
             public Void visit(KeyValueColumnExpression expression) {
-                inputTuple.addColumn(expression.getColumnFamily(), expression.getColumnName());
+                columns.add(new byte[][] {expression.getColumnFamily(), expression.getColumnName()});
+                cfSet.add(expression.getColumnFamily());
                 return null;
             }
         };
         expression.accept(visitor);
         expression.reset();
+        // Sort by qualifier and then column family, removing duplicate references
+        TreeSet<byte[][]> sortedColumns = new TreeSet<byte[][]>(new Comparator<byte[][]>() {
+            @Override
+            public int compare(byte[][] o1, byte[][] o2) {
+                int c = Bytes.compareTo(o1[1], o2[1]);
+                return c != 0 || isQualifierUnique ? c : Bytes.compareTo(o1[0], o2[0]);
+            }
+        });
+        sortedColumns.addAll(columns);
+        families = new byte[sortedColumns.size()][];
+        qualifiers = new byte[sortedColumns.size()][];
+        int i = 0;
+        for (byte[][] column : sortedColumns) {
+            families[i] = column[0];
+            qualifiers[i] = column[1];
+            i++;
+        }
+        inputTuple.foundColumns = new KeyValue[i];
     }
     
     @Override
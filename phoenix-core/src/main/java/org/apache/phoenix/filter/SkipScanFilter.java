@@ -26,9 +26,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.hadoop.hbase.Cell;
-import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.KeyValue;
-import org.apache.hadoop.hbase.KeyValue.Type;
 import org.apache.hadoop.hbase.exceptions.DeserializationException;
 import org.apache.hadoop.hbase.filter.FilterBase;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
@@ -63,6 +61,11 @@ public class SkipScanFilter extends FilterBase implements Writable {
     private enum Terminate {AT, AFTER};
     // Conjunctive normal form of or-ed ranges or point lookups
     private List<List<KeyRange>> slots;
+    // The same ranges as arrays, to navigate without going through the lists
+    private KeyRange[][] slotRanges;
+    // Sorted keys when the row key is made up of a single slot of point lookups,
+    // in which case navigation is a merge of the row keys against these keys
+    private byte[][] pointKeys;
     // How far each slot spans minus one. We only handle a single column span currently
     private int[] slotSpan;
     // schema of the row key
@@ -77,11 +80,22 @@ public class SkipScanFilter extends FilterBase implements Writable {
     private int endKeyLength;
     private boolean isDone;
     private int offset;
-    private Map<ImmutableBytesWritable, Cell> nextCellHintMap =
-            new HashMap<ImmutableBytesWritable, Cell>();
+    private final Map<ImmutableBytesWritable, CellHint> nextCellHintMap =
+            new HashMap<ImmutableBytesWritable, CellHint>();
+    private final ImmutableBytesWritable familyPtr = new ImmutableBytesWritable();
+    private byte[] hintRow = ByteUtil.EMPTY_BYTE_ARRAY;
 
     private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
 
+    /**
+     * Next cell hint of a column family. The buffer of the hint is reused by later
+     * hints, since a hint is only used to reseek right after it's returned.
+     */
+    private static final class CellHint {
+        private byte[] buffer = ByteUtil.EMPTY_BYTE_ARRAY;
+        private Cell cell;
+    }
+
     /**
      * We know that initially the first row will be positioned at or 
      * after the first possible key.
@@ -110,6 +124,21 @@ public class SkipScanFilter extends FilterBase implements Writable {
         this.slots = slots;
         this.slotSpan = slotSpan;
         this.schema = schema;
+        this.slotRanges = new KeyRange[slots.size()][];
+        boolean isPointLookup = slots.size() == 1 && slotSpan[0] == 0 && schema.getFieldCount() == 1;
+        for (int i = 0; i < slotRanges.length; i++) {
+            slotRanges[i] = slots.get(i).toArray(new KeyRange[slots.get(i).size()]);
+            for (KeyRange range : slotRanges[i]) {
+                isPointLookup &= range.isSingleKey();
+            }
+        }
+        this.pointKeys = null;
+        if (isPointLookup) {
+            pointKeys = new byte[slotRanges[0].length][];
+            for (int i = 0; i < pointKeys.length; i++) {
+                pointKeys[i] = slotRanges[0][i].getLowerRange();
+            }
+        }
         this.maxKeyLength = SchemaUtil.getMaxKeyLength(schema, slots);
         this.position = new int[slots.size()];
         startKey = new byte[maxKeyLength];
@@ -129,7 +158,9 @@ public class SkipScanFilter extends FilterBase implements Writable {
 
     @Override
     public ReturnCode filterKeyValue(Cell kv) {
-        ReturnCode code = navigate(kv.getRowArray(), kv.getRowOffset() + offset,kv.getRowLength()- offset,Terminate.AFTER);
+        ReturnCode code = pointKeys == null 
+                ? navigate(kv.getRowArray(), kv.getRowOffset() + offset,kv.getRowLength()- offset,Terminate.AFTER)
+                : navigatePointKeys(kv.getRowArray(), kv.getRowOffset() + offset,kv.getRowLength()- offset);
         if (code == ReturnCode.SEEK_NEXT_USING_HINT) {
             setNextCellHint(kv);
         }
@@ -137,31 +168,44 @@ public class SkipScanFilter extends FilterBase implements Writable {
     }
 
     private void setNextCellHint(Cell kv) {
-        ImmutableBytesWritable family = new ImmutableBytesWritable(kv.getFamilyArray(), kv.getFamilyOffset(), kv.getFamilyLength());
-        Cell nextCellHint = null;
-        if (offset == 0) {
-            nextCellHint = new KeyValue(startKey, 0, startKeyLength,
-                    null, 0, 0, null, 0, 0, HConstants.LATEST_TIMESTAMP, Type.Maximum, null, 0, 0);
-        } else { // Prepend key of NextCellHint with bytes before offset
-            byte[] nextKey = new byte[offset + startKeyLength];
-            System.arraycopy(kv.getRowArray(), kv.getRowOffset(), nextKey, 0, offset);
-            System.arraycopy(startKey, 0, nextKey, offset, startKeyLength);
-            nextCellHint = new KeyValue(nextKey, 0, nextKey.length,
-                    null, 0, 0, null, 0, 0, HConstants.LATEST_TIMESTAMP, Type.Maximum, null, 0, 0);
-        }
-        Cell previousCellHint = nextCellHintMap.put(family, nextCellHint);
+        familyPtr.set(kv.getFamilyArray(), kv.getFamilyOffset(), kv.getFamilyLength());
+        CellHint hint = nextCellHintMap.get(familyPtr);
+        if (hint == null) {
+            hint = new CellHint();
+            nextCellHintMap.put(new ImmutableBytesWritable(familyPtr.copyBytes()), hint);
+        }
+        byte[] row = startKey;
+        int rowLength = startKeyLength;
+        if (offset > 0) { // Prepend key of NextCellHint with bytes before offset
+            rowLength = offset + startKeyLength;
+            if (hintRow.length < rowLength) {
+                hintRow = new byte[rowLength];
+            }
+            System.arraycopy(kv.getRowArray(), kv.getRowOffset(), hintRow, 0, offset);
+            System.arraycopy(startKey, 0, hintRow, offset, startKeyLength);
+            row = hintRow;
+        }
         // we should either have no previous hint, or the next hint should always come after the previous hint
-        assert previousCellHint == null
-                || Bytes.compareTo(nextCellHint.getRowArray(), nextCellHint.getRowOffset(),
-                    nextCellHint.getRowLength(), previousCellHint.getRowArray(), previousCellHint
-                            .getRowOffset(), previousCellHint.getRowLength()) > 0 : "next hint must come after previous hint (prev="
-                + previousCellHint + ", next=" + nextCellHint + ", kv=" + kv + ")";
+        assert hint.cell == null
+                || Bytes.compareTo(row, 0, rowLength, hint.cell.getRowArray(), hint.cell.getRowOffset(),
+                    hint.cell.getRowLength()) > 0 : "next hint must come after previous hint (prev="
+                + hint.cell + ", next=" + Bytes.toStringBinary(row, 0, rowLength) + ", kv=" + kv + ")";
+        int size = (int)KeyValue.getKeyValueDataStructureSize(rowLength, 0, 0, 0);
+        if (hint.buffer.length < size) {
+            hint.buffer = new byte[size];
+        }
+        hint.cell = KeyValue.createFirstOnRow(hint.buffer, 0, row, 0, rowLength, 
+                ByteUtil.EMPTY_BYTE_ARRAY, 0, 0, ByteUtil.EMPTY_BYTE_ARRAY, 0, 0);
     }
     
     @Override
     public Cell getNextCellHint(Cell kv) {
-        return isDone ? null : nextCellHintMap.get(new ImmutableBytesWritable(kv.getFamilyArray(),
-                kv.getFamilyOffset(), kv.getFamilyLength()));
+        if (isDone) {
+            return null;
+        }
+        familyPtr.set(kv.getFamilyArray(), kv.getFamilyOffset(), kv.getFamilyLength());
+        CellHint hint = nextCellHintMap.get(familyPtr);
+        return hint == null ? null : hint.cell;
     }
 
     public boolean hasIntersect(byte[] lowerInclusiveKey, byte[] upperExclusiveKey) {
@@ -182,7 +226,7 @@ public class SkipScanFilter extends FilterBase implements Writable {
     
     private boolean areSlotsSingleKey(int startPosInclusive, int endPosExclusive) {
         for (int i = startPosInclusive; i < endPosExclusive; i++) {
-            if (!slots.get(i).get(position[i]).isSingleKey()) {
+            if (!slotRanges[i][position[i]].isSingleKey()) {
                 return false;
             }
         }
@@ -205,12 +249,12 @@ public class SkipScanFilter extends FilterBase implements Writable {
             schema.next(ptr, 0, schema.iterator(lowerInclusiveKey,ptr), slotSpan[0]);
             startPos = ScanUtil.searchClosestKeyRangeWithUpperHigherThanPtr(slots.get(0), ptr, 0);
             // Lower range is past last upper range of first slot, so cannot possibly be in range
-            if (startPos >= slots.get(0).size()) {
+            if (startPos >= slotRanges[0].length) {
                 return false;
             }
         }
         boolean upperUnbound = (upperExclusiveKey.length == 0);
-        int endPos = slots.get(0).size()-1;
+        int endPos = slotRanges[0].length-1;
         if (!upperUnbound) {
             // Find the position of the first slot of the upper range
             schema.next(ptr, 0, schema.iterator(upperExclusiveKey,ptr), slotSpan[0]);
@@ -220,10 +264,10 @@ public class SkipScanFilter extends FilterBase implements Writable {
 //                return false;
 //            }
             // Past last position, so we can include everything from the start position
-            if (endPos >= slots.get(0).size()) {
+            if (endPos >= slotRanges[0].length) {
                 upperUnbound = true;
-                endPos = slots.get(0).size()-1;
-            } else if (slots.get(0).get(endPos).compareLowerToUpperBound(upperExclusiveKey) >= 0) {
+                endPos = slotRanges[0].length-1;
+            } else if (slotRanges[0][endPos].compareLowerToUpperBound(upperExclusiveKey) >= 0) {
                 // We know that the endPos range is higher than the previous range, but we need
                 // to test if it ends before the next range starts.
                 endPos--;
@@ -283,12 +327,12 @@ public class SkipScanFilter extends FilterBase implements Writable {
             // slot position. So reset the position array here to the last position index for each slot. This will
             // be used below as the end bounds to formulate the list of intersecting slots.
             for (int i = 0; i <= lastSlot; i++) {
-                position[i] = slots.get(i).size() - 1;
+                position[i] = slotRanges[i].length - 1;
             }
         }
         // Copy inclusive all positions 
         for (int i = 0; i <= lastSlot; i++) {
-            List<KeyRange> newRanges = slots.get(i).subList(lowerPosition[i], Math.min(position[i] + 1, slots.get(i).size()));
+            List<KeyRange> newRanges = slots.get(i).subList(lowerPosition[i], Math.min(position[i] + 1, slotRanges[i].length));
             if (newRanges.isEmpty()) {
                 return false;
             }
@@ -307,7 +351,7 @@ public class SkipScanFilter extends FilterBase implements Writable {
 
     private int previousPosition(int i) {
         while (i >= 0 && --position[i] < 0) {
-            position[i] = slots.get(i).size()-1;
+            position[i] = slotRanges[i].length-1;
             i--;
         }
         return i;
@@ -326,7 +370,7 @@ public class SkipScanFilter extends FilterBase implements Writable {
 
             // If key range of last slot is a single key, we can increment our position
             // since we know we'll be past the current row after including it.
-            if (slots.get(nSlots-1).get(position[nSlots-1]).isSingleKey()) {
+            if (slotRanges[nSlots-1][position[nSlots-1]].isSingleKey()) {
                 if (nextPosition(nSlots-1) < 0) {
                     // Current row will be included, but we have no more
                     isDone = true;
@@ -339,7 +383,7 @@ public class SkipScanFilter extends FilterBase implements Writable {
                 // less significant slots.
                 int earliestRangeIndex = nSlots-1;
                 for (int i = 0; i < nSlots; i++) {
-                    if (!slots.get(i).get(position[i]).isSingleKey()) {
+                    if (!slotRanges[i][position[i]].isSingleKey()) {
                         earliestRangeIndex = i;
                         break;
                     }
@@ -362,11 +406,9 @@ public class SkipScanFilter extends FilterBase implements Writable {
         schema.next(ptr, ScanUtil.getRowKeyPosition(slotSpan, i), maxOffset, slotSpan[i]);
         while (true) {
             // Increment to the next range while the upper bound of our current slot is less than our current key
-            while (position[i] < slots.get(i).size() && slots.get(i).get(position[i]).compareUpperToLowerBound(ptr) < 0) {
-                position[i]++;
-            }
+            position[i] = searchUpperBound(slotRanges[i], position[i], ptr);
             Arrays.fill(position, i+1, position.length, 0);
-            if (position[i] >= slots.get(i).size()) {
+            if (position[i] >= slotRanges[i].length) {
                 // Our current key is bigger than the last range of the current slot.
                 // If navigating after current key, backtrack and increment the key of the previous slot values.
                 // If navigating to current key, just return
@@ -385,7 +427,7 @@ public class SkipScanFilter extends FilterBase implements Writable {
                 // If we're positioned at a single key, no need to copy the current key and get the next key .
                 // Instead, just increment to the next key and continue.
                 boolean incremented = false;
-                while (j >= 0 && slots.get(j).get(position[j]).isSingleKey() && (incremented=true) && (position[j] = (position[j] + 1) % slots.get(j).size()) == 0) {
+                while (j >= 0 && slotRanges[j][position[j]].isSingleKey() && (incremented=true) && (position[j] = (position[j] + 1) % slotRanges[j].length) == 0) {
                     j--;
                     incremented = false;
                 }
@@ -412,13 +454,13 @@ public class SkipScanFilter extends FilterBase implements Writable {
                     ByteUtil.nextKey(startKey, currentLength);
                 }
                 i = j;
-            } else if (slots.get(i).get(position[i]).compareLowerToUpperBound(ptr) > 0) {
+            } else if (slotRanges[i][position[i]].compareLowerToUpperBound(ptr) > 0) {
                 // Our current key is less than the lower range of the current position in the current slot.
                 // Seek to the lower range, since it's bigger than the current key
                 setStartKey(ptr, minOffset, i);
                 return ReturnCode.SEEK_NEXT_USING_HINT;
             } else { // We're in range, check the next slot
-                if (!slots.get(i).get(position[i]).isSingleKey() && i < earliestRangeIndex) {
+                if (!slotRanges[i][position[i]].isSingleKey() && i < earliestRangeIndex) {
                     earliestRangeIndex = i;
                 }
                 // If we're past the last slot or we know we're seeking to the next (in
@@ -454,13 +496,93 @@ public class SkipScanFilter extends FilterBase implements Writable {
         return ReturnCode.INCLUDE;
     }
 
+    /**
+     * Finds the first range, at or after the given position, whose upper bound is not less than
+     * the key in ptr. Since the ranges are ordered, gallop ahead of the current position and then
+     * binary search, so that skipping over many keys of a large IN list is logarithmic.
+     * @return the position of the range, or the number of ranges if there is none
+     */
+    private static int searchUpperBound(KeyRange[] ranges, int position, ImmutableBytesWritable ptr) {
+        if (position >= ranges.length || ranges[position].compareUpperToLowerBound(ptr) >= 0) {
+            return position;
+        }
+        int low = position + 1;
+        int high = position + 1;
+        int step = 1;
+        while (high < ranges.length && ranges[high].compareUpperToLowerBound(ptr) < 0) {
+            low = high + 1;
+            step <<= 1;
+            high = position + step;
+        }
+        // The range at high, if any, is not less than the key
+        high = Math.min(high, ranges.length);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ranges[mid].compareUpperToLowerBound(ptr) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Navigates when the row key is made up of a single slot of point lookups, by merging
+     * the row keys, which only move forward, against the sorted keys.
+     */
+    private ReturnCode navigatePointKeys(final byte[] currentKey, final int offset, final int length) {
+        if (isDone) {
+            return ReturnCode.NEXT_ROW;
+        }
+        int pos = position[0];
+        // Advance to the first key not less than the current key, galloping as above
+        if (pos < pointKeys.length && compareKey(pos, currentKey, offset, length) < 0) {
+            int low = pos + 1;
+            int high = pos + 1;
+            int step = 1;
+            while (high < pointKeys.length && compareKey(high, currentKey, offset, length) < 0) {
+                low = high + 1;
+                step <<= 1;
+                high = pos + step;
+            }
+            high = Math.min(high, pointKeys.length);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareKey(mid, currentKey, offset, length) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            pos = position[0] = low;
+        }
+        if (pos >= pointKeys.length) {
+            isDone = true;
+            return ReturnCode.NEXT_ROW;
+        }
+        if (compareKey(pos, currentKey, offset, length) == 0) {
+            // Stay on this key, since there may be more key values for the row
+            return ReturnCode.INCLUDE;
+        }
+        byte[] key = pointKeys[pos];
+        startKey = copyKey(startKey, key.length, key, 0, key.length);
+        startKeyLength = key.length;
+        return ReturnCode.SEEK_NEXT_USING_HINT;
+    }
+    
+    private int compareKey(int pos, byte[] currentKey, int offset, int length) {
+        byte[] key = pointKeys[pos];
+        return Bytes.compareTo(key, 0, key.length, currentKey, offset, length);
+    }
+    
     private boolean allTrailingNulls(int i) {
         for (; i < slots.size(); i++) {
-            List<KeyRange> keyRanges = slots.get(i);
-            if (keyRanges.size() != 1) {
+            KeyRange[] keyRanges = slotRanges[i];
+            if (keyRanges.length != 1) {
                 return false;
             }
-            KeyRange keyRange = keyRanges.get(0);
+            KeyRange keyRange = keyRanges[0];
             if (!keyRange.isSingleKey()) {
                 return false;
             }
@@ -472,7 +594,7 @@ public class SkipScanFilter extends FilterBase implements Writable {
     }
     
     private int nextPosition(int i) {
-        while (i >= 0 && slots.get(i).get(position[i]).isSingleKey() && (position[i] = (position[i] + 1) % slots.get(i).size()) == 0) {
+        while (i >= 0 && slotRanges[i][position[i]].isSingleKey() && (position[i] = (position[i] + 1) % slotRanges[i].length) == 0) {
             i--;
         }
         return i;
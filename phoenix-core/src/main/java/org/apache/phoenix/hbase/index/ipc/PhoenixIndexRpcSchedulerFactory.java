@@ -79,13 +79,37 @@ public class PhoenixIndexRpcSchedulerFactory implements RpcSchedulerFactory {
         LOG.info("Using custom Phoenix Index RPC Handling with " + indexHandlerCount
                 + " handlers and priority range [" + minPriority + ", " + maxPriority + ")");
 
+        int analyticHandlerCount = conf.getInt(QueryServices.ANALYTIC_HANDLER_COUNT_ATTRIB, QueryServicesOptions.DEFAULT_ANALYTIC_HANDLER_COUNT);
+        int minAnalyticPriority = getMinAnalyticPriority(conf);
+        int maxAnalyticPriority = conf.getInt(QueryServices.MAX_ANALYTIC_PRIORITY_ATTRIB, QueryServicesOptions.DEFAULT_ANALYTIC_MAX_PRIORITY);
+        if (analyticHandlerCount > 0) {
+            Preconditions.checkArgument(maxAnalyticPriority > minAnalyticPriority, "Max analytic priority ("
+                    + maxAnalyticPriority + ") must be larger than min priority (" + minAnalyticPriority + ")");
+            Preconditions.checkArgument(maxAnalyticPriority <= minPriority || minAnalyticPriority >= maxPriority,
+                    "Analytic priority range (" + minAnalyticPriority + ", " + maxAnalyticPriority
+                            + ") must not overlap index priority range (" + minPriority + ", " + maxPriority + ")");
+            boolean analyticAllSmaller =
+                    minAnalyticPriority > HConstants.NORMAL_QOS
+                            && maxAnalyticPriority <= HConstants.REPLICATION_QOS;
+            boolean analyticAllLarger = minAnalyticPriority > HConstants.HIGH_QOS;
+            Preconditions.checkArgument(analyticAllSmaller || analyticAllLarger, "Analytic priority range ("
+                    + minAnalyticPriority + ",  " + maxAnalyticPriority + ") must be outside HBase priority range ("
+                    + HConstants.REPLICATION_QOS + ", " + HConstants.HIGH_QOS + ")");
+            LOG.info("Using custom Phoenix Analytic RPC Handling with " + analyticHandlerCount
+                    + " handlers and priority range [" + minAnalyticPriority + ", " + maxAnalyticPriority + ")");
+        }
+
         PhoenixIndexRpcScheduler scheduler =
                 new PhoenixIndexRpcScheduler(indexHandlerCount, conf, delegate, minPriority,
-                        maxPriority);
+                        maxPriority, analyticHandlerCount, minAnalyticPriority, maxAnalyticPriority);
         return scheduler;
     }
 
     public static int getMinPriority(Configuration conf) {
         return conf.getInt(QueryServices.MIN_INDEX_PRIOIRTY_ATTRIB, QueryServicesOptions.DEFAULT_INDEX_MIN_PRIORITY);
     }
+
+    public static int getMinAnalyticPriority(Configuration conf) {
+        return conf.getInt(QueryServices.MIN_ANALYTIC_PRIORITY_ATTRIB, QueryServicesOptions.DEFAULT_ANALYTIC_MIN_PRIORITY);
+    }
 }
\ No newline at end of file
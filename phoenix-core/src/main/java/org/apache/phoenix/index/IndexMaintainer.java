@@ -108,7 +108,7 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
             } else {
                 indexColByteSize += column.getDataType().isFixedWidth() ? SchemaUtil.getFixedByteSize(column) : ValueSchema.ESTIMATED_VARIABLE_LENGTH_SIZE;
                 maintainer.getIndexedColumnTypes().add(column.getDataType());
-                maintainer.getIndexedColumns().add(new ColumnReference(column.getFamilyName().getBytes(), column.getName().getBytes()));
+                maintainer.getIndexedColumns().add(new ColumnReference(column.getFamilyName().getBytes(), SchemaUtil.getColumnQualifier(column)));
             }
             if (indexColumn.getSortOrder() == SortOrder.DESC) {
                 rowKeyMetaData.getDescIndexColumnBitSet().set(indexPos);
@@ -118,7 +118,12 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
             PColumnFamily family = index.getColumnFamilies().get(i);
             for (PColumn indexColumn : family.getColumns()) {
                 PColumn column = IndexUtil.getDataColumn(dataTable, indexColumn.getName().getString());
-                maintainer.getCoverededColumns().add(new ColumnReference(column.getFamilyName().getBytes(), column.getName().getBytes()));
+                ColumnReference ref = new ColumnReference(column.getFamilyName().getBytes(), SchemaUtil.getColumnQualifier(column));
+                maintainer.getCoverededColumns().add(ref);
+                if (column.getColumnQualifierBytes() != null) {
+                    // The index column name cannot be derived from an encoded qualifier
+                    maintainer.coveredColumnIndexQualifiers.put(ref, indexColumn.getName().getBytes());
+                }
             }
         }
         maintainer.estimatedIndexRowKeyBytes = maintainer.estimateIndexRowKeyByteSize(indexColByteSize);
@@ -240,6 +245,8 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
     private boolean isMultiTenant;
     private Set<ColumnReference> indexedColumns;
     private Set<ColumnReference> coveredColumns;
+    // Index column qualifiers of the covered columns with an encoded qualifier in the data table
+    private Map<ColumnReference, byte[]> coveredColumnIndexQualifiers;
     private Set<ColumnReference> allColumns;
     private List<PDataType> indexedColumnTypes;
     private RowKeyMetaData rowKeyMetaData;
@@ -315,6 +322,7 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
         this.indexedColumns = Sets.newLinkedHashSetWithExpectedSize(nIndexPKColumns-nDataPKColumns);
         this.indexedColumnTypes = Lists.<PDataType>newArrayListWithExpectedSize(nIndexPKColumns-nDataPKColumns);
         this.coveredColumns = Sets.newLinkedHashSetWithExpectedSize(nIndexColumns-nIndexPKColumns);
+        this.coveredColumnIndexQualifiers = Maps.newHashMap();
         this.allColumns = Sets.newLinkedHashSetWithExpectedSize(nDataPKColumns + nIndexColumns);
         this.allColumns.addAll(indexedColumns);
         this.allColumns.addAll(coveredColumns);
@@ -808,13 +816,18 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
                         delete = new Delete(indexRowKey);                    
                         delete.setDurability(!indexWALDisabled ? Durability.USE_DEFAULT : Durability.SKIP_WAL);
                     }
-                    delete.deleteColumns(ref.getFamily(), IndexUtil.getIndexColumnName(ref.getFamily(), ref.getQualifier()), ts);
+                    delete.deleteColumns(ref.getFamily(), getIndexColumnQualifier(ref), ts);
                 }
             }
         }
         return delete;
   }
 
+    private byte[] getIndexColumnQualifier(ColumnReference coveredColumn) {
+        byte[] indexQualifier = coveredColumnIndexQualifiers.get(coveredColumn);
+        return indexQualifier == null ? IndexUtil.getIndexColumnName(coveredColumn.getFamily(), coveredColumn.getQualifier()) : indexQualifier;
+    }
+
     public byte[] getIndexTableName() {
         return indexTableName;
     }
@@ -874,10 +887,16 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
         isLocalIndex = encodedCoveredolumnsAndLocalIndex < 0;
         int nCoveredColumns = Math.abs(encodedCoveredolumnsAndLocalIndex) - 1;
         coveredColumns = Sets.newLinkedHashSetWithExpectedSize(nCoveredColumns);
+        coveredColumnIndexQualifiers = Maps.newHashMap();
         for (int i = 0; i < nCoveredColumns; i++) {
             byte[] cf = Bytes.readByteArray(input);
             byte[] cq = Bytes.readByteArray(input);
-            coveredColumns.add(new ColumnReference(cf,cq));
+            ColumnReference ref = new ColumnReference(cf,cq);
+            coveredColumns.add(ref);
+            // Only encoded qualifiers are followed by their index column qualifier
+            if (SchemaUtil.isEncodedColumnQualifier(cq)) {
+                coveredColumnIndexQualifiers.put(ref, Bytes.readByteArray(input));
+            }
         }
         indexTableName = Bytes.readByteArray(input);
         dataEmptyKeyValueCF = Bytes.readByteArray(input);
@@ -917,6 +936,9 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
         for (ColumnReference ref : coveredColumns) {
             Bytes.writeByteArray(output, ref.getFamily());
             Bytes.writeByteArray(output, ref.getQualifier());
+            if (SchemaUtil.isEncodedColumnQualifier(ref.getQualifier())) {
+                Bytes.writeByteArray(output, getIndexColumnQualifier(ref));
+            }
         }
         Bytes.writeByteArray(output, indexTableName);
         Bytes.writeByteArray(output, dataEmptyKeyValueCF);
@@ -949,6 +971,10 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
             size += WritableUtils.getVIntSize(ref.getQualifier().length);
             size += ref.getQualifier().length;
         }
+        for (byte[] indexQualifier : coveredColumnIndexQualifiers.values()) {
+            size += WritableUtils.getVIntSize(indexQualifier.length);
+            size += indexQualifier.length;
+        }
         size += indexTableName.length + WritableUtils.getVIntSize(indexTableName.length);
         size += rowKeyMetaData.getByteSize();
         size += dataEmptyKeyValueCF.length + WritableUtils.getVIntSize(dataEmptyKeyValueCF.length);
@@ -972,8 +998,7 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
 
         indexQualifiers = Lists.newArrayListWithExpectedSize(this.coveredColumns.size());
         for (ColumnReference ref : coveredColumns) {
-            indexQualifiers.add(new ImmutableBytesPtr(IndexUtil.getIndexColumnName(
-                ref.getFamily(), ref.getQualifier())));
+            indexQualifiers.add(new ImmutableBytesPtr(getIndexColumnQualifier(ref)));
         }
 
         this.allColumns = Sets.newLinkedHashSetWithExpectedSize(indexedColumns.size() + coveredColumns.size());
@@ -17,26 +17,34 @@
  */
 package org.apache.phoenix.index;
 
+import static org.apache.phoenix.query.QueryServices.INDEX_MAINTAINER_CACHE_ENABLED_ATTRIB;
 import static org.apache.phoenix.query.QueryServices.INDEX_MUTATE_BATCH_SIZE_THRESHOLD_ATTRIB;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 
+import org.apache.hadoop.hbase.HRegionLocation;
 import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
-
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.phoenix.cache.ServerCacheClient;
 import org.apache.phoenix.cache.ServerCacheClient.ServerCache;
 import org.apache.phoenix.compile.ScanRanges;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.join.MaxServerCacheSizeExceededException;
+import org.apache.phoenix.query.QueryConstants;
 import org.apache.phoenix.query.QueryServicesOptions;
+import org.apache.phoenix.schema.PTable;
 import org.apache.phoenix.schema.TableRef;
+import org.apache.phoenix.util.ByteUtil;
 import org.apache.phoenix.util.ReadOnlyProps;
 import org.apache.phoenix.util.ScanUtil;
 
-public class IndexMetaDataCacheClient {
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 
+public class IndexMetaDataCacheClient {
     private final ServerCacheClient serverCache;
     private TableRef cacheUsingTableRef;
     
@@ -65,6 +73,48 @@ public class IndexMetaDataCacheClient {
         return (indexMetaDataByteLength > ServerCacheClient.UUID_LENGTH && mutations.size() > threshold);
     }
     
+    /**
+     * Get the key under which region servers cache the deserialized index maintainers of a table,
+     * made up of the table name, its metadata timestamp and a hash of the serialized index
+     * maintainers, so that any change to the indexes of the table results in a new key.
+     * @return the key or null if mutations should not reference cached index maintainers
+     */
+    public static byte[] getIndexMetaDataKey(PhoenixConnection connection, PTable table, ImmutableBytesWritable indexMetaDataPtr) {
+        if (!connection.getQueryServices().getProps().getBoolean(INDEX_MAINTAINER_CACHE_ENABLED_ATTRIB, QueryServicesOptions.DEFAULT_INDEX_MAINTAINER_CACHE_ENABLED)) {
+            return null;
+        }
+        long hash = Hashing.murmur3_128().hashBytes(indexMetaDataPtr.get(), indexMetaDataPtr.getOffset(), indexMetaDataPtr.getLength()).asLong();
+        return ByteUtil.concat(table.getName().getBytes(), QueryConstants.SEPARATOR_BYTE_ARRAY, Bytes.toBytes(table.getTimeStamp()), Bytes.toBytes(hash));
+    }
+    
+    /**
+     * Get the region servers hosting the regions of the given table that the mutations are sent to
+     * @return the host and port of each region server
+     */
+    public static Set<String> getRegionServers(PhoenixConnection connection, byte[] tableName, List<Mutation> mutations) throws SQLException {
+        List<HRegionLocation> regions = connection.getQueryServices().getAllTableRegions(tableName);
+        Set<String> servers = Sets.newHashSetWithExpectedSize(Math.min(regions.size(), mutations.size()));
+        for (Mutation mutation : mutations) {
+            // Regions are ordered by start key, so find the last one starting at or before the row
+            int low = 0;
+            int high = regions.size() - 1;
+            int index = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (Bytes.compareTo(regions.get(mid).getRegionInfo().getStartKey(), mutation.getRow()) <= 0) {
+                    index = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (!regions.isEmpty()) {
+                servers.add(regions.get(index).getHostnamePort());
+            }
+        }
+        return servers;
+    }
+    
     /**
      * Send the index metadata cahce to all region servers for regions that will handle the mutations.
      * @return client-side {@link ServerCache} representing the added index metadata cache
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.index;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * 
+ * Client-side record of the region servers known to have cached the index maintainers
+ * sent under a {@link PhoenixIndexCodec#INDEX_MD_KEY}. Mutations only carry the key when
+ * every region server they are sent to has cached it. An entry that was evicted on the
+ * server side is detected through INDEX_METADATA_NOT_FOUND. There is one per
+ * {@link org.apache.phoenix.query.ConnectionQueryServices}, as the region servers differ
+ * between clusters.
+ *
+ * 
+ * @since 5.0.0
+ */
+public class IndexMetaDataKeyCache {
+    private final Cache<ImmutableBytesPtr,Set<String>> serversByKey;
+    
+    public IndexMetaDataKeyCache(long maxSize) {
+        this.serversByKey = CacheBuilder.newBuilder().maximumSize(maxSize).<ImmutableBytesPtr,Set<String>>build();
+    }
+    
+    /**
+     * @param servers the host and port of the region servers
+     * @return true if all of the region servers are known to have cached the index maintainers
+     * for the given key and false otherwise
+     */
+    public boolean isCached(byte[] indexMetaDataKey, Collection<String> servers) {
+        Set<String> cachingServers = serversByKey.getIfPresent(new ImmutableBytesPtr(indexMetaDataKey));
+        return cachingServers != null && cachingServers.containsAll(servers);
+    }
+    
+    /**
+     * Record that the region servers have cached the index maintainers for the given key
+     */
+    public void setCached(byte[] indexMetaDataKey, Collection<String> servers) {
+        ImmutableBytesPtr key = new ImmutableBytesPtr(indexMetaDataKey);
+        Set<String> cachingServers = serversByKey.getIfPresent(key);
+        if (cachingServers == null) {
+            cachingServers = Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
+            Set<String> existingServers = serversByKey.asMap().putIfAbsent(key, cachingServers);
+            if (existingServers != null) {
+                cachingServers = existingServers;
+            }
+        }
+        cachingServers.addAll(servers);
+    }
+    
+    /**
+     * Forget about all region servers having cached the index maintainers for the given key,
+     * as at least one of them no longer has them.
+     */
+    public void invalidate(byte[] indexMetaDataKey) {
+        serversByKey.invalidate(new ImmutableBytesPtr(indexMetaDataKey));
+    }
+    
+    public long size() {
+        return serversByKey.size();
+    }
+}
@@ -51,6 +51,7 @@ import org.apache.phoenix.util.MetaDataUtil;
 import org.apache.phoenix.util.PhoenixRuntime;
 import org.apache.phoenix.util.ServerUtil;
 
+import com.google.common.cache.Cache;
 import com.google.common.collect.Lists;
 
 /**
@@ -61,6 +62,8 @@ import com.google.common.collect.Lists;
 public class PhoenixIndexCodec extends BaseIndexCodec {
     public static final String INDEX_MD = "IdxMD";
     public static final String INDEX_UUID = "IdxUUID";
+    // Key under which region servers cache the deserialized index maintainers across batches
+    public static final String INDEX_MD_KEY = "IdxMDKey";
 
     private RegionCoprocessorEnvironment env;
     private KeyValueBuilder kvBuilder;
@@ -86,6 +89,17 @@ public class PhoenixIndexCodec extends BaseIndexCodec {
         if (uuid == null) {
             return Collections.emptyList();
         }
+        byte[] mdKey = attributes.get(INDEX_MD_KEY);
+        Cache<ImmutableBytesPtr,List<IndexMaintainer>> indexMaintainersCache = null;
+        ImmutableBytesPtr cacheKey = null;
+        if (mdKey != null) {
+            indexMaintainersCache = GlobalCache.getInstance(env).getIndexMaintainersCache();
+            cacheKey = new ImmutableBytesPtr(mdKey);
+            List<IndexMaintainer> indexMaintainers = indexMaintainersCache.getIfPresent(cacheKey);
+            if (indexMaintainers != null) {
+                return indexMaintainers;
+            }
+        }
         byte[] md = attributes.get(INDEX_MD);
         List<IndexMaintainer> indexMaintainers;
         if (md != null) {
@@ -105,7 +119,9 @@ public class PhoenixIndexCodec extends BaseIndexCodec {
             }
             indexMaintainers = indexCache.getIndexMaintainers();
         }
-    
+        if (indexMaintainersCache != null) {
+            indexMaintainersCache.put(cacheKey, indexMaintainers);
+        }
         return indexMaintainers;
     }
     
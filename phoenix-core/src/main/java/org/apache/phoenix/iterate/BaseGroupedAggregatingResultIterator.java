@@ -97,6 +97,11 @@ public abstract class BaseGroupedAggregatingResultIterator implements
         aggregators.aggregate(rowAggregators, result);
     }
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return false;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
         resultIterator.explain(planSteps);
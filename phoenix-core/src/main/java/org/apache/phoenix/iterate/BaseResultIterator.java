@@ -34,6 +34,11 @@ public abstract class BaseResultIterator implements ResultIterator {
     public void close() throws SQLException {
     }
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return true;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
     }
@@ -174,6 +174,11 @@ public abstract class BaseResultIterators extends ExplainTable implements Result
             }
         }
         
+        if (!statement.isAggregate()) {
+            // Lets the projected columns be looked up at their expected position in the returned rows
+            projector.setColumnPositions(scan.getFamilyMap());
+        }
+        
         // TODO adding all CFs here is not correct. It should be done only after ColumnProjectionOptimization.
         if (perScanLimit != null) {
             ScanUtil.andFilterAtEnd(scan, new PageFilter(perScanLimit));
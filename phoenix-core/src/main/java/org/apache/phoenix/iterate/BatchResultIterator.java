@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.iterate;
+
+import java.sql.SQLException;
+
+import org.apache.phoenix.schema.tuple.Tuple;
+
+/**
+ * 
+ * Optional extension of {@link ResultIterator} for operators that can produce
+ * a batch of results per call, amortizing the per row dispatch overhead.
+ * Use {@link BatchResultIterators#nextBatch(ResultIterator, Tuple[], int, int)}
+ * to read a batch from any iterator, whether or not it implements this interface.
+ *
+ * 
+ * @since 5.0
+ */
+public interface BatchResultIterator extends ResultIterator {
+    /**
+     * Read up to length results into the batch, starting at offset. The batch
+     * array is owned by the caller and may be reused across calls, while the
+     * tuples placed in it are not reused by the iterator.
+     * @return the number of results read, which may be less than length,
+     * or 0 if the iterator is exhausted
+     * @throws SQLException e
+     * @throws IllegalArgumentException if length is not positive
+     */
+    public int nextBatch(Tuple[] batch, int offset, int length) throws SQLException;
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.iterate;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.phoenix.schema.tuple.Tuple;
+
+/**
+ * 
+ * Adapters between the row at a time {@link ResultIterator} protocol
+ * and the batch at a time {@link BatchResultIterator} protocol.
+ *
+ * 
+ * @since 5.0
+ */
+public class BatchResultIterators {
+    private BatchResultIterators() {
+    }
+
+    /**
+     * Read up to length results from the iterator into the batch, starting at offset.
+     * Iterators that do not implement {@link BatchResultIterator} are read a row at
+     * a time. An iterator that is not {@link ResultIterator#isReadAheadSafe() safe to
+     * read ahead} returns at most one row per batch.
+     * @return the number of results read, or 0 if the iterator is exhausted
+     * @throws SQLException e
+     * @throws IllegalArgumentException if length is not positive
+     */
+    public static int nextBatch(ResultIterator iterator, Tuple[] batch, int offset, int length) throws SQLException {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Batch length must be positive, but got " + length);
+        }
+        if (iterator instanceof BatchResultIterator) {
+            return ((BatchResultIterator)iterator).nextBatch(batch, offset, length);
+        }
+        if (!iterator.isReadAheadSafe()) {
+            length = 1;
+        }
+        int count = 0;
+        Tuple tuple;
+        while (count < length && (tuple = iterator.next()) != null) {
+            batch[offset + count++] = tuple;
+        }
+        return count;
+    }
+
+    public static BatchResultIterator wrap(final ResultIterator iterator) {
+        if (iterator instanceof BatchResultIterator) {
+            return (BatchResultIterator)iterator;
+        }
+        
+        return new BatchResultIterator() {
+
+            @Override
+            public Tuple next() throws SQLException {
+                return iterator.next();
+            }
+
+            @Override
+            public int nextBatch(Tuple[] batch, int offset, int length) throws SQLException {
+                return BatchResultIterators.nextBatch(iterator, batch, offset, length);
+            }
+
+            @Override
+            public void close() throws SQLException {
+                iterator.close();
+            }
+
+            @Override
+            public boolean isReadAheadSafe() {
+                return iterator.isReadAheadSafe();
+            }
+
+            @Override
+            public void explain(List<String> planSteps) {
+                iterator.explain(planSteps);
+            }
+        };
+    }
+}
@@ -20,37 +20,60 @@ package org.apache.phoenix.iterate;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.phoenix.compile.StatementContext;
+import org.apache.phoenix.job.JobManager.JobCallable;
 import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.query.QueryServicesOptions;
 import org.apache.phoenix.schema.TableRef;
 import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.trace.util.Tracing;
 import org.apache.phoenix.util.ByteUtil;
 import org.apache.phoenix.util.LogUtil;
+import org.apache.phoenix.util.ReadOnlyProps;
 import org.apache.phoenix.util.ScanUtil;
+import org.apache.phoenix.util.ServerUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 
 /**
  * {@code PeekingResultIterator} implementation that loads data in chunks. This is intended for
  * basic scan plans, to avoid loading large quantities of data from HBase in one go.
+ * <p>
+ * The configured chunk size is an upper bound on the number of rows per chunk. Each new chunk
+ * is sized from the previous one: large rows shrink it to stay within
+ * {@link QueryServices#SCAN_RESULT_CHUNK_BYTES_ATTRIB}, and a chunk whose scanner stayed open for
+ * more than half the scanner timeout, for example because of a slow consumer, shrinks it in
+ * proportion. When a chunk has been read completely by the time it's handed out (as it is when
+ * it's spooled), the next chunk is prefetched in the background while this one is consumed.
  */
 public class ChunkedResultIterator implements PeekingResultIterator {
     private static final Logger logger = LoggerFactory.getLogger(ChunkedResultIterator.class);
 
     private final ParallelIteratorFactory delegateIteratorFactory;
-    private ImmutableBytesWritable lastKey = new ImmutableBytesWritable();
     private final StatementContext context;
     private final TableRef tableRef;
     private Scan scan;
-    private final long chunkSize;
+    private final long maxChunkSize;
+    private final long targetChunkBytes;
+    private final long maxChunkMillis;
+    private final boolean prefetch;
+    private long chunkSize;
+    private SingleChunkResultIterator currentChunk;
     private PeekingResultIterator resultIterator;
+    private Future<PeekingResultIterator> nextResultIterator;
+    private SingleChunkResultIterator nextChunk;
 
     public static class ChunkedResultIteratorFactory implements ParallelIteratorFactory {
 
@@ -80,14 +103,22 @@ public class ChunkedResultIterator implements PeekingResultIterator {
         this.context = context;
         this.tableRef = tableRef;
         this.scan = scan;
+        this.maxChunkSize = chunkSize;
         this.chunkSize = chunkSize;
+        ReadOnlyProps props = context.getConnection().getQueryServices().getProps();
+        this.targetChunkBytes = props.getLong(QueryServices.SCAN_RESULT_CHUNK_BYTES_ATTRIB,
+                QueryServicesOptions.DEFAULT_SCAN_RESULT_CHUNK_BYTES);
+        this.maxChunkMillis = props.getLong(HConstants.HBASE_CLIENT_SCANNER_TIMEOUT_PERIOD,
+                HConstants.DEFAULT_HBASE_CLIENT_SCANNER_TIMEOUT_PERIOD) / 2;
+        this.prefetch = props.getBoolean(QueryServices.SCAN_RESULT_CHUNK_PREFETCH_ATTRIB,
+                QueryServicesOptions.DEFAULT_SCAN_RESULT_CHUNK_PREFETCH);
         // Instantiate single chunk iterator and the delegate iterator in constructor
         // to get parallel scans kicked off in separate threads. If we delay this,
         // we'll get serialized behavior (see PHOENIX-
         if (logger.isDebugEnabled()) logger.debug(LogUtil.addCustomAnnotations("Get first chunked result iterator over " + tableRef.getTable().getName().getString() + " with " + scan, ScanUtil.getCustomAnnotations(scan)));
-        ResultIterator singleChunkResultIterator = new SingleChunkResultIterator(
-                new TableResultIterator(context, tableRef, scan), chunkSize);
-        resultIterator = delegateIteratorFactory.newIterator(context, singleChunkResultIterator, scan);
+        currentChunk = new SingleChunkResultIterator(new TableResultIterator(context, tableRef, scan), chunkSize);
+        resultIterator = delegateIteratorFactory.newIterator(context, currentChunk, scan);
+        prefetchNextChunk();
     }
 
     @Override
@@ -100,6 +131,11 @@ public class ChunkedResultIterator implements PeekingResultIterator {
         return getResultIterator().next();
     }
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return true;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
         resultIterator.explain(planSteps);
@@ -107,29 +143,137 @@ public class ChunkedResultIterator implements PeekingResultIterator {
 
     @Override
     public void close() throws SQLException {
-        resultIterator.close();
+        try {
+            resultIterator.close();
+        } finally {
+            if (nextResultIterator != null) {
+                takeNextResultIterator().close();
+            }
+        }
     }
 
     private PeekingResultIterator getResultIterator() throws SQLException {
-        if (resultIterator.peek() == null && lastKey != null) {
+        if (resultIterator.peek() == null && currentChunk.getNextKey() != null) {
             resultIterator.close();
-            scan = ScanUtil.newScan(scan);
-            scan.setStartRow(ByteUtil.copyKeyBytesIfNecessary(lastKey));
-            if (logger.isDebugEnabled()) logger.debug(LogUtil.addCustomAnnotations("Get next chunked result iterator over " + tableRef.getTable().getName().getString() + " with " + scan, ScanUtil.getCustomAnnotations(scan)));
-            ResultIterator singleChunkResultIterator = new SingleChunkResultIterator(
-                    new TableResultIterator(context, tableRef, scan), chunkSize);
-            resultIterator = delegateIteratorFactory.newIterator(context, singleChunkResultIterator, scan);
+            if (nextResultIterator != null) {
+                resultIterator = takeNextResultIterator();
+                currentChunk = nextChunk;
+            } else {
+                scan = newChunkScan();
+                if (logger.isDebugEnabled()) logger.debug(LogUtil.addCustomAnnotations("Get next chunked result iterator over " + tableRef.getTable().getName().getString() + " with " + scan, ScanUtil.getCustomAnnotations(scan)));
+                currentChunk = new SingleChunkResultIterator(new TableResultIterator(context, tableRef, scan), chunkSize);
+                resultIterator = delegateIteratorFactory.newIterator(context, currentChunk, scan);
+            }
+            prefetchNextChunk();
         }
         return resultIterator;
     }
 
+    /**
+     * Resizes the next chunk based on the completed current one and returns the scan for it.
+     */
+    private Scan newChunkScan() {
+        chunkSize = getNextChunkSize(maxChunkSize, targetChunkBytes, maxChunkMillis,
+                currentChunk.rowCount, currentChunk.byteCount, currentChunk.getElapsedMillis());
+        Scan nextScan = ScanUtil.newScan(scan);
+        nextScan.setStartRow(ByteUtil.copyKeyBytesIfNecessary(currentChunk.getNextKey()));
+        return nextScan;
+    }
+
+    @VisibleForTesting
+    static long getNextChunkSize(long maxChunkSize, long targetChunkBytes, long maxChunkMillis,
+            long rowCount, long byteCount, long elapsedMillis) {
+        long nextChunkSize = maxChunkSize;
+        if (rowCount > 0 && byteCount > 0 && targetChunkBytes > 0) {
+            nextChunkSize = Math.min(nextChunkSize, Math.max(1, targetChunkBytes * rowCount / byteCount));
+        }
+        if (rowCount > 0 && maxChunkMillis > 0 && elapsedMillis > maxChunkMillis) {
+            nextChunkSize = Math.min(nextChunkSize, Math.max(1, rowCount * maxChunkMillis / elapsedMillis));
+        }
+        return nextChunkSize;
+    }
+
+    /**
+     * Starts loading the next chunk in the background if the current one has already been read
+     * to its end, as its start key is then known.
+     */
+    private void prefetchNextChunk() {
+        if (!prefetch || !currentChunk.chunkComplete || currentChunk.getNextKey() == null) {
+            return;
+        }
+        scan = newChunkScan();
+        final Scan chunkScan = scan;
+        try {
+            nextChunk = new SingleChunkResultIterator(new TableResultIterator(context, tableRef, chunkScan), chunkSize);
+        } catch (SQLException e) {
+            // Fall back to loading the chunk once it's needed
+            logger.debug("Unable to prefetch next chunk", e);
+            return;
+        }
+        if (logger.isDebugEnabled()) logger.debug(LogUtil.addCustomAnnotations("Prefetch next chunked result iterator over " + tableRef.getTable().getName().getString() + " with " + chunkScan, ScanUtil.getCustomAnnotations(chunkScan)));
+        final SingleChunkResultIterator chunk = nextChunk;
+        try {
+            nextResultIterator = context.getConnection().getQueryServices().getExecutor().submit(Tracing.wrap(new JobCallable<PeekingResultIterator>() {
+
+                @Override
+                public PeekingResultIterator call() throws Exception {
+                    return delegateIteratorFactory.newIterator(context, chunk, chunkScan);
+                }
+
+                @Override
+                public Object getJobId() {
+                    return ChunkedResultIterator.this;
+                }
+            }, "Chunk prefetch for table: " + tableRef.getTable().getName().getString()));
+        } catch (RejectedExecutionException e) {
+            // Fall back to loading the chunk once it's needed
+            logger.debug("Unable to prefetch next chunk", e);
+            nextChunk = null;
+            try {
+                chunk.close();
+            } catch (SQLException e1) {
+                logger.warn("Unable to close scanner of next chunk", e1);
+            }
+        }
+    }
+
+    /**
+     * Waits for the prefetched chunk. If it could not be loaded, the scanner of the chunk is closed
+     * here, as there is no iterator to close it.
+     */
+    private PeekingResultIterator takeNextResultIterator() throws SQLException {
+        Future<PeekingResultIterator> future = nextResultIterator;
+        nextResultIterator = null;
+        SQLException exception;
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            exception = ServerUtil.parseServerException(e);
+        } catch (ExecutionException e) {
+            exception = ServerUtil.parseServerException(e.getCause());
+        }
+        try {
+            nextChunk.close();
+        } catch (SQLException e) {
+            exception.setNextException(e);
+        }
+        throw exception;
+    }
+
     /**
      * ResultIterator that runs over a single chunk of results (i.e. a portion of a scan).
      */
     private class SingleChunkResultIterator implements ResultIterator {
 
         private int rowCount = 0;
-        private boolean chunkComplete;
+        private long byteCount = 0;
+        private final long startTime = System.currentTimeMillis();
+        private long endTime;
+        private volatile boolean chunkComplete;
+        private volatile boolean closed;
+        private ImmutableBytesWritable lastKey = new ImmutableBytesWritable();
         private final ResultIterator delegate;
         private final long chunkSize;
 
@@ -139,6 +283,17 @@ public class ChunkedResultIterator implements PeekingResultIterator {
             this.chunkSize = chunkSize;
         }
 
+        /**
+         * @return the start key of the next chunk, or null if the scan has been exhausted
+         */
+        private ImmutableBytesWritable getNextKey() {
+            return lastKey;
+        }
+
+        private long getElapsedMillis() {
+            return (endTime == 0 ? System.currentTimeMillis() : endTime) - startTime;
+        }
+
         @Override
         public Tuple next() throws SQLException {
             if (chunkComplete || lastKey == null) {
@@ -153,16 +308,27 @@ public class ChunkedResultIterator implements PeekingResultIterator {
                 if (rowCount == chunkSize) {
                     next.getKey(lastKey);
                 } else if (rowCount > chunkSize && rowKeyChanged(next)) {
+                    endTime = System.currentTimeMillis();
                     chunkComplete = true;
                     return null;
                 }
                 rowCount++;
+                for (int i = 0; i < next.size(); i++) {
+                    Cell cell = next.getValue(i);
+                    byteCount += cell.getRowLength() + cell.getFamilyLength() + cell.getQualifierLength() + cell.getValueLength();
+                }
             } else {
+                endTime = System.currentTimeMillis();
                 lastKey = null;
             }
             return next;
         }
 
+        @Override
+        public boolean isReadAheadSafe() {
+            return true;
+        }
+
         @Override
         public void explain(List<String> planSteps) {
             delegate.explain(planSteps);
@@ -170,7 +336,11 @@ public class ChunkedResultIterator implements PeekingResultIterator {
 
         @Override
         public void close() throws SQLException {
-            delegate.close();
+            // The delegate iterator factory may already have closed the chunk
+            if (!closed) {
+                closed = true;
+                delegate.close();
+            }
         }
 
         private boolean rowKeyChanged(Tuple newTuple) {
@@ -86,6 +86,11 @@ public class ConcatResultIterator implements PeekingResultIterator {
     }
 
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return true;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
         if (resultIterators != null) {
@@ -44,6 +44,11 @@ public class DelegateResultIterator implements ResultIterator {
         return delegate.next();
     }
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return delegate.isReadAheadSafe();
+    }
+
     @Override
     public void explain(List<String> planSteps) {
         delegate.explain(planSteps);
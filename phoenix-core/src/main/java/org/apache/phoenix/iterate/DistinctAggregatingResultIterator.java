@@ -148,6 +148,11 @@ public class DistinctAggregatingResultIterator implements AggregatingResultItera
     }
 
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return false;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
         delegate.explain(planSteps);
@@ -100,6 +100,9 @@ public abstract class ExplainTable {
         if (hint.hasHint(Hint.SMALL)) {
             buf.append("SMALL ");
         }
+        if (context.isAnalyticScan()) {
+            buf.append("ANALYTIC ");
+        }
         if (OrderBy.REV_ROW_KEY_ORDER_BY.equals(orderBy)) {
             buf.append("REVERSE ");
         }
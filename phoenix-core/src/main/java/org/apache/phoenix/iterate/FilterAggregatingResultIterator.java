@@ -70,6 +70,11 @@ public class FilterAggregatingResultIterator  implements AggregatingResultIterat
         delegate.aggregate(result);
     }
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return false;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
         delegate.explain(planSteps);
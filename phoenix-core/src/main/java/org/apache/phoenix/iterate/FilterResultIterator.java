@@ -64,6 +64,30 @@ public class FilterResultIterator  extends LookAheadResultIterator {
         return next;
     }
     
+    @Override
+    protected int advance(Tuple[] batch, int offset, int length) throws SQLException {
+        int count;
+        do {
+            int read = BatchResultIterators.nextBatch(delegate, batch, offset, length);
+            if (read == 0) {
+                return 0;
+            }
+            // Compact the rows that pass the filter to the front of the batch
+            count = 0;
+            for (int i = offset; i < offset + read; i++) {
+                Tuple tuple = batch[i];
+                expression.reset();
+                if (expression.evaluate(tuple, ptr) && !Boolean.FALSE.equals(expression.getDataType().toObject(ptr))) {
+                    batch[offset + count++] = tuple;
+                }
+            }
+            for (int i = offset + count; i < offset + read; i++) {
+                batch[i] = null;
+            }
+        } while (count == 0);
+        return count;
+    }
+    
     @Override
     public void close() throws SQLException {
         delegate.close();
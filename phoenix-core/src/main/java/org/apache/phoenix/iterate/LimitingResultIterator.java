@@ -29,7 +29,7 @@ import org.apache.phoenix.schema.tuple.Tuple;
  * 
  * @since 1.2
  */
-public class LimitingResultIterator extends DelegateResultIterator {
+public class LimitingResultIterator extends DelegateResultIterator implements BatchResultIterator {
     private int rowCount;
     private final int limit;
     
@@ -47,6 +47,20 @@ public class LimitingResultIterator extends DelegateResultIterator {
         return super.next();
     }
 
+    @Override
+    public int nextBatch(Tuple[] batch, int offset, int length) throws SQLException {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Batch length must be positive, but got " + length);
+        }
+        if (rowCount >= limit) {
+            close(); // Free resources early
+            return 0;
+        }
+        int count = BatchResultIterators.nextBatch(getDelegate(), batch, offset, Math.min(length, limit - rowCount));
+        rowCount += count;
+        return count;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
         super.explain(planSteps);
@@ -24,7 +24,7 @@ import org.apache.phoenix.schema.tuple.ResultTuple;
 import org.apache.phoenix.schema.tuple.Tuple;
 
 
-abstract public class LookAheadResultIterator implements PeekingResultIterator {
+abstract public class LookAheadResultIterator implements PeekingResultIterator, BatchResultIterator {
     public static PeekingResultIterator wrap(final ResultIterator iterator) {
         if (iterator instanceof PeekingResultIterator) {
             return (PeekingResultIterator) iterator;
@@ -32,6 +32,11 @@ abstract public class LookAheadResultIterator implements PeekingResultIterator {
         
         return new LookAheadResultIterator() {
 
+            @Override
+            public boolean isReadAheadSafe() {
+                return iterator.isReadAheadSafe();
+            }
+
             @Override
             public void explain(List<String> planSteps) {
                 iterator.explain(planSteps);
@@ -46,6 +51,11 @@ abstract public class LookAheadResultIterator implements PeekingResultIterator {
             protected Tuple advance() throws SQLException {
                 return iterator.next();
             }
+
+            @Override
+            protected int advance(Tuple[] batch, int offset, int length) throws SQLException {
+                return BatchResultIterators.nextBatch(iterator, batch, offset, length);
+            }
         };
     }
     
@@ -54,6 +64,20 @@ abstract public class LookAheadResultIterator implements PeekingResultIterator {
     
     abstract protected Tuple advance() throws SQLException;
     
+    /**
+     * Advance up to length results into the batch, starting at offset. Subclasses
+     * may override this to produce a batch in a tight loop instead of row at a time.
+     * @return the number of results advanced, or 0 if there are no more results
+     */
+    protected int advance(Tuple[] batch, int offset, int length) throws SQLException {
+        int count = 0;
+        Tuple tuple;
+        while (count < length && (tuple = advance()) != null) {
+            batch[offset + count++] = tuple;
+        }
+        return count;
+    }
+    
     private void init() throws SQLException {
         if (next == UNINITIALIZED) {
             next = advance();
@@ -68,6 +92,32 @@ abstract public class LookAheadResultIterator implements PeekingResultIterator {
         return next;
     }
     
+    @Override
+    public int nextBatch(Tuple[] batch, int offset, int length) throws SQLException {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Batch length must be positive, but got " + length);
+        }
+        init();
+        if (next == null) {
+            return 0;
+        }
+        batch[offset] = next;
+        int count = 1;
+        int advanced = length > 1 ? advance(batch, offset + 1, length - 1) : -1;
+        if (advanced == 0) {
+            next = null;
+        } else {
+            count += Math.max(advanced, 0);
+            next = advance();
+        }
+        return count;
+    }
+    
+    @Override
+    public boolean isReadAheadSafe() {
+        return true;
+    }
+    
     @Override
     public Tuple peek() throws SQLException {
         init();
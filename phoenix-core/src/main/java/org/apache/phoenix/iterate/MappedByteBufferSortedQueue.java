@@ -19,15 +19,14 @@ package org.apache.phoenix.iterate;
 
 import java.io.IOException;
 import java.nio.MappedByteBuffer;
-import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
 import java.util.Queue;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.phoenix.iterate.OrderedResultIterator.ResultEntry;
+import org.apache.phoenix.schema.tuple.ArenaTuple;
 import org.apache.phoenix.schema.tuple.ResultTuple;
 import org.apache.phoenix.schema.tuple.Tuple;
 import org.apache.phoenix.util.ResultUtil;
@@ -63,6 +62,7 @@ public class MappedByteBufferSortedQueue extends MappedByteBufferQueue<ResultEnt
 
     private static class MappedByteBufferResultEntryPriorityQueue extends MappedByteBufferSegmentQueue<ResultEntry> {    	
         private MinMaxPriorityQueue<ResultEntry> results = null;
+        private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
         
     	public MappedByteBufferResultEntryPriorityQueue(int index,
                 int thresholdBytes, int limit, Comparator<ResultEntry> comparator) {
@@ -79,22 +79,18 @@ public class MappedByteBufferSortedQueue extends MappedByteBufferQueue<ResultEnt
 
         @Override
         protected int sizeOf(ResultEntry e) {
-            return sizeof(e.sortKeys) + sizeof(toKeyValues(e));
+            return sizeof(e.sortKeys) + sizeof(e.getResult());
         }
 
-        @SuppressWarnings("deprecation")
         @Override
         protected void writeToBuffer(MappedByteBuffer buffer, ResultEntry e) {
-            int totalLen = 0;
-            List<KeyValue> keyValues = toKeyValues(e);
-            for (KeyValue kv : keyValues) {
-                totalLen += (kv.getLength() + Bytes.SIZEOF_INT);
-            }
-            buffer.putInt(totalLen);
-            for (KeyValue kv : keyValues) {
-                buffer.putInt(kv.getLength());
-                buffer.put(kv.getBuffer(), kv.getOffset(), kv
-                        .getLength());
+            Tuple result = e.getResult();
+            int size = result.size();
+            buffer.putInt(sizeof(result) - Bytes.SIZEOF_INT);
+            for (int i = 0; i < size; i++) {
+                getKeyValue(result, i, ptr);
+                buffer.putInt(ptr.getLength());
+                buffer.put(ptr.get(), ptr.getOffset(), ptr.getLength());
             }
             ImmutableBytesWritable[] sortKeys = e.sortKeys;
             buffer.putInt(sortKeys.length);
@@ -135,24 +131,28 @@ public class MappedByteBufferSortedQueue extends MappedByteBufferQueue<ResultEnt
             return new ResultEntry(sortKeys, rt);
         }
 
-        private List<KeyValue> toKeyValues(ResultEntry entry) {
-            Tuple result = entry.getResult();
-            int size = result.size();
-            List<KeyValue> kvs = new ArrayList<KeyValue>(size);
-            for (int i = 0; i < size; i++) {
-                kvs.add(org.apache.hadoop.hbase.KeyValueUtil.ensureKeyValue(result.getValue(i)));
+        /**
+         * Point to the serialized KeyValue at the given index of the tuple. Rows copied
+         * into an arena are read in place, so that no KeyValue is created for them.
+         */
+        @SuppressWarnings("deprecation")
+        private static void getKeyValue(Tuple result, int index, ImmutableBytesWritable ptr) {
+            if (result instanceof ArenaTuple) {
+                ((ArenaTuple)result).getKeyValue(index, ptr);
+            } else {
+                KeyValue kv = org.apache.hadoop.hbase.KeyValueUtil.ensureKeyValue(result.getValue(index));
+                ptr.set(kv.getBuffer(), kv.getOffset(), kv.getLength());
             }
-            return kvs;
         }
 
-        private int sizeof(List<KeyValue> kvs) {
+        private int sizeof(Tuple result) {
             int size = Bytes.SIZEOF_INT; // totalLen
-
-            for (KeyValue kv : kvs) {
-                size += kv.getLength();
+            int count = result.size();
+            for (int i = 0; i < count; i++) {
+                getKeyValue(result, i, ptr);
+                size += ptr.getLength();
                 size += Bytes.SIZEOF_INT; // kv.getLength
             }
-
             return size;
         }
 
@@ -104,6 +104,11 @@ public class MaterializedResultIterator implements PeekingResultIterator {
 
     }
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return true;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
     }
@@ -100,6 +100,11 @@ public abstract class MergeSortResultIterator implements PeekingResultIterator {
         return minIterator;
     }
     
+    @Override
+    public boolean isReadAheadSafe() {
+        return true;
+    }
+    
     @Override
     public Tuple peek() throws SQLException {
         PeekingResultIterator iterator = minIterator();
@@ -58,4 +58,9 @@ public class OrderedAggregatingResultIterator extends OrderedResultIterator impl
     public void aggregate(Tuple result) {
         getDelegate().aggregate(result);
     }
+    
+    @Override
+    public boolean isReadAheadSafe() {
+        return false;
+    }
 }
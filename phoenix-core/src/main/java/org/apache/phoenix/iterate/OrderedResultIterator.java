@@ -34,7 +34,9 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
 import org.apache.phoenix.expression.Expression;
 import org.apache.phoenix.expression.OrderByExpression;
+import org.apache.phoenix.schema.tuple.ResultTuple;
 import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.schema.tuple.TupleArena;
 import org.apache.phoenix.util.SizedUtil;
 
 /**
@@ -203,6 +205,11 @@ public class OrderedResultIterator implements PeekingResultIterator {
                     return entry.getResult();
                 }
 
+                @Override
+                public boolean isReadAheadSafe() {
+                    return true;
+                }
+
                 @Override
                 public void explain(List<String> planSteps) {
                 }
@@ -212,14 +219,23 @@ public class OrderedResultIterator implements PeekingResultIterator {
                     queueEntries.close();
                 }
             };
+            // Copy the rows of a full sort into large arenas instead of holding on to the objects of each
+            // row. Not done when only the top rows are kept, as the arena memory of the rows being
+            // discarded would then not be reclaimed until all other rows sharing it are discarded too.
+            TupleArena arena = limit == null ? new TupleArena() : null;
+            ImmutableBytesWritable sortKey = new ImmutableBytesWritable();
             for (Tuple result = delegate.next(); result != null; result = delegate.next()) {
+                if (arena != null && result instanceof ResultTuple) {
+                    result = arena.add(result);
+                }
                 int pos = 0;
                 ImmutableBytesWritable[] sortKeys = new ImmutableBytesWritable[numSortKeys];
                 for (Expression expression : expressions) {
-                    final ImmutableBytesWritable sortKey = new ImmutableBytesWritable();
                     boolean evaluated = expression.evaluate(result, sortKey);
-                    // set the sort key that failed to get evaluated with null
-                    sortKeys[pos++] = evaluated && sortKey.getLength() > 0 ? sortKey : null;
+                    // set the sort key that failed to get evaluated with null, only
+                    // allocating a pointer for the sort keys that are retained
+                    sortKeys[pos++] = evaluated && sortKey.getLength() > 0 ? 
+                            new ImmutableBytesWritable(sortKey.get(), sortKey.getOffset(), sortKey.getLength()) : null;
                 }
                 queueEntries.add(new ResultEntry(sortKeys, result));
             }
@@ -244,6 +260,11 @@ public class OrderedResultIterator implements PeekingResultIterator {
     }
 
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return true;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
         delegate.explain(planSteps);
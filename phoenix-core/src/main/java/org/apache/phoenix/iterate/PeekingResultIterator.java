@@ -48,6 +48,11 @@ public interface PeekingResultIterator extends ResultIterator {
         public void close() throws SQLException {
         }
 
+        @Override
+        public boolean isReadAheadSafe() {
+            return true;
+        }
+
         @Override
         public void explain(List<String> planSteps) {
         }
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.iterate;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.compile.OrderByCompiler.OrderBy;
+import org.apache.phoenix.compile.ScanRanges;
+import org.apache.phoenix.compile.StatementContext;
+import org.apache.phoenix.coprocessor.BaseScannerRegionObserver;
+import org.apache.phoenix.execute.TupleProjector;
+import org.apache.phoenix.join.HashJoinInfo;
+import org.apache.phoenix.query.KeyRange;
+import org.apache.phoenix.schema.PTable;
+import org.apache.phoenix.schema.PTable.IndexType;
+import org.apache.phoenix.schema.SaltingUtil;
+import org.apache.phoenix.schema.TableRef;
+import org.apache.phoenix.schema.tuple.ResultTuple;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.util.Closeables;
+import org.apache.phoenix.util.ScanUtil;
+import org.apache.phoenix.util.ServerUtil;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+
+
+/**
+ *
+ * Iterates through the rows of a point lookup by issuing a batch of Gets for
+ * its fully qualified row keys from the calling thread, rather than running
+ * parallel scans through the scan coprocessor. The Gets are built from the
+ * scan of the statement, so they project the same columns and apply the same
+ * filter and time range.
+ *
+ * 
+ * @since 5.0
+ */
+public class PointLookupResultIterator extends ExplainTable implements ResultIterator {
+    private static final Comparator<Result> UNSALTED_ROW_COMPARATOR = new Comparator<Result>() {
+        @Override
+        public int compare(Result r1, Result r2) {
+            byte[] row1 = r1.getRow();
+            byte[] row2 = r2.getRow();
+            return Bytes.compareTo(row1, SaltingUtil.NUM_SALTING_BYTES, row1.length - SaltingUtil.NUM_SALTING_BYTES,
+                    row2, SaltingUtil.NUM_SALTING_BYTES, row2.length - SaltingUtil.NUM_SALTING_BYTES);
+        }
+    };
+    
+    private final Scan scan;
+    private Iterator<Result> results;
+    
+    public PointLookupResultIterator(StatementContext context, TableRef tableRef) {
+        super(context, tableRef);
+        this.scan = context.getScan();
+    }
+    
+    /**
+     * Determines whether the rows of a point lookup may be fetched with Gets, which is
+     * the case unless the scan relies on the scan coprocessor for more than filtering.
+     * @param maxKeys the maximum number of keys for which Gets are used
+     */
+    public static boolean isApplicable(StatementContext context, TableRef tableRef, OrderBy orderBy, int maxKeys) {
+        ScanRanges scanRanges = context.getScanRanges();
+        if (!scanRanges.isPointLookup() || scanRanges.getPointLookupCount() > maxKeys) {
+            return false;
+        }
+        Scan scan = context.getScan();
+        PTable table = tableRef.getTable();
+        return orderBy.getOrderByExpressions().isEmpty() // TopN is done by the coprocessor
+                && table.getIndexType() != IndexType.LOCAL
+                && scan.getAttribute(BaseScannerRegionObserver.SPECIFIC_ARRAY_INDEX) == null
+                && TupleProjector.deserializeProjectorFromScan(scan) == null
+                && HashJoinInfo.deserializeHashJoinFromScan(scan) == null;
+    }
+    
+    /**
+     * Build the Get of a row key that returns the same cells as the scan would for that row
+     */
+    @VisibleForTesting
+    static Get newGet(Scan scan, byte[] key) throws IOException {
+        Get get = new Get(key);
+        for (Map.Entry<byte[], NavigableSet<byte[]>> entry : scan.getFamilyMap().entrySet()) {
+            if (entry.getValue() == null) {
+                get.addFamily(entry.getKey());
+            } else {
+                for (byte[] qualifier : entry.getValue()) {
+                    get.addColumn(entry.getKey(), qualifier);
+                }
+            }
+        }
+        get.setFilter(scan.getFilter());
+        get.setTimeRange(scan.getTimeRange().getMin(), scan.getTimeRange().getMax());
+        get.setMaxVersions(scan.getMaxVersions());
+        get.setCacheBlocks(scan.getCacheBlocks());
+        for (Map.Entry<String, byte[]> entry : scan.getAttributesMap().entrySet()) {
+            get.setAttribute(entry.getKey(), entry.getValue());
+        }
+        return get;
+    }
+    
+    private Iterator<Result> getResults() throws SQLException {
+        if (results != null) {
+            return results;
+        }
+        ScanRanges scanRanges = context.getScanRanges();
+        HTableInterface htable = context.getConnection().getQueryServices().getTable(tableRef.getTable().getPhysicalName().getBytes());
+        try {
+            List<Get> gets = Lists.newArrayListWithExpectedSize(scanRanges.getPointLookupCount());
+            Iterator<KeyRange> keys = scanRanges.getPointLookupKeyIterator();
+            while (keys.hasNext()) {
+                gets.add(newGet(scan, keys.next().getLowerRange()));
+            }
+            Result[] getResults = htable.get(gets);
+            List<Result> nonEmptyResults = Lists.newArrayListWithExpectedSize(getResults.length);
+            for (Result result : getResults) {
+                if (result != null && !result.isEmpty()) {
+                    nonEmptyResults.add(result);
+                }
+            }
+            // Return rows in row key order as a scan would, ignoring the salt byte
+            if (tableRef.getTable().getBucketNum() != null) {
+                Result[] sortedResults = nonEmptyResults.toArray(new Result[nonEmptyResults.size()]);
+                Arrays.sort(sortedResults, UNSALTED_ROW_COMPARATOR);
+                nonEmptyResults = Arrays.asList(sortedResults);
+            }
+            if (ScanUtil.isReversed(scan)) {
+                nonEmptyResults = Lists.reverse(nonEmptyResults);
+            }
+            return results = nonEmptyResults.iterator();
+        } catch (IOException e) {
+            throw ServerUtil.parseServerException(e);
+        } finally {
+            Closeables.closeQuietly(htable);
+        }
+    }
+
+    @Override
+    public Tuple next() throws SQLException {
+        Iterator<Result> results = getResults();
+        return results.hasNext() ? new ResultTuple(results.next()) : null;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        results = Iterators.emptyIterator();
+    }
+
+    @Override
+    public boolean isReadAheadSafe() {
+        return true;
+    }
+
+    @Override
+    public void explain(List<String> planSteps) {
+        explain("CLIENT ", planSteps);
+    }
+
+    @Override
+    public String toString() {
+        return "PointLookupResultIterator [scan=" + scan + "]";
+    }
+}
@@ -35,6 +35,11 @@ public interface ResultIterator extends SQLCloseable {
             return null;
         }
 
+        @Override
+        public boolean isReadAheadSafe() {
+            return true;
+        }
+
         @Override
         public void explain(List<String> planSteps) {
         }
@@ -48,5 +53,12 @@ public interface ResultIterator extends SQLCloseable {
      */
     public Tuple next() throws SQLException;
     
+    /**
+     * @return true if the tuples returned remain valid after subsequent calls to {@link #next()},
+     * so that results may be read ahead in batches, and false otherwise. Aggregating iterators
+     * return false, as the values projected for their current row are cached in their aggregators.
+     */
+    public boolean isReadAheadSafe();
+    
     public void explain(List<String> planSteps);
 }
@@ -53,6 +53,11 @@ public class ScanningResultIterator implements ResultIterator {
         }
     }
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return true;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
     }
@@ -208,6 +208,11 @@ public class SpoolingResultIterator implements PeekingResultIterator {
             memoryChunk.close();
         }
 
+        @Override
+        public boolean isReadAheadSafe() {
+            return true;
+        }
+
         @Override
         public void explain(List<String> planSteps) {
         }
@@ -309,11 +314,21 @@ public class SpoolingResultIterator implements PeekingResultIterator {
             }
         }
 
+        @Override
+        public boolean isReadAheadSafe() {
+            return true;
+        }
+
         @Override
         public void explain(List<String> planSteps) {
         }
     }
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return true;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
     }
@@ -80,7 +80,7 @@ public class TableResultIterator extends ExplainTable implements ResultIterator
     public TableResultIterator(StatementContext context, TableRef tableRef, Scan scan, ScannerCreation creationMode) throws SQLException {
         super(context, tableRef);
         this.scan = scan;
-        htable = context.getConnection().getQueryServices().getTable(tableRef.getTable().getPhysicalName().getBytes());
+        htable = context.getConnection().getQueryServices().getTable(tableRef.getTable().getPhysicalName().getBytes(), context.isAnalyticScan());
         if (creationMode == ScannerCreation.IMMEDIATE) {
         	getDelegate(false);
         }
@@ -104,6 +104,11 @@ public class TableResultIterator extends ExplainTable implements ResultIterator
         return getDelegate(false).next();
     }
 
+    @Override
+    public boolean isReadAheadSafe() {
+        return true;
+    }
+
     @Override
     public void explain(List<String> planSteps) {
         StringBuilder buf = new StringBuilder();
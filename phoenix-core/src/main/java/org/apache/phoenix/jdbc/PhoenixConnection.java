@@ -92,6 +92,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
 
 
 /**
@@ -409,6 +411,25 @@ public class PhoenixConnection implements Connection, org.apache.phoenix.jdbc.Jd
         }, Tracing.withTracing(this, "committing mutations"));
     }
 
+    /**
+     * Commits the uncommitted rows without waiting for them to be written. A {@link #rollback()}
+     * or {@link #close()} cancels the ones not yet started and waits for the others.
+     * @see MutationState#commitAsync()
+     * @return a future for the number of rows committed
+     */
+    public ListenableFuture<Long> commitAsync() throws SQLException {
+        return mutationState.commitAsync();
+    }
+
+    /**
+     * Set the callback notified of the outcome of each commit started through write-behind
+     * @see QueryServices#WRITE_BEHIND_ROW_COUNT_ATTRIB
+     * @see QueryServices#WRITE_BEHIND_INTERVAL_MS_ATTRIB
+     */
+    public void setWriteBehindCallback(FutureCallback<Long> callback) {
+        mutationState.setWriteBehindCallback(callback);
+    }
+
     @Override
     public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
     	PDataType arrayPrimitiveType = PDataType.fromSqlTypeName(typeName);
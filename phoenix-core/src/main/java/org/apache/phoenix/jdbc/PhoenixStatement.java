@@ -65,6 +65,7 @@ import org.apache.phoenix.execute.MutationState;
 import org.apache.phoenix.expression.RowKeyColumnExpression;
 import org.apache.phoenix.iterate.MaterializedResultIterator;
 import org.apache.phoenix.iterate.ResultIterator;
+import org.apache.phoenix.optimize.QueryPlanCache;
 import org.apache.phoenix.parse.AddColumnStatement;
 import org.apache.phoenix.parse.AliasedNode;
 import org.apache.phoenix.parse.AlterIndexStatement;
@@ -208,7 +209,7 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
     
     protected QueryPlan optimizeQuery(CompilableStatement stmt) throws SQLException {
         QueryPlan plan = stmt.compilePlan(this, Sequence.ValueOp.RESERVE_SEQUENCE);
-        return connection.getQueryServices().getOptimizer().optimize(this, plan);
+        return connection.getQueryServices().getOptimizer().optimize(this, stmt, plan);
     }
     
     protected PhoenixResultSet executeQuery(final CompilableStatement stmt) throws SQLException {
@@ -218,9 +219,7 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
                 @Override
                     public PhoenixResultSet call() throws SQLException {
                     try {
-                        QueryPlan plan = stmt.compilePlan(PhoenixStatement.this, Sequence.ValueOp.RESERVE_SEQUENCE);
-                        plan = connection.getQueryServices().getOptimizer().optimize(
-                                PhoenixStatement.this, plan);
+                        QueryPlan plan = optimizeQuery(stmt);
                          // this will create its own trace internally, so we don't wrap this
                          // whole thing in tracing
                         ResultIterator resultIterator = plan.iterator();
@@ -272,6 +271,8 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
                                 connection.getMutationState().join(state);
                                 if (connection.getAutoCommit()) {
                                     connection.commit();
+                                } else {
+                                    connection.getMutationState().writeBehindIfNeeded();
                                 }
                                 setLastResultSet(null);
                                 setLastQueryPlan(null);
@@ -976,6 +977,14 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
     }
     
     protected CompilableStatement parseStatement(String sql) throws SQLException {
+        // Parsed statements are immutable, so the ones that are commonly re-executed may be shared
+        QueryPlanCache planCache = connection.getQueryServices().getOptimizer().getPlanCache();
+        if (planCache != null) {
+            CompilableStatement statement = (CompilableStatement)planCache.getStatement(sql);
+            if (statement != null) {
+                return statement;
+            }
+        }
         PhoenixStatementParser parser = null;
         try {
             parser = new PhoenixStatementParser(sql, new ExecutableNodeFactory());
@@ -983,12 +992,17 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
             throw ServerUtil.parseServerException(e);
         }
         CompilableStatement statement = parser.parseStatement();
+        if (planCache != null && (statement instanceof ExecutableSelectStatement
+                || statement instanceof ExecutableUpsertStatement || statement instanceof ExecutableDeleteStatement)) {
+            planCache.putStatement(sql, statement);
+        }
         return statement;
     }
     
     public QueryPlan optimizeQuery(String sql) throws SQLException {
-        QueryPlan plan = compileQuery(sql);
-        return connection.getQueryServices().getOptimizer().optimize(this, plan);
+        CompilableStatement stmt = parseStatement(sql);
+        QueryPlan plan = compileQuery(stmt, sql);
+        return connection.getQueryServices().getOptimizer().optimize(this, stmt, plan);
     }
 
     public QueryPlan compileQuery(String sql) throws SQLException {
@@ -1106,6 +1120,13 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
         	return connection.getQueryServices().getProps().getInt(QueryServices.SCAN_CACHE_SIZE_ATTRIB, QueryServicesOptions.DEFAULT_SCAN_CACHE_SIZE);
     }
 
+    /**
+     * @return true if the fetch size was set on the statement, rather than taken from the configuration
+     */
+    public boolean isFetchSizeSet() {
+        return fetchSize > 0;
+    }
+
     @Override
     public ResultSet getGeneratedKeys() throws SQLException {
         throw new SQLFeatureNotSupportedException();
@@ -30,6 +30,7 @@ import org.apache.phoenix.cache.ServerCacheClient.ServerCache;
 import org.apache.phoenix.compile.ScanRanges;
 import org.apache.phoenix.expression.Expression;
 import org.apache.phoenix.expression.ExpressionType;
+import org.apache.phoenix.iterate.BatchResultIterators;
 import org.apache.phoenix.iterate.ResultIterator;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.query.QueryServices;
@@ -50,6 +51,8 @@ import org.iq80.snappy.Snappy;
  * @since 0.1
  */
 public class HashCacheClient  {
+    // Number of rows read at a time from the iterator whose results are cached
+    private static final int BATCH_SIZE = 128;
     private final ServerCacheClient serverCache;
     /**
      * Construct client used to create a serialized cached snapshot of a table and send it to each region server
@@ -98,20 +101,26 @@ public class HashCacheClient  {
             out.writeInt(exprSize * (singleValueOnly ? -1 : 1));
             int nRows = 0;
             out.writeInt(nRows); // In the end will be replaced with total number of rows            
-            for (Tuple result = iterator.next(); result != null; result = iterator.next()) {
-                TupleUtil.write(result, out);
-                if (baOut.size() > maxSize) {
-                    throw new MaxServerCacheSizeExceededException("Size of hash cache (" + baOut.size() + " bytes) exceeds the maximum allowed size (" + maxSize + " bytes)");
-                }
-                // Evaluate key expressions for hash join key range optimization.
-                if (keyRangeRhsExpression != null) {
-                    ImmutableBytesWritable value = new ImmutableBytesWritable();
-                    keyRangeRhsExpression.reset();
-                    if (keyRangeRhsExpression.evaluate(result, value)) {
-                        keyRangeRhsValues.add(value);
+            Tuple[] batch = new Tuple[BATCH_SIZE];
+            int count;
+            while ((count = BatchResultIterators.nextBatch(iterator, batch, 0, batch.length)) > 0) {
+                for (int i = 0; i < count; i++) {
+                    Tuple result = batch[i];
+                    TupleUtil.write(result, out);
+                    if (baOut.size() > maxSize) {
+                        throw new MaxServerCacheSizeExceededException("Size of hash cache (" + baOut.size() + " bytes) exceeds the maximum allowed size (" + maxSize + " bytes)");
+                    }
+                    // Evaluate key expressions for hash join key range optimization.
+                    if (keyRangeRhsExpression != null) {
+                        ImmutableBytesWritable value = new ImmutableBytesWritable();
+                        keyRangeRhsExpression.reset();
+                        if (keyRangeRhsExpression.evaluate(result, value)) {
+                            keyRangeRhsValues.add(value);
+                        }
                     }
+                    batch[i] = null;
                 }
-                nRows++;
+                nRows += count;
             }
             TrustedByteArrayOutputStream sizeOut = new TrustedByteArrayOutputStream(Bytes.SIZEOF_INT);
             DataOutputStream dataOut = new DataOutputStream(sizeOut);
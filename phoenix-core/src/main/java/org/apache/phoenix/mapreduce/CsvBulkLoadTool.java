@@ -89,6 +89,7 @@ public class CsvBulkLoadTool extends Configured implements Tool {
     static final Option ARRAY_DELIMITER_OPT = new Option("a", "array-delimiter", true, "Array element delimiter (optional)");
     static final Option IMPORT_COLUMNS_OPT = new Option("c", "import-columns", true, "Comma-separated list of columns to be imported");
     static final Option IGNORE_ERRORS_OPT = new Option("g", "ignore-errors", false, "Ignore input errors");
+    static final Option MULTI_TABLE_OPT = new Option("mt", "multi-table", false, "Load the data table and all its index tables in a single MapReduce job");
     static final Option HELP_OPT = new Option("h", "help", false, "Show this help and quit");
 
     public static void main(String[] args) throws Exception {
@@ -150,6 +151,7 @@ public class CsvBulkLoadTool extends Configured implements Tool {
         options.addOption(ARRAY_DELIMITER_OPT);
         options.addOption(IMPORT_COLUMNS_OPT);
         options.addOption(IGNORE_ERRORS_OPT);
+        options.addOption(MULTI_TABLE_OPT);
         options.addOption(HELP_OPT);
         return options;
     }
@@ -233,6 +235,15 @@ public class CsvBulkLoadTool extends Configured implements Tool {
         	tablesToBeLoaded.add(qualifedIndexTableName);
         }
         
+        // Parse the input once and write the HFiles of all tables from a single job
+        if (cmdLine.hasOption(MULTI_TABLE_OPT.getOpt()) && tablesToBeLoaded.size() > 1) {
+            Configuration jobConf = new Configuration(conf);
+            jobConf.set(CsvToKeyValueMapper.TABLE_NAME_CONFKEY, qualifiedTableName);
+            jobConf.setBoolean(CsvToKeyValueMapper.MULTI_TABLE_CONFKEY, true);
+            jobConf.setStrings(CsvToKeyValueMapper.TABLE_NAMES_CONFKEY, tablesToBeLoaded.toArray(new String[tablesToBeLoaded.size()]));
+            return new MultiTableLoader(jobConf, tablesToBeLoaded, inputPath, outputPath).call() ? 0 : -1;
+        }
+        
         List<Future<Boolean>> runningJobs = new ArrayList<Future<Boolean>>();
         ExecutorService executor =  JobManager.createThreadPoolExec(Integer.MAX_VALUE, 5, 20);
         try{
@@ -473,11 +484,88 @@ public class CsvBulkLoadTool extends Configured implements Tool {
 	            
 	            return true;
             } catch(Exception ex) {
-            	LOG.error("Import job on table=" + tableName + " failed due to exception:" + ex);
+            	LOG.error("Import job on table=" + tableName + " failed due to exception", ex);
             	return false;
             }
         }
      
     }
     
+    /**
+     * A runnable to load data into a data table and its index tables with a single job, which
+     * parses the input once and writes the HFiles of all tables through
+     * {@link MultiHfileOutputFormat}
+     */
+    private static class MultiTableLoader implements Callable<Boolean> {
+
+        private Configuration conf;
+        private List<String> tableNames;
+        private Path inputPath;
+        private Path outputPath;
+
+        public MultiTableLoader(Configuration conf, List<String> qualifiedTableNames, Path inputPath,
+                Path outputPath) {
+            this.conf = conf;
+            this.tableNames = qualifiedTableNames;
+            this.inputPath = inputPath;
+            this.outputPath = outputPath;
+        }
+
+        @Override
+        public Boolean call() {
+            LOG.info("Configuring HFile output path to {}", outputPath);
+            try {
+                Job job = new Job(conf, "Phoenix MapReduce import for " + tableNames);
+
+                // Allow overriding the job jar setting by using a -D system property at startup
+                if (job.getJar() == null) {
+                    job.setJarByClass(CsvToKeyValueMapper.class);
+                }
+                job.setInputFormatClass(TextInputFormat.class);
+                FileInputFormat.addInputPath(job, inputPath);
+                FileOutputFormat.setOutputPath(job, outputPath);
+
+                job.setMapperClass(CsvToKeyValueMapper.class);
+                job.setMapOutputKeyClass(ImmutableBytesWritable.class);
+                job.setMapOutputValueClass(KeyValue.class);
+
+                // Configure partitioner and reducer across the regions of all tables
+                MultiHfileOutputFormat.configureIncrementalLoad(job, tableNames);
+
+                LOG.info("Running MapReduce import job from {} to {}", inputPath, outputPath);
+                boolean success = job.waitForCompletion(true);
+                if (!success) {
+                    LOG.error("Import job failed, check JobTracker for details");
+                    return false;
+                }
+
+                LoadIncrementalHFiles loader = new LoadIncrementalHFiles(conf);
+                for (String tableName : tableNames) {
+                    Path tablePath = new Path(outputPath, tableName);
+                    if (!FileSystem.get(conf).exists(tablePath)) {
+                        LOG.info("No HFiles written for table={}", tableName);
+                        continue;
+                    }
+                    LOG.info("Loading HFiles from {}", tablePath);
+                    HTable htable = new HTable(conf, tableName);
+                    try {
+                        loader.doBulkLoad(tablePath, htable);
+                    } finally {
+                        htable.close();
+                    }
+                    LOG.info("Incremental load complete for table=" + tableName);
+                }
+
+                LOG.info("Removing output directory {}", outputPath);
+                if (!FileSystem.get(conf).delete(outputPath, true)) {
+                    LOG.error("Removing output directory {} failed", outputPath);
+                }
+                return true;
+            } catch(Exception ex) {
+                LOG.error("Import job on tables=" + tableNames + " failed due to exception", ex);
+                return false;
+            }
+        }
+    }
+    
 }
@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -36,6 +37,7 @@ import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
@@ -49,6 +51,7 @@ import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.jdbc.PhoenixDriver;
 import org.apache.phoenix.util.CSVCommonsLoader;
@@ -99,12 +102,26 @@ public class CsvToKeyValueMapper extends Mapper<LongWritable,Text,ImmutableBytes
     /** Configuration key for the flag to ignore invalid rows */
     public static final String IGNORE_INVALID_ROW_CONFKEY = "phoenix.mapreduce.import.ignoreinvalidrow";
 
+    /**
+     * Configuration key for the flag to emit the KeyValues of the data table and all its indexes,
+     * keyed for {@link MultiHfileOutputFormat}
+     */
+    public static final String MULTI_TABLE_CONFKEY = "phoenix.mapreduce.import.multitable";
+
+    /**
+     * Configuration key for the comma separated names of the tables whose KeyValues are emitted
+     * when {@link #MULTI_TABLE_CONFKEY} is set. KeyValues of any other table are skipped.
+     */
+    public static final String TABLE_NAMES_CONFKEY = "phoenix.mapreduce.import.tablenames";
+
     private PhoenixConnection conn;
     private CsvUpsertExecutor csvUpsertExecutor;
     private MapperUpsertListener upsertListener;
     private CsvLineParser csvLineParser;
     private ImportPreUpsertKeyValueProcessor preUpdateProcessor;
     private byte[] tableName;
+    private boolean multiTable;
+    private Set<ImmutableBytesPtr> tableNames;
 
     @Override
     protected void setup(Context context) throws IOException, InterruptedException {
@@ -135,18 +152,33 @@ public class CsvToKeyValueMapper extends Mapper<LongWritable,Text,ImmutableBytes
         csvLineParser = new CsvLineParser(conf.get(FIELD_DELIMITER_CONFKEY).charAt(0), conf.get(QUOTE_CHAR_CONFKEY).charAt(0),
                 conf.get(ESCAPE_CHAR_CONFKEY).charAt(0));
 
+        configureOutput(conf);
+    }
+
+    /**
+     * Configure which tables the KeyValues are emitted for, and how they are keyed.
+     */
+    @VisibleForTesting
+    void configureOutput(Configuration conf) {
         preUpdateProcessor = loadPreUpsertProcessor(conf);
+        multiTable = conf.getBoolean(MULTI_TABLE_CONFKEY, false);
         if(!conf.get(CsvToKeyValueMapper.INDEX_TABLE_NAME_CONFKEY, "").isEmpty()){
         	tableName = Bytes.toBytes(conf.get(CsvToKeyValueMapper.INDEX_TABLE_NAME_CONFKEY));
         } else {
         	tableName = Bytes.toBytes(conf.get(CsvToKeyValueMapper.TABLE_NAME_CONFKEY, ""));
         }
+        if (multiTable) {
+            tableNames = Sets.newHashSet();
+            for (String name : conf.getStringCollection(TABLE_NAMES_CONFKEY)) {
+                tableNames.add(new ImmutableBytesPtr(Bytes.toBytes(name)));
+            }
+            Preconditions.checkState(!tableNames.isEmpty(), TABLE_NAMES_CONFKEY + " is not configured");
+        }
     }
 
     @SuppressWarnings("deprecation")
     @Override
     protected void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
-        ImmutableBytesWritable outputKey = new ImmutableBytesWritable();
         try {
             CSVRecord csvRecord = null;
             try {
@@ -161,24 +193,40 @@ public class CsvToKeyValueMapper extends Mapper<LongWritable,Text,ImmutableBytes
             }
             csvUpsertExecutor.execute(ImmutableList.of(csvRecord));
 
-            Iterator<Pair<byte[], List<KeyValue>>> uncommittedDataIterator
-                    = PhoenixRuntime.getUncommittedDataIterator(conn, true);
-            while (uncommittedDataIterator.hasNext()) {
-                Pair<byte[], List<KeyValue>> kvPair = uncommittedDataIterator.next();
-                if(Bytes.compareTo(tableName, kvPair.getFirst()) != 0) {
-                	// skip edits for other tables
-                	continue;
+            writeKeyValues(PhoenixRuntime.getUncommittedDataIterator(conn, true), context);
+            conn.rollback();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write the KeyValues of the tables being loaded, skipping the edits of any other table.
+     */
+    @SuppressWarnings("deprecation")
+    @VisibleForTesting
+    void writeKeyValues(Iterator<Pair<byte[], List<KeyValue>>> uncommittedDataIterator, Context context)
+            throws IOException, InterruptedException {
+        ImmutableBytesWritable outputKey = new ImmutableBytesWritable();
+        while (uncommittedDataIterator.hasNext()) {
+            Pair<byte[], List<KeyValue>> kvPair = uncommittedDataIterator.next();
+            if (multiTable) {
+                if (!tableNames.contains(new ImmutableBytesPtr(kvPair.getFirst()))) {
+                    continue;
                 }
-                List<KeyValue> keyValueList = kvPair.getSecond();
-                keyValueList = preUpdateProcessor.preUpsert(kvPair.getFirst(), keyValueList);
-                for (KeyValue kv : keyValueList) {
+            } else if (Bytes.compareTo(tableName, kvPair.getFirst()) != 0) {
+                continue;
+            }
+            List<KeyValue> keyValueList = kvPair.getSecond();
+            keyValueList = preUpdateProcessor.preUpsert(kvPair.getFirst(), keyValueList);
+            for (KeyValue kv : keyValueList) {
+                if (multiTable) {
+                    outputKey.set(MultiHfileOutputFormat.getTableRowKey(kvPair.getFirst(), kv));
+                } else {
                     outputKey.set(kv.getRowArray(), kv.getRowOffset(), kv.getRowLength());
-                    context.write(outputKey, kv);
                 }
+                context.write(outputKey, kv);
             }
-            conn.rollback();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
     }
 
@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.io.hfile.CacheConfig;
+import org.apache.hadoop.hbase.io.hfile.HFileContext;
+import org.apache.hadoop.hbase.io.hfile.HFileContextBuilder;
+import org.apache.hadoop.hbase.mapreduce.KeyValueSortReducer;
+import org.apache.hadoop.hbase.mapreduce.TableMapReduceUtil;
+import org.apache.hadoop.hbase.regionserver.HStore;
+import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.partition.TotalOrderPartitioner;
+import org.apache.phoenix.query.QueryConstants;
+import org.apache.phoenix.util.ByteUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Writes HFiles for several HBase tables from a single MapReduce job.
+ * <p/>
+ * Map output keys are the row key prefixed with the name of the table that the KeyValue is
+ * destined for, separated by a zero byte (see {@link #getTableRowKey(byte[], KeyValue)}). All
+ * KeyValues of a table are therefore contiguous in the shuffle, and a single total-order
+ * partitioning built from the region boundaries of all tables sends each reducer the rows of
+ * exactly one region. HFiles are written to {@code <output>/<table>/<family>}, so that each
+ * table directory can be passed to {@code LoadIncrementalHFiles}.
+ */
+@SuppressWarnings("deprecation")
+public class MultiHfileOutputFormat extends FileOutputFormat<ImmutableBytesWritable, KeyValue> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MultiHfileOutputFormat.class);
+
+    private static final byte TABLE_SEPARATOR = QueryConstants.SEPARATOR_BYTE;
+
+    /**
+     * Build the map output key of a KeyValue written to the given table.
+     */
+    public static byte[] getTableRowKey(byte[] tableName, KeyValue kv) {
+        byte[] key = new byte[tableName.length + 1 + kv.getRowLength()];
+        System.arraycopy(tableName, 0, key, 0, tableName.length);
+        key[tableName.length] = TABLE_SEPARATOR;
+        System.arraycopy(kv.getRowArray(), kv.getRowOffset(), key, tableName.length + 1, kv.getRowLength());
+        return key;
+    }
+
+    /**
+     * Extract the table name from a map output key.
+     */
+    @VisibleForTesting
+    static String getTableName(ImmutableBytesWritable key) {
+        byte[] buf = key.get();
+        int offset = key.getOffset();
+        int length = key.getLength();
+        for (int i = offset; i < offset + length; i++) {
+            if (buf[i] == TABLE_SEPARATOR) {
+                return Bytes.toString(buf, offset, i - offset);
+            }
+        }
+        throw new IllegalStateException("No table name found in key " + Bytes.toStringBinary(buf, offset, length));
+    }
+
+    /**
+     * Compute the partition boundaries for the given tables, i.e. the start keys of all of
+     * their regions prefixed with the table name, in sorted order.
+     */
+    @VisibleForTesting
+    static List<ImmutableBytesWritable> getSplitPoints(Map<String, byte[][]> startKeysByTable) {
+        TreeMap<String,byte[][]> sortedTables = new TreeMap<String, byte[][]>(startKeysByTable);
+        List<ImmutableBytesWritable> splitPoints = Lists.newArrayList();
+        boolean first = true;
+        for (Map.Entry<String, byte[][]> entry : sortedTables.entrySet()) {
+            byte[] tableName = Bytes.toBytes(entry.getKey());
+            for (byte[] startKey : entry.getValue()) {
+                // The first region of the first table needs no lower boundary
+                if (first) {
+                    first = false;
+                    continue;
+                }
+                splitPoints.add(new ImmutableBytesWritable(ByteUtil.concat(tableName,
+                        QueryConstants.SEPARATOR_BYTE_ARRAY, startKey)));
+            }
+        }
+        return splitPoints;
+    }
+
+    /**
+     * Configure a MapReduce job to write HFiles for all of the given tables in a single pass.
+     * The mapper must emit keys built with {@link #getTableRowKey(byte[], KeyValue)}.
+     *
+     * @param job job to be configured
+     * @param tableNames names of the HBase tables to be loaded
+     */
+    public static void configureIncrementalLoad(Job job, List<String> tableNames) throws IOException {
+        Configuration conf = job.getConfiguration();
+        Map<String, byte[][]> startKeysByTable = Maps.newHashMap();
+        for (String tableName : tableNames) {
+            HTable table = new HTable(conf, tableName);
+            try {
+                startKeysByTable.put(tableName, table.getStartKeys());
+            } finally {
+                table.close();
+            }
+        }
+        List<ImmutableBytesWritable> splitPoints = getSplitPoints(startKeysByTable);
+
+        job.setOutputKeyClass(ImmutableBytesWritable.class);
+        job.setOutputValueClass(KeyValue.class);
+        job.setOutputFormatClass(MultiHfileOutputFormat.class);
+        job.setReducerClass(KeyValueSortReducer.class);
+        job.setPartitionerClass(TotalOrderPartitioner.class);
+        job.setNumReduceTasks(splitPoints.size() + 1);
+
+        Path partitionsPath = new Path(conf.get("hadoop.tmp.dir"), "partitions_" + UUID.randomUUID());
+        FileSystem fs = partitionsPath.getFileSystem(conf);
+        fs.deleteOnExit(partitionsPath);
+        SequenceFile.Writer writer = SequenceFile.createWriter(fs, conf, partitionsPath,
+                ImmutableBytesWritable.class, NullWritable.class);
+        try {
+            for (ImmutableBytesWritable splitPoint : splitPoints) {
+                writer.append(splitPoint, NullWritable.get());
+            }
+        } finally {
+            writer.close();
+        }
+        TotalOrderPartitioner.setPartitionFile(conf, partitionsPath);
+
+        TableMapReduceUtil.addDependencyJars(job);
+        TableMapReduceUtil.initCredentials(job);
+        LOG.info("Configured multi-table incremental load of {} into {} partitions", tableNames, splitPoints.size() + 1);
+    }
+
+    @Override
+    public RecordWriter<ImmutableBytesWritable, KeyValue> getRecordWriter(final TaskAttemptContext context)
+            throws IOException, InterruptedException {
+        final Configuration conf = context.getConfiguration();
+        final Path outputDir = ((FileOutputCommitter)getOutputCommitter(context)).getWorkPath();
+        final FileSystem fs = outputDir.getFileSystem(conf);
+        final long maxFileSize = conf.getLong(HConstants.HREGION_MAX_FILESIZE, HConstants.DEFAULT_MAX_FILE_SIZE);
+        final byte[] now = Bytes.toBytes(System.currentTimeMillis());
+
+        return new RecordWriter<ImmutableBytesWritable, KeyValue>() {
+            private final Map<String, HTableDescriptor> descriptors = Maps.newHashMap();
+            private final Map<String, FamilyWriter> writers = Maps.newHashMap();
+            private byte[] previousRow = HConstants.EMPTY_BYTE_ARRAY;
+            private String previousTable = null;
+
+            @Override
+            public void write(ImmutableBytesWritable key, KeyValue kv) throws IOException {
+                String tableName = getTableName(key);
+                if (!tableName.equals(previousTable)) {
+                    // Rows arrive ordered by table, so the files of the previous table are complete
+                    closeWriters();
+                    previousTable = tableName;
+                }
+                byte[] family = kv.getFamily();
+                String writerKey = Bytes.toString(family);
+                FamilyWriter writer = writers.get(writerKey);
+                // Roll the file once it is too big, but never in the middle of a row
+                if (writer != null && writer.written >= maxFileSize
+                        && Bytes.compareTo(previousRow, 0, previousRow.length,
+                                kv.getRowArray(), kv.getRowOffset(), kv.getRowLength()) != 0) {
+                    close(writer.writer);
+                    writer = null;
+                }
+                if (writer == null) {
+                    writer = newWriter(tableName, family);
+                    writers.put(writerKey, writer);
+                }
+                kv.updateLatestStamp(now);
+                writer.writer.append(kv);
+                writer.written += kv.getLength();
+                previousRow = kv.getRow();
+            }
+
+            private FamilyWriter newWriter(String tableName, byte[] family) throws IOException {
+                HColumnDescriptor familyDescriptor = getTableDescriptor(tableName).getFamily(family);
+                if (familyDescriptor == null) {
+                    throw new IOException("Column family " + Bytes.toString(family) + " not found in " + tableName);
+                }
+                Configuration tempConf = new Configuration(conf);
+                tempConf.setFloat(HConstants.HFILE_BLOCK_CACHE_SIZE_KEY, 0.0f);
+                HFileContext fileContext = new HFileContextBuilder()
+                        .withCompression(familyDescriptor.getCompression())
+                        .withChecksumType(HStore.getChecksumType(conf))
+                        .withBytesPerCheckSum(HStore.getBytesPerChecksum(conf))
+                        .withBlockSize(familyDescriptor.getBlocksize())
+                        .withDataBlockEncoding(familyDescriptor.getDataBlockEncoding())
+                        .build();
+                Path familyDir = new Path(new Path(outputDir, tableName), Bytes.toString(family));
+                FamilyWriter writer = new FamilyWriter();
+                writer.writer = new StoreFile.WriterBuilder(conf, new CacheConfig(tempConf), fs)
+                        .withOutputDir(familyDir)
+                        .withBloomType(familyDescriptor.getBloomFilterType())
+                        .withComparator(KeyValue.COMPARATOR)
+                        .withFileContext(fileContext).build();
+                return writer;
+            }
+
+            private HTableDescriptor getTableDescriptor(String tableName) throws IOException {
+                HTableDescriptor descriptor = descriptors.get(tableName);
+                if (descriptor == null) {
+                    HTable table = new HTable(conf, tableName);
+                    try {
+                        descriptor = table.getTableDescriptor();
+                    } finally {
+                        table.close();
+                    }
+                    descriptors.put(tableName, descriptor);
+                }
+                return descriptor;
+            }
+
+            private void close(StoreFile.Writer writer) throws IOException {
+                writer.appendFileInfo(StoreFile.BULKLOAD_TIME_KEY, Bytes.toBytes(System.currentTimeMillis()));
+                writer.appendFileInfo(StoreFile.BULKLOAD_TASK_KEY, Bytes.toBytes(context.getTaskAttemptID().toString()));
+                writer.appendFileInfo(StoreFile.MAJOR_COMPACTION_KEY, Bytes.toBytes(true));
+                writer.appendFileInfo(StoreFile.EXCLUDE_FROM_MINOR_COMPACTION_KEY, Bytes.toBytes(false));
+                writer.appendTrackedTimestampsToMetadata();
+                writer.close();
+            }
+
+            private void closeWriters() throws IOException {
+                for (FamilyWriter writer : writers.values()) {
+                    close(writer.writer);
+                }
+                writers.clear();
+            }
+
+            @Override
+            public void close(TaskAttemptContext context) throws IOException, InterruptedException {
+                closeWriters();
+            }
+        };
+    }
+
+    private static class FamilyWriter {
+        private StoreFile.Writer writer;
+        private long written;
+    }
+}
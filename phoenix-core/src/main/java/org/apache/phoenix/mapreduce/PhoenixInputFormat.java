@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.db.DBWritable;
+import org.apache.phoenix.compile.QueryPlan;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.jdbc.PhoenixStatement;
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.query.QueryServicesOptions;
+import org.apache.phoenix.schema.MetaDataClient;
+import org.apache.phoenix.schema.PTable;
+import org.apache.phoenix.schema.stats.GuidePostsInfo;
+import org.apache.phoenix.schema.stats.PTableStats;
+import org.apache.phoenix.util.QueryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+/**
+ * MapReduce InputFormat that reads the rows of a Phoenix SELECT statement.
+ * <p/>
+ * Splits are built from the parallel scans of the optimized {@link QueryPlan}, which are
+ * chunked by the table's guide posts. Adjacent chunks served by the same region server are
+ * combined until they reach {@link #SPLIT_TARGET_BYTES_CONFKEY}, and each split reports the
+ * host of its region server and its estimated size so that map tasks can be scheduled locally
+ * and in a balanced way.
+ */
+public class PhoenixInputFormat<T extends DBWritable> extends InputFormat<NullWritable,T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PhoenixInputFormat.class);
+
+    /** Configuration key for the SELECT statement to be read */
+    public static final String SELECT_STATEMENT_CONFKEY = "phoenix.mapreduce.select.statement";
+
+    /** Configuration key for the DBWritable class to which each row is read */
+    public static final String INPUT_CLASS_CONFKEY = "phoenix.mapreduce.input.class";
+
+    /** Configuration key for the number of bytes that adjacent chunks are combined up to */
+    public static final String SPLIT_TARGET_BYTES_CONFKEY = "phoenix.mapreduce.split.targetbytes";
+
+    public static final long DEFAULT_SPLIT_TARGET_BYTES = 1024L * 1024L * 1024L;
+
+    /**
+     * Configure a job to read the rows of a SELECT statement.
+     *
+     * @param conf job configuration to be set up
+     * @param inputClass class to which each row of the result set is read
+     * @param selectStatement SELECT statement to be executed
+     */
+    public static void configure(Configuration conf, Class<? extends DBWritable> inputClass,
+            String selectStatement) {
+        Preconditions.checkNotNull(inputClass);
+        Preconditions.checkNotNull(selectStatement);
+        conf.setClass(INPUT_CLASS_CONFKEY, inputClass, DBWritable.class);
+        conf.set(SELECT_STATEMENT_CONFKEY, selectStatement);
+    }
+
+    @Override
+    public RecordReader<NullWritable,T> createRecordReader(InputSplit split, TaskAttemptContext context)
+            throws IOException, InterruptedException {
+        Configuration conf = context.getConfiguration();
+        @SuppressWarnings("unchecked")
+        Class<T> inputClass = (Class<T>)conf.getClass(INPUT_CLASS_CONFKEY, null, DBWritable.class);
+        Preconditions.checkNotNull(inputClass, "No input class configured");
+        return new PhoenixRecordReader<T>(inputClass, conf, getQueryPlan(conf));
+    }
+
+    @Override
+    public List<InputSplit> getSplits(JobContext context) throws IOException, InterruptedException {
+        Configuration conf = context.getConfiguration();
+        QueryPlan queryPlan = getQueryPlan(conf);
+        try {
+            return generateSplits(queryPlan, conf.getLong(SPLIT_TARGET_BYTES_CONFKEY, DEFAULT_SPLIT_TARGET_BYTES));
+        } catch (SQLException e) {
+            throw new IOException(e);
+        } finally {
+            closeConnection(queryPlan);
+        }
+    }
+
+    /**
+     * Compiles and optimizes the configured SELECT statement. The plan is initialized so that its
+     * parallel scans are available through {@link QueryPlan#getScans()}. The caller is responsible
+     * for closing the connection of the plan through {@link #closeConnection(QueryPlan)}.
+     */
+    static QueryPlan getQueryPlan(Configuration conf) throws IOException {
+        String selectStatement = conf.get(SELECT_STATEMENT_CONFKEY);
+        Preconditions.checkNotNull(selectStatement, "No select statement configured");
+        Connection connection = null;
+        try {
+            connection = QueryUtil.getConnection(conf);
+            PhoenixStatement statement = connection.createStatement().unwrap(PhoenixStatement.class);
+            // Optimize the query plan so that we potentially use secondary indexes
+            QueryPlan queryPlan = statement.optimizeQuery(selectStatement);
+            // Initialize the query plan so it sets up the parallel scans
+            queryPlan.iterator();
+            connection = null;
+            return queryPlan;
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    LOG.warn("Error closing connection", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the connection used to compile a query plan returned by {@link #getQueryPlan(Configuration)}.
+     */
+    static void closeConnection(QueryPlan queryPlan) throws IOException {
+        try {
+            queryPlan.getContext().getConnection().close();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Builds locality-aware, size-balanced input splits from the parallel scans of a query plan.
+     *
+     * @param queryPlan initialized query plan
+     * @param targetSplitBytes number of bytes up to which adjacent chunks are combined
+     * @return list of {@link PhoenixInputSplit}
+     */
+    public static List<InputSplit> generateSplits(QueryPlan queryPlan, long targetSplitBytes) throws SQLException {
+        Preconditions.checkNotNull(queryPlan);
+        PhoenixConnection connection = queryPlan.getContext().getConnection();
+        PTable table = queryPlan.getTableRef().getTable();
+        List<Scan> scans = Lists.newArrayList();
+        for (List<Scan> scanList : queryPlan.getScans()) {
+            scans.addAll(scanList);
+        }
+        if (scans.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<HRegionLocation> regions = connection.getQueryServices().getAllTableRegions(table.getPhysicalName().getBytes());
+        List<String> locations = Lists.newArrayListWithExpectedSize(scans.size());
+        for (Scan scan : scans) {
+            locations.add(getHostname(regions, scan.getStartRow()));
+        }
+        long chunkBytes = estimateChunkBytes(new MetaDataClient(connection).getTableStats(table),
+                connection.getQueryServices().getProps().getLong(QueryServices.STATS_GUIDEPOST_WIDTH_BYTES_ATTRIB,
+                        QueryServicesOptions.DEFAULT_STATS_GUIDEPOST_WIDTH_BYTES));
+        List<InputSplit> splits = combineChunks(scans, locations, chunkBytes, targetSplitBytes);
+        LOG.info("Generated {} input splits from {} scans of ~{} bytes each", splits.size(), scans.size(), chunkBytes);
+        return splits;
+    }
+
+    private static String getHostname(List<HRegionLocation> regions, byte[] startRow) {
+        // Regions are ordered by start key, so find the last one starting at or before the row
+        int low = 0;
+        int high = regions.size() - 1;
+        int index = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Bytes.compareTo(regions.get(mid).getRegionInfo().getStartKey(), startRow) <= 0) {
+                index = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return regions.isEmpty() ? null : regions.get(index).getHostname();
+    }
+
+    /**
+     * Estimates the number of bytes covered by a single guide post chunk. Without statistics,
+     * each chunk spans a region and the configured guide post width is used as an approximation.
+     */
+    @VisibleForTesting
+    static long estimateChunkBytes(PTableStats stats, long defaultChunkBytes) {
+        long chunkBytes = 0;
+        for (GuidePostsInfo info : stats.getGuidePosts().values()) {
+            int guidePostCount = info.getGuidePosts().size();
+            if (guidePostCount > 0) {
+                chunkBytes += info.getByteCount() / guidePostCount;
+            }
+        }
+        return chunkBytes > 0 ? chunkBytes : defaultChunkBytes;
+    }
+
+    /**
+     * Combines adjacent scans that are served by the same host into a single split, until the
+     * estimated size of the split reaches the target.
+     */
+    @VisibleForTesting
+    static List<InputSplit> combineChunks(List<Scan> scans, List<String> locations, long chunkBytes,
+            long targetSplitBytes) {
+        List<InputSplit> splits = Lists.newArrayList();
+        List<Scan> splitScans = Lists.newArrayList();
+        String splitLocation = null;
+        for (int i = 0; i < scans.size(); i++) {
+            String location = locations.get(i);
+            if (!splitScans.isEmpty() && (!Objects.equal(location, splitLocation)
+                    || (splitScans.size() + 1) * chunkBytes > targetSplitBytes)) {
+                splits.add(new PhoenixInputSplit(splitScans, splitLocation, splitScans.size() * chunkBytes));
+                splitScans = Lists.newArrayList();
+            }
+            splitScans.add(scans.get(i));
+            splitLocation = location;
+        }
+        if (!splitScans.isEmpty()) {
+            splits.add(new PhoenixInputSplit(splitScans, splitLocation, splitScans.size() * chunkBytes));
+        }
+        return splits;
+    }
+}
@@ -1,23 +1,21 @@
 /*
- * Copyright 2010 The Apache Software Foundation
- *
  * Licensed to the Apache Software Foundation (ASF) under one
  * or more contributor license agreements.  See the NOTICE file
- *distributed with this work for additional information
+ * distributed with this work for additional information
  * regarding copyright ownership.  The ASF licenses this file
  * to you under the Apache License, Version 2.0 (the
- * "License"); you maynot use this file except in compliance
+ * "License"); you may not use this file except in compliance
  * with the License.  You may obtain a copy of the License at
  *
  * http://www.apache.org/licenses/LICENSE-2.0
  *
- * Unless required by applicablelaw or agreed to in writing, software
+ * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.apache.phoenix.pig.hadoop;
+package org.apache.phoenix.mapreduce;
 
 import java.io.DataInput;
 import java.io.DataOutput;
@@ -36,61 +34,79 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 
 /**
- * 
- * Input split class to hold the lower and upper bound range. {@link KeyRange}
- * 
+ * Input split over a contiguous run of Phoenix scans. Each split carries the host name of the
+ * region server serving its scans and an estimate of the number of bytes they will read, so
+ * that the framework can schedule map tasks close to the data and order them by size.
  */
 public class PhoenixInputSplit extends InputSplit implements Writable {
 
+    private static final String[] NO_LOCATIONS = new String[0];
+
     private List<Scan> scans;
+    private String regionLocation;
+    private long length;
     private KeyRange keyRange;
-   
+
     /**
-     * No Arg constructor
+     * No-arg constructor for deserialization
      */
     public PhoenixInputSplit() {
     }
-    
-   /**
-    * 
-    * @param keyRange
-    */
-    public PhoenixInputSplit(final List<Scan> scans) {
+
+    public PhoenixInputSplit(List<Scan> scans) {
+        this(scans, null, 0);
+    }
+
+    /**
+     * @param scans scans to be executed by a single map task, in row key order
+     * @param regionLocation host name of the region server hosting the scans, may be null
+     * @param length estimated number of bytes read by the scans
+     */
+    public PhoenixInputSplit(List<Scan> scans, String regionLocation, long length) {
         Preconditions.checkNotNull(scans);
-        Preconditions.checkState(!scans.isEmpty());
+        Preconditions.checkArgument(!scans.isEmpty(), "Scan list is empty");
         this.scans = scans;
+        this.regionLocation = regionLocation;
+        this.length = length;
         init();
     }
-    
+
+    private void init() {
+        this.keyRange = KeyRange.getKeyRange(scans.get(0).getStartRow(), scans.get(scans.size()-1).getStopRow());
+    }
+
     public List<Scan> getScans() {
         return scans;
     }
-    
+
     public KeyRange getKeyRange() {
         return keyRange;
     }
-    
-    private void init() {
-        this.keyRange = KeyRange.getKeyRange(scans.get(0).getStartRow(), scans.get(scans.size()-1).getStopRow());
+
+    public String getRegionLocation() {
+        return regionLocation;
     }
-    
+
     @Override
     public void readFields(DataInput input) throws IOException {
+        regionLocation = WritableUtils.readString(input);
+        length = WritableUtils.readVLong(input);
         int count = WritableUtils.readVInt(input);
         scans = Lists.newArrayListWithExpectedSize(count);
         for (int i = 0; i < count; i++) {
             byte[] protoScanBytes = new byte[WritableUtils.readVInt(input)];
             input.readFully(protoScanBytes);
             ClientProtos.Scan protoScan = ClientProtos.Scan.parseFrom(protoScanBytes);
-            Scan scan = ProtobufUtil.toScan(protoScan);
-            scans.add(scan);
+            scans.add(ProtobufUtil.toScan(protoScan));
         }
         init();
     }
-    
+
     @Override
     public void write(DataOutput output) throws IOException {
         Preconditions.checkNotNull(scans);
+        WritableUtils.writeString(output, regionLocation);
+        WritableUtils.writeVLong(output, length);
         WritableUtils.writeVInt(output, scans.size());
         for (Scan scan : scans) {
             ClientProtos.Scan protoScan = ProtobufUtil.toScan(scan);
@@ -102,33 +118,31 @@ public class PhoenixInputSplit extends InputSplit implements Writable {
 
     @Override
     public long getLength() throws IOException, InterruptedException {
-         return 0;
+        return length;
     }
 
     @Override
     public String[] getLocations() throws IOException, InterruptedException {
-        return new String[]{};
+        return regionLocation == null ? NO_LOCATIONS : new String[] { regionLocation };
     }
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + keyRange.hashCode();
-        return result;
+        return keyRange.hashCode();
     }
 
     @Override
     public boolean equals(Object obj) {
-        // TODO: review: it's a reasonable check to use the keyRange,
-        // but it's not perfect. Do we need an equals impl?
         if (this == obj) { return true; }
         if (obj == null) { return false; }
         if (!(obj instanceof PhoenixInputSplit)) { return false; }
         PhoenixInputSplit other = (PhoenixInputSplit)obj;
-        if (keyRange == null) {
-            if (other.keyRange != null) { return false; }
-        } else if (!keyRange.equals(other.keyRange)) { return false; }
-        return true;
+        return keyRange.equals(other.keyRange);
+    }
+
+    @Override
+    public String toString() {
+        return "PhoenixInputSplit[" + keyRange + " on " + regionLocation + ", ~" + length + " bytes, "
+                + scans.size() + " scans]";
     }
 }
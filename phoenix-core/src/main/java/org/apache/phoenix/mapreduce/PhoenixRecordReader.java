@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.db.DBWritable;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.phoenix.compile.QueryPlan;
+import org.apache.phoenix.iterate.ConcatResultIterator;
+import org.apache.phoenix.iterate.LookAheadResultIterator;
+import org.apache.phoenix.iterate.PeekingResultIterator;
+import org.apache.phoenix.iterate.ResultIterator;
+import org.apache.phoenix.iterate.SequenceResultIterator;
+import org.apache.phoenix.iterate.TableResultIterator;
+import org.apache.phoenix.jdbc.PhoenixResultSet;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+/**
+ * RecordReader that executes the scans of a {@link PhoenixInputSplit} and reads each row into
+ * a {@link DBWritable}.
+ */
+public class PhoenixRecordReader<T extends DBWritable> extends RecordReader<NullWritable,T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PhoenixRecordReader.class);
+
+    // Number of leading key bytes used to estimate the progress through a split
+    private static final int PROGRESS_KEY_BYTES = 8;
+
+    private final Class<T> inputClass;
+    private final Configuration conf;
+    private final QueryPlan queryPlan;
+    private final NullWritable key = NullWritable.get();
+    private T value;
+    private ResultIterator resultIterator;
+    private PhoenixResultSet resultSet;
+    private byte[] startKey;
+    private byte[] stopKey;
+    private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+    private boolean isDone;
+
+    /**
+     * @param queryPlan initialized query plan, whose connection is closed along with the record reader
+     */
+    public PhoenixRecordReader(Class<T> inputClass, Configuration conf, QueryPlan queryPlan) {
+        Preconditions.checkNotNull(inputClass);
+        Preconditions.checkNotNull(queryPlan);
+        this.inputClass = inputClass;
+        this.conf = conf;
+        this.queryPlan = queryPlan;
+    }
+
+    @Override
+    public void initialize(InputSplit split, TaskAttemptContext context) throws IOException, InterruptedException {
+        List<Scan> scans = ((PhoenixInputSplit)split).getScans();
+        startKey = scans.get(0).getStartRow();
+        stopKey = scans.get(scans.size() - 1).getStopRow();
+        try {
+            List<PeekingResultIterator> iterators = Lists.newArrayListWithExpectedSize(scans.size());
+            for (Scan scan : scans) {
+                TableResultIterator tableResultIterator = new TableResultIterator(queryPlan.getContext(), queryPlan.getTableRef(), scan);
+                iterators.add(LookAheadResultIterator.wrap(tableResultIterator));
+            }
+            ResultIterator iterator = ConcatResultIterator.newIterator(iterators);
+            if (queryPlan.getContext().getSequenceManager().getSequenceCount() > 0) {
+                iterator = new SequenceResultIterator(iterator, queryPlan.getContext().getSequenceManager());
+            }
+            this.resultIterator = iterator;
+            this.resultSet = new PhoenixResultSet(resultIterator, queryPlan.getProjector(), queryPlan.getContext().getStatement());
+        } catch (SQLException e) {
+            LOG.error("Error initializing record reader for " + split, e);
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public boolean nextKeyValue() throws IOException, InterruptedException {
+        Preconditions.checkNotNull(resultSet);
+        if (value == null) {
+            value = ReflectionUtils.newInstance(inputClass, conf);
+        }
+        try {
+            if (!resultSet.next()) {
+                isDone = true;
+                return false;
+            }
+            value.readFields(resultSet);
+            return true;
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public NullWritable getCurrentKey() throws IOException, InterruptedException {
+        return key;
+    }
+
+    @Override
+    public T getCurrentValue() throws IOException, InterruptedException {
+        return value;
+    }
+
+    @Override
+    public float getProgress() throws IOException, InterruptedException {
+        if (isDone) {
+            return 1;
+        }
+        Tuple row = resultSet == null ? null : resultSet.getCurrentRow();
+        if (row == null) {
+            return 0;
+        }
+        row.getKey(ptr);
+        return getProgress(startKey, stopKey, ptr.get(), ptr.getOffset(), ptr.getLength());
+    }
+
+    /**
+     * Estimates how far a key is into the range of the split by interpolating the leading
+     * bytes of the key between the start and stop key of the split.
+     */
+    static float getProgress(byte[] startKey, byte[] stopKey, byte[] key, int offset, int length) {
+        int keyBytes = Math.max(1, Math.min(PROGRESS_KEY_BYTES, Math.max(length, Math.max(startKey.length, stopKey.length))));
+        BigInteger start = toUnsignedInteger(startKey, 0, startKey.length, keyBytes);
+        // An empty stop key means the end of the table
+        BigInteger stop = stopKey.length == 0 ? BigInteger.ONE.shiftLeft(keyBytes * Byte.SIZE) : toUnsignedInteger(stopKey, 0, stopKey.length, keyBytes);
+        BigInteger current = toUnsignedInteger(key, offset, length, keyBytes);
+        BigInteger range = stop.subtract(start);
+        if (range.signum() <= 0) {
+            return 0;
+        }
+        float progress = current.subtract(start).floatValue() / range.floatValue();
+        return Math.max(0, Math.min(1, progress));
+    }
+
+    private static BigInteger toUnsignedInteger(byte[] bytes, int offset, int length, int keyBytes) {
+        // Pad with zero bytes on the right so that keys of different lengths compare as in HBase
+        byte[] paddedBytes = new byte[keyBytes];
+        System.arraycopy(bytes, offset, paddedBytes, 0, Math.min(length, keyBytes));
+        return new BigInteger(1, paddedBytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (resultIterator != null) {
+                try {
+                    resultIterator.close();
+                } catch (SQLException e) {
+                    throw new IOException(e);
+                }
+            }
+        } finally {
+            PhoenixInputFormat.closeConnection(queryPlan);
+        }
+    }
+}
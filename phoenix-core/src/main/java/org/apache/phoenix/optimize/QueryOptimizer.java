@@ -23,15 +23,20 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.phoenix.compile.ColumnProjector;
 import org.apache.phoenix.compile.ColumnResolver;
 import org.apache.phoenix.compile.FromCompiler;
 import org.apache.phoenix.compile.IndexStatementRewriter;
 import org.apache.phoenix.compile.QueryCompiler;
 import org.apache.phoenix.compile.QueryPlan;
+import org.apache.phoenix.compile.RowProjector;
 import org.apache.phoenix.compile.SequenceManager;
+import org.apache.phoenix.compile.StatementContext;
 import org.apache.phoenix.iterate.ParallelIteratorFactory;
 import org.apache.phoenix.jdbc.PhoenixStatement;
+import org.apache.phoenix.parse.BindableStatement;
 import org.apache.phoenix.parse.HintNode;
 import org.apache.phoenix.parse.HintNode.Hint;
 import org.apache.phoenix.parse.ParseNodeFactory;
@@ -40,12 +45,16 @@ import org.apache.phoenix.parse.TableNode;
 import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.query.QueryServicesOptions;
 import org.apache.phoenix.schema.ColumnNotFoundException;
+import org.apache.phoenix.schema.MetaDataClient;
 import org.apache.phoenix.schema.PColumn;
 import org.apache.phoenix.schema.PDatum;
 import org.apache.phoenix.schema.PIndexState;
 import org.apache.phoenix.schema.PTable;
 import org.apache.phoenix.schema.PTable.IndexType;
 import org.apache.phoenix.schema.PTableType;
+import org.apache.phoenix.schema.stats.GuidePostsInfo;
+import org.apache.phoenix.schema.stats.PTableStats;
+import org.apache.phoenix.util.ReadOnlyProps;
 
 import com.google.common.collect.Lists;
 
@@ -54,10 +63,20 @@ public class QueryOptimizer {
 
     private final QueryServices services;
     private final boolean useIndexes;
+    private final QueryPlanCache planCache;
 
     public QueryOptimizer(QueryServices services) {
         this.services = services;
         this.useIndexes = this.services.getProps().getBoolean(QueryServices.USE_INDEXES_ATTRIB, QueryServicesOptions.DEFAULT_USE_INDEXES);
+        int planCacheSize = this.services.getProps().getInt(QueryServices.QUERY_PLAN_CACHE_SIZE_ATTRIB, QueryServicesOptions.DEFAULT_QUERY_PLAN_CACHE_SIZE);
+        this.planCache = planCacheSize > 0 ? new QueryPlanCache(planCacheSize) : null;
+    }
+
+    /**
+     * @return the cache of parsed statements and optimizer choices, or null if disabled
+     */
+    public QueryPlanCache getPlanCache() {
+        return planCache;
     }
 
     public QueryPlan optimize(PhoenixStatement statement, QueryPlan dataPlan) throws SQLException {
@@ -67,6 +86,44 @@ public class QueryOptimizer {
         return optimize(dataPlan, statement, Collections.<PColumn>emptyList(), null);
     }
 
+    /**
+     * Optimize the plan compiled for a parsed statement, reusing the table chosen the last time
+     * the same statement was optimized. In that case, only the plan for the chosen table is
+     * compiled instead of a plan for every index of the data table.
+     */
+    public QueryPlan optimize(PhoenixStatement statement, BindableStatement stmt, QueryPlan dataPlan) throws SQLException {
+        if (planCache == null || dataPlan.getTableRef() == null
+                || dataPlan.isDegenerate() || dataPlan.getContext().getScanRanges().isPointLookup()) {
+            // Nothing to choose from, and whether this is the case may depend on the bind values
+            return optimize(statement, dataPlan);
+        }
+        PTable dataTable = dataPlan.getTableRef().getTable();
+        QueryPlanCache.TableChoice choice = planCache.getTableChoice(stmt, statement.getConnection().getTenantId(), dataTable);
+        if (choice != null) {
+            if (choice.getIndexName() == null) {
+                return applyAnalyticScan(statement, dataPlan);
+            }
+            QueryPlan plan = getIndexPlan(statement, dataPlan, choice.getIndexName());
+            // Otherwise the index is no longer usable, so fall through and optimize again
+            if (plan != null) {
+                return applyAnalyticScan(statement, plan);
+            }
+        }
+        QueryPlan plan = optimize(statement, dataPlan);
+        planCache.putTableChoice(stmt, statement.getConnection().getTenantId(), dataTable, plan.getTableRef().getTable());
+        return plan;
+    }
+    
+    private static QueryPlan getIndexPlan(PhoenixStatement statement, QueryPlan dataPlan, String indexName) throws SQLException {
+        for (PTable index : dataPlan.getTableRef().getTable().getIndexes()) {
+            if (indexName.equals(index.getName().getString())) {
+                SelectStatement translatedIndexSelect = IndexStatementRewriter.translate((SelectStatement)dataPlan.getStatement(), dataPlan.getContext().getResolver());
+                return addPlan(statement, translatedIndexSelect, index, getTargetColumns(dataPlan, Collections.<PColumn>emptyList()), null, dataPlan);
+            }
+        }
+        return null;
+    }
+
     public QueryPlan optimize(PhoenixStatement statement, SelectStatement select) throws SQLException {
         return optimize(statement, select, FromCompiler.getResolverForQuery(select, statement.getConnection()), Collections.<PColumn>emptyList(), null);
     }
@@ -79,7 +136,100 @@ public class QueryOptimizer {
     
     public QueryPlan optimize(QueryPlan dataPlan, PhoenixStatement statement, List<? extends PDatum> targetColumns, ParallelIteratorFactory parallelIteratorFactory) throws SQLException {
         List<QueryPlan>plans = getApplicablePlans(dataPlan, statement, targetColumns, parallelIteratorFactory, true);
-        return plans.get(0);
+        return applyAnalyticScan(statement, plans.get(0));
+    }
+
+    /**
+     * @param physicalTableName name of the HBase table
+     * @return configuration key for whether scans over the table are always (true) or never (false)
+     *         treated as analytic scans. When unset, the estimated size of the scan decides.
+     */
+    public static String getTableAnalyticScanConfKey(String physicalTableName) {
+        return "phoenix.query.analyticScan._" + physicalTableName;
+    }
+
+    /**
+     * Turns the scan of the plan into an analytic scan if the ANALYTIC_SCAN hint is present,
+     * if it is configured for the table, or if the estimated number of bytes scanned is above
+     * the threshold. Analytic scans don't cache the blocks they load, return rows in batches
+     * sized from the estimated row width unless the statement has a fetch size, and go to the
+     * analytic queue of the region servers, so that they don't evict or delay the working set
+     * of latency sensitive queries.
+     */
+    private static QueryPlan applyAnalyticScan(PhoenixStatement statement, QueryPlan plan) throws SQLException {
+        StatementContext context = plan.getContext();
+        if (plan.getTableRef() == null || plan.isDegenerate() || context.getScanRanges().isPointLookup()) {
+            return plan;
+        }
+        PTable table = plan.getTableRef().getTable();
+        if (table.getType() == PTableType.SYSTEM) {
+            return plan;
+        }
+        ReadOnlyProps props = statement.getConnection().getQueryServices().getProps();
+        Scan scan = context.getScan();
+        boolean isAnalyticScan;
+        String tableDefault = props.get(getTableAnalyticScanConfKey(table.getPhysicalName().getString()));
+        if (plan.getStatement().getHint().hasHint(Hint.ANALYTIC_SCAN)) {
+            isAnalyticScan = true;
+        } else if (tableDefault != null) {
+            isAnalyticScan = Boolean.parseBoolean(tableDefault);
+        } else {
+            long thresholdBytes = props.getLong(QueryServices.ANALYTIC_SCAN_THRESHOLD_BYTES_ATTRIB,
+                    QueryServicesOptions.DEFAULT_ANALYTIC_SCAN_THRESHOLD_BYTES);
+            isAnalyticScan = thresholdBytes > 0 && estimateScanBytes(
+                    new MetaDataClient(statement.getConnection()).getTableStats(table),
+                    scan.getStartRow(), scan.getStopRow()) >= thresholdBytes;
+        }
+        if (!isAnalyticScan) {
+            return plan;
+        }
+        long resultBytes = props.getLong(QueryServices.ANALYTIC_SCAN_RESULT_BYTES_ATTRIB,
+                QueryServicesOptions.DEFAULT_ANALYTIC_SCAN_RESULT_BYTES);
+        scan.setCacheBlocks(false);
+        // A fetch size set on the statement is honored as is
+        if (!statement.isFetchSizeSet()) {
+            RowProjector projector = plan.getProjector();
+            if (projector != null && projector.getEstimatedRowByteSize() > 0) {
+                scan.setCaching(getAnalyticScanCaching(resultBytes, projector.getEstimatedRowByteSize()));
+            }
+            scan.setMaxResultSize(resultBytes);
+        }
+        context.setAnalyticScan(true);
+        return plan;
+    }
+
+    /**
+     * @return the number of rows to fetch in each RPC so that about resultBytes are returned.
+     * Scan.setBatch is left alone, since rows split across results can't be evaluated.
+     */
+    static int getAnalyticScanCaching(long resultBytes, int estimatedRowBytes) {
+        return (int)Math.max(1, Math.min(Integer.MAX_VALUE, resultBytes / estimatedRowBytes));
+    }
+
+    /**
+     * Estimate the number of bytes scanned between the start and stop row from the guide posts
+     * of each column family, assuming the chunks between guide posts are of the same size.
+     * @return the estimate, or 0 if there are no statistics
+     */
+    static long estimateScanBytes(PTableStats stats, byte[] startRow, byte[] stopRow) {
+        long estimatedBytes = 0;
+        for (GuidePostsInfo info : stats.getGuidePosts().values()) {
+            List<byte[]> guidePosts = info.getGuidePosts();
+            if (guidePosts.isEmpty()) {
+                continue;
+            }
+            int startCount = startRow.length == 0 ? 0 : countGuidePosts(guidePosts, startRow, true);
+            int stopCount = stopRow.length == 0 ? guidePosts.size() : countGuidePosts(guidePosts, stopRow, false);
+            // The scan reads the chunk it starts in plus one for each guide post it crosses
+            int chunkCount = Math.max(0, stopCount - startCount) + 1;
+            estimatedBytes += info.getByteCount() / (guidePosts.size() + 1) * chunkCount;
+        }
+        return estimatedBytes;
+    }
+
+    private static int countGuidePosts(List<byte[]> guidePosts, byte[] key, boolean inclusive) {
+        int index = Collections.binarySearch(guidePosts, key, Bytes.BYTES_COMPARATOR);
+        return index < 0 ? -(index + 1) : index + (inclusive ? 1 : 0);
     }
     
     public List<QueryPlan> getBestPlan(PhoenixStatement statement, SelectStatement select, ColumnResolver resolver, List<? extends PDatum> targetColumns, ParallelIteratorFactory parallelIteratorFactory) throws SQLException {
@@ -112,18 +262,7 @@ public class QueryOptimizer {
             return Collections.singletonList(dataPlan);
         }
         
-        // The targetColumns is set for UPSERT SELECT to ensure that the proper type conversion takes place.
-        // For a SELECT, it is empty. In this case, we want to set the targetColumns to match the projection
-        // from the dataPlan to ensure that the metadata for when an index is used matches the metadata for
-        // when the data table is used.
-        if (targetColumns.isEmpty()) {
-            List<? extends ColumnProjector> projectors = dataPlan.getProjector().getColumnProjectors();
-            List<PDatum> targetDatums = Lists.newArrayListWithExpectedSize(projectors.size());
-            for (ColumnProjector projector : projectors) {
-                targetDatums.add(projector.getExpression());
-            }
-            targetColumns = targetDatums;
-        }
+        targetColumns = getTargetColumns(dataPlan, targetColumns);
         
         SelectStatement translatedIndexSelect = IndexStatementRewriter.translate(select, dataPlan.getContext().getResolver());
         List<QueryPlan> plans = Lists.newArrayListWithExpectedSize(1 + indexes.size());
@@ -150,6 +289,22 @@ public class QueryOptimizer {
         return hintedPlan == null ? orderPlansBestToWorst(select, plans) : plans;
     }
     
+    private static List<? extends PDatum> getTargetColumns(QueryPlan dataPlan, List<? extends PDatum> targetColumns) {
+        // The targetColumns is set for UPSERT SELECT to ensure that the proper type conversion takes place.
+        // For a SELECT, it is empty. In this case, we want to set the targetColumns to match the projection
+        // from the dataPlan to ensure that the metadata for when an index is used matches the metadata for
+        // when the data table is used.
+        if (targetColumns.isEmpty()) {
+            List<? extends ColumnProjector> projectors = dataPlan.getProjector().getColumnProjectors();
+            List<PDatum> targetDatums = Lists.newArrayListWithExpectedSize(projectors.size());
+            for (ColumnProjector projector : projectors) {
+                targetDatums.add(projector.getExpression());
+            }
+            targetColumns = targetDatums;
+        }
+        return targetColumns;
+    }
+    
     private static QueryPlan getHintedQueryPlan(PhoenixStatement statement, SelectStatement select, List<PTable> indexes, List<? extends PDatum> targetColumns, ParallelIteratorFactory parallelIteratorFactory, List<QueryPlan> plans) throws SQLException {
         QueryPlan dataPlan = plans.get(0);
         String indexHint = select.getHint().getHint(Hint.INDEX);
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.optimize;
+
+import org.apache.phoenix.parse.BindableStatement;
+import org.apache.phoenix.schema.PName;
+import org.apache.phoenix.schema.PTable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * 
+ * Cache of the work done for a statement that does not depend on its bind values,
+ * so that it is not repeated each time the same SQL is executed.
+ * 
+ * Parsed statements are cached by their SQL text. For a query, the table chosen by
+ * the {@link QueryOptimizer} is cached by parsed statement, tenant id and full name of the
+ * data table, together with the timestamp and sequence number of the data table it was
+ * chosen for. The same SQL may resolve to a different table for each tenant, as tenant-specific
+ * views of the same name are distinct tables with their own indexes. Since the data table is
+ * updated in the PMetaData whenever one of its indexes changes, a choice is ignored
+ * once the table or its indexes have changed.
+ *
+ * 
+ * @since 5.0
+ */
+public class QueryPlanCache {
+    private final Cache<String, BindableStatement> statements;
+    private final Cache<TableChoiceKey, TableChoice> tableChoices;
+    
+    public QueryPlanCache(int maxSize) {
+        this.statements = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        this.tableChoices = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+    
+    public BindableStatement getStatement(String sql) {
+        return statements.getIfPresent(sql);
+    }
+    
+    public void putStatement(String sql, BindableStatement statement) {
+        statements.put(sql, statement);
+    }
+    
+    /**
+     * Get the table previously chosen by the optimizer for the statement.
+     * @return the choice or null if there is none for the current version of the data table
+     */
+    public TableChoice getTableChoice(BindableStatement statement, PName tenantId, PTable dataTable) {
+        TableChoice choice = tableChoices.getIfPresent(new TableChoiceKey(statement, tenantId, dataTable));
+        if (choice == null || choice.timeStamp != dataTable.getTimeStamp() || choice.sequenceNumber != dataTable.getSequenceNumber()) {
+            return null;
+        }
+        return choice;
+    }
+    
+    public void putTableChoice(BindableStatement statement, PName tenantId, PTable dataTable, PTable chosenTable) {
+        String indexName = chosenTable.getName().equals(dataTable.getName()) ? null : chosenTable.getName().getString();
+        tableChoices.put(new TableChoiceKey(statement, tenantId, dataTable), new TableChoice(dataTable.getTimeStamp(), dataTable.getSequenceNumber(), indexName));
+    }
+    
+    private static class TableChoiceKey {
+        private final BindableStatement statement;
+        private final String tenantId;
+        private final String tableName;
+        
+        private TableChoiceKey(BindableStatement statement, PName tenantId, PTable dataTable) {
+            this.statement = statement;
+            this.tenantId = tenantId == null ? null : tenantId.getString();
+            this.tableName = dataTable.getName().getString();
+        }
+        
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            // Parsed statements are compared by identity
+            int result = System.identityHashCode(statement);
+            result = prime * result + (tenantId == null ? 0 : tenantId.hashCode());
+            result = prime * result + tableName.hashCode();
+            return result;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+            TableChoiceKey other = (TableChoiceKey)obj;
+            if (statement != other.statement) return false;
+            if (tenantId == null) {
+                if (other.tenantId != null) return false;
+            } else if (!tenantId.equals(other.tenantId)) return false;
+            return tableName.equals(other.tableName);
+        }
+    }
+    
+    public static class TableChoice {
+        private final long timeStamp;
+        private final long sequenceNumber;
+        private final String indexName;
+        
+        private TableChoice(long timeStamp, long sequenceNumber, String indexName) {
+            this.timeStamp = timeStamp;
+            this.sequenceNumber = sequenceNumber;
+            this.indexName = indexName;
+        }
+        
+        /**
+         * @return the full name of the chosen index, or null if the data table was chosen
+         */
+        public String getIndexName() {
+            return indexName;
+        }
+    }
+}
@@ -103,6 +103,12 @@ public class HintNode {
        * Saves an RPC call on the scan. See Scan.setSmall(true) in HBase documentation.
        */
      SMALL,
+      /**
+       * Treat the scan as a large analytic scan: avoid caching any HBase blocks loaded by it,
+       * size the scanner caching from the estimated row width and send it with the analytic
+       * RPC priority, so that it does not compete with latency sensitive queries.
+       */
+     ANALYTIC_SCAN,
     };
 
     private final Map<Hint,String> hints;
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.query;
+
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.CellScannable;
+import org.apache.hadoop.hbase.CellScanner;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.ipc.DelegatingPayloadCarryingRpcController;
+import org.apache.hadoop.hbase.ipc.PayloadCarryingRpcController;
+import org.apache.hadoop.hbase.ipc.RpcControllerFactory;
+import org.apache.phoenix.hbase.index.ipc.PhoenixIndexRpcSchedulerFactory;
+
+/**
+ * {@link RpcControllerFactory} used by the connection that analytic scans are issued through. It
+ * gives every call against a user table the analytic priority, so that region servers running the
+ * Phoenix scheduler serve them from their own queue instead of the general one.
+ */
+public class AnalyticQosRpcControllerFactory extends RpcControllerFactory {
+
+    public AnalyticQosRpcControllerFactory(Configuration conf) {
+        super(conf);
+    }
+
+    @Override
+    public PayloadCarryingRpcController newController() {
+        PayloadCarryingRpcController delegate = super.newController();
+        return new AnalyticQosRpcController(delegate, conf);
+    }
+
+    @Override
+    public PayloadCarryingRpcController newController(CellScanner cellScanner) {
+        PayloadCarryingRpcController delegate = super.newController(cellScanner);
+        return new AnalyticQosRpcController(delegate, conf);
+    }
+
+    @Override
+    public PayloadCarryingRpcController newController(List<CellScannable> cellIterables) {
+        PayloadCarryingRpcController delegate = super.newController(cellIterables);
+        return new AnalyticQosRpcController(delegate, conf);
+    }
+
+    private static class AnalyticQosRpcController extends DelegatingPayloadCarryingRpcController {
+
+        private final int priority;
+
+        public AnalyticQosRpcController(PayloadCarryingRpcController delegate, Configuration conf) {
+            super(delegate);
+            this.priority = PhoenixIndexRpcSchedulerFactory.getMinAnalyticPriority(conf);
+        }
+
+        @Override
+        public void setPriority(final TableName tn) {
+            // calls against the meta tables keep their high priority
+            if (tn.isSystemTable()) {
+                super.setPriority(tn);
+            } else {
+                setPriority(this.priority);
+            }
+        }
+    }
+}
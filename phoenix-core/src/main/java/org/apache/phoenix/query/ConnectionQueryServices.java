@@ -33,6 +33,7 @@ import org.apache.phoenix.compile.MutationPlan;
 import org.apache.phoenix.coprocessor.MetaDataProtocol.MetaDataMutationResult;
 import org.apache.phoenix.execute.MutationState;
 import org.apache.phoenix.hbase.index.util.KeyValueBuilder;
+import org.apache.phoenix.index.IndexMetaDataKeyCache;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.schema.PName;
 import org.apache.phoenix.schema.PTable;
@@ -62,6 +63,17 @@ public interface ConnectionQueryServices extends QueryServices, MetaDataMutated
      */
     public HTableInterface getTable(byte[] tableName) throws SQLException;
 
+    /**
+     * Get an HTableInterface by the given name, whose calls are sent with the analytic
+     * RPC priority when isAnalytic is true. It is the callers responsibility to close
+     * the returned HTableInterface.
+     * @param tableName the name of the HTable
+     * @param isAnalytic true if the table is used by a large analytic scan
+     * @return the HTableInterface
+     * @throws SQLException 
+     */
+    public HTableInterface getTable(byte[] tableName, boolean isAnalytic) throws SQLException;
+
     public HTableDescriptor getTableDescriptor(byte[] tableName) throws SQLException;
 
     public List<HRegionLocation> getAllTableRegions(byte[] tableName) throws SQLException;
@@ -110,4 +122,9 @@ public interface ConnectionQueryServices extends QueryServices, MetaDataMutated
     
     public void clearCache() throws SQLException;
     public int getSequenceSaltBuckets();
+    
+    /**
+     * @return the record of the region servers of this cluster known to have cached the index maintainers
+     */
+    public IndexMetaDataKeyCache getIndexMetaDataKeyCache();
 }
\ No newline at end of file
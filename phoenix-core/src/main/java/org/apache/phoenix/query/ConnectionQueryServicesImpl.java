@@ -56,6 +56,7 @@ import org.apache.hadoop.hbase.client.coprocessor.Batch;
 import org.apache.hadoop.hbase.coprocessor.MultiRowMutationEndpoint;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.ipc.BlockingRpcCallback;
+import org.apache.hadoop.hbase.ipc.RpcControllerFactory;
 import org.apache.hadoop.hbase.ipc.ServerRpcController;
 import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutationProto;
 import org.apache.hadoop.hbase.regionserver.IndexHalfStoreFileReaderGenerator;
@@ -101,6 +102,7 @@ import org.apache.phoenix.hbase.index.Indexer;
 import org.apache.phoenix.hbase.index.covered.CoveredColumnsIndexBuilder;
 import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
 import org.apache.phoenix.hbase.index.util.KeyValueBuilder;
+import org.apache.phoenix.index.IndexMetaDataKeyCache;
 import org.apache.phoenix.index.PhoenixIndexBuilder;
 import org.apache.phoenix.index.PhoenixIndexCodec;
 import org.apache.phoenix.jdbc.PhoenixConnection;
@@ -166,6 +168,7 @@ public class ConnectionQueryServicesImpl extends DelegateQueryServices implement
     private final String userName;
     private final ConcurrentHashMap<ImmutableBytesWritable,ConnectionQueryServices> childServices;
     private final Cache<ImmutableBytesPtr, PTableStats> tableStatsCache;
+    private final IndexMetaDataKeyCache indexMetaDataKeyCache;
     
     // Cache the latest meta data here for future connections
     // writes guarded by "latestMetaDataLock"
@@ -181,6 +184,8 @@ public class ConnectionQueryServicesImpl extends DelegateQueryServices implement
     private final Object connectionCountLock = new Object();
     
     private HConnection connection;
+    // Connection for analytic scans, created the first time one is issued
+    private volatile HConnection analyticConnection;
     private volatile boolean initialized;
     private volatile int nSequenceSaltBuckets;
     
@@ -241,6 +246,9 @@ public class ConnectionQueryServicesImpl extends DelegateQueryServices implement
                 .maximumSize(MAX_TABLE_STATS_CACHE_ENTRIES)
                 .expireAfterWrite(halfStatsUpdateFreq, TimeUnit.MILLISECONDS)
                 .build();
+        indexMetaDataKeyCache = new IndexMetaDataKeyCache(config.getLong(
+                QueryServices.MAX_CLIENT_INDEX_MAINTAINER_CACHE_KEYS_ATTRIB,
+                QueryServicesOptions.DEFAULT_MAX_CLIENT_INDEX_MAINTAINER_CACHE_KEYS));
     }
     
     private void openConnection() throws SQLException {
@@ -264,10 +272,41 @@ public class ConnectionQueryServicesImpl extends DelegateQueryServices implement
         }
     }
 
+    private HConnection getAnalyticConnection() throws SQLException {
+        HConnection analyticConnection = this.analyticConnection;
+        if (analyticConnection == null) {
+            synchronized (this) {
+                analyticConnection = this.analyticConnection;
+                if (analyticConnection == null) {
+                    if (closed) {
+                        throw new SQLExceptionInfo.Builder(SQLExceptionCode.CANNOT_ESTABLISH_CONNECTION).build().buildException();
+                    }
+                    // A separate connection is needed, as the priority of a call is chosen by the
+                    // controller factory of the connection it goes through
+                    Configuration analyticConfig = HBaseFactoryProvider.getConfigurationFactory().getConfiguration(config);
+                    analyticConfig.set(RpcControllerFactory.CUSTOM_CONTROLLER_CONF_KEY,
+                            AnalyticQosRpcControllerFactory.class.getName());
+                    try {
+                        this.analyticConnection = analyticConnection = HBaseFactoryProvider.getHConnectionFactory().createConnection(analyticConfig);
+                    } catch (IOException e) {
+                        throw new SQLExceptionInfo.Builder(SQLExceptionCode.CANNOT_ESTABLISH_CONNECTION)
+                            .setRootCause(e).build().buildException();
+                    }
+                }
+            }
+        }
+        return analyticConnection;
+    }
+
     @Override
     public HTableInterface getTable(byte[] tableName) throws SQLException {
+        return getTable(tableName, false);
+    }
+
+    @Override
+    public HTableInterface getTable(byte[] tableName, boolean isAnalytic) throws SQLException {
         try {
-            return HBaseFactoryProvider.getHTableFactory().getTable(tableName, connection, getExecutor());
+            return HBaseFactoryProvider.getHTableFactory().getTable(tableName, isAnalytic ? getAnalyticConnection() : connection, getExecutor());
         } catch (org.apache.hadoop.hbase.TableNotFoundException e) {
             byte[][] schemaAndTableName = new byte[2][];
             SchemaUtil.getVarChars(tableName, schemaAndTableName);
@@ -331,6 +370,7 @@ public class ConnectionQueryServicesImpl extends DelegateQueryServices implement
                         latestMetaDataLock.notifyAll();
                     }
                     if (connection != null) connection.close();
+                    if (analyticConnection != null) analyticConnection.close();
                 } catch (IOException e) {
                     if (sqlE == null) {
                         sqlE = ServerUtil.parseServerException(e);
@@ -1677,7 +1717,13 @@ public class ConnectionQueryServicesImpl extends DelegateQueryServices implement
                             } catch (NewerTableAlreadyExistsException ignore) {
                                 // Ignore, as this will happen if the SYSTEM.CATALOG already exists at this fixed timestamp.
                                 // A TableAlreadyExistsException is not thrown, since the table only exists *after* this fixed timestamp.
-                            } catch (TableAlreadyExistsException ignore) {
+                            } catch (TableAlreadyExistsException e) {
+                                // This will occur if we have an older SYSTEM.CATALOG, so we need to add the
+                                // table header columns that were introduced since then.
+                                metaConnection = addColumnsIfNotExists(metaConnection, PhoenixDatabaseMetaData.SYSTEM_CATALOG,
+                                        MetaDataProtocol.MIN_SYSTEM_TABLE_TIMESTAMP,
+                                        PhoenixDatabaseMetaData.STORAGE_SCHEME + " " + PDataType.UNSIGNED_TINYINT.getSqlTypeName() + ", " +
+                                        PhoenixDatabaseMetaData.COLUMN_QUALIFIER + " " + PDataType.VARBINARY.getSqlTypeName());
                             }
                             int nSaltBuckets = ConnectionQueryServicesImpl.this.props.getInt(QueryServices.SEQUENCE_SALT_BUCKETS_ATTRIB,
                                     QueryServicesOptions.DEFAULT_SEQUENCE_TABLE_SALT_BUCKETS);
@@ -2305,4 +2351,9 @@ public class ConnectionQueryServicesImpl extends DelegateQueryServices implement
     public int getSequenceSaltBuckets() {
         return nSequenceSaltBuckets;
     }
+
+    @Override
+    public IndexMetaDataKeyCache getIndexMetaDataKeyCache() {
+        return indexMetaDataKeyCache;
+    }
 }
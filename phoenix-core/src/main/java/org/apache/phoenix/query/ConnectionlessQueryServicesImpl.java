@@ -47,6 +47,7 @@ import org.apache.phoenix.exception.SQLExceptionInfo;
 import org.apache.phoenix.execute.MutationState;
 import org.apache.phoenix.hbase.index.util.GenericKeyValueBuilder;
 import org.apache.phoenix.hbase.index.util.KeyValueBuilder;
+import org.apache.phoenix.index.IndexMetaDataKeyCache;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.jdbc.PhoenixDatabaseMetaData;
 import org.apache.phoenix.jdbc.PhoenixEmbeddedDriver.ConnectionInfo;
@@ -98,6 +99,7 @@ public class ConnectionlessQueryServicesImpl extends DelegateQueryServices imple
     private volatile boolean initialized;
     private volatile SQLException initializationException;
     private final Map<String, List<HRegionLocation>> tableSplits = Maps.newHashMap();
+    private final IndexMetaDataKeyCache indexMetaDataKeyCache;
     
     public ConnectionlessQueryServicesImpl(QueryServices queryServices, ConnectionInfo connInfo) {
         super(queryServices);
@@ -105,6 +107,8 @@ public class ConnectionlessQueryServicesImpl extends DelegateQueryServices imple
         metaData = newEmptyMetaData();
         // Use KeyValueBuilder that builds real KeyValues, as our test utils require this
         this.kvBuilder = GenericKeyValueBuilder.INSTANCE;
+        this.indexMetaDataKeyCache = new IndexMetaDataKeyCache(getProps().getLong(QueryServices.MAX_CLIENT_INDEX_MAINTAINER_CACHE_KEYS_ATTRIB,
+                QueryServicesOptions.DEFAULT_MAX_CLIENT_INDEX_MAINTAINER_CACHE_KEYS));
     }
 
     private PMetaData newEmptyMetaData() {
@@ -123,6 +127,11 @@ public class ConnectionlessQueryServicesImpl extends DelegateQueryServices imple
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public HTableInterface getTable(byte[] tableName, boolean isAnalytic) throws SQLException {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public List<HRegionLocation> getAllTableRegions(byte[] tableName) throws SQLException {
         List<HRegionLocation> regions = tableSplits.get(Bytes.toString(tableName));
@@ -479,4 +488,9 @@ public class ConnectionlessQueryServicesImpl extends DelegateQueryServices imple
         return getProps().getInt(QueryServices.SEQUENCE_SALT_BUCKETS_ATTRIB,
                 QueryServicesOptions.DEFAULT_SEQUENCE_TABLE_SALT_BUCKETS);
     }
+
+    @Override
+    public IndexMetaDataKeyCache getIndexMetaDataKeyCache() {
+        return indexMetaDataKeyCache;
+    }
 }
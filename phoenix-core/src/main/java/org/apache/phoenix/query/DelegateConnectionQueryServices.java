@@ -33,6 +33,7 @@ import org.apache.phoenix.compile.MutationPlan;
 import org.apache.phoenix.coprocessor.MetaDataProtocol.MetaDataMutationResult;
 import org.apache.phoenix.execute.MutationState;
 import org.apache.phoenix.hbase.index.util.KeyValueBuilder;
+import org.apache.phoenix.index.IndexMetaDataKeyCache;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.schema.PColumn;
 import org.apache.phoenix.schema.PMetaData;
@@ -65,6 +66,11 @@ public class DelegateConnectionQueryServices extends DelegateQueryServices imple
         return getDelegate().getTable(tableName);
     }
 
+    @Override
+    public HTableInterface getTable(byte[] tableName, boolean isAnalytic) throws SQLException {
+        return getDelegate().getTable(tableName, isAnalytic);
+    }
+
     @Override
     public List<HRegionLocation> getAllTableRegions(byte[] tableName) throws SQLException {
         return getDelegate().getAllTableRegions(tableName);
@@ -249,4 +255,9 @@ public class DelegateConnectionQueryServices extends DelegateQueryServices imple
     public int getSequenceSaltBuckets() {
         return getDelegate().getSequenceSaltBuckets();
     }
+
+    @Override
+    public IndexMetaDataKeyCache getIndexMetaDataKeyCache() {
+        return getDelegate().getIndexMetaDataKeyCache();
+    }
 }
\ No newline at end of file
@@ -64,6 +64,38 @@ public interface QueryServices extends SQLCloseable {
      */
     public static final String SCAN_RESULT_CHUNK_SIZE = "phoenix.query.scanResultChunkSize";
 
+    /**
+     * Target number of bytes per chunk when streaming records of a basic scan. Chunks of large
+     * rows are made smaller than {@link #SCAN_RESULT_CHUNK_SIZE} to stay within this size.
+     */
+    public static final String SCAN_RESULT_CHUNK_BYTES_ATTRIB = "phoenix.query.scanResultChunkBytes";
+
+    /**
+     * Whether to load the next chunk of a basic scan in the background while the current one is
+     * being consumed.
+     */
+    public static final String SCAN_RESULT_CHUNK_PREFETCH_ATTRIB = "phoenix.query.scanResultChunkPrefetch";
+
+    /**
+     * Maximum number of statements for which the parsed statement and the table chosen by the
+     * optimizer are cached, so that they are reused when the same SQL is executed again.
+     * A value of 0 disables the cache.
+     */
+    public static final String QUERY_PLAN_CACHE_SIZE_ATTRIB = "phoenix.query.planCacheSize";
+
+    /**
+     * Maximum number of keys of a point lookup for which the rows are fetched with a batch of
+     * Gets from the calling thread instead of with parallel scans. A value of 0 disables Gets.
+     */
+    public static final String POINT_LOOKUP_GET_THRESHOLD_ATTRIB = "phoenix.query.pointLookupGetThreshold";
+
+    /**
+     * Minimum number of values of an IN list in the WHERE clause for which the values are sent
+     * once to each region server as a server cache instead of being serialized into every scan.
+     * A value of 0 disables the cache.
+     */
+    public static final String IN_LIST_SERVER_CACHE_THRESHOLD_ATTRIB = "phoenix.query.inListServerCacheThreshold";
+
     public static final String MAX_MEMORY_PERC_ATTRIB = "phoenix.query.maxGlobalMemoryPercentage";
     public static final String MAX_MEMORY_WAIT_MS_ATTRIB = "phoenix.query.maxGlobalMemoryWaitMs";
     public static final String MAX_TENANT_MEMORY_PERC_ATTRIB = "phoenix.query.maxTenantMemoryPercentage";
@@ -75,6 +107,23 @@ public interface QueryServices extends SQLCloseable {
     public static final String SCAN_CACHE_SIZE_ATTRIB = "hbase.client.scanner.caching";
     public static final String MAX_MUTATION_SIZE_ATTRIB = "phoenix.mutate.maxSize";
     public static final String MUTATE_BATCH_SIZE_ATTRIB = "phoenix.mutate.batchSize";
+    // Whether an auto committed UPSERT SELECT into a different table is run by having each region
+    // write its rows to the into table in batches instead of through the client. Off by default, as
+    // the handlers of the into table's region servers may then block on the index writes of those rows.
+    public static final String UPSERT_SELECT_ON_SERVER_ATTRIB = "phoenix.mutate.upsertSelectOnServer";
+    // Whether the batches of mutations of the different data tables being committed are written concurrently.
+    // The batches of the immutable indexes of a table are always written after its data table batch.
+    public static final String PARALLEL_COMMIT_ATTRIB = "phoenix.mutate.parallelCommit";
+    // Number of uncommitted rows and milliseconds since the first of them was buffered after which
+    // they are committed asynchronously on a connection without auto commit (0 to disable)
+    public static final String WRITE_BEHIND_ROW_COUNT_ATTRIB = "phoenix.mutate.writeBehind.rowCount";
+    public static final String WRITE_BEHIND_INTERVAL_MS_ATTRIB = "phoenix.mutate.writeBehind.intervalMs";
+    // Max number of bytes of uncommitted rows being committed asynchronously by a connection
+    public static final String MAX_IN_FLIGHT_COMMIT_BYTES_ATTRIB = "phoenix.mutate.maxInFlightCommitBytes";
+    // Whether server-side UPSERT SELECT and DELETE write a batch while the next one is being filled
+    public static final String SERVER_MUTATE_PIPELINED_ATTRIB = "phoenix.coprocessor.mutate.pipelined";
+    // Size up to which the server-side batch size grows while the memstore being written to has room
+    public static final String SERVER_MUTATE_MAX_BATCH_SIZE_ATTRIB = "phoenix.coprocessor.mutate.maxBatchSize";
     public static final String MAX_SERVER_CACHE_TIME_TO_LIVE_MS_ATTRIB = "phoenix.coprocessor.maxServerCacheTimeToLiveMs";
     public static final String ROW_KEY_ORDER_SALTED_TABLE_ATTRIB  = "phoenix.query.rowKeyOrderSaltedTable";
     public static final String USE_INDEXES_ATTRIB  = "phoenix.query.useIndexes";
@@ -100,6 +149,11 @@ public interface QueryServices extends SQLCloseable {
     public static final String INDEX_MAX_FILESIZE_PERC_ATTRIB = "phoenix.index.maxDataFileSizePerc";
     public static final String MAX_SERVER_METADATA_CACHE_TIME_TO_LIVE_MS_ATTRIB = "phoenix.coprocessor.maxMetaDataCacheTimeToLiveMs";
     public static final String MAX_SERVER_METADATA_CACHE_SIZE_ATTRIB = "phoenix.coprocessor.maxMetaDataCacheSize";
+    public static final String MAX_SERVER_INDEX_MAINTAINER_CACHE_SIZE_ATTRIB = "phoenix.coprocessor.maxIndexMaintainerCacheSize";
+    // Whether mutations reference the index metadata cached by the region servers instead of carrying it
+    public static final String INDEX_MAINTAINER_CACHE_ENABLED_ATTRIB = "phoenix.index.maintainerCache.enabled";
+    // Max number of index metadata keys for which a client remembers the region servers caching them
+    public static final String MAX_CLIENT_INDEX_MAINTAINER_CACHE_KEYS_ATTRIB = "phoenix.index.maintainerCache.maxClientKeys";
     public static final String MAX_CLIENT_METADATA_CACHE_SIZE_ATTRIB = "phoenix.client.maxMetaDataCacheSize";
 
     public static final String AUTO_UPGRADE_WHITELIST_ATTRIB = "phoenix.client.autoUpgradeWhiteList";
@@ -122,6 +176,21 @@ public interface QueryServices extends SQLCloseable {
     public static final String MIN_INDEX_PRIOIRTY_ATTRIB = "phoenix.regionserver.index.priority.min";
     public static final String MAX_INDEX_PRIOIRTY_ATTRIB = "phoenix.regionserver.index.priority.max";
     public static final String INDEX_HANDLER_COUNT_ATTRIB = "phoenix.regionserver.index.handler.count";
+    // Priority range and number of handlers reserved for analytic scans. No handlers means that
+    // analytic scans are served by the general queue.
+    public static final String MIN_ANALYTIC_PRIORITY_ATTRIB = "phoenix.regionserver.analytic.priority.min";
+    public static final String MAX_ANALYTIC_PRIORITY_ATTRIB = "phoenix.regionserver.analytic.priority.max";
+    public static final String ANALYTIC_HANDLER_COUNT_ATTRIB = "phoenix.regionserver.analytic.handler.count";
+    // Estimated number of bytes above which a scan is treated as an analytic scan, which bypasses
+    // the block cache and uses the analytic RPC priority. Zero disables the estimate.
+    public static final String ANALYTIC_SCAN_THRESHOLD_BYTES_ATTRIB = "phoenix.query.analyticScan.thresholdBytes";
+    // Target number of bytes returned by each RPC of an analytic scan
+    public static final String ANALYTIC_SCAN_RESULT_BYTES_ATTRIB = "phoenix.query.analyticScan.resultBytes";
+    // Whether a new global index is populated by each data region writing its index rows
+    // instead of through an UPSERT SELECT driven by the client
+    public static final String INDEX_BUILD_ON_SERVER_ATTRIB = "phoenix.index.build.onServer";
+    // Number of index rows a data region writes to a global index table in each batch while building it
+    public static final String INDEX_BUILD_BATCH_SIZE_ATTRIB = "phoenix.index.build.batchSize";
 
     // Config parameters for for configuring tracing
     public static final String TRACING_FREQ_ATTRIB = "phoenix.trace.frequency";
@@ -102,6 +102,13 @@ public class QueryServicesOptions {
     public static final boolean DEFAULT_DROP_METADATA = true; // Drop meta data also.
     
     public final static int DEFAULT_MUTATE_BATCH_SIZE = 1000; // Batch size for UPSERT SELECT and DELETE
+    public static final boolean DEFAULT_UPSERT_SELECT_ON_SERVER = false;
+    public static final boolean DEFAULT_PARALLEL_COMMIT = true;
+    public static final int DEFAULT_WRITE_BEHIND_ROW_COUNT = 0;
+    public static final long DEFAULT_WRITE_BEHIND_INTERVAL_MS = 0;
+    public static final long DEFAULT_MAX_IN_FLIGHT_COMMIT_BYTES = 1024L * 1024L * 100L; // 100 Mb
+    public static final boolean DEFAULT_SERVER_MUTATE_PIPELINED = true;
+    public static final int DEFAULT_SERVER_MUTATE_MAX_BATCH_SIZE = 10000;
 	// The only downside of it being out-of-sync is that the parallelization of the scan won't be as balanced as it could be.
     public static final int DEFAULT_MAX_SERVER_CACHE_TIME_TO_LIVE_MS = 30000; // 30 sec (with no activity)
     public static final int DEFAULT_SCAN_CACHE_SIZE = 1000;
@@ -114,6 +121,11 @@ public class QueryServicesOptions {
     // latency and client-side spooling/buffering. Smaller means less initial
     // latency and less parallelization.
     public static final long DEFAULT_SCAN_RESULT_CHUNK_SIZE = 2999;
+    public static final long DEFAULT_SCAN_RESULT_CHUNK_BYTES = 1024 * 1024 * 10; // 10m
+    public static final boolean DEFAULT_SCAN_RESULT_CHUNK_PREFETCH = true;
+    public static final int DEFAULT_QUERY_PLAN_CACHE_SIZE = 1000;
+    public static final int DEFAULT_POINT_LOOKUP_GET_THRESHOLD = 100;
+    public static final int DEFAULT_IN_LIST_SERVER_CACHE_THRESHOLD = 10000;
     
     // 
     // Spillable GroupBy - SPGBY prefix
@@ -130,6 +142,9 @@ public class QueryServicesOptions {
     public static final int DEFAULT_INDEX_MAX_FILESIZE_PERC = 50; // % of data table max file size for index table
     public static final long DEFAULT_MAX_SERVER_METADATA_CACHE_TIME_TO_LIVE_MS =  60000 * 30; // 30 mins   
     public static final long DEFAULT_MAX_SERVER_METADATA_CACHE_SIZE =  1024L*1024L*20L; // 20 Mb
+    public static final long DEFAULT_MAX_SERVER_INDEX_MAINTAINER_CACHE_SIZE =  1024L*1024L*10L; // 10 Mb
+    public static final boolean DEFAULT_INDEX_MAINTAINER_CACHE_ENABLED = true;
+    public static final long DEFAULT_MAX_CLIENT_INDEX_MAINTAINER_CACHE_KEYS = 10000;
     public static final long DEFAULT_MAX_CLIENT_METADATA_CACHE_SIZE =  1024L*1024L*10L; // 10 Mb
     public static final int DEFAULT_GROUPBY_ESTIMATED_DISTINCT_VALUES = 1000;
     public static final int DEFAULT_CLOCK_SKEW_INTERVAL = 2000;
@@ -144,6 +159,17 @@ public class QueryServicesOptions {
      */
     public static final int DEFAULT_INDEX_MIN_PRIORITY = 1000;
     public static final int DEFAULT_INDEX_HANDLER_COUNT = 30;
+    /**
+     * Below HConstants#QOS_THRESHOLD and HConstants#REPLICATION_QOS, so that analytic scans
+     * fall back to the general queue of region servers without the Phoenix scheduler
+     */
+    public static final int DEFAULT_ANALYTIC_MIN_PRIORITY = 1;
+    public static final int DEFAULT_ANALYTIC_MAX_PRIORITY = 5;
+    public static final int DEFAULT_ANALYTIC_HANDLER_COUNT = 0;
+    public static final long DEFAULT_ANALYTIC_SCAN_THRESHOLD_BYTES = 1024L*1024L*1024L*10L; // 10 Gb
+    public static final long DEFAULT_ANALYTIC_SCAN_RESULT_BYTES = 1024L*1024L*2L; // 2 Mb
+    public static final boolean DEFAULT_INDEX_BUILD_ON_SERVER = false;
+    public static final int DEFAULT_INDEX_BUILD_BATCH_SIZE = 10000;
     
     public static final int DEFAULT_TRACING_PAGE_SIZE = 100;
     /**
@@ -20,8 +20,10 @@ package org.apache.phoenix.schema;
 import org.apache.http.annotation.Immutable;
 import org.apache.phoenix.expression.ColumnExpression;
 import org.apache.phoenix.expression.KeyValueColumnExpression;
+import org.apache.phoenix.expression.PackedColumnExpression;
 import org.apache.phoenix.expression.ProjectedColumnExpression;
 import org.apache.phoenix.expression.RowKeyColumnExpression;
+import org.apache.phoenix.schema.PTable.StorageScheme;
 import org.apache.phoenix.util.SchemaUtil;
 
 
@@ -105,6 +107,10 @@ public class ColumnRef {
         	return new ProjectedColumnExpression(column, table, displayName);
         }
        
+        if (table.getStorageScheme() == StorageScheme.PACKED_CELL) {
+            return new PackedColumnExpression(column, SchemaUtil.getPackedColumnIndex(table, column), displayName);
+        }
+
         return new KeyValueColumnExpression(column, displayName);
     }
 
@@ -215,6 +215,11 @@ public class DelegateTable implements PTable {
         return delegate.getIndexType();
     }
 
+    @Override
+    public StorageScheme getStorageScheme() {
+        return delegate.getStorageScheme();
+    }
+
     @Override
     public PTableStats getTableStats() {
         return delegate.getTableStats();
@@ -25,6 +25,7 @@ import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.ARRAY_SIZE;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.COLUMN_COUNT;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.COLUMN_FAMILY;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.COLUMN_NAME;
+import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.COLUMN_QUALIFIER;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.COLUMN_SIZE;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.DATA_TABLE_NAME;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.DATA_TYPE;
@@ -48,6 +49,7 @@ import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.PK_NAME;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.REGION_NAME;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.SALT_BUCKETS;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.SORT_ORDER;
+import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.STORAGE_SCHEME;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.SYSTEM_CATALOG_SCHEMA;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.SYSTEM_CATALOG_TABLE;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.TABLE_NAME;
@@ -114,6 +116,7 @@ import org.apache.phoenix.exception.SQLExceptionInfo;
 import org.apache.phoenix.execute.MutationState;
 import org.apache.phoenix.hbase.index.covered.update.ColumnReference;
 import org.apache.phoenix.index.IndexMaintainer;
+import org.apache.phoenix.iterate.ResultIterator;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.jdbc.PhoenixDatabaseMetaData;
 import org.apache.phoenix.jdbc.PhoenixParameterMetaData;
@@ -139,6 +142,7 @@ import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.query.QueryServicesOptions;
 import org.apache.phoenix.schema.PTable.IndexType;
 import org.apache.phoenix.schema.PTable.LinkType;
+import org.apache.phoenix.schema.PTable.StorageScheme;
 import org.apache.phoenix.schema.PTable.ViewType;
 import org.apache.phoenix.schema.stats.PTableStats;
 import org.apache.phoenix.util.ByteUtil;
@@ -180,8 +184,9 @@ public class MetaDataClient {
             MULTI_TENANT + "," +
             VIEW_TYPE + "," +
             VIEW_INDEX_ID + "," +
-            INDEX_TYPE +
-            ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            INDEX_TYPE + "," +
+            STORAGE_SCHEME +
+            ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
     private static final String CREATE_LINK =
             "UPSERT INTO " + SYSTEM_CATALOG_SCHEMA + ".\"" + SYSTEM_CATALOG_TABLE + "\"( " +
             TENANT_ID + "," +
@@ -269,8 +274,9 @@ public class MetaDataClient {
         VIEW_CONSTANT + "," + 
         IS_VIEW_REFERENCED + "," + 
         PK_NAME + "," +  // write this both in the column and table rows for access by metadata APIs
-        KEY_SEQ +
-        ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        KEY_SEQ + "," +
+        COLUMN_QUALIFIER +
+        ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
     private static final String UPDATE_COLUMN_POSITION =
         "UPSERT INTO " + SYSTEM_CATALOG_SCHEMA + ".\"" + SYSTEM_CATALOG_TABLE + "\" ( " + 
         TENANT_ID + "," +
@@ -511,6 +517,7 @@ public class MetaDataClient {
         } else {
             colUpsert.setShort(17, keySeq);
         }
+        colUpsert.setBytes(18, column.getColumnQualifierBytes());
         colUpsert.execute();
     }
 
@@ -731,8 +738,13 @@ public class MetaDataClient {
             
             // For local indexes, we optimize the initial index population by *not* sending Puts over
             // the wire for the index rows, as we don't need to do that. Instead, we tap into our
-            // region observer to generate the index rows based on the data rows as we scan
-            if (index.getIndexType() == IndexType.LOCAL) {
+            // region observer to generate the index rows based on the data rows as we scan.
+            // Global indexes may optionally be populated the same way, except that each data region
+            // writes its index rows to the index table in large batches, so that the rows don't make
+            // a round trip through the client.
+            boolean buildOnServer = index.getIndexType() == IndexType.LOCAL || connection.getQueryServices().getProps().getBoolean(
+                    QueryServices.INDEX_BUILD_ON_SERVER_ATTRIB, QueryServicesOptions.DEFAULT_INDEX_BUILD_ON_SERVER);
+            if (buildOnServer) {
                 final PhoenixStatement statement = new PhoenixStatement(connection);
                 String tableName = getFullTableName(dataTableRef);
                 String query = "SELECT count(*) FROM " + tableName;
@@ -742,7 +754,7 @@ public class MetaDataClient {
                 // We'll detect that this attribute was set the server-side and write the index
                 // rows per region as a result. The value of the attribute will be our persisted
                 // index maintainers.
-                // Define the LOCAL_INDEX_BUILD as a new static in BaseScannerRegionObserver
+                // Define the LOCAL_INDEX_BUILD and GLOBAL_INDEX_BUILD as new statics in BaseScannerRegionObserver
                 Scan scan = plan.getContext().getScan();
                 try {
                     if(plan.getContext().getScanTimeRange()==null) {
@@ -772,7 +784,8 @@ public class MetaDataClient {
                 // Only build newly created index.
                 indexes.add(index);
                 IndexMaintainer.serialize(dataTable, ptr, indexes);
-                scan.setAttribute(BaseScannerRegionObserver.LOCAL_INDEX_BUILD, ByteUtil.copyKeyBytesIfNecessary(ptr));
+                scan.setAttribute(index.getIndexType() == IndexType.LOCAL ? BaseScannerRegionObserver.LOCAL_INDEX_BUILD
+                        : BaseScannerRegionObserver.GLOBAL_INDEX_BUILD, ByteUtil.copyKeyBytesIfNecessary(ptr));
                 // By default, we'd use a FirstKeyOnly filter as nothing else needs to be projected for count(*).
                 // However, in this case, we need to project all of the data columns that contribute to the index.
                 IndexMaintainer indexMaintainer = index.getIndexMaintainer(dataTable);
@@ -780,6 +793,8 @@ public class MetaDataClient {
                     scan.addColumn(columnRef.getFamily(), columnRef.getQualifier());
                 }
                 
+                final String indexName = index.getName().getString();
+                final String dataTableName = tableName;
                 // Go through MutationPlan abstraction so that we can create local indexes
                 // with a connectionless connection (which makes testing easier).
                 mutationPlan = new MutationPlan() {
@@ -806,10 +821,18 @@ public class MetaDataClient {
 
                     @Override
                     public MutationState execute() throws SQLException {
-                        Cell kv = plan.iterator().next().getValue(0);
+                        long startTime = System.currentTimeMillis();
+                        ResultIterator iterator = plan.iterator();
+                        if (logger.isInfoEnabled()) {
+                            logger.info(LogUtil.addCustomAnnotations("Building index " + indexName + " from " + plan.getSplits().size() + " scans of " + dataTableName, connection));
+                        }
+                        Cell kv = iterator.next().getValue(0);
                         ImmutableBytesWritable tmpPtr = new ImmutableBytesWritable(kv.getValueArray(), kv.getValueOffset(), kv.getValueLength());
                         // A single Cell will be returned with the count(*) - we decode that here
                         long rowCount = PDataType.LONG.getCodec().decodeLong(tmpPtr, SortOrder.getDefault());
+                        if (logger.isInfoEnabled()) {
+                            logger.info(LogUtil.addCustomAnnotations("Built " + rowCount + " rows of index " + indexName + " in " + (System.currentTimeMillis() - startTime) + " ms", connection));
+                        }
                         // The contract is to return a MutationState that contains the number of rows modified. In this
                         // case, it's the number of rows in the data table which corresponds to the number of index
                         // rows that were added.
@@ -1127,6 +1150,11 @@ public class MetaDataClient {
             String tableName = tableNameNode.getTableName();
             String parentTableName = null;
             PName tenantId = connection.getTenantId();
+            if (parent != null && parent.getStorageScheme() == StorageScheme.PACKED_CELL) {
+                throw new SQLExceptionInfo.Builder(SQLExceptionCode.PACKED_CELL_NOT_SUPPORTED)
+                        .setSchemaName(parent.getSchemaName().getString()).setTableName(parent.getTableName().getString())
+                        .build().buildException();
+            }
             String tenantIdStr = tenantId == null ? null : connection.getTenantId().getString();
             boolean multiTenant = false;
             Integer saltBucketNum = null;
@@ -1249,6 +1277,17 @@ public class MetaDataClient {
             if (disableWALProp != null) {
                 disableWAL = disableWALProp;
             }
+            StorageScheme storageScheme = StorageScheme.getDefault();
+            if (tableType == PTableType.TABLE) {
+                String storageSchemeProp = (String) tableProps.remove(PhoenixDatabaseMetaData.STORAGE_SCHEME);
+                if (storageSchemeProp != null) {
+                    storageScheme = StorageScheme.fromToken(storageSchemeProp);
+                }
+                if (storageScheme == StorageScheme.PACKED_CELL && !isImmutableRows) {
+                    throw new SQLExceptionInfo.Builder(SQLExceptionCode.PACKED_CELL_ONLY_ON_IMMUTABLE_ROWS)
+                            .setSchemaName(schemaName).setTableName(tableName).build().buildException();
+                }
+            }
             // Delay this check as it is supported to have IMMUTABLE_ROWS and SALT_BUCKETS defined on views
             if ((statement.getTableType() == PTableType.VIEW || indexId != null) && !tableProps.isEmpty()) {
                 throw new SQLExceptionInfo.Builder(SQLExceptionCode.VIEW_WITH_PROPERTIES).build()
@@ -1337,6 +1376,7 @@ public class MetaDataClient {
                 }
             }
             int position = positionOffset;
+            int columnOrdinal = 0;
             
             for (ColumnDef colDef : colDefs) {
                 if (colDef.isPK()) {
@@ -1357,6 +1397,10 @@ public class MetaDataClient {
                 }
                 
                 PColumn column = newColumn(position++, colDef, pkConstraint, defaultFamilyName, false);
+                if (storageScheme == StorageScheme.ONE_CELL_PER_ENCODED_COLUMN && !SchemaUtil.isPKColumn(column)) {
+                    column = new PColumnImpl(column, column.getPosition(),
+                            SchemaUtil.getEncodedColumnQualifier(PTable.INITIAL_SEQ_NUM, columnOrdinal++));
+                }
                 if (SchemaUtil.isPKColumn(column)) {
                     // TODO: remove this constraint?
                     if (pkColumnsIterator.hasNext() && !column.getName().getString().equals(pkColumnsIterator.next().getFirst().getColumnName())) {
@@ -1566,6 +1610,11 @@ public class MetaDataClient {
             } else {
                 tableUpsert.setByte(18, indexType.getSerializedValue());
             }
+            if (storageScheme == StorageScheme.getDefault()) {
+                tableUpsert.setNull(19, Types.TINYINT);
+            } else {
+                tableUpsert.setByte(19, storageScheme.getSerializedValue());
+            }
             tableUpsert.execute();
             
             tableMetaData.addAll(connection.getMutationState().toMutations().next().getSecond());
@@ -1617,7 +1666,8 @@ public class MetaDataClient {
                         tenantId, newSchemaName, PNameFactory.newName(tableName), tableType, indexState, result.getMutationTime(), 
                         PTable.INITIAL_SEQ_NUM, pkName == null ? null : PNameFactory.newName(pkName), saltBucketNum, columns, 
                         dataTableName == null ? null : newSchemaName, dataTableName == null ? null : PNameFactory.newName(dataTableName), Collections.<PTable>emptyList(), isImmutableRows,
-                        physicalNames, defaultFamilyName == null ? null : PNameFactory.newName(defaultFamilyName), viewStatement, Boolean.TRUE.equals(disableWAL), multiTenant, viewType, indexId, indexType);
+                        physicalNames, defaultFamilyName == null ? null : PNameFactory.newName(defaultFamilyName), viewStatement, Boolean.TRUE.equals(disableWAL), multiTenant, viewType, indexId, indexType,
+                        storageScheme, PTableStats.EMPTY_STATS);
                 connection.addTable(table);
                 if (tableType == PTableType.VIEW) {
                     // Set wasUpdated to true to force attempt to add
@@ -2004,6 +2054,14 @@ public class MetaDataClient {
                     throw new SQLExceptionInfo.Builder(SQLExceptionCode.DEFAULT_COLUMN_FAMILY_ONLY_ON_CREATE_TABLE)
                     .setTableName(table.getName().getString()).build().buildException();
                 }
+                if (statement.getProps().get(PhoenixDatabaseMetaData.STORAGE_SCHEME) != null) {
+                    throw new SQLExceptionInfo.Builder(SQLExceptionCode.STORAGE_SCHEME_ONLY_ON_CREATE_TABLE)
+                    .setTableName(table.getName().getString()).build().buildException();
+                }
+                if (table.getStorageScheme() == StorageScheme.PACKED_CELL && Boolean.FALSE.equals(isImmutableRows)) {
+                    throw new SQLExceptionInfo.Builder(SQLExceptionCode.PACKED_CELL_ONLY_ON_IMMUTABLE_ROWS)
+                    .setTableName(table.getName().getString()).build().buildException();
+                }
                 
                 boolean isAddingPKColumn = false;
                 PreparedStatement colUpsert = connection.prepareStatement(INSERT_COLUMN);
@@ -2026,6 +2084,7 @@ public class MetaDataClient {
                         .setTableName(table.getName().getString()).build().buildException();
                     }
                     short nextKeySeq = SchemaUtil.getMaxKeySeq(table);
+                    int columnOrdinal = 0;
                     for( ColumnDef colDef : columnDefs) {
                         if (colDef != null && !colDef.isNull()) {
                             if(colDef.isPK()) {
@@ -2038,6 +2097,12 @@ public class MetaDataClient {
                         }                        
                         throwIfAlteringViewPK(colDef, table);
                         PColumn column = newColumn(position++, colDef, PrimaryKeyConstraint.EMPTY, table.getDefaultFamilyName() == null ? null : table.getDefaultFamilyName().getString(), true);
+                        if (table.getStorageScheme() == StorageScheme.ONE_CELL_PER_ENCODED_COLUMN && column.getFamilyName() != null) {
+                            // Qualifiers are derived from the sequence number the table will have after this
+                            // ALTER, so they never clash with those of dropped or previously added columns
+                            column = new PColumnImpl(column, column.getPosition(),
+                                    SchemaUtil.getEncodedColumnQualifier(table.getSequenceNumber() + 1, columnOrdinal++));
+                        }
                         columns.add(column);
                         String pkName = null;
                         Short keySeq = null;
@@ -2272,6 +2337,10 @@ public class MetaDataClient {
             while (true) {
                 final ColumnResolver resolver = FromCompiler.getResolver(statement, connection);
                 PTable table = resolver.getTables().get(0).getTable();
+                if (table.getStorageScheme() == StorageScheme.PACKED_CELL) {
+                    throw new SQLExceptionInfo.Builder(SQLExceptionCode.PACKED_CELL_NOT_SUPPORTED)
+                    .setSchemaName(schemaName).setTableName(tableName).build().buildException();
+                }
                 List<ColumnName> columnRefs = statement.getColumnRefs();
                 if(columnRefs == null) {
                     columnRefs = Lists.newArrayListWithCapacity(0);
@@ -45,6 +45,11 @@ public abstract class PBaseColumn implements PColumn {
         return false;
     }
     
+    @Override
+    public byte[] getColumnQualifierBytes() {
+        return null;
+    }
+    
     @Override
     public int getEstimatedSize() {
         return SizedUtil.OBJECT_SIZE; // Not really interested in sized of these
@@ -49,5 +49,10 @@ public interface PColumn extends PDatum {
     
     boolean isViewReferenced();
     
+    /**
+     * @return the encoded column qualifier or null if the column name is used as the column qualifier
+     */
+    byte[] getColumnQualifierBytes();
+    
     int getEstimatedSize();
 }
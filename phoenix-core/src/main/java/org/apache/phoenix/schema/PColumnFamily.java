@@ -39,7 +39,8 @@ public interface PColumnFamily {
     Collection<PColumn> getColumns();
     
     /**
-     * @return The PColumn for the specified column qualifier.
+     * @return The PColumn for the specified column qualifier, which is either the column
+     * name or the encoded column qualifier of the column.
      * @throws ColumnNotFoundException if the column cannot be found
      */
     PColumn getColumn(byte[] qualifier) throws ColumnNotFoundException;
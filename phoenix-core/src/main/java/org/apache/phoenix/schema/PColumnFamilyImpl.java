@@ -52,6 +52,10 @@ public class PColumnFamilyImpl implements PColumnFamily {
         for (PColumn column : columns) {
             estimatedSize += column.getEstimatedSize();
             columnByBytesBuilder.put(column.getName().getBytes(), column);
+            // Encoded qualifiers never clash with column names, so both can be looked up in the same map
+            if (column.getColumnQualifierBytes() != null) {
+                columnByBytesBuilder.put(column.getColumnQualifierBytes(), column);
+            }
             columnByStringBuilder.put(column.getName().getString(), column);
         }
         this.columnByBytes = columnByBytesBuilder.build();
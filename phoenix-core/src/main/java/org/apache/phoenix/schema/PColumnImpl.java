@@ -36,6 +36,7 @@ public class PColumnImpl implements PColumn {
     private Integer arraySize;
     private byte[] viewConstant;
     private boolean isViewReferenced;
+    private byte[] columnQualifierBytes;
 
     public PColumnImpl() {
     }
@@ -48,12 +49,28 @@ public class PColumnImpl implements PColumn {
                        boolean nullable,
                        int position,
                        SortOrder sortOrder, Integer arrSize, byte[] viewConstant, boolean isViewReferenced) {
-        init(name, familyName, dataType, maxLength, scale, nullable, position, sortOrder, arrSize, viewConstant, isViewReferenced);
+        this(name, familyName, dataType, maxLength, scale, nullable, position, sortOrder, arrSize, viewConstant, isViewReferenced, null);
+    }
+
+    public PColumnImpl(PName name,
+                       PName familyName,
+                       PDataType dataType,
+                       Integer maxLength,
+                       Integer scale,
+                       boolean nullable,
+                       int position,
+                       SortOrder sortOrder, Integer arrSize, byte[] viewConstant, boolean isViewReferenced, byte[] columnQualifierBytes) {
+        init(name, familyName, dataType, maxLength, scale, nullable, position, sortOrder, arrSize, viewConstant, isViewReferenced, columnQualifierBytes);
     }
 
     public PColumnImpl(PColumn column, int position) {
+        this(column, position, column.getColumnQualifierBytes());
+    }
+
+    public PColumnImpl(PColumn column, int position, byte[] columnQualifierBytes) {
         this(column.getName(), column.getFamilyName(), column.getDataType(), column.getMaxLength(),
-                column.getScale(), column.isNullable(), position, column.getSortOrder(), column.getArraySize(), column.getViewConstant(), column.isViewReferenced());
+                column.getScale(), column.isNullable(), position, column.getSortOrder(), column.getArraySize(), column.getViewConstant(), column.isViewReferenced(),
+                columnQualifierBytes);
     }
 
     private void init(PName name,
@@ -65,7 +82,7 @@ public class PColumnImpl implements PColumn {
             int position,
             SortOrder sortOrder,
             Integer arrSize,
-            byte[] viewConstant, boolean isViewReferenced) {
+            byte[] viewConstant, boolean isViewReferenced, byte[] columnQualifierBytes) {
     	Preconditions.checkNotNull(sortOrder);
         this.dataType = dataType;
         if (familyName == null) {
@@ -87,13 +104,15 @@ public class PColumnImpl implements PColumn {
         this.arraySize = arrSize;
         this.viewConstant = viewConstant;
         this.isViewReferenced = isViewReferenced;
+        this.columnQualifierBytes = columnQualifierBytes;
     }
 
     @Override
     public int getEstimatedSize() {
-        return SizedUtil.OBJECT_SIZE + SizedUtil.POINTER_SIZE * 8 + SizedUtil.INT_OBJECT_SIZE * 3 + SizedUtil.INT_SIZE + 
+        return SizedUtil.OBJECT_SIZE + SizedUtil.POINTER_SIZE * 9 + SizedUtil.INT_OBJECT_SIZE * 3 + SizedUtil.INT_SIZE + 
                 name.getEstimatedSize() + (familyName == null ? 0 : familyName.getEstimatedSize()) +
-                (viewConstant == null ? 0 : (SizedUtil.ARRAY_SIZE + viewConstant.length));
+                (viewConstant == null ? 0 : (SizedUtil.ARRAY_SIZE + viewConstant.length)) +
+                (columnQualifierBytes == null ? 0 : (SizedUtil.ARRAY_SIZE + columnQualifierBytes.length));
     }
 
     @Override
@@ -184,6 +203,11 @@ public class PColumnImpl implements PColumn {
         return isViewReferenced;
     }
 
+    @Override
+    public byte[] getColumnQualifierBytes() {
+        return columnQualifierBytes;
+    }
+
     /**
      * Create a PColumn instance from PBed PColumn instance
      * 
@@ -220,9 +244,13 @@ public class PColumnImpl implements PColumn {
         if (column.hasViewReferenced()) {
             isViewReferenced = column.getViewReferenced();
         }
+        byte[] columnQualifierBytes = null;
+        if (column.hasColumnQualifierBytes()) {
+            columnQualifierBytes = column.getColumnQualifierBytes().toByteArray();
+        }
 
         return new PColumnImpl(columnName, familyName, dataType, maxLength, scale, nullable, position, sortOrder,
-                arraySize, viewConstant, isViewReferenced);
+                arraySize, viewConstant, isViewReferenced, columnQualifierBytes);
     }
 
     public static PTableProtos.PColumn toProto(PColumn column) {
@@ -248,6 +276,9 @@ public class PColumnImpl implements PColumn {
             builder.setViewConstant(HBaseZeroCopyByteString.wrap(column.getViewConstant()));
         }
         builder.setViewReferenced(column.isViewReferenced());
+        if (column.getColumnQualifierBytes() != null) {
+            builder.setColumnQualifierBytes(HBaseZeroCopyByteString.wrap(column.getColumnQualifierBytes()));
+        }
         return builder.build();
     }
 }
@@ -116,6 +116,57 @@ public interface PTable {
         }
     }
 
+    /**
+     * How the non PK column values of a row are stored in HBase
+     */
+    public enum StorageScheme {
+        /**
+         * Each non PK column value is stored in its own cell, with the column name as qualifier
+         */
+        ONE_CELL_PER_COLUMN((byte)1),
+        /**
+         * All non PK column values of a column family are packed into a single cell, prefixed
+         * by a header of value offsets. Only supported for tables with immutable rows.
+         */
+        PACKED_CELL((byte)2),
+        /**
+         * Each non PK column value is stored in its own cell, with a compact numeric qualifier
+         * assigned when the column is created instead of the column name as qualifier
+         */
+        ONE_CELL_PER_ENCODED_COLUMN((byte)3);
+
+        private final byte[] byteValue;
+        private final byte serializedValue;
+        
+        StorageScheme(byte serializedValue) {
+            this.serializedValue = serializedValue;
+            this.byteValue = Bytes.toBytes(this.name());
+        }
+        
+        public byte[] getBytes() {
+            return byteValue;
+        }
+        
+        public byte getSerializedValue() {
+            return this.serializedValue;
+        }
+        
+        public static StorageScheme getDefault() {
+            return ONE_CELL_PER_COLUMN;
+        }
+        
+        public static StorageScheme fromToken(String token) {
+            return StorageScheme.valueOf(token.trim().toUpperCase());
+        }
+        
+        public static StorageScheme fromSerializedValue(byte serializedValue) {
+            if (serializedValue < 1 || serializedValue > StorageScheme.values().length) {
+                throw new IllegalArgumentException("Invalid StorageScheme " + serializedValue);
+            }
+            return StorageScheme.values()[serializedValue-1];
+        }
+    }
+
     public enum LinkType {
         /**
          * Link from a table to its index table
@@ -321,4 +372,5 @@ public interface PTable {
     int getEstimatedSize();
     IndexType getIndexType();
     PTableStats getTableStats();
+    StorageScheme getStorageScheme();
 }
@@ -51,6 +51,7 @@ import org.apache.phoenix.schema.stats.GuidePostsInfo;
 import org.apache.phoenix.schema.stats.PTableStats;
 import org.apache.phoenix.schema.stats.PTableStatsImpl;
 import org.apache.phoenix.util.ByteUtil;
+import org.apache.phoenix.util.PackedCellUtil;
 import org.apache.phoenix.util.SchemaUtil;
 import org.apache.phoenix.util.SizedUtil;
 import org.apache.phoenix.util.StringUtil;
@@ -117,6 +118,11 @@ public class PTableImpl implements PTable {
     private Short viewIndexId;
     private int estimatedSize;
     private IndexType indexType;
+    private StorageScheme storageScheme = StorageScheme.getDefault();
+    // For the PACKED_CELL storage scheme, the column family ordinal and the index of the value
+    // within the packed cell of each column by column position
+    private int[] packedFamilyIndexes;
+    private int[] packedColumnIndexes;
     private PTableStats tableStats = PTableStats.EMPTY_STATS;
     
     public PTableImpl() {
@@ -186,7 +192,7 @@ public class PTableImpl implements PTable {
                 table.getTenantId(), table.getSchemaName(), table.getTableName(), table.getType(), table.getIndexState(), timeStamp, 
                 table.getSequenceNumber() + 1, table.getPKName(), table.getBucketNum(), getColumnsToClone(table), parentSchemaName, table.getParentTableName(),
                 indexes, table.isImmutableRows(), table.getPhysicalNames(), table.getDefaultFamilyName(), viewStatement,
-                table.isWALDisabled(), table.isMultiTenant(), table.getViewType(), table.getViewIndexId(), table.getIndexType(), table.getTableStats());
+                table.isWALDisabled(), table.isMultiTenant(), table.getViewType(), table.getViewIndexId(), table.getIndexType(), table.getStorageScheme(), table.getTableStats());
     }
 
     public static PTableImpl makePTable(PTable table, List<PColumn> columns) throws SQLException {
@@ -194,7 +200,7 @@ public class PTableImpl implements PTable {
                 table.getTenantId(), table.getSchemaName(), table.getTableName(), table.getType(), table.getIndexState(), table.getTimeStamp(), 
                 table.getSequenceNumber(), table.getPKName(), table.getBucketNum(), columns, table.getParentSchemaName(), table.getParentTableName(),
                 table.getIndexes(), table.isImmutableRows(), table.getPhysicalNames(), table.getDefaultFamilyName(), table.getViewStatement(),
-                table.isWALDisabled(), table.isMultiTenant(), table.getViewType(), table.getViewIndexId(), table.getIndexType(), table.getTableStats());
+                table.isWALDisabled(), table.isMultiTenant(), table.getViewType(), table.getViewIndexId(), table.getIndexType(), table.getStorageScheme(), table.getTableStats());
     }
 
     public static PTableImpl makePTable(PTable table, long timeStamp, long sequenceNumber, List<PColumn> columns) throws SQLException {
@@ -202,7 +208,7 @@ public class PTableImpl implements PTable {
                 table.getTenantId(), table.getSchemaName(), table.getTableName(), table.getType(), table.getIndexState(), timeStamp, 
                 sequenceNumber, table.getPKName(), table.getBucketNum(), columns, table.getParentSchemaName(), table.getParentTableName(), table.getIndexes(),
                 table.isImmutableRows(), table.getPhysicalNames(), table.getDefaultFamilyName(), table.getViewStatement(), table.isWALDisabled(),
-                table.isMultiTenant(), table.getViewType(), table.getViewIndexId(), table.getIndexType(), table.getTableStats());
+                table.isMultiTenant(), table.getViewType(), table.getViewIndexId(), table.getIndexType(), table.getStorageScheme(), table.getTableStats());
     }
 
     public static PTableImpl makePTable(PTable table, long timeStamp, long sequenceNumber, List<PColumn> columns, boolean isImmutableRows) throws SQLException {
@@ -210,7 +216,7 @@ public class PTableImpl implements PTable {
                 table.getTenantId(), table.getSchemaName(), table.getTableName(), table.getType(), table.getIndexState(), timeStamp, 
                 sequenceNumber, table.getPKName(), table.getBucketNum(), columns, table.getParentSchemaName(), table.getParentTableName(),
                 table.getIndexes(), isImmutableRows, table.getPhysicalNames(), table.getDefaultFamilyName(), table.getViewStatement(),
-                table.isWALDisabled(), table.isMultiTenant(), table.getViewType(), table.getViewIndexId(), table.getIndexType(), table.getTableStats());
+                table.isWALDisabled(), table.isMultiTenant(), table.getViewType(), table.getViewIndexId(), table.getIndexType(), table.getStorageScheme(), table.getTableStats());
     }
 
     public static PTableImpl makePTable(PTable table, PIndexState state) throws SQLException {
@@ -219,7 +225,7 @@ public class PTableImpl implements PTable {
                 table.getSequenceNumber(), table.getPKName(), table.getBucketNum(), getColumnsToClone(table), 
                 table.getParentSchemaName(), table.getParentTableName(), table.getIndexes(),
                 table.isImmutableRows(), table.getPhysicalNames(), table.getDefaultFamilyName(), table.getViewStatement(), 
-                table.isWALDisabled(), table.isMultiTenant(), table.getViewType(), table.getViewIndexId(), table.getIndexType(), table.getTableStats());
+                table.isWALDisabled(), table.isMultiTenant(), table.getViewType(), table.getViewIndexId(), table.getIndexType(), table.getStorageScheme(), table.getTableStats());
     }
 
     public static PTableImpl makePTable(PName tenantId, PName schemaName, PName tableName, PTableType type, PIndexState state, long timeStamp, long sequenceNumber,
@@ -228,7 +234,7 @@ public class PTableImpl implements PTable {
             ViewType viewType, Short viewIndexId, IndexType indexType) throws SQLException {
         return new PTableImpl(tenantId, schemaName, tableName, type, state, timeStamp, sequenceNumber, pkName, bucketNum, columns, dataSchemaName,
                 dataTableName, indexes, isImmutableRows, physicalNames, defaultFamilyName, viewExpression, disableWAL, multiTenant, viewType, viewIndexId,
-                indexType, PTableStats.EMPTY_STATS);
+                indexType, StorageScheme.getDefault(), PTableStats.EMPTY_STATS);
     }
     
     public static PTableImpl makePTable(PName tenantId, PName schemaName, PName tableName, PTableType type,
@@ -237,19 +243,32 @@ public class PTableImpl implements PTable {
             boolean isImmutableRows, List<PName> physicalNames, PName defaultFamilyName, String viewExpression,
             boolean disableWAL, boolean multiTenant, ViewType viewType, Short viewIndexId, IndexType indexType, @NotNull PTableStats stats)
             throws SQLException {
+        return makePTable(tenantId, schemaName, tableName, type, state, timeStamp, sequenceNumber, pkName,
+                bucketNum, columns, dataSchemaName, dataTableName, indexes, isImmutableRows, physicalNames,
+                defaultFamilyName, viewExpression, disableWAL, multiTenant, viewType, viewIndexId, indexType,
+                StorageScheme.getDefault(), stats);
+    }
+
+    public static PTableImpl makePTable(PName tenantId, PName schemaName, PName tableName, PTableType type,
+            PIndexState state, long timeStamp, long sequenceNumber, PName pkName, Integer bucketNum,
+            List<PColumn> columns, PName dataSchemaName, PName dataTableName, List<PTable> indexes,
+            boolean isImmutableRows, List<PName> physicalNames, PName defaultFamilyName, String viewExpression,
+            boolean disableWAL, boolean multiTenant, ViewType viewType, Short viewIndexId, IndexType indexType,
+            StorageScheme storageScheme, @NotNull PTableStats stats) throws SQLException {
         return new PTableImpl(tenantId, schemaName, tableName, type, state, timeStamp, sequenceNumber, pkName,
                 bucketNum, columns, dataSchemaName, dataTableName, indexes, isImmutableRows, physicalNames,
-                defaultFamilyName, viewExpression, disableWAL, multiTenant, viewType, viewIndexId, indexType, stats);
+                defaultFamilyName, viewExpression, disableWAL, multiTenant, viewType, viewIndexId, indexType,
+                storageScheme, stats);
     }
 
     private PTableImpl(PName tenantId, PName schemaName, PName tableName, PTableType type, PIndexState state,
             long timeStamp, long sequenceNumber, PName pkName, Integer bucketNum, List<PColumn> columns,
             PName parentSchemaName, PName parentTableName, List<PTable> indexes, boolean isImmutableRows,
             List<PName> physicalNames, PName defaultFamilyName, String viewExpression, boolean disableWAL, boolean multiTenant,
-            ViewType viewType, Short viewIndexId, IndexType indexType, PTableStats stats) throws SQLException {
+            ViewType viewType, Short viewIndexId, IndexType indexType, StorageScheme storageScheme, PTableStats stats) throws SQLException {
         init(tenantId, schemaName, tableName, type, state, timeStamp, sequenceNumber, pkName, bucketNum, columns,
                 stats, schemaName, parentTableName, indexes, isImmutableRows, physicalNames, defaultFamilyName,
-                viewExpression, disableWAL, multiTenant, viewType, viewIndexId, indexType);
+                viewExpression, disableWAL, multiTenant, viewType, viewIndexId, indexType, storageScheme);
     }
 
     @Override
@@ -271,7 +290,7 @@ public class PTableImpl implements PTable {
     private void init(PName tenantId, PName schemaName, PName tableName, PTableType type, PIndexState state, long timeStamp, long sequenceNumber,
             PName pkName, Integer bucketNum, List<PColumn> columns, PTableStats stats, PName parentSchemaName, PName parentTableName,
             List<PTable> indexes, boolean isImmutableRows, List<PName> physicalNames, PName defaultFamilyName, String viewExpression, boolean disableWAL,
-            boolean multiTenant, ViewType viewType, Short viewIndexId, IndexType indexType ) throws SQLException {
+            boolean multiTenant, ViewType viewType, Short viewIndexId, IndexType indexType, StorageScheme storageScheme) throws SQLException {
         Preconditions.checkNotNull(schemaName);
         Preconditions.checkArgument(tenantId==null || tenantId.getBytes().length > 0); // tenantId should be null or not empty
         int estimatedSize = SizedUtil.OBJECT_SIZE * 2 + 23 * SizedUtil.POINTER_SIZE + 4 * SizedUtil.INT_SIZE + 2 * SizedUtil.LONG_SIZE + 2 * SizedUtil.INT_OBJECT_SIZE +
@@ -299,6 +318,7 @@ public class PTableImpl implements PTable {
         this.viewType = viewType;
         this.viewIndexId = viewIndexId;
         this.indexType = indexType;
+        this.storageScheme = storageScheme;
         this.tableStats = stats;
         List<PColumn> pkColumns;
         PColumn[] allColumns;
@@ -378,6 +398,19 @@ public class PTableImpl implements PTable {
             familyByBytes.put(family.getName().getBytes(), family);
             estimatedSize += family.getEstimatedSize();
         }
+        if (storageScheme == StorageScheme.PACKED_CELL) {
+            packedFamilyIndexes = new int[allColumns.length];
+            packedColumnIndexes = new int[allColumns.length];
+            for (int i = 0; i < families.length; i++) {
+                List<PColumn> familyColumns = families[i].getColumns();
+                for (int j = 0; j < familyColumns.size(); j++) {
+                    int position = familyColumns.get(j).getPosition();
+                    packedFamilyIndexes[position] = i;
+                    packedColumnIndexes[position] = j;
+                }
+            }
+            estimatedSize += 2 * (SizedUtil.ARRAY_SIZE + allColumns.length * SizedUtil.INT_SIZE);
+        }
         this.families = ImmutableList.copyOf(families);
         this.familyByBytes = familyByBytes.build();
         this.familyByString = familyByString.build();
@@ -579,6 +612,8 @@ public class PTableImpl implements PTable {
         private Put setValues;
         private Delete unsetValues;
         private Delete deleteRow;
+        // Column values by column family and packed column index for the PACKED_CELL storage scheme
+        private byte[][][] packedValues;
         private final long ts;
 
         public PRowImpl(KeyValueBuilder kvBuilder, ImmutableBytesWritable key, long ts, Integer bucketNum) {
@@ -601,8 +636,32 @@ public class PTableImpl implements PTable {
             this.unsetValues = new Delete(this.key);
             this.setValues.setWriteToWAL(!isWALDisabled());
             this.unsetValues.setWriteToWAL(!isWALDisabled());
+            if (storageScheme == StorageScheme.PACKED_CELL) {
+                packedValues = new byte[families.size()][][];
+                for (int i = 0; i < packedValues.length; i++) {
+                    packedValues[i] = new byte[families.get(i).getColumns().size()][];
+                }
+            }
        }
 
+        /**
+         * Add a single cell per column family holding all of its column values. The row is always
+         * written as a whole, so a column family without any non null values has its cell deleted.
+         */
+        private void addPackedValues() {
+            for (int i = 0; i < packedValues.length; i++) {
+                ImmutableBytesPtr familyPtr = families.get(i).getName().getBytesPtr();
+                byte[] packedValue = PackedCellUtil.encode(packedValues[i]);
+                if (PackedCellUtil.isEmpty(packedValue)) {
+                    deleteQuietly(unsetValues, kvBuilder, kvBuilder.buildDeleteColumns(keyPtr, familyPtr,
+                            QueryConstants.PACKED_COLUMN_BYTES_PTR, ts));
+                } else {
+                    addQuietly(setValues, kvBuilder, kvBuilder.buildPut(keyPtr, familyPtr,
+                            QueryConstants.PACKED_COLUMN_BYTES_PTR, ts, new ImmutableBytesWritable(packedValue)));
+                }
+            }
+        }
+
         @Override
         public List<Mutation> toRowMutations() {
             List<Mutation> mutations = new ArrayList<Mutation>(3);
@@ -613,6 +672,9 @@ public class PTableImpl implements PTable {
                 // Because we cannot enforce a not null constraint on a KV column (since we don't know if the row exists when
                 // we upsert it), se instead add a KV that is always emtpy. This allows us to imitate SQL semantics given the
                 // way HBase works.
+                if (packedValues != null) {
+                    addPackedValues();
+                }
                 addQuietly(setValues, kvBuilder, kvBuilder.buildPut(keyPtr,
                     SchemaUtil.getEmptyColumnFamilyPtr(PTableImpl.this),
                     QueryConstants.EMPTY_COLUMN_BYTES_PTR, ts, ByteUtil.EMPTY_BYTE_ARRAY_PTR));
@@ -649,16 +711,21 @@ public class PTableImpl implements PTable {
         public void setValue(PColumn column, byte[] byteValue) {
             deleteRow = null;
             byte[] family = column.getFamilyName().getBytes();
-            byte[] qualifier = column.getName().getBytes();
+            byte[] qualifier = SchemaUtil.getColumnQualifier(column);
+            ImmutableBytesPtr qualifierPtr = column.getColumnQualifierBytes() == null ? column.getName().getBytesPtr() : new ImmutableBytesPtr(qualifier);
             PDataType type = column.getDataType();
             // Check null, since some types have no byte representation for null
             if (type.isNull(byteValue)) {
                 if (!column.isNullable()) { 
                     throw new ConstraintViolationException(name.getString() + "." + column.getName().getString() + " may not be null");
                 }
+                if (packedValues != null) {
+                    packedValues[packedFamilyIndexes[column.getPosition()]][packedColumnIndexes[column.getPosition()]] = null;
+                    return;
+                }
                 removeIfPresent(setValues, family, qualifier);
                 deleteQuietly(unsetValues, kvBuilder, kvBuilder.buildDeleteColumns(keyPtr, column
-                        .getFamilyName().getBytesPtr(), column.getName().getBytesPtr(), ts));
+                        .getFamilyName().getBytesPtr(), qualifierPtr, ts));
             } else {
                 ImmutableBytesWritable ptr = new ImmutableBytesWritable(byteValue);
             	Integer	maxLength = column.getMaxLength();
@@ -669,10 +736,14 @@ public class PTableImpl implements PTable {
                         throw new ConstraintViolationException(name.getString() + "." + column.getName().getString() + " may not exceed " + maxLength + " bytes (" + type.toObject(byteValue) + ")");
                     }
             	}
+                if (packedValues != null) {
+                    packedValues[packedFamilyIndexes[column.getPosition()]][packedColumnIndexes[column.getPosition()]] = ptr.copyBytes();
+                    return;
+                }
                 removeIfPresent(unsetValues, family, qualifier);
                 addQuietly(setValues, kvBuilder, kvBuilder.buildPut(keyPtr, column.getFamilyName()
                         .getBytesPtr(),
-                        column.getName().getBytesPtr(), ts, ptr));
+                        qualifierPtr, ts, ptr));
             }
         }
         
@@ -840,6 +911,11 @@ public class PTableImpl implements PTable {
         return indexType;
     }
 
+    @Override
+    public StorageScheme getStorageScheme() {
+        return storageScheme;
+    }
+
     /**
      * Construct a PTable instance from ProtoBuffered PTable instance
      * @param table
@@ -864,6 +940,10 @@ public class PTableImpl implements PTable {
       if(table.hasIndexType()){
           indexType = IndexType.fromSerializedValue(table.getIndexType().toByteArray()[0]);
       }
+      StorageScheme storageScheme = StorageScheme.getDefault();
+      if (table.hasStorageScheme()) {
+          storageScheme = StorageScheme.fromSerializedValue(table.getStorageScheme().toByteArray()[0]);
+      }
       long sequenceNumber = table.getSequenceNumber();
       long timeStamp = table.getTimeStamp();
       PName pkName = null;
@@ -922,7 +1002,7 @@ public class PTableImpl implements PTable {
         PTableImpl result = new PTableImpl();
         result.init(tenantId, schemaName, tableName, tableType, indexState, timeStamp, sequenceNumber, pkName,
           (bucketNum == NO_SALTING) ? null : bucketNum, columns, stats, schemaName,dataTableName, indexes, 
-              isImmutableRows, physicalNames, defaultFamilyName, viewStatement, disableWAL, multiTenant, viewType, viewIndexId, indexType);
+              isImmutableRows, physicalNames, defaultFamilyName, viewStatement, disableWAL, multiTenant, viewType, viewIndexId, indexType, storageScheme);
         return result;
       } catch (SQLException e) {
         throw new RuntimeException(e); // Impossible
@@ -994,6 +1074,9 @@ public class PTableImpl implements PTable {
       }
       builder.setDisableWAL(table.isWALDisabled());
       builder.setMultiTenant(table.isMultiTenant());
+      if (table.getStorageScheme() != StorageScheme.getDefault()) {
+        builder.setStorageScheme(HBaseZeroCopyByteString.wrap(new byte[]{table.getStorageScheme().getSerializedValue()}));
+      }
       if(table.getType() == PTableType.VIEW){
         builder.setViewType(HBaseZeroCopyByteString.wrap(new byte[]{table.getViewType().getSerializedValue()}));
         builder.setViewStatement(HBaseZeroCopyByteString.wrap(PDataType.VARCHAR.toBytes(table.getViewStatement())));
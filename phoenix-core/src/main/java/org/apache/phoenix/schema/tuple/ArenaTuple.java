@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.schema.tuple;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * 
+ * Tuple whose row key and KeyValues are stored contiguously in a chunk of a
+ * {@link TupleArena}. Values are looked up in place, without materializing
+ * a KeyValue unless one is asked for.
+ *
+ * 
+ * @since 5.0.0
+ */
+public class ArenaTuple extends BaseTuple {
+    private final byte[] arena;
+    private final int rowOffset;
+    private final int rowLength;
+    // Position of the size + 1 offsets delimiting the KeyValues of the tuple
+    private final int cellOffsetsOffset;
+    private final int size;
+    
+    ArenaTuple(byte[] arena, int rowOffset, int rowLength, int cellOffsetsOffset, int size) {
+        this.arena = arena;
+        this.rowOffset = rowOffset;
+        this.rowLength = rowLength;
+        this.cellOffsetsOffset = cellOffsetsOffset;
+        this.size = size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
+    @Override
+    public void getKey(ImmutableBytesWritable ptr) {
+        ptr.set(arena, rowOffset, rowLength);
+    }
+
+    private int getCellOffset(int index) {
+        return Bytes.toInt(arena, cellOffsetsOffset + index * Bytes.SIZEOF_INT);
+    }
+    
+    @Override
+    public Cell getValue(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        int offset = getCellOffset(index);
+        return new KeyValue(arena, offset, getCellOffset(index + 1) - offset);
+    }
+
+    /**
+     * Point to the serialized KeyValue at the given index, without creating a KeyValue
+     */
+    public void getKeyValue(int index, ImmutableBytesWritable ptr) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        int offset = getCellOffset(index);
+        ptr.set(arena, offset, getCellOffset(index + 1) - offset);
+    }
+
+    @Override
+    public Cell getValue(byte[] family, byte[] qualifier) {
+        int index = indexOf(family, qualifier);
+        return index < 0 ? null : getValue(index);
+    }
+
+    @Override
+    public boolean getValue(byte[] family, byte[] qualifier, ImmutableBytesWritable ptr) {
+        int index = indexOf(family, qualifier);
+        if (index < 0) {
+            return false;
+        }
+        int offset = getCellOffset(index);
+        int keyLength = Bytes.toInt(arena, offset);
+        int valueLength = Bytes.toInt(arena, offset + Bytes.SIZEOF_INT);
+        ptr.set(arena, offset + KeyValue.ROW_OFFSET + keyLength, valueLength);
+        return true;
+    }
+    
+    /**
+     * Binary search for the latest KeyValue of the column, comparing the family
+     * and qualifier in place since all KeyValues belong to the same row.
+     * @return the index of the KeyValue or -1 if not found.
+     */
+    private int indexOf(byte[] family, byte[] qualifier) {
+        int low = 0;
+        int high = size;
+        // Find the first KeyValue not before the column, which is its latest version
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareColumn(getCellOffset(mid), family, qualifier) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == size || compareColumn(getCellOffset(low), family, qualifier) != 0) {
+            return -1;
+        }
+        return low;
+    }
+    
+    private int compareColumn(int offset, byte[] family, byte[] qualifier) {
+        int keyLength = Bytes.toInt(arena, offset);
+        int rowLength = Bytes.toShort(arena, offset + KeyValue.ROW_OFFSET);
+        int familyLengthOffset = offset + KeyValue.ROW_OFFSET + KeyValue.ROW_LENGTH_SIZE + rowLength;
+        int familyLength = arena[familyLengthOffset];
+        int familyOffset = familyLengthOffset + KeyValue.FAMILY_LENGTH_SIZE;
+        int val = Bytes.compareTo(arena, familyOffset, familyLength, family, 0, family.length);
+        if (val != 0) {
+            return val;
+        }
+        int qualifierLength = keyLength - KeyValue.ROW_LENGTH_SIZE - rowLength
+                - KeyValue.FAMILY_LENGTH_SIZE - familyLength - KeyValue.TIMESTAMP_TYPE_SIZE;
+        return Bytes.compareTo(arena, familyOffset + familyLength, qualifierLength, qualifier, 0, qualifier.length);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder("keyvalues=");
+        if (size == 0) {
+            return buf.append("NONE").toString();
+        }
+        buf.append('{');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(getValue(i));
+        }
+        return buf.append('}').toString();
+    }
+}
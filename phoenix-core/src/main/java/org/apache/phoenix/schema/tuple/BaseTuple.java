@@ -17,9 +17,15 @@
  */
 package org.apache.phoenix.schema.tuple;
 
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 
 public abstract class BaseTuple implements Tuple {
 
+    @Override
+    public boolean getValue(byte[] family, byte[] qualifier, int position, ImmutableBytesWritable ptr) {
+        return getValue(family, qualifier, ptr);
+    }
+
     @Override
     public long getSequenceValue(int index) {
         throw new UnsupportedOperationException();
@@ -57,6 +57,11 @@ public class DelegateTuple implements Tuple {
         return delegate.getValue(family, qualifier, ptr);
     }
 
+    @Override
+    public boolean getValue(byte[] family, byte[] qualifier, int position, ImmutableBytesWritable ptr) {
+        return delegate.getValue(family, qualifier, position, ptr);
+    }
+
     @Override
     public long getSequenceValue(int index) {
         return delegate.getSequenceValue(index);
@@ -104,4 +104,14 @@ public class ResultTuple extends BaseTuple {
         ptr.set(kv.getValueArray(), kv.getValueOffset(), kv.getValueLength());
         return true;
     }
+
+    @Override
+    public boolean getValue(byte[] family, byte[] qualifier, int position, ImmutableBytesWritable ptr) {
+        Cell cell = KeyValueUtil.getColumnLatest(GenericKeyValueBuilder.INSTANCE, 
+          result.rawCells(), family, qualifier, position);
+        if (cell == null)
+            return false;
+        ptr.set(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+        return true;
+    }
 }
@@ -80,6 +80,22 @@ public interface Tuple {
      */
     public boolean getValue(byte [] family, byte [] qualifier, ImmutableBytesWritable ptr);
     
+    /**
+     * Get the value byte array of the KeyValue contained by the Tuple with 
+     * the given family and qualifier name, starting the search at the position
+     * at which the KeyValue is expected to be found.
+     * @param family the column family of the KeyValue being retrieved
+     * @param qualifier the column qualify of the KeyValue being retrieved
+     * @param position the zero-based index at which the KeyValue is expected
+     * to be when all columns projected into the scan are present or -1 if not known.
+     * Only used as a hint, since a KeyValue may be found elsewhere when columns are missing.
+     * @param ptr the bytes pointer that will be updated to point to the 
+     * value buffer.
+     * @return true if the KeyValue with the given family and qualifier name
+     * exists; otherwise false.
+     */
+    public boolean getValue(byte [] family, byte [] qualifier, int position, ImmutableBytesWritable ptr);
+    
     /**
      * Get the sequence value given the sequence index. May only be evaluated
      * on the client-side.
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.schema.tuple;
+
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.util.ByteUtil;
+
+/**
+ * 
+ * Copies rows held by client-side operators into large byte array chunks, so
+ * that many rows may be kept around as a handful of chunks and one small
+ * {@link ArenaTuple} per row instead of a Result and KeyValue objects per row.
+ * Chunks start small and double in size up to the maximum chunk size, so that
+ * sorting a few rows does not allocate a whole chunk.
+ * The memory of a chunk is reclaimed once none of its tuples are referenced
+ * anymore, so an arena is best used for rows that are retained together. The
+ * values of the tuples are accessed through their KeyValues, so tuples relying
+ * on anything else, such as projected or sequence values, should not be copied.
+ * Not thread safe.
+ *
+ * 
+ * @since 5.0.0
+ */
+public class TupleArena {
+    public static final int DEFAULT_MAX_CHUNK_SIZE = 1024 * 1024; // 1 Mb
+    public static final int INITIAL_CHUNK_SIZE = 4 * 1024; // 4 Kb
+    
+    private final int maxChunkSize;
+    private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+    private int nextChunkSize;
+    private byte[] chunk;
+    private int chunkOffset;
+    private long byteSize;
+    
+    public TupleArena() {
+        this(DEFAULT_MAX_CHUNK_SIZE);
+    }
+    
+    public TupleArena(int maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+        this.nextChunkSize = Math.min(INITIAL_CHUNK_SIZE, maxChunkSize);
+    }
+    
+    /**
+     * @return the number of bytes allocated for chunks by this arena
+     */
+    public long getByteSize() {
+        return byteSize;
+    }
+    
+    /**
+     * Copy the row key and KeyValues of the tuple into the arena.
+     * @return a tuple backed by the arena
+     */
+    @SuppressWarnings("deprecation")
+    public ArenaTuple add(Tuple tuple) {
+        int size = tuple.size();
+        if (size > 0) {
+            KeyValue kv = org.apache.hadoop.hbase.KeyValueUtil.ensureKeyValue(tuple.getValue(0));
+            ptr.set(kv.getRowArray(), kv.getRowOffset(), kv.getRowLength());
+        } else {
+            tuple.getKey(ptr);
+        }
+        int length = ptr.getLength() + (size + 1) * Bytes.SIZEOF_INT;
+        for (int i = 0; i < size; i++) {
+            length += org.apache.hadoop.hbase.KeyValueUtil.ensureKeyValue(tuple.getValue(i)).getLength();
+        }
+        byte[] arena;
+        int offset;
+        if (length > maxChunkSize) {
+            // Give rows larger than a chunk their own array
+            arena = new byte[length];
+            offset = 0;
+            byteSize += length;
+        } else {
+            if (chunk == null || chunkOffset + length > chunk.length) {
+                newChunk(length);
+            }
+            arena = chunk;
+            offset = chunkOffset;
+            chunkOffset += length;
+        }
+        int rowOffset = offset;
+        int rowLength = ptr.getLength();
+        System.arraycopy(ptr.get(), ptr.getOffset(), arena, rowOffset, rowLength);
+        int cellOffsetsOffset = rowOffset + rowLength;
+        int cellOffset = cellOffsetsOffset + (size + 1) * Bytes.SIZEOF_INT;
+        for (int i = 0; i < size; i++) {
+            Bytes.putInt(arena, cellOffsetsOffset + i * Bytes.SIZEOF_INT, cellOffset);
+            KeyValue kv = org.apache.hadoop.hbase.KeyValueUtil.ensureKeyValue(tuple.getValue(i));
+            System.arraycopy(kv.getBuffer(), kv.getOffset(), arena, cellOffset, kv.getLength());
+            cellOffset += kv.getLength();
+        }
+        Bytes.putInt(arena, cellOffsetsOffset + size * Bytes.SIZEOF_INT, cellOffset);
+        // Don't hold on to the row being copied
+        ptr.set(ByteUtil.EMPTY_BYTE_ARRAY);
+        return new ArenaTuple(arena, rowOffset, rowLength, cellOffsetsOffset, size);
+    }
+    
+    /**
+     * Allocate a chunk twice as large as the previous one, or larger still if
+     * needed to hold the row, without going over the maximum chunk size.
+     * @param length the length of the row that will be copied into the chunk
+     */
+    private void newChunk(int length) {
+        int chunkSize = nextChunkSize;
+        while (chunkSize < length) {
+            chunkSize = (int)Math.min(2L * chunkSize, maxChunkSize);
+        }
+        chunk = new byte[chunkSize];
+        chunkOffset = 0;
+        byteSize += chunkSize;
+        nextChunkSize = (int)Math.min(2L * chunkSize, maxChunkSize);
+    }
+}
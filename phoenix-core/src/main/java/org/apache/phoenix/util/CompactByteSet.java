@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+
+/**
+ * 
+ * Immutable set of byte array values kept in a single buffer in sorted order. Each
+ * value is stored as the length of the prefix it shares with the previous value
+ * followed by the remaining suffix, with every {@link #RESTART_INTERVAL}th value
+ * stored in full as a restart point. Membership is tested by a binary search over
+ * the restart points followed by a scan of at most one block that compares the
+ * suffixes without materializing the values, so the set may be shared between
+ * threads and deserializing it does not require hashing or copying any value.
+ *
+ * 
+ * @since 5.0
+ */
+public class CompactByteSet implements Iterable<ImmutableBytesPtr> {
+    public static final int RESTART_INTERVAL = 16;
+    public static final CompactByteSet EMPTY_SET = new CompactByteSet(ByteUtil.EMPTY_BYTE_ARRAY, new int[0], 0);
+    
+    private final byte[] buffer;
+    private final int[] restarts;
+    private final int size;
+    
+    private CompactByteSet(byte[] buffer, int[] restarts, int size) {
+        this.buffer = buffer;
+        this.restarts = restarts;
+        this.size = size;
+    }
+    
+    /**
+     * Create a set from values that are sorted by {@link ByteUtil#BYTES_PTR_COMPARATOR}
+     * and contain no duplicates.
+     */
+    public static CompactByteSet create(ImmutableBytesPtr[] sortedValues) {
+        if (sortedValues.length == 0) {
+            return EMPTY_SET;
+        }
+        int[] restarts = new int[(sortedValues.length + RESTART_INTERVAL - 1) / RESTART_INTERVAL];
+        int estimatedSize = 0;
+        for (ImmutableBytesPtr value : sortedValues) {
+            estimatedSize += value.getLength() + 2;
+        }
+        TrustedByteArrayOutputStream stream = new TrustedByteArrayOutputStream(estimatedSize);
+        DataOutputStream output = new DataOutputStream(stream);
+        try {
+            ImmutableBytesPtr previous = null;
+            for (int i = 0; i < sortedValues.length; i++) {
+                ImmutableBytesPtr value = sortedValues[i];
+                int shared = 0;
+                if (i % RESTART_INTERVAL == 0) {
+                    restarts[i / RESTART_INTERVAL] = stream.size();
+                } else {
+                    shared = commonPrefix(previous.get(), previous.getOffset(), previous.getLength(),
+                            value.get(), value.getOffset(), value.getLength());
+                }
+                WritableUtils.writeVInt(output, shared);
+                WritableUtils.writeVInt(output, value.getLength() - shared);
+                output.write(value.get(), value.getOffset() + shared, value.getLength() - shared);
+                previous = value;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e); // Impossible
+        }
+        return new CompactByteSet(stream.toByteArray(), restarts, sortedValues.length);
+    }
+    
+    public static CompactByteSet read(DataInput input) throws IOException {
+        int size = WritableUtils.readVInt(input);
+        if (size == 0) {
+            return EMPTY_SET;
+        }
+        byte[] buffer = Bytes.readByteArray(input);
+        int[] restarts = ByteUtil.deserializeVIntArray(input);
+        return new CompactByteSet(buffer, restarts, size);
+    }
+    
+    public void write(DataOutput output) throws IOException {
+        WritableUtils.writeVInt(output, size);
+        if (size == 0) {
+            return;
+        }
+        Bytes.writeByteArray(output, buffer);
+        ByteUtil.serializeVIntArray(output, restarts);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * @return the number of bytes used by the encoded values
+     */
+    public int getByteSize() {
+        return buffer.length + restarts.length * Bytes.SIZEOF_INT;
+    }
+    
+    public boolean contains(ImmutableBytesPtr ptr) {
+        return contains(ptr.get(), ptr.getOffset(), ptr.getLength());
+    }
+    
+    public boolean contains(byte[] b, int offset, int length) {
+        // Find the last restart point whose value is less than or equal to the value
+        int low = 0;
+        int high = restarts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int pos = restarts[mid];
+            pos += WritableUtils.decodeVIntSize(buffer[pos]);
+            int suffixLength = ByteUtil.vintFromBytes(buffer, pos);
+            pos += WritableUtils.decodeVIntSize(buffer[pos]);
+            int cmp = Bytes.compareTo(buffer, pos, suffixLength, b, offset, length);
+            if (cmp == 0) {
+                return true;
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (high < 0) {
+            return false;
+        }
+        int pos = restarts[high];
+        int endPos = high + 1 < restarts.length ? restarts[high + 1] : buffer.length;
+        pos += WritableUtils.decodeVIntSize(buffer[pos]);
+        int suffixLength = ByteUtil.vintFromBytes(buffer, pos);
+        pos += WritableUtils.decodeVIntSize(buffer[pos]);
+        // Number of leading bytes the previous value has in common with the one we're looking for.
+        // The previous value is always less than the one we're looking for.
+        int matched = commonPrefix(buffer, pos, suffixLength, b, offset, length);
+        pos += suffixLength;
+        while (pos < endPos) {
+            int shared = ByteUtil.vintFromBytes(buffer, pos);
+            pos += WritableUtils.decodeVIntSize(buffer[pos]);
+            suffixLength = ByteUtil.vintFromBytes(buffer, pos);
+            pos += WritableUtils.decodeVIntSize(buffer[pos]);
+            if (shared > matched) {
+                // Same byte as the previous value where it differs, so still less
+                pos += suffixLength;
+                continue;
+            }
+            if (shared < matched) {
+                // Greater than the previous value where it matches, so now greater
+                return false;
+            }
+            int remaining = length - matched;
+            int common = commonPrefix(buffer, pos, suffixLength, b, offset + matched, remaining);
+            if (common == suffixLength) {
+                if (common == remaining) {
+                    return true;
+                }
+                // Proper prefix, so less
+            } else if (common == remaining || (buffer[pos + common] & 0xff) > (b[offset + matched + common] & 0xff)) {
+                return false;
+            }
+            matched += common;
+            pos += suffixLength;
+        }
+        return false;
+    }
+    
+    /**
+     * @return the smallest value in the set or null if the set is empty
+     */
+    public ImmutableBytesPtr first() {
+        if (size == 0) {
+            return null;
+        }
+        int pos = WritableUtils.decodeVIntSize(buffer[0]);
+        int suffixLength = ByteUtil.vintFromBytes(buffer, pos);
+        pos += WritableUtils.decodeVIntSize(buffer[pos]);
+        return new ImmutableBytesPtr(buffer, pos, suffixLength);
+    }
+    
+    /**
+     * @return the largest value in the set or null if the set is empty
+     */
+    public ImmutableBytesPtr last() {
+        if (size == 0) {
+            return null;
+        }
+        ValueIterator iterator = new ValueIterator(restarts[restarts.length - 1]);
+        ImmutableBytesPtr value = null;
+        while (iterator.hasNext()) {
+            value = iterator.next();
+        }
+        return value;
+    }
+    
+    /**
+     * Iterates through the values in sorted order, each one copied into its own byte array.
+     */
+    @Override
+    public Iterator<ImmutableBytesPtr> iterator() {
+        return new ValueIterator(0);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(buffer);
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null) return false;
+        if (getClass() != obj.getClass()) return false;
+        CompactByteSet other = (CompactByteSet)obj;
+        // The encoding of a given set of values is unique
+        return size == other.size && Arrays.equals(buffer, other.buffer);
+    }
+    
+    private static int commonPrefix(byte[] b1, int offset1, int length1, byte[] b2, int offset2, int length2) {
+        int length = Math.min(length1, length2);
+        int i = 0;
+        while (i < length && b1[offset1 + i] == b2[offset2 + i]) {
+            i++;
+        }
+        return i;
+    }
+    
+    private class ValueIterator implements Iterator<ImmutableBytesPtr> {
+        private int pos;
+        private byte[] previous = ByteUtil.EMPTY_BYTE_ARRAY;
+        
+        private ValueIterator(int pos) {
+            this.pos = pos;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return pos < buffer.length;
+        }
+
+        @Override
+        public ImmutableBytesPtr next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int shared = ByteUtil.vintFromBytes(buffer, pos);
+            pos += WritableUtils.decodeVIntSize(buffer[pos]);
+            int suffixLength = ByteUtil.vintFromBytes(buffer, pos);
+            pos += WritableUtils.decodeVIntSize(buffer[pos]);
+            byte[] value = new byte[shared + suffixLength];
+            System.arraycopy(previous, 0, value, 0, shared);
+            System.arraycopy(buffer, pos, value, shared, suffixLength);
+            pos += suffixLength;
+            previous = value;
+            return new ImmutableBytesPtr(value);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
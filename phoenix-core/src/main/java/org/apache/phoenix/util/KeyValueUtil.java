@@ -40,6 +40,9 @@ import org.apache.phoenix.hbase.index.util.KeyValueBuilder;
  * @since 0.1
  */
 public class KeyValueUtil {
+    // Number of cells stepped over from the expected position before resorting to a binary search
+    private static final int MAX_CURSOR_STEPS = 8;
+    
     private KeyValueUtil() {
     }
 
@@ -156,6 +159,66 @@ public class KeyValueUtil {
         return kv;
     }
 
+    /**
+     * Find the latest column value by stepping from the position at which it is expected
+     * to be, falling back to a binary search when it's not found within a few steps. Since
+     * the cells all belong to the same row, only the family and qualifier are compared.
+     * @param kvBuilder
+     * @param kvs
+     * @param family
+     * @param qualifier
+     * @param position the index of the column when all columns projected into the scan
+     * are present or -1 if not known. As missing columns may only move the column towards
+     * the start, this will usually be the first or one of the first cells visited.
+     */
+    public static Cell getColumnLatest(KeyValueBuilder kvBuilder, Cell[] kvs, byte[] family, byte[] qualifier, int position) {
+        if (position < 0 || kvs.length == 0) {
+            return getColumnLatest(kvBuilder, kvs, family, qualifier);
+        }
+        int pos = Math.min(position, kvs.length - 1);
+        int val = compareColumn(kvBuilder, kvs[pos], family, qualifier);
+        int steps = 0;
+        if (val > 0) {
+            do {
+                if (pos == 0) {
+                    return null; // doesn't exist
+                }
+                if (++steps > MAX_CURSOR_STEPS) {
+                    return getColumnLatest(kvBuilder, kvs, family, qualifier);
+                }
+                val = compareColumn(kvBuilder, kvs[--pos], family, qualifier);
+            } while (val > 0);
+            if (val < 0) {
+                return null; // doesn't exist
+            }
+        } else if (val < 0) {
+            do {
+                if (pos == kvs.length - 1) {
+                    return null; // doesn't exist
+                }
+                if (++steps > MAX_CURSOR_STEPS) {
+                    return getColumnLatest(kvBuilder, kvs, family, qualifier);
+                }
+                val = compareColumn(kvBuilder, kvs[++pos], family, qualifier);
+            } while (val < 0);
+            // Moving forward, the first cell of the column is the latest version
+            return val == 0 ? kvs[pos] : null;
+        }
+        // Step back to the latest version of the column
+        while (pos > 0 && compareColumn(kvBuilder, kvs[pos-1], family, qualifier) == 0) {
+            pos--;
+        }
+        return kvs[pos];
+    }
+    
+    private static int compareColumn(KeyValueBuilder kvBuilder, Cell kv, byte[] family, byte[] qualifier) {
+        int val = kvBuilder.compareFamily(kv, family, 0, family.length);
+        if (val != 0) {
+            return val;
+        }
+        return kvBuilder.compareQualifier(kv, qualifier, 0, qualifier.length);
+    }
+
     /*
      * Special comparator, *only* works for binary search.
      * Current JDKs only uses the search term on the right side,
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util;
+
+import java.util.List;
+
+import org.apache.phoenix.schema.SortOrder;
+
+import com.google.common.collect.Lists;
+
+/**
+ * 
+ * Matcher for a LIKE pattern that operates directly on UTF-8 encoded bytes, for
+ * patterns that only use the '%' wildcard. The literal parts of the pattern are
+ * matched as a prefix, a suffix, and then in order anywhere in between, which is
+ * exact for such patterns since UTF-8 encoded characters cannot match in the
+ * middle of another character.
+ *
+ * 
+ * @since 5.0
+ */
+public class LikeMatcher {
+    private final byte[][] segments;
+    private final boolean startsWithWildcard;
+    private final boolean endsWithWildcard;
+    private final boolean hasWildcard;
+    private byte[][] invertedSegments;
+    
+    private LikeMatcher(byte[][] segments, boolean startsWithWildcard, boolean endsWithWildcard, boolean hasWildcard) {
+        this.segments = segments;
+        this.startsWithWildcard = startsWithWildcard;
+        this.endsWithWildcard = endsWithWildcard;
+        this.hasWildcard = hasWildcard;
+    }
+    
+    /**
+     * Compile a case sensitive LIKE pattern in which '\' escapes the following character.
+     * @return the matcher, or null if the pattern uses the single character wildcard
+     * and must be matched as a regular expression instead
+     */
+    public static LikeMatcher compile(String pattern) {
+        List<byte[]> segments = Lists.newArrayList();
+        StringBuilder literal = new StringBuilder();
+        boolean hasWildcard = false;
+        boolean startsWithWildcard = false;
+        boolean endsWithWildcard = false;
+        boolean wasSlash = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (wasSlash) {
+                literal.append(c);
+                wasSlash = false;
+                endsWithWildcard = false;
+            } else if (c == StringUtil.SINGLE_CHAR_LIKE) {
+                return null;
+            } else if (c == StringUtil.MULTI_CHAR_LIKE) {
+                if (literal.length() > 0) {
+                    segments.add(StringUtil.toBytes(literal.toString()));
+                    literal.setLength(0);
+                }
+                startsWithWildcard |= !hasWildcard && segments.isEmpty();
+                hasWildcard = endsWithWildcard = true;
+            } else if (c == '\\') {
+                wasSlash = true;
+            } else {
+                literal.append(c);
+                endsWithWildcard = false;
+            }
+        }
+        if (literal.length() > 0 || !hasWildcard) {
+            segments.add(StringUtil.toBytes(literal.toString()));
+        }
+        return new LikeMatcher(segments.toArray(new byte[segments.size()][]), startsWithWildcard, endsWithWildcard, hasWildcard);
+    }
+    
+    /**
+     * @return the index of the first occurrence of target in b between offset and
+     * endOffset, or -1 if there is none
+     */
+    public static int indexOf(byte[] b, int offset, int endOffset, byte[] target) {
+        if (target.length == 0) {
+            return offset;
+        }
+        byte first = target[0];
+        int last = endOffset - target.length;
+        outer:
+        for (int i = offset; i <= last; i++) {
+            if (b[i] != first) {
+                continue;
+            }
+            for (int j = 1; j < target.length; j++) {
+                if (b[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+    
+    private static boolean regionMatches(byte[] b, int offset, byte[] target) {
+        for (int i = 0; i < target.length; i++) {
+            if (b[offset + i] != target[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private byte[][] getSegments(SortOrder sortOrder) {
+        if (sortOrder == SortOrder.ASC) {
+            return segments;
+        }
+        // Inverting is byte-wise, so the inverted pattern matches the inverted value
+        if (invertedSegments == null) {
+            byte[][] invertedSegments = new byte[segments.length][];
+            for (int i = 0; i < segments.length; i++) {
+                invertedSegments[i] = SortOrder.invert(segments[i], 0, segments[i].length);
+            }
+            this.invertedSegments = invertedSegments;
+        }
+        return invertedSegments;
+    }
+    
+    public boolean matches(byte[] b, int offset, int length, SortOrder sortOrder) {
+        byte[][] segments = getSegments(sortOrder);
+        int start = offset;
+        int end = offset + length;
+        if (!hasWildcard) {
+            return length == segments[0].length && regionMatches(b, start, segments[0]);
+        }
+        int first = 0;
+        int last = segments.length;
+        if (!startsWithWildcard) {
+            byte[] prefix = segments[first++];
+            if (end - start < prefix.length || !regionMatches(b, start, prefix)) {
+                return false;
+            }
+            start += prefix.length;
+        }
+        if (!endsWithWildcard && last > first) {
+            byte[] suffix = segments[--last];
+            if (end - start < suffix.length || !regionMatches(b, end - suffix.length, suffix)) {
+                return false;
+            }
+            end -= suffix.length;
+        }
+        for (int i = first; i < last; i++) {
+            int index = indexOf(b, start, end, segments[i]);
+            if (index < 0) {
+                return false;
+            }
+            start = index + segments[i].length;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * 
+ * Utilities for the cell format of the PACKED_CELL storage scheme, in which all
+ * non PK column values of a column family are stored in a single cell. The cell
+ * value starts with the number of packed values followed by the end offset of
+ * each value relative to the start of the data, all as four byte ints, so that
+ * any value can be read in constant time. Null values have a zero length.
+ *
+ * 
+ * @since 5.0
+ */
+public class PackedCellUtil {
+
+    private PackedCellUtil() {
+    }
+
+    /**
+     * Encode column values into a packed cell value, omitting trailing null values
+     * @param values the values ordered by their packed column index, with null for null values
+     */
+    public static byte[] encode(byte[][] values) {
+        int count = values.length;
+        while (count > 0 && (values[count - 1] == null || values[count - 1].length == 0)) {
+            count--;
+        }
+        int headerLength = Bytes.SIZEOF_INT * (count + 1);
+        int dataLength = 0;
+        for (int i = 0; i < count; i++) {
+            dataLength += values[i] == null ? 0 : values[i].length;
+        }
+        byte[] packed = new byte[headerLength + dataLength];
+        int offset = Bytes.putInt(packed, 0, count);
+        int dataOffset = headerLength;
+        for (int i = 0; i < count; i++) {
+            if (values[i] != null) {
+                System.arraycopy(values[i], 0, packed, dataOffset, values[i].length);
+                dataOffset += values[i].length;
+            }
+            offset = Bytes.putInt(packed, offset, dataOffset - headerLength);
+        }
+        return packed;
+    }
+
+    /**
+     * @return true if the packed cell value holds no non null values
+     */
+    public static boolean isEmpty(byte[] packedValue) {
+        return Bytes.toInt(packedValue) == 0;
+    }
+
+    /**
+     * Position ptr, which must be set to a packed cell value, at the value with the given index.
+     * Values past the end of the packed cell, for example for columns added after the row was
+     * written, are treated as null.
+     */
+    public static void getValue(ImmutableBytesWritable ptr, int index) {
+        byte[] b = ptr.get();
+        int offset = ptr.getOffset();
+        int count = ptr.getLength() == 0 ? 0 : Bytes.toInt(b, offset);
+        if (index >= count) {
+            ptr.set(ByteUtil.EMPTY_BYTE_ARRAY);
+            return;
+        }
+        int dataOffset = offset + Bytes.SIZEOF_INT * (count + 1);
+        int start = index == 0 ? 0 : Bytes.toInt(b, offset + Bytes.SIZEOF_INT * index);
+        int end = Bytes.toInt(b, offset + Bytes.SIZEOF_INT * (index + 1));
+        ptr.set(b, dataOffset + start, end - start);
+    }
+}
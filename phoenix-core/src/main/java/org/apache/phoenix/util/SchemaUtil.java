@@ -26,6 +26,7 @@ import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.SYSTEM_STATS_NAME_
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -53,6 +54,7 @@ import org.apache.phoenix.schema.PDatum;
 import org.apache.phoenix.schema.PMetaData;
 import org.apache.phoenix.schema.PName;
 import org.apache.phoenix.schema.PTable;
+import org.apache.phoenix.schema.PTable.StorageScheme;
 import org.apache.phoenix.schema.RowKeySchema;
 import org.apache.phoenix.schema.RowKeySchema.RowKeySchemaBuilder;
 import org.apache.phoenix.schema.SaltingUtil;
@@ -127,7 +129,7 @@ public class SchemaUtil {
                 PDataType type = column.getDataType();
                 Integer maxLength = column.getMaxLength();
                 int valueLength = !type.isFixedWidth() ? VAR_KV_LENGTH_ESTIMATE : maxLength == null ? type.getByteSize() : maxLength;
-    			rowSize += KeyValue.getKeyValueDataStructureSize(keyLength, column.getFamilyName().getBytes().length, column.getName().getBytes().length, valueLength);
+    			rowSize += KeyValue.getKeyValueDataStructureSize(keyLength, column.getFamilyName().getBytes().length, getColumnQualifier(column).length, valueLength);
     		}
     	}
     	// Empty key value
@@ -356,6 +358,79 @@ public class SchemaUtil {
         return families.isEmpty() ? table.getDefaultFamilyName() == null ? QueryConstants.DEFAULT_COLUMN_FAMILY_BYTES : table.getDefaultFamilyName().getBytes() : families.get(0).getName().getBytes();
     }
 
+    /**
+     * Get the qualifier of the cell that stores the value of a non PK column, which is the
+     * packed cell qualifier for tables with the {@link StorageScheme#PACKED_CELL} storage scheme
+     */
+    public static byte[] getColumnQualifier(PTable table, PColumn column) {
+        return table.getStorageScheme() == StorageScheme.PACKED_CELL ? QueryConstants.PACKED_COLUMN_BYTES : getColumnQualifier(column);
+    }
+
+    /**
+     * Get the qualifier of the cell that stores the value of a non PK column, which is either
+     * its encoded column qualifier or its name
+     */
+    public static byte[] getColumnQualifier(PColumn column) {
+        byte[] columnQualifier = column.getColumnQualifierBytes();
+        return columnQualifier == null ? column.getName().getBytes() : columnQualifier;
+    }
+
+    /**
+     * Get the encoded column qualifier for a column of a table with the
+     * {@link StorageScheme#ONE_CELL_PER_ENCODED_COLUMN} storage scheme. The qualifier is
+     * made up of the sequence number the table has after the DDL statement that creates
+     * the column followed by the ordinal of the column within that statement, so that
+     * a qualifier is never reused, even after a column is dropped. Both numbers are
+     * written in base 16 with 0x10 set on all but their last byte, so every byte is
+     * below the first printable character and an encoded qualifier can never be the
+     * same as a column name or a reserved qualifier.
+     * @param tableSeqNum sequence number of the table after the DDL statement
+     * @param ordinal ordinal of the column within the columns created by the statement
+     */
+    public static byte[] getEncodedColumnQualifier(long tableSeqNum, int ordinal) {
+        byte[] buf = new byte[2 * 16];
+        int offset = writeEncodedColumnQualifierPart(buf, 0, tableSeqNum);
+        offset = writeEncodedColumnQualifierPart(buf, offset, ordinal);
+        return Arrays.copyOf(buf, offset);
+    }
+
+    /**
+     * Whether or not the qualifier was produced by {@link #getEncodedColumnQualifier(long, int)}
+     */
+    public static boolean isEncodedColumnQualifier(byte[] qualifier) {
+        return qualifier.length > 0 && qualifier[0] >= 0 && qualifier[0] < 0x20;
+    }
+
+    private static int writeEncodedColumnQualifierPart(byte[] buf, int offset, long value) {
+        int nBytes = 1;
+        for (long v = value >>> 4; v != 0; v >>>= 4) {
+            nBytes++;
+        }
+        for (int i = nBytes - 1; i >= 0; i--) {
+            buf[offset + i] = (byte)((value & 0x0F) | (i == nBytes - 1 ? 0 : 0x10));
+            value >>>= 4;
+        }
+        return offset + nBytes;
+    }
+
+    /**
+     * Get the index of the value of a non PK column within the packed cell of its column family,
+     * which is the ordinal of the column within the column family.
+     */
+    public static int getPackedColumnIndex(PTable table, PColumn column) {
+        try {
+            List<PColumn> columns = table.getColumnFamily(column.getFamilyName().getBytes()).getColumns();
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).getPosition() == column.getPosition()) {
+                    return i;
+                }
+            }
+        } catch (ColumnFamilyNotFoundException e) {
+            throw new IllegalArgumentException(e);
+        }
+        throw new IllegalArgumentException("Column " + column.getName().getString() + " not found in " + table.getName().getString());
+    }
+
     public static ImmutableBytesPtr getEmptyColumnFamilyPtr(PTable table) {
         List<PColumnFamily> families = table.getColumnFamilies();
         return families.isEmpty() ? table.getDefaultFamilyName() == null ? QueryConstants.DEFAULT_COLUMN_FAMILY_BYTES_PTR : table.getDefaultFamilyName().getBytesPtr() : families.get(0)
@@ -201,6 +201,26 @@ public class StringUtil {
         return replace(s, LIKE_UNESCAPED_SEQS, LIKE_ESCAPE_SEQS);
     }
 
+    private static final String REGEX_METACHARS = "\\^$.|?*+()[]{}";
+
+    /**
+     * Gets the string literally matched by a regular expression.
+     * @param regex the regular expression
+     * @return the regular expression itself if it contains no metacharacters and
+     * is not empty, and null otherwise.
+     */
+    public static String getRegexLiteral(String regex) {
+        if (regex == null || regex.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < regex.length(); i++) {
+            if (REGEX_METACHARS.indexOf(regex.charAt(i)) >= 0) {
+                return null;
+            }
+        }
+        return regex;
+    }
+
     public static int getUnpaddedCharLength(byte[] b, int offset, int length, SortOrder sortOrder) {
         return getFirstNonBlankCharIdxFromEnd(b, offset, length, sortOrder) - offset + 1;
     }
@@ -97,6 +97,23 @@ public class TupleUtil {
      */
     public static ImmutableBytesPtr getConcatenatedValue(Tuple result, List<Expression> expressions) throws IOException {
         ImmutableBytesPtr value = new ImmutableBytesPtr(ByteUtil.EMPTY_BYTE_ARRAY);
+        getConcatenatedValue(result, expressions, value, null);
+        return value;
+    }
+    
+    /** Concatenate results evaluated against a list of expressions without allocating
+     * anything other than growing the output buffer as needed. As the value may point into
+     * the output buffer or the tuple, it must be copied if retained beyond the next use
+     * of the output buffer or the lifetime of the tuple.
+     * 
+     * @param result the tuple for expression evaluation
+     * @param expressions
+     * @param value the pointer set to the concatenated value
+     * @param output scratch buffer reused across calls, or null to allocate a new one
+     * @throws IOException
+     */
+    public static void getConcatenatedValue(Tuple result, List<Expression> expressions, 
+            ImmutableBytesWritable value, TrustedByteArrayOutputStream output) throws IOException {
         Expression expression = expressions.get(0);
         boolean evaluated = expression.evaluate(result, value);
         
@@ -104,9 +121,12 @@ public class TupleUtil {
             if (!evaluated) {
                 value.set(ByteUtil.EMPTY_BYTE_ARRAY);
             }
-            return value;
         } else {
-            TrustedByteArrayOutputStream output = new TrustedByteArrayOutputStream(value.getLength() * expressions.size());
+            if (output == null) {
+                output = new TrustedByteArrayOutputStream(value.getLength() * expressions.size());
+            } else {
+                output.reset();
+            }
             try {
                 if (evaluated) {
                     output.write(value.get(), value.getOffset(), value.getLength());
@@ -127,7 +147,6 @@ public class TupleUtil {
                 }
                 byte[] outputBytes = output.getBuffer();
                 value.set(outputBytes, 0, output.size());
-                return value;
             } finally {
                 output.close();
             }
@@ -83,6 +83,31 @@ public class PhoenixIndexRpcSchedulerTest {
         Mockito.verifyNoMoreInteractions(mock);
     }
 
+    /**
+     * Test that analytic scans go to their own handlers only when some are configured
+     * @throws Exception
+     */
+    @Test
+    public void testAnalyticPriorityToAnalyticHandler() throws Exception {
+        RpcScheduler mock = Mockito.mock(RpcScheduler.class);
+        PhoenixIndexRpcScheduler scheduler =
+                new PhoenixIndexRpcScheduler(10, conf, mock, 200, 250, 5, 1, 5);
+        BalancedQueueRpcExecutor executor = new BalancedQueueRpcExecutor("test-queue", 1, 1, 1);
+        scheduler.setAnalyticExecutorForTesting(executor);
+        dispatchCallWithPriority(scheduler, 1);
+        BlockingQueue<CallRunner> queue = executor.getQueues().get(0);
+        queue.poll(20, TimeUnit.SECONDS);
+        dispatchCallWithPriority(scheduler, 5);
+
+        // without analytic handlers, analytic scans stay in the general queue
+        scheduler = new PhoenixIndexRpcScheduler(10, conf, mock, 200, 250, 0, 1, 5);
+        dispatchCallWithPriority(scheduler, 1);
+
+        Mockito.verify(mock, Mockito.times(2)).init(Mockito.any(Context.class));
+        Mockito.verify(mock, Mockito.times(2)).dispatch(Mockito.any(CallRunner.class));
+        Mockito.verifyNoMoreInteractions(mock);
+    }
+
     private void dispatchCallWithPriority(RpcScheduler scheduler, int priority) throws Exception {
         CallRunner task = Mockito.mock(CallRunner.class);
         RequestHeader header = RequestHeader.newBuilder().setPriority(priority).build();
@@ -47,6 +47,7 @@ import org.apache.phoenix.expression.aggregator.ServerAggregators;
 import org.apache.phoenix.expression.function.TimeUnit;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.jdbc.PhoenixPreparedStatement;
+import org.apache.phoenix.jdbc.PhoenixStatement;
 import org.apache.phoenix.query.BaseConnectionlessQueryTest;
 import org.apache.phoenix.query.QueryConstants;
 import org.apache.phoenix.schema.AmbiguousColumnException;
@@ -54,6 +55,7 @@ import org.apache.phoenix.schema.ColumnAlreadyExistsException;
 import org.apache.phoenix.schema.ColumnNotFoundException;
 import org.apache.phoenix.schema.ConstraintViolationException;
 import org.apache.phoenix.schema.PColumn;
+import org.apache.phoenix.schema.PTable;
 import org.apache.phoenix.schema.PTableKey;
 import org.apache.phoenix.util.ByteUtil;
 import org.apache.phoenix.util.PhoenixRuntime;
@@ -1472,4 +1474,45 @@ public class QueryCompilerTest extends BaseConnectionlessQueryTest {
         }
     }
 
+    @Test
+    public void testProjectColumnsOfPackedCellTable() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        try {
+            conn.createStatement().execute("CREATE TABLE PACKED_T (k VARCHAR PRIMARY KEY, a.v1 VARCHAR, a.v2 INTEGER, b.v3 VARCHAR) "
+                    + "IMMUTABLE_ROWS=true, STORAGE_SCHEME='PACKED_CELL'");
+            QueryPlan plan = conn.createStatement().unwrap(PhoenixStatement.class).optimizeQuery("SELECT v2, v3 FROM PACKED_T WHERE v1 = 'a'");
+            Scan scan = plan.getContext().getScan();
+            assertTrue(scan.getFamilyMap().get(Bytes.toBytes("A")).contains(QueryConstants.PACKED_COLUMN_BYTES));
+            assertTrue(scan.getFamilyMap().get(Bytes.toBytes("B")).contains(QueryConstants.PACKED_COLUMN_BYTES));
+            assertTrue(plan.getProjector().getEstimatedRowByteSize() > 0);
+            conn.createStatement().execute("ALTER TABLE PACKED_T ADD a.v4 DATE");
+            conn.createStatement().unwrap(PhoenixStatement.class).optimizeQuery("SELECT v4 FROM PACKED_T");
+        } finally {
+            conn.close();
+        }
+    }
+
+    @Test
+    public void testProjectColumnsOfEncodedColumnTable() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        try {
+            conn.createStatement().execute("CREATE TABLE ENCODED_T (k VARCHAR PRIMARY KEY, a.v1 VARCHAR, a.v2 INTEGER, b.v3 VARCHAR) "
+                    + "STORAGE_SCHEME='ONE_CELL_PER_ENCODED_COLUMN'");
+            QueryPlan plan = conn.createStatement().unwrap(PhoenixStatement.class).optimizeQuery("SELECT v2, v3 FROM ENCODED_T WHERE v1 = 'a'");
+            PTable table = plan.getTableRef().getTable();
+            Scan scan = plan.getContext().getScan();
+            for (String columnName : new String[] {"V1", "V2", "V3"}) {
+                PColumn column = table.getColumn(columnName);
+                byte[] qualifier = column.getColumnQualifierBytes();
+                assertTrue(SchemaUtil.isEncodedColumnQualifier(qualifier));
+                assertTrue(scan.getFamilyMap().get(column.getFamilyName().getBytes()).contains(qualifier));
+                assertEquals(column, table.getColumnFamily(column.getFamilyName().getBytes()).getColumn(qualifier));
+            }
+            conn.createStatement().execute("ALTER TABLE ENCODED_T ADD a.v4 DATE");
+            conn.createStatement().unwrap(PhoenixStatement.class).optimizeQuery("SELECT v4 FROM ENCODED_T");
+        } finally {
+            conn.close();
+        }
+    }
+
 }
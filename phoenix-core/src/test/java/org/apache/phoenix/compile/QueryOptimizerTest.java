@@ -19,6 +19,7 @@ package org.apache.phoenix.compile;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.Array;
 import java.sql.Connection;
@@ -68,6 +69,81 @@ public class QueryOptimizerTest extends BaseConnectionlessQueryTest {
         assertEquals("IDX", plan.getTableRef().getTable().getTableName().getString());
     }
 
+    @Test
+    public void testAnalyticScanHint() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        conn.createStatement().execute("CREATE TABLE T_ANALYTIC (k VARCHAR NOT NULL PRIMARY KEY, v1 VARCHAR, v2 VARCHAR)");
+        PhoenixStatement stmt = conn.createStatement().unwrap(PhoenixStatement.class);
+        QueryPlan plan = stmt.optimizeQuery("SELECT /*+ ANALYTIC_SCAN */ v1, count(*) FROM T_ANALYTIC GROUP BY v1");
+        assertTrue(plan.getContext().isAnalyticScan());
+        assertFalse(plan.getContext().getScan().getCacheBlocks());
+
+        // The fetch size set on the statement is kept
+        stmt.setFetchSize(7);
+        plan = stmt.optimizeQuery("SELECT /*+ ANALYTIC_SCAN */ v1, count(*) FROM T_ANALYTIC GROUP BY v1");
+        assertTrue(plan.getContext().isAnalyticScan());
+        assertFalse(plan.getContext().getScan().getCacheBlocks());
+        assertEquals(7, plan.getContext().getScan().getCaching());
+        stmt.setFetchSize(0);
+
+        // Point lookups are never analytic scans
+        plan = stmt.optimizeQuery("SELECT /*+ ANALYTIC_SCAN */ v1 FROM T_ANALYTIC WHERE k = 'a'");
+        assertFalse(plan.getContext().isAnalyticScan());
+        assertTrue(plan.getContext().getScan().getCacheBlocks());
+
+        // Without statistics, a full scan is not estimated to be large
+        plan = stmt.optimizeQuery("SELECT v1, count(*) FROM T_ANALYTIC GROUP BY v1");
+        assertFalse(plan.getContext().isAnalyticScan());
+    }
+
+    @Test
+    public void testCachedIndexChoiceReusedAcrossExecutions() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        conn.createStatement().execute("CREATE TABLE T_CACHED (k VARCHAR NOT NULL PRIMARY KEY, v1 VARCHAR, v2 VARCHAR)");
+        conn.createStatement().execute("CREATE INDEX IDX_CACHED ON T_CACHED(v1) INCLUDE (v2)");
+        PreparedStatement stmt = conn.prepareStatement("SELECT k, v2 FROM T_CACHED WHERE v1 = ?");
+        stmt.setString(1, "a");
+        QueryPlan plan = stmt.unwrap(PhoenixPreparedStatement.class).optimizeQuery();
+        assertEquals("IDX_CACHED", plan.getTableRef().getTable().getTableName().getString());
+        stmt.setString(1, "b");
+        plan = stmt.unwrap(PhoenixPreparedStatement.class).optimizeQuery();
+        assertEquals("IDX_CACHED", plan.getTableRef().getTable().getTableName().getString());
+        
+        // The cached choice must not be used once the index is gone
+        conn.createStatement().execute("DROP INDEX IDX_CACHED ON T_CACHED");
+        plan = stmt.unwrap(PhoenixPreparedStatement.class).optimizeQuery();
+        assertEquals("T_CACHED", plan.getTableRef().getTable().getTableName().getString());
+    }
+
+    @Test
+    public void testCachedIndexChoicePerTenant() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        conn.createStatement().execute("CREATE TABLE T_TENANT_CACHED (t_id VARCHAR NOT NULL, k VARCHAR NOT NULL, v1 VARCHAR, v2 VARCHAR, v3 VARCHAR," +
+                " CONSTRAINT pk PRIMARY KEY(t_id, k)) multi_tenant=true");
+        Properties props = new Properties();
+        props.setProperty(PhoenixRuntime.TENANT_ID_ATTRIB, "a");
+        Connection conn1 = DriverManager.getConnection(getUrl(), props);
+        conn1.createStatement().execute("CREATE VIEW V_CACHED AS SELECT * FROM T_TENANT_CACHED");
+        conn1.createStatement().execute("CREATE INDEX I_CACHED ON V_CACHED(v2) INCLUDE(v1)");
+        props.setProperty(PhoenixRuntime.TENANT_ID_ATTRIB, "b");
+        Connection conn2 = DriverManager.getConnection(getUrl(), props);
+        conn2.createStatement().execute("CREATE VIEW V_CACHED AS SELECT * FROM T_TENANT_CACHED");
+        conn2.createStatement().execute("CREATE INDEX I_CACHED ON V_CACHED(v3)");
+
+        // The same SQL resolves to a different view with different indexes for each tenant
+        String query = "SELECT v1 FROM V_CACHED WHERE v2 = ?";
+        for (int i = 0; i < 2; i++) {
+            PreparedStatement stmt = conn1.prepareStatement(query);
+            stmt.setString(1, "x");
+            QueryPlan plan = stmt.unwrap(PhoenixPreparedStatement.class).optimizeQuery();
+            assertEquals("I_CACHED", plan.getTableRef().getTable().getTableName().getString());
+            stmt = conn2.prepareStatement(query);
+            stmt.setString(1, "x");
+            plan = stmt.unwrap(PhoenixPreparedStatement.class).optimizeQuery();
+            assertEquals("V_CACHED", plan.getTableRef().getTable().getTableName().getString());
+        }
+    }
+
     @Test
     public void testOrderByOptimizedOut() throws Exception {
         Connection conn = DriverManager.getConnection(getUrl());
@@ -103,4 +103,16 @@ public class StatementHintsCompilationTest extends BaseConnectionlessQueryTest {
                 "    SERVER TOP 100 ROWS SORTED BY [ORGANIZATION_ID, PARENT_ID, CREATED_DATE DESC, ENTITY_HISTORY_ID]\n" + 
                 "CLIENT MERGE SORT",QueryUtil.getExplainPlan(rs));
     }
+
+    @Test
+    public void testSelectAnalyticScan() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        conn.createStatement().execute("create table analytic_t (k varchar not null primary key, v varchar)");
+        ResultSet rs = conn.createStatement().executeQuery("explain select /*+ ANALYTIC_SCAN */ v, count(*) from analytic_t group by v");
+        assertEquals("CLIENT PARALLEL 1-WAY ANALYTIC FULL SCAN OVER ANALYTIC_T\n" +
+                "    SERVER AGGREGATE INTO DISTINCT ROWS BY [V]\n" +
+                "CLIENT MERGE SORT",QueryUtil.getExplainPlan(rs));
+        rs = conn.createStatement().executeQuery("explain select v, count(*) from analytic_t group by v");
+        assertFalse(QueryUtil.getExplainPlan(rs).contains("ANALYTIC "));
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.coprocessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.query.QueryServices;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class MutationPipelineTest {
+    
+    /**
+     * Pipeline recording the batches it is asked to commit, failing the
+     * batch with the given index if any.
+     */
+    private static class TestMutationPipeline extends MutationPipeline {
+        private final List<List<Mutation>> batches = Collections.synchronizedList(Lists.<List<Mutation>>newArrayList());
+        private final List<Thread> commitThreads = Collections.synchronizedList(Lists.<Thread>newArrayList());
+        private final int failingBatch;
+        
+        TestMutationPipeline(boolean isPipelined, int batchSize, int failingBatch) {
+            super(getConfiguration(isPipelined), batchSize);
+            this.failingBatch = failingBatch;
+        }
+        
+        @Override
+        protected void commit(List<Mutation> mutations) throws IOException {
+            int batch = batches.size();
+            batches.add(mutations);
+            commitThreads.add(Thread.currentThread());
+            if (batch == failingBatch) {
+                throw new IOException("Batch " + batch + " failed");
+            }
+        }
+    }
+    
+    private static Configuration getConfiguration(boolean isPipelined) {
+        Configuration config = new Configuration(false);
+        config.setBoolean(QueryServices.SERVER_MUTATE_PIPELINED_ATTRIB, isPipelined);
+        return config;
+    }
+    
+    private static Mutation newMutation(int i) {
+        return new Put(Bytes.toBytes(i));
+    }
+    
+    private static void assertBatches(TestMutationPipeline pipeline, int... batchSizes) {
+        assertEquals(batchSizes.length, pipeline.batches.size());
+        int row = 0;
+        for (int i = 0; i < batchSizes.length; i++) {
+            List<Mutation> batch = pipeline.batches.get(i);
+            assertEquals(batchSizes[i], batch.size());
+            for (Mutation mutation : batch) {
+                assertTrue(Bytes.equals(Bytes.toBytes(row++), mutation.getRow()));
+            }
+        }
+    }
+    
+    private static void testWritesAllBatches(boolean isPipelined) throws Exception {
+        TestMutationPipeline pipeline = new TestMutationPipeline(isPipelined, 3, -1);
+        for (int i = 0; i < 8; i++) {
+            pipeline.add(newMutation(i));
+        }
+        pipeline.close();
+        assertBatches(pipeline, 3, 3, 2);
+        for (Thread thread : pipeline.commitThreads) {
+            if (isPipelined) {
+                assertNotSame(Thread.currentThread(), thread);
+            } else {
+                assertSame(Thread.currentThread(), thread);
+            }
+        }
+    }
+    
+    @Test
+    public void testPipelinedWritesAllBatches() throws Exception {
+        testWritesAllBatches(true);
+    }
+    
+    @Test
+    public void testNotPipelinedWritesAllBatches() throws Exception {
+        testWritesAllBatches(false);
+    }
+    
+    @Test
+    public void testNextBatchFilledWhileBatchInFlight() throws Exception {
+        final CountDownLatch commitStarted = new CountDownLatch(1);
+        final CountDownLatch commitReleased = new CountDownLatch(1);
+        TestMutationPipeline pipeline = new TestMutationPipeline(true, 2, -1) {
+            @Override
+            protected void commit(List<Mutation> mutations) throws IOException {
+                super.commit(mutations);
+                if (commitStarted.getCount() > 0) {
+                    commitStarted.countDown();
+                    try {
+                        if (!commitReleased.await(10, TimeUnit.SECONDS)) {
+                            throw new IOException("Batch was not released");
+                        }
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+            }
+        };
+        pipeline.add(newMutation(0));
+        pipeline.add(newMutation(1));
+        assertTrue(commitStarted.await(10, TimeUnit.SECONDS));
+        // The next batch is filled without waiting for the one being written
+        pipeline.add(newMutation(2));
+        assertEquals(1, pipeline.batches.size());
+        commitReleased.countDown();
+        pipeline.close();
+        assertBatches(pipeline, 2, 1);
+    }
+    
+    private static void testFailureSurfacesOnNextFlush(boolean isPipelined) throws Exception {
+        TestMutationPipeline pipeline = new TestMutationPipeline(isPipelined, 2, 0);
+        pipeline.add(newMutation(0));
+        try {
+            // Hands off the failing batch, which fails right away if not pipelined
+            pipeline.add(newMutation(1));
+            pipeline.add(newMutation(2));
+            pipeline.flush();
+            fail();
+        } catch (IOException e) {
+            assertEquals("Batch 0 failed", e.getMessage());
+        }
+        // The batch being filled when the failure surfaced is not written
+        assertBatches(pipeline, 2);
+    }
+    
+    @Test
+    public void testPipelinedFailureSurfacesOnNextFlush() throws Exception {
+        testFailureSurfacesOnNextFlush(true);
+    }
+    
+    @Test
+    public void testNotPipelinedFailureSurfacesOnNextFlush() throws Exception {
+        testFailureSurfacesOnNextFlush(false);
+    }
+    
+    private static void testFailureSurfacesOnClose(boolean isPipelined) throws Exception {
+        TestMutationPipeline pipeline = new TestMutationPipeline(isPipelined, 2, 1);
+        for (int i = 0; i < 3; i++) {
+            pipeline.add(newMutation(i));
+        }
+        try {
+            pipeline.close();
+            fail();
+        } catch (IOException e) {
+            assertEquals("Batch 1 failed", e.getMessage());
+        }
+        assertBatches(pipeline, 2, 1);
+    }
+    
+    @Test
+    public void testPipelinedFailureSurfacesOnClose() throws Exception {
+        testFailureSurfacesOnClose(true);
+    }
+    
+    @Test
+    public void testNotPipelinedFailureSurfacesOnClose() throws Exception {
+        testFailureSurfacesOnClose(false);
+    }
+    
+    @Test
+    public void testAbortWaitsWithoutSurfacingFailure() throws Exception {
+        TestMutationPipeline pipeline = new TestMutationPipeline(true, 2, 0);
+        pipeline.add(newMutation(0));
+        pipeline.add(newMutation(1));
+        pipeline.abort();
+        assertBatches(pipeline, 2);
+        // Nothing is left in flight to surface the failure later
+        pipeline.close();
+        assertBatches(pipeline, 2);
+    }
+
+    @Test
+    public void testBatchSizeGrowsUnderLowMemstorePressure() {
+        assertEquals(2000, MutationPipeline.getAdaptedBatchSize(1000, 250, 10000, 0));
+        assertEquals(2000, MutationPipeline.getAdaptedBatchSize(1000, 250, 10000, 0.3));
+        assertEquals(10000, MutationPipeline.getAdaptedBatchSize(8000, 250, 10000, 0.3));
+    }
+
+    @Test
+    public void testBatchSizeShrinksUnderHighMemstorePressure() {
+        assertEquals(500, MutationPipeline.getAdaptedBatchSize(1000, 250, 10000, 0.95));
+        assertEquals(250, MutationPipeline.getAdaptedBatchSize(300, 250, 10000, 2.0));
+    }
+
+    @Test
+    public void testBatchSizeUnchanged() {
+        assertEquals(1000, MutationPipeline.getAdaptedBatchSize(1000, 250, 10000, 0.7));
+        // Memstore pressure not known
+        assertEquals(1000, MutationPipeline.getAdaptedBatchSize(1000, 250, 10000, -1));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.execute;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+import org.apache.phoenix.schema.PColumn;
+import org.apache.phoenix.schema.PColumnImpl;
+import org.apache.phoenix.schema.PDataType;
+import org.apache.phoenix.schema.PNameFactory;
+import org.apache.phoenix.schema.SortOrder;
+import org.junit.Test;
+
+public class MutationBufferTest {
+    private static final PColumn COL1 = newColumn("C1", 1);
+    private static final PColumn COL2 = newColumn("C2", 2);
+
+    private static PColumn newColumn(String name, int position) {
+        return new PColumnImpl(PNameFactory.newName(name), PNameFactory.newName("0"), PDataType.VARCHAR, null, null,
+                true, position, SortOrder.getDefault(), null, null, false);
+    }
+
+    private static ImmutableBytesPtr key(String key) {
+        return new ImmutableBytesPtr(Bytes.toBytes(key));
+    }
+
+    private static String value(MutationBuffer buffer, int row, PColumn column) {
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        assertTrue(buffer.getValue(row, column, ptr));
+        return Bytes.toString(ptr.get(), ptr.getOffset(), ptr.getLength());
+    }
+
+    @Test
+    public void testAddRowsAndValues() {
+        MutationBuffer buffer = new MutationBuffer(1);
+        for (int i = 0; i < 100; i++) {
+            int row = buffer.addRow(key("r" + i));
+            buffer.setValue(row, COL1, Bytes.toBytes("v" + i));
+        }
+        assertEquals(100, buffer.size());
+        assertEquals(42, buffer.addRow(key("r42")));
+        assertEquals(100, buffer.size());
+        buffer.setValue(42, COL1, Bytes.toBytes("x"));
+        buffer.setValue(42, COL2, Bytes.toBytes("longer value"));
+        assertEquals("x", value(buffer, 42, COL1));
+        assertEquals("longer value", value(buffer, 42, COL2));
+        assertEquals("v41", value(buffer, 41, COL1));
+        assertFalse(buffer.getValue(41, COL2, new ImmutableBytesWritable()));
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        buffer.getRowKey(99, ptr);
+        assertArrayEquals(Bytes.toBytes("r99"), ptr.copyBytes());
+        assertEquals(2, buffer.getColumns().size());
+    }
+
+    @Test
+    public void testDeleteAndSetValueCancelEachOther() {
+        MutationBuffer buffer = new MutationBuffer();
+        int row = buffer.addRow(key("a"));
+        buffer.setValue(row, COL1, Bytes.toBytes("v"));
+        buffer.delete(row);
+        assertTrue(buffer.isDelete(row));
+        assertFalse(buffer.getValue(row, COL1, new ImmutableBytesWritable()));
+        buffer.setValue(row, COL2, Bytes.toBytes("w"));
+        assertFalse(buffer.isDelete(row));
+        assertFalse(buffer.getValue(row, COL1, new ImmutableBytesWritable()));
+        assertEquals("w", value(buffer, row, COL2));
+    }
+
+    @Test
+    public void testPutAll() {
+        MutationBuffer existing = new MutationBuffer();
+        existing.setValue(existing.addRow(key("a")), COL1, Bytes.toBytes("a1"));
+        existing.setValue(existing.addRow(key("a")), COL2, Bytes.toBytes("a2"));
+        existing.setValue(existing.addRow(key("b")), COL1, Bytes.toBytes("b1"));
+        existing.deleteRow(key("c"));
+        MutationBuffer newer = new MutationBuffer();
+        newer.setValue(newer.addRow(key("a")), COL1, Bytes.toBytes("new"));
+        newer.deleteRow(key("b"));
+        newer.setValue(newer.addRow(key("c")), COL2, Bytes.toBytes("c2"));
+        newer.setValue(newer.addRow(key("d")), COL1, null);
+        assertEquals(1, existing.putAll(newer));
+        assertEquals(4, existing.size());
+        assertEquals("new", value(existing, 0, COL1));
+        assertEquals("a2", value(existing, 0, COL2));
+        assertTrue(existing.isDelete(1));
+        assertFalse(existing.getValue(1, COL1, new ImmutableBytesWritable()));
+        assertFalse(existing.isDelete(2));
+        assertEquals("c2", value(existing, 2, COL2));
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        assertTrue(existing.getValue(3, COL1, ptr));
+        assertEquals(null, ptr.get());
+        existing.clear();
+        assertTrue(existing.isEmpty());
+        assertEquals(0, existing.addRow(key("b")));
+        assertFalse(existing.isDelete(0));
+        assertFalse(existing.getValue(0, COL1, new ImmutableBytesWritable()));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
+import org.apache.hadoop.hbase.filter.Filter.ReturnCode;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.expression.AndExpression;
+import org.apache.phoenix.expression.ComparisonExpression;
+import org.apache.phoenix.expression.Expression;
+import org.apache.phoenix.expression.KeyValueColumnExpression;
+import org.apache.phoenix.expression.LiteralExpression;
+import org.apache.phoenix.schema.PDataType;
+import org.apache.phoenix.schema.PDatum;
+import org.apache.phoenix.schema.SortOrder;
+import org.junit.Test;
+
+public class MultiKeyValueComparisonFilterTest {
+    private static final byte[] ROW = Bytes.toBytes("r");
+    private static final byte[] CF1 = Bytes.toBytes("a");
+    private static final byte[] CF2 = Bytes.toBytes("b");
+    private static final byte[] CQ1 = Bytes.toBytes("x");
+    private static final byte[] CQ2 = Bytes.toBytes("y");
+    
+    private static final PDatum INTEGER_DATUM = new PDatum() {
+        @Override
+        public boolean isNullable() {
+            return true;
+        }
+        @Override
+        public PDataType getDataType() {
+            return PDataType.INTEGER;
+        }
+        @Override
+        public Integer getMaxLength() {
+            return null;
+        }
+        @Override
+        public Integer getScale() {
+            return null;
+        }
+        @Override
+        public SortOrder getSortOrder() {
+            return SortOrder.getDefault();
+        }
+    };
+    
+    private static Expression equals(byte[] cf, byte[] cq, int value) throws Exception {
+        // Copy the names, so that lookups by the filter don't rely on array identity
+        Expression column = new KeyValueColumnExpression(INTEGER_DATUM, Bytes.copy(cf), Bytes.copy(cq));
+        return new ComparisonExpression(CompareOp.EQUAL, Arrays.<Expression>asList(column, LiteralExpression.newConstant(value, PDataType.INTEGER)));
+    }
+    
+    private static KeyValue newKeyValue(byte[] cf, byte[] cq, int value) {
+        return new KeyValue(ROW, cf, cq, PDataType.INTEGER.toBytes(value));
+    }
+    
+    @Test
+    public void testSameQualifierInDifferentFamilies() throws Exception {
+        Expression expression = new AndExpression(Arrays.asList(equals(CF1, CQ1, 1), equals(CF2, CQ1, 2)));
+        MultiKeyValueComparisonFilter filter = new MultiCFCQKeyValueComparisonFilter(expression);
+        assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(newKeyValue(CF1, CQ1, 1)));
+        assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(newKeyValue(CF1, CQ2, 5)));
+        assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(newKeyValue(CF2, CQ1, 2)));
+        assertFalse(filter.filterRow());
+        
+        filter.reset();
+        assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(newKeyValue(CF1, CQ1, 1)));
+        assertEquals(ReturnCode.NEXT_ROW, filter.filterKeyValue(newKeyValue(CF2, CQ1, 1)));
+        assertTrue(filter.filterRow());
+    }
+    
+    @Test
+    public void testUniqueQualifiers() throws Exception {
+        Expression expression = new AndExpression(Arrays.asList(equals(CF1, CQ1, 1), equals(CF2, CQ2, 2)));
+        MultiKeyValueComparisonFilter filter = new MultiCQKeyValueComparisonFilter(expression);
+        assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(newKeyValue(CF1, CQ1, 1)));
+        assertEquals(ReturnCode.NEXT_COL, filter.filterKeyValue(newKeyValue(CF1, CQ1, 3)));
+        assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(newKeyValue(CF2, CQ2, 2)));
+        assertFalse(filter.filterRow());
+        
+        filter.reset();
+        assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(newKeyValue(CF1, CQ1, 1)));
+        assertTrue(filter.filterRow());
+    }
+}
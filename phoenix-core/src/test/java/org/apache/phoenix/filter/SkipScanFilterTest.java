@@ -324,6 +324,37 @@ public class SkipScanFilterTest extends TestCase {
 //                }},
 //                new int[]{3,3})
 //        );
+        // Point lookups over the whole row key, navigated by merging against the keys
+        KeyRange[] manyKeys = new KeyRange[500];
+        for (int i = 0; i < manyKeys.length; i++) {
+            manyKeys[i] = PDataType.VARCHAR.getKeyRange(Bytes.toBytes(String.format("k%03d", i * 2)));
+        }
+        testCases.addAll(
+                foreach(new KeyRange[][]{manyKeys},
+                new int[]{0},
+                new SeekNext("a", "k000"),
+                new Include("k000"),
+                new SeekNext("k001", "k002"),
+                new SeekNext("k0031", "k004"),
+                new Include("k500"),
+                new SeekNext("k501", "k502"),
+                new Include("k998"),
+                new Finished("k999"))
+        );
+        // Many keys in the last slot, skipped over by galloping through the ranges
+        testCases.addAll(
+                foreach(new KeyRange[][]{{
+                    PDataType.CHAR.getKeyRange(Bytes.toBytes("a")),
+                }, manyKeys},
+                new int[]{1,0},
+                new SeekNext("a", "ak000"),
+                new Include("ak000"),
+                new SeekNext("ak001", "ak002"),
+                new Include("ak500"),
+                new SeekNext("ak501", "ak502"),
+                new Include("ak998"),
+                new Finished("b"))
+        );
         return testCases;
     }
 
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+public class IndexMetaDataKeyCacheTest {
+    private static final byte[] KEY1 = Bytes.toBytes("T1");
+    private static final byte[] KEY2 = Bytes.toBytes("T2");
+    
+    @Test
+    public void testCachedOnlyOnAllServers() {
+        IndexMetaDataKeyCache cache = new IndexMetaDataKeyCache(10);
+        assertFalse(cache.isCached(KEY1, Arrays.asList("rs1:1")));
+        cache.setCached(KEY1, Arrays.asList("rs1:1", "rs2:1"));
+        assertTrue(cache.isCached(KEY1, Arrays.asList("rs1:1")));
+        assertTrue(cache.isCached(KEY1, Arrays.asList("rs1:1", "rs2:1")));
+        // A region moved to a server that never received the index maintainers
+        assertFalse(cache.isCached(KEY1, Arrays.asList("rs1:1", "rs3:1")));
+        cache.setCached(KEY1, Arrays.asList("rs3:1"));
+        assertTrue(cache.isCached(KEY1, Arrays.asList("rs1:1", "rs2:1", "rs3:1")));
+        assertFalse(cache.isCached(KEY2, Arrays.asList("rs1:1")));
+    }
+    
+    @Test
+    public void testCachedWithNoServers() {
+        IndexMetaDataKeyCache cache = new IndexMetaDataKeyCache(10);
+        assertFalse(cache.isCached(KEY1, Collections.<String>emptyList()));
+        cache.setCached(KEY1, Collections.<String>emptyList());
+        assertTrue(cache.isCached(KEY1, Collections.<String>emptyList()));
+        assertFalse(cache.isCached(KEY1, Arrays.asList("rs1:1")));
+    }
+    
+    @Test
+    public void testInvalidate() {
+        IndexMetaDataKeyCache cache = new IndexMetaDataKeyCache(10);
+        cache.setCached(KEY1, Arrays.asList("rs1:1", "rs2:1"));
+        cache.setCached(KEY2, Arrays.asList("rs1:1"));
+        cache.invalidate(KEY1);
+        assertFalse(cache.isCached(KEY1, Arrays.asList("rs2:1")));
+        assertTrue(cache.isCached(KEY2, Arrays.asList("rs1:1")));
+        assertEquals(1, cache.size());
+    }
+    
+    @Test
+    public void testMaxSize() {
+        IndexMetaDataKeyCache cache = new IndexMetaDataKeyCache(5);
+        for (int i = 0; i < 100; i++) {
+            cache.setCached(Bytes.toBytes(i), Arrays.asList("rs1:1"));
+        }
+        assertTrue(cache.size() <= 5);
+        assertTrue(cache.isCached(Bytes.toBytes(99), Arrays.asList("rs1:1")));
+    }
+    
+    @Test
+    public void testKeysDistinctPerInstance() {
+        IndexMetaDataKeyCache cache1 = new IndexMetaDataKeyCache(10);
+        IndexMetaDataKeyCache cache2 = new IndexMetaDataKeyCache(10);
+        cache1.setCached(KEY1, Arrays.asList("rs1:1"));
+        assertTrue(cache1.isCached(KEY1, Arrays.asList("rs1:1")));
+        assertFalse(cache2.isCached(KEY1, Arrays.asList("rs1:1")));
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.iterate;
+
+import static org.apache.phoenix.query.QueryConstants.SINGLE_COLUMN;
+import static org.apache.phoenix.query.QueryConstants.SINGLE_COLUMN_FAMILY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.expression.BaseTerminalExpression;
+import org.apache.phoenix.expression.Expression;
+import org.apache.phoenix.schema.PDataType;
+import org.apache.phoenix.schema.tuple.SingleKeyValueTuple;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+
+public class BatchResultIteratorsTest {
+
+    private static List<Tuple> newTuples(int count) {
+        List<Tuple> tuples = Lists.newArrayListWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            tuples.add(new SingleKeyValueTuple(new KeyValue(Bytes.toBytes(i), SINGLE_COLUMN_FAMILY, SINGLE_COLUMN, Bytes.toBytes(i))));
+        }
+        return tuples;
+    }
+    
+    private static int getValue(Tuple tuple) {
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        tuple.getKey(ptr);
+        return Bytes.toInt(ptr.get(), ptr.getOffset(), ptr.getLength());
+    }
+    
+    // Filters out rows with an odd row key
+    private static final Expression EVEN_FILTER = new BaseTerminalExpression() {
+        @Override
+        public boolean evaluate(Tuple tuple, ImmutableBytesWritable ptr) {
+            ptr.set(getValue(tuple) % 2 == 0 ? PDataType.TRUE_BYTES : PDataType.FALSE_BYTES);
+            return true;
+        }
+
+        @Override
+        public PDataType getDataType() {
+            return PDataType.BOOLEAN;
+        }
+    };
+
+    @Test
+    public void testAdaptRowIterator() throws SQLException {
+        List<Tuple> tuples = newTuples(5);
+        ResultIterator iterator = new DelegateResultIterator(new MaterializedResultIterator(tuples));
+        Tuple[] batch = new Tuple[3];
+        assertEquals(3, BatchResultIterators.nextBatch(iterator, batch, 0, batch.length));
+        assertSame(tuples.get(2), batch[2]);
+        assertEquals(2, BatchResultIterators.nextBatch(iterator, batch, 0, batch.length));
+        assertSame(tuples.get(4), batch[1]);
+        assertEquals(0, BatchResultIterators.nextBatch(iterator, batch, 0, batch.length));
+    }
+
+    @Test
+    public void testLookAheadBatchKeepsPeekedRow() throws SQLException {
+        List<Tuple> tuples = newTuples(5);
+        PeekingResultIterator iterator = LookAheadResultIterator.wrap(new DelegateResultIterator(new MaterializedResultIterator(tuples)));
+        assertSame(tuples.get(0), iterator.next());
+        Tuple[] batch = new Tuple[2];
+        assertEquals(2, BatchResultIterators.nextBatch(iterator, batch, 0, batch.length));
+        assertSame(tuples.get(1), batch[0]);
+        assertSame(tuples.get(2), batch[1]);
+        assertSame(tuples.get(3), iterator.peek());
+        assertSame(tuples.get(3), iterator.next());
+        assertEquals(1, BatchResultIterators.nextBatch(iterator, batch, 1, 1));
+        assertSame(tuples.get(4), batch[1]);
+        assertNull(iterator.peek());
+        assertEquals(0, BatchResultIterators.nextBatch(iterator, batch, 0, batch.length));
+    }
+
+    @Test
+    public void testFilterBatch() throws SQLException {
+        List<Tuple> tuples = newTuples(10);
+        ResultIterator iterator = new FilterResultIterator(new MaterializedResultIterator(tuples), EVEN_FILTER);
+        List<Integer> values = Lists.newArrayList();
+        Tuple[] batch = new Tuple[4];
+        int count;
+        while ((count = BatchResultIterators.nextBatch(iterator, batch, 0, batch.length)) > 0) {
+            for (int i = 0; i < count; i++) {
+                values.add(getValue(batch[i]));
+            }
+        }
+        assertEquals(Arrays.asList(0, 2, 4, 6, 8), values);
+    }
+
+    @Test
+    public void testLimitBatch() throws SQLException {
+        List<Tuple> tuples = newTuples(10);
+        ResultIterator iterator = new LimitingResultIterator(new MaterializedResultIterator(tuples), 5);
+        Tuple[] batch = new Tuple[4];
+        assertEquals(4, BatchResultIterators.nextBatch(iterator, batch, 0, batch.length));
+        assertEquals(1, BatchResultIterators.nextBatch(iterator, batch, 0, batch.length));
+        assertSame(tuples.get(4), batch[0]);
+        assertEquals(0, BatchResultIterators.nextBatch(iterator, batch, 0, batch.length));
+    }
+
+    @Test
+    public void testNotReadAheadSafeReadOneRowPerBatch() throws SQLException {
+        List<Tuple> tuples = newTuples(3);
+        ResultIterator iterator = new DelegateResultIterator(new MaterializedResultIterator(tuples)) {
+            @Override
+            public boolean isReadAheadSafe() {
+                return false;
+            }
+        };
+        // Wrapping iterators report the capability of what they wrap
+        iterator = LookAheadResultIterator.wrap(new DelegateResultIterator(iterator));
+        Tuple[] batch = new Tuple[3];
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, BatchResultIterators.nextBatch(new DelegateResultIterator(iterator), batch, 0, batch.length));
+            assertSame(tuples.get(i), batch[0]);
+        }
+        assertEquals(0, BatchResultIterators.nextBatch(iterator, batch, 0, batch.length));
+    }
+
+    @Test
+    public void testEmptyBatchRejected() throws SQLException {
+        List<Tuple> tuples = newTuples(3);
+        ResultIterator[] iterators = new ResultIterator[] {
+                new MaterializedResultIterator(tuples),
+                LookAheadResultIterator.wrap(new DelegateResultIterator(new MaterializedResultIterator(tuples))),
+                new LimitingResultIterator(new MaterializedResultIterator(tuples), 2),
+        };
+        for (ResultIterator iterator : iterators) {
+            try {
+                BatchResultIterators.nextBatch(iterator, new Tuple[1], 0, 0);
+                fail();
+            } catch (IllegalArgumentException e) {
+            }
+            // Nothing was consumed
+            assertSame(tuples.get(0), iterator.next());
+        }
+    }
+}
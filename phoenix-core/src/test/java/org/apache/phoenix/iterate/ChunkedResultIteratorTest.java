@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.iterate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.compile.StatementContext;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.query.ConnectionQueryServices;
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.schema.PNameFactory;
+import org.apache.phoenix.schema.PTable;
+import org.apache.phoenix.schema.TableRef;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.util.KeyValueUtil;
+import org.apache.phoenix.util.ReadOnlyProps;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+public class ChunkedResultIteratorTest {
+
+    @Test
+    public void testChunkSizeBoundedByConfiguredSize() {
+        // 1000 rows of 10 bytes fit comfortably in the target size
+        assertEquals(2999, ChunkedResultIterator.getNextChunkSize(2999, 1024 * 1024, 30000, 1000, 10000, 100));
+    }
+
+    @Test
+    public void testChunkSizeShrinksForLargeRows() {
+        // 1000 rows of 10k bytes each, with a 1m target
+        assertEquals(102, ChunkedResultIterator.getNextChunkSize(2999, 1024 * 1024, 30000, 1000, 10240000, 100));
+        // Never less than one row per chunk
+        assertEquals(1, ChunkedResultIterator.getNextChunkSize(2999, 10, 30000, 1000, 10240000, 100));
+    }
+
+    @Test
+    public void testChunkSizeShrinksForSlowConsumers() {
+        // 1000 rows took 60 seconds to go through, allowing for 30 seconds
+        assertEquals(500, ChunkedResultIterator.getNextChunkSize(2999, 1024 * 1024, 30000, 1000, 10000, 60000));
+    }
+
+    private static Result newResult(String row) {
+        byte[] bytes = Bytes.toBytes(row);
+        return Result.create(new Cell[] {KeyValueUtil.newKeyValue(bytes, bytes, bytes, 1, bytes)});
+    }
+
+    @Test
+    public void testCloseReleasesScannerOfFailedPrefetch() throws Exception {
+        ResultScanner firstScanner = mock(ResultScanner.class);
+        when(firstScanner.next()).thenReturn(newResult("a"), newResult("b"), newResult("c"), null);
+        ResultScanner prefetchScanner = mock(ResultScanner.class);
+        HTableInterface htable = mock(HTableInterface.class);
+        when(htable.getScanner(any(Scan.class))).thenReturn(firstScanner, prefetchScanner);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        ConnectionQueryServices services = mock(ConnectionQueryServices.class);
+        when(services.getProps()).thenReturn(new ReadOnlyProps(ImmutableMap.of(QueryServices.SCAN_RESULT_CHUNK_PREFETCH_ATTRIB, "true")));
+        when(services.getTable(any(byte[].class), anyBoolean())).thenReturn(htable);
+        when(services.getExecutor()).thenReturn(executor);
+        PhoenixConnection connection = mock(PhoenixConnection.class);
+        when(connection.getQueryServices()).thenReturn(services);
+        StatementContext context = mock(StatementContext.class);
+        when(context.getConnection()).thenReturn(connection);
+        PTable table = mock(PTable.class);
+        when(table.getName()).thenReturn(PNameFactory.newName("T"));
+        when(table.getPhysicalName()).thenReturn(PNameFactory.newName("T"));
+
+        // Spool the first chunk, which starts the prefetch of the next one, and fail to spool the next one
+        final AtomicInteger chunkCount = new AtomicInteger();
+        ParallelIteratorFactory factory = new ParallelIteratorFactory() {
+            @Override
+            public PeekingResultIterator newIterator(StatementContext context, ResultIterator scanner, Scan scan) throws SQLException {
+                if (chunkCount.getAndIncrement() > 0) {
+                    throw new SQLException("Unable to spool chunk");
+                }
+                List<Tuple> tuples = Lists.newArrayList();
+                for (Tuple tuple = scanner.next(); tuple != null; tuple = scanner.next()) {
+                    tuples.add(tuple);
+                }
+                scanner.close();
+                return new MaterializedResultIterator(tuples);
+            }
+        };
+        try {
+            ChunkedResultIterator iterator = new ChunkedResultIterator(factory, context, new TableRef(table), new Scan(), 1);
+            try {
+                iterator.close();
+                fail();
+            } catch (SQLException e) {
+            }
+            verify(firstScanner).close();
+            verify(prefetchScanner).close();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
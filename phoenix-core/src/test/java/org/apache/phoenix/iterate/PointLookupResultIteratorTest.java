@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.iterate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NavigableSet;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.coprocessor.BaseScannerRegionObserver;
+import org.apache.phoenix.util.PhoenixRuntime;
+import org.junit.Test;
+
+public class PointLookupResultIteratorTest {
+    private static final byte[] ROW = Bytes.toBytes("row");
+    private static final byte[] CF1 = Bytes.toBytes("A");
+    private static final byte[] CF2 = Bytes.toBytes("B");
+    private static final byte[] CQ1 = Bytes.toBytes("X");
+    private static final byte[] CQ2 = Bytes.toBytes("Y");
+
+    @Test
+    public void testGetCopiesScan() throws Exception {
+        Scan scan = new Scan();
+        scan.addFamily(CF1);
+        scan.addColumn(CF2, CQ1);
+        scan.addColumn(CF2, CQ2);
+        Filter filter = new FirstKeyOnlyFilter();
+        scan.setFilter(filter);
+        scan.setTimeRange(10, 20);
+        scan.setMaxVersions(3);
+        scan.setCacheBlocks(false);
+        scan.setAttribute(BaseScannerRegionObserver.NON_AGGREGATE_QUERY, Bytes.toBytes(true));
+        scan.setAttribute(PhoenixRuntime.TENANT_ID_ATTRIB, Bytes.toBytes("tenant"));
+
+        Get get = PointLookupResultIterator.newGet(scan, ROW);
+        assertArrayEquals(ROW, get.getRow());
+        assertEquals(2, get.getFamilyMap().size());
+        // The whole family is fetched
+        assertNull(get.getFamilyMap().get(CF1));
+        NavigableSet<byte[]> qualifiers = get.getFamilyMap().get(CF2);
+        assertEquals(2, qualifiers.size());
+        assertTrue(qualifiers.contains(CQ1));
+        assertTrue(qualifiers.contains(CQ2));
+        assertSame(filter, get.getFilter());
+        assertEquals(10, get.getTimeRange().getMin());
+        assertEquals(20, get.getTimeRange().getMax());
+        assertEquals(3, get.getMaxVersions());
+        assertFalse(get.getCacheBlocks());
+        assertArrayEquals(Bytes.toBytes(true), get.getAttribute(BaseScannerRegionObserver.NON_AGGREGATE_QUERY));
+        assertArrayEquals(Bytes.toBytes("tenant"), get.getAttribute(PhoenixRuntime.TENANT_ID_ATTRIB));
+        assertEquals(scan.getAttributesMap().size(), get.getAttributesMap().size());
+    }
+
+    @Test
+    public void testGetOfUnfilteredScan() throws Exception {
+        Scan scan = new Scan();
+        Get get = PointLookupResultIterator.newGet(scan, ROW);
+        assertArrayEquals(ROW, get.getRow());
+        assertFalse(get.hasFamilies());
+        assertNull(get.getFilter());
+        assertTrue(get.getTimeRange().isAllTime());
+        assertTrue(get.getCacheBlocks());
+        assertTrue(get.getAttributesMap().isEmpty());
+    }
+}
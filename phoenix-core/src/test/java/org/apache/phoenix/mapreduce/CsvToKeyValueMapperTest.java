@@ -23,15 +23,26 @@ import org.apache.commons.csv.CSVRecord;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.phoenix.schema.PDataType;
 import org.apache.phoenix.util.ColumnInfo;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 
 public class CsvToKeyValueMapperTest {
 
@@ -134,6 +145,73 @@ public class CsvToKeyValueMapperTest {
     }
 
 
+    @Test
+    public void testWriteKeyValues_MultiTable() throws Exception {
+        Configuration conf = new Configuration();
+        conf.set(CsvToKeyValueMapper.TABLE_NAME_CONFKEY, "T");
+        conf.setBoolean(CsvToKeyValueMapper.MULTI_TABLE_CONFKEY, true);
+        conf.setStrings(CsvToKeyValueMapper.TABLE_NAMES_CONFKEY, "T", "I1");
+        // KeyValues of the data table, one loaded index and one index that is not being loaded
+        List<String> written = writeKeyValues(conf, "T", "I1", "I2");
+        assertEquals(ImmutableList.of("T/row_T", "I1/row_I1"), written);
+    }
+
+    @Test
+    public void testWriteKeyValues_SingleTable() throws Exception {
+        Configuration conf = new Configuration();
+        conf.set(CsvToKeyValueMapper.TABLE_NAME_CONFKEY, "T");
+        conf.set(CsvToKeyValueMapper.INDEX_TABLE_NAME_CONFKEY, "I1");
+        List<String> written = writeKeyValues(conf, "T", "I1", "I2");
+        assertEquals(ImmutableList.of("row_I1"), written);
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testConfigureOutput_MultiTableNotConfigured() {
+        Configuration conf = new Configuration();
+        conf.set(CsvToKeyValueMapper.TABLE_NAME_CONFKEY, "T");
+        conf.setBoolean(CsvToKeyValueMapper.MULTI_TABLE_CONFKEY, true);
+        new CsvToKeyValueMapper().configureOutput(conf);
+    }
+
+    /**
+     * Run the uncommitted KeyValues of one row per table through the mapper output.
+     * @return the map output key of each KeyValue written, as the table name and row key
+     * separated by a slash in multi-table mode, or as the row key otherwise
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> writeKeyValues(final Configuration conf, String... tableNames) throws Exception {
+        CsvToKeyValueMapper mapper = new CsvToKeyValueMapper();
+        mapper.configureOutput(conf);
+        List<Pair<byte[], List<KeyValue>>> uncommittedData = Lists.newArrayList();
+        for (String tableName : tableNames) {
+            KeyValue kv = new KeyValue(Bytes.toBytes("row_" + tableName), Bytes.toBytes("0"),
+                    Bytes.toBytes("V"), Bytes.toBytes("value"));
+            uncommittedData.add(new Pair<byte[], List<KeyValue>>(Bytes.toBytes(tableName),
+                    Lists.newArrayList(kv)));
+        }
+        final List<String> written = Lists.newArrayList();
+        Mapper<LongWritable, Text, ImmutableBytesWritable, KeyValue>.Context context = mock(Mapper.Context.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                ImmutableBytesWritable key = (ImmutableBytesWritable)invocation.getArguments()[0];
+                KeyValue kv = (KeyValue)invocation.getArguments()[1];
+                String row = Bytes.toString(kv.getRow());
+                if (conf.getBoolean(CsvToKeyValueMapper.MULTI_TABLE_CONFKEY, false)) {
+                    String tableName = MultiHfileOutputFormat.getTableName(key);
+                    assertEquals(tableName, row.substring("row_".length()));
+                    written.add(tableName + "/" + row);
+                } else {
+                    assertEquals(row, Bytes.toString(key.copyBytes()));
+                    written.add(row);
+                }
+                return null;
+            }
+        }).when(context).write(any(ImmutableBytesWritable.class), any(KeyValue.class));
+        mapper.writeKeyValues(uncommittedData.iterator(), context);
+        return written;
+    }
+
     static class MockUpsertProcessor implements ImportPreUpsertKeyValueProcessor {
 
         @Override
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+public class MultiHfileOutputFormatTest {
+
+    @Test
+    public void testTableRowKey() {
+        KeyValue kv = new KeyValue(Bytes.toBytes("row1"), Bytes.toBytes("0"), Bytes.toBytes("COL"), Bytes.toBytes("v"));
+        byte[] key = MultiHfileOutputFormat.getTableRowKey(Bytes.toBytes("S.IDX"), kv);
+        assertEquals("S.IDX\\x00row1", Bytes.toStringBinary(key));
+        assertEquals("S.IDX", MultiHfileOutputFormat.getTableName(new ImmutableBytesWritable(key)));
+    }
+
+    @Test
+    public void testSplitPointsOrderedAcrossTables() {
+        Map<String, byte[][]> startKeys = Maps.newHashMap();
+        startKeys.put("T_IDX", new byte[][] {HConstants.EMPTY_BYTE_ARRAY, Bytes.toBytes("m")});
+        startKeys.put("T", new byte[][] {HConstants.EMPTY_BYTE_ARRAY, Bytes.toBytes("c"), Bytes.toBytes("k")});
+        List<ImmutableBytesWritable> splitPoints = MultiHfileOutputFormat.getSplitPoints(startKeys);
+        assertEquals(4, splitPoints.size());
+        assertEquals("T\\x00c", Bytes.toStringBinary(splitPoints.get(0).get()));
+        assertEquals("T\\x00k", Bytes.toStringBinary(splitPoints.get(1).get()));
+        assertEquals("T_IDX\\x00", Bytes.toStringBinary(splitPoints.get(2).get()));
+        assertEquals("T_IDX\\x00m", Bytes.toStringBinary(splitPoints.get(3).get()));
+        for (int i = 1; i < splitPoints.size(); i++) {
+            assertTrue(splitPoints.get(i-1).compareTo(splitPoints.get(i)) < 0);
+        }
+    }
+}
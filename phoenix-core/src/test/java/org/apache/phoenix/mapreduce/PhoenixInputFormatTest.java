@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.phoenix.schema.stats.GuidePostsInfo;
+import org.apache.phoenix.schema.stats.PTableStats;
+import org.apache.phoenix.schema.stats.PTableStatsImpl;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class PhoenixInputFormatTest {
+
+    private static List<Scan> newScans(String... boundaries) {
+        List<Scan> scans = Lists.newArrayList();
+        for (int i = 0; i < boundaries.length - 1; i++) {
+            scans.add(new Scan(Bytes.toBytes(boundaries[i]), Bytes.toBytes(boundaries[i+1])));
+        }
+        return scans;
+    }
+
+    @Test
+    public void testCombineChunksUpToTargetSize() throws Exception {
+        List<Scan> scans = newScans("a", "b", "c", "d", "e", "f");
+        List<String> locations = Arrays.asList("rs1", "rs1", "rs1", "rs1", "rs1");
+        List<InputSplit> splits = PhoenixInputFormat.combineChunks(scans, locations, 10, 20);
+        assertEquals(3, splits.size());
+        assertEquals(2, ((PhoenixInputSplit)splits.get(0)).getScans().size());
+        assertEquals(20, splits.get(0).getLength());
+        assertEquals(2, ((PhoenixInputSplit)splits.get(1)).getScans().size());
+        assertEquals(1, ((PhoenixInputSplit)splits.get(2)).getScans().size());
+        assertEquals(10, splits.get(2).getLength());
+        assertArrayEquals(new String[] {"rs1"}, splits.get(2).getLocations());
+    }
+
+    @Test
+    public void testCombineChunksStopsAtHostChange() throws Exception {
+        List<Scan> scans = newScans("a", "b", "c", "d", "e");
+        List<String> locations = Arrays.asList("rs1", "rs2", "rs2", "rs1");
+        List<InputSplit> splits = PhoenixInputFormat.combineChunks(scans, locations, 10, 100);
+        assertEquals(3, splits.size());
+        assertArrayEquals(new String[] {"rs1"}, splits.get(0).getLocations());
+        assertArrayEquals(new String[] {"rs2"}, splits.get(1).getLocations());
+        assertEquals(20, splits.get(1).getLength());
+        assertArrayEquals(new String[] {"rs1"}, splits.get(2).getLocations());
+    }
+
+    @Test
+    public void testEstimateChunkBytes() throws Exception {
+        assertEquals(100, PhoenixInputFormat.estimateChunkBytes(PTableStats.EMPTY_STATS, 100));
+        TreeMap<byte[], GuidePostsInfo> guidePosts = new TreeMap<byte[], GuidePostsInfo>(Bytes.BYTES_COMPARATOR);
+        guidePosts.put(Bytes.toBytes("0"), new GuidePostsInfo(1000,
+                Arrays.asList(Bytes.toBytes("b"), Bytes.toBytes("c"), Bytes.toBytes("d"), Bytes.toBytes("e"))));
+        guidePosts.put(Bytes.toBytes("1"), new GuidePostsInfo(60, Arrays.asList(Bytes.toBytes("c"), Bytes.toBytes("e"))));
+        assertEquals(280, PhoenixInputFormat.estimateChunkBytes(new PTableStatsImpl(guidePosts, 0), 100));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+public class PhoenixRecordReaderTest {
+
+    private static float getProgress(byte[] startKey, byte[] stopKey, byte[] key) {
+        return PhoenixRecordReader.getProgress(startKey, stopKey, key, 0, key.length);
+    }
+
+    @Test
+    public void testProgressWithinSplit() {
+        byte[] startKey = new byte[] {0x10};
+        byte[] stopKey = new byte[] {0x20};
+        assertEquals(0, getProgress(startKey, stopKey, new byte[] {0x10}), 0.001);
+        assertEquals(0.5, getProgress(startKey, stopKey, new byte[] {0x18}), 0.001);
+        assertEquals(0.75, getProgress(startKey, stopKey, new byte[] {0x1c}), 0.001);
+    }
+
+    @Test
+    public void testProgressOfLongerKeys() {
+        byte[] startKey = Bytes.toBytes("a");
+        byte[] stopKey = Bytes.toBytes("c");
+        assertEquals(0.5, getProgress(startKey, stopKey, Bytes.toBytes("b")), 0.001);
+        // Only the leading bytes of long keys are taken into account
+        assertEquals(0.5, getProgress(startKey, stopKey, Bytes.toBytes("b\u0000\u0000\u0000\u0000\u0000\u0000\u0000zzz")), 0.001);
+        assertEquals(0.74, getProgress(startKey, stopKey, Bytes.toBytes("bzzzzzzzzzzzzzzz")), 0.01);
+        // Longer keys at the start of the split have made no progress
+        assertEquals(0, getProgress(startKey, stopKey, Bytes.add(startKey, new byte[2])), 0.001);
+    }
+
+    @Test
+    public void testProgressOfUnboundedSplit() {
+        byte[] empty = HConstants.EMPTY_BYTE_ARRAY;
+        assertEquals(0, getProgress(empty, empty, empty), 0.001);
+        assertEquals(0.5, getProgress(empty, empty, new byte[] {(byte)0x80}), 0.001);
+        assertEquals(0.25, getProgress(new byte[] {(byte)0x80}, empty, new byte[] {(byte)0xa0}), 0.001);
+    }
+
+    @Test
+    public void testProgressOutsideSplit() {
+        byte[] startKey = new byte[] {0x10};
+        byte[] stopKey = new byte[] {0x20};
+        assertEquals(0, getProgress(startKey, stopKey, new byte[] {0x01}), 0.001);
+        assertEquals(1, getProgress(startKey, stopKey, new byte[] {0x30}), 0.001);
+        // Empty split range
+        assertEquals(0, getProgress(stopKey, stopKey, stopKey), 0.001);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.optimize;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.schema.stats.GuidePostsInfo;
+import org.apache.phoenix.schema.stats.PTableStats;
+import org.apache.phoenix.schema.stats.PTableStatsImpl;
+import org.junit.Test;
+
+public class QueryOptimizerAnalyticScanTest {
+
+    private static final byte[] EMPTY = HConstants.EMPTY_BYTE_ARRAY;
+
+    @Test
+    public void testEstimateScanBytes() {
+        assertEquals(0, QueryOptimizer.estimateScanBytes(PTableStats.EMPTY_STATS, EMPTY, EMPTY));
+        TreeMap<byte[], GuidePostsInfo> guidePosts = new TreeMap<byte[], GuidePostsInfo>(Bytes.BYTES_COMPARATOR);
+        guidePosts.put(Bytes.toBytes("0"), new GuidePostsInfo(1000,
+                Arrays.asList(Bytes.toBytes("b"), Bytes.toBytes("c"), Bytes.toBytes("d"), Bytes.toBytes("e"))));
+        PTableStats stats = new PTableStatsImpl(guidePosts, 0);
+        // Five chunks of 200 bytes each
+        assertEquals(1000, QueryOptimizer.estimateScanBytes(stats, EMPTY, EMPTY));
+        assertEquals(200, QueryOptimizer.estimateScanBytes(stats, Bytes.toBytes("c"), Bytes.toBytes("d")));
+        assertEquals(600, QueryOptimizer.estimateScanBytes(stats, Bytes.toBytes("bb"), Bytes.toBytes("dd")));
+        assertEquals(400, QueryOptimizer.estimateScanBytes(stats, Bytes.toBytes("d"), EMPTY));
+        assertEquals(200, QueryOptimizer.estimateScanBytes(stats, EMPTY, Bytes.toBytes("a")));
+
+        // Column families are scanned together, so their estimates add up
+        guidePosts.put(Bytes.toBytes("1"), new GuidePostsInfo(60, Arrays.asList(Bytes.toBytes("c"), Bytes.toBytes("e"))));
+        stats = new PTableStatsImpl(guidePosts, 0);
+        assertEquals(1060, QueryOptimizer.estimateScanBytes(stats, EMPTY, EMPTY));
+        assertEquals(220, QueryOptimizer.estimateScanBytes(stats, Bytes.toBytes("c"), Bytes.toBytes("d")));
+    }
+
+    @Test
+    public void testAnalyticScanCaching() {
+        assertEquals(2048, QueryOptimizer.getAnalyticScanCaching(1024 * 1024 * 2, 1024));
+        assertEquals(1, QueryOptimizer.getAnalyticScanCaching(1024, 4096));
+        assertEquals(Integer.MAX_VALUE, QueryOptimizer.getAnalyticScanCaching(Long.MAX_VALUE, 1));
+    }
+}
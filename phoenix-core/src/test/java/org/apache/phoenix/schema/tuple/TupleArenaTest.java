@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.schema.tuple;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.util.KeyValueUtil;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class TupleArenaTest {
+    private static final byte[] CF = Bytes.toBytes("0");
+
+    private static Tuple newTuple(String row, String... qualifiers) {
+        Cell[] cells = new Cell[qualifiers.length];
+        for (int i = 0; i < qualifiers.length; i++) {
+            cells[i] = KeyValueUtil.newKeyValue(Bytes.toBytes(row), CF, Bytes.toBytes(qualifiers[i]), 1, Bytes.toBytes(row + qualifiers[i]));
+        }
+        return new ResultTuple(Result.create(cells));
+    }
+
+    private static void assertValue(Tuple tuple, String qualifier, String expectedValue) {
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        if (expectedValue == null) {
+            assertFalse(tuple.getValue(CF, Bytes.toBytes(qualifier), ptr));
+            assertNull(tuple.getValue(CF, Bytes.toBytes(qualifier)));
+        } else {
+            assertTrue(tuple.getValue(CF, Bytes.toBytes(qualifier), ptr));
+            assertEquals(expectedValue, Bytes.toString(ptr.get(), ptr.getOffset(), ptr.getLength()));
+            Cell cell = tuple.getValue(CF, Bytes.toBytes(qualifier));
+            assertEquals(qualifier, Bytes.toString(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength()));
+        }
+    }
+
+    @Test
+    public void testTuplesShareChunk() {
+        TupleArena arena = new TupleArena(1024);
+        Tuple tuple1 = arena.add(newTuple("r1", "A", "C", "E"));
+        Tuple tuple2 = arena.add(newTuple("r2", "B"));
+        assertEquals(1024, arena.getByteSize());
+
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        tuple1.getKey(ptr);
+        assertEquals("r1", Bytes.toString(ptr.get(), ptr.getOffset(), ptr.getLength()));
+        tuple2.getKey(ptr);
+        assertEquals("r2", Bytes.toString(ptr.get(), ptr.getOffset(), ptr.getLength()));
+        assertEquals(3, tuple1.size());
+        assertEquals(1, tuple2.size());
+        assertEquals("r1C", Bytes.toString(((KeyValue)tuple1.getValue(1)).getValue()));
+
+        assertValue(tuple1, "A", "r1A");
+        assertValue(tuple1, "C", "r1C");
+        assertValue(tuple1, "E", "r1E");
+        assertValue(tuple1, "B", null);
+        assertValue(tuple1, "F", null);
+        assertValue(tuple2, "B", "r2B");
+        assertValue(tuple2, "A", null);
+    }
+
+    @Test
+    public void testRowLargerThanChunk() {
+        TupleArena arena = new TupleArena(64);
+        Tuple tuple1 = arena.add(newTuple("r1", "A"));
+        Tuple tuple2 = arena.add(newTuple("r2", "A", "B", "C", "D"));
+        assertTrue(arena.getByteSize() > 64);
+        assertValue(tuple1, "A", "r1A");
+        assertValue(tuple2, "D", "r2D");
+        assertEquals(4, tuple2.size());
+    }
+
+    @Test
+    public void testChunksGrow() {
+        TupleArena arena = new TupleArena(4 * TupleArena.INITIAL_CHUNK_SIZE);
+        arena.add(newTuple("r0", "A"));
+        assertEquals(TupleArena.INITIAL_CHUNK_SIZE, arena.getByteSize());
+        // Each new chunk doubles in size until the maximum chunk size is reached
+        List<Long> byteSizes = Lists.newArrayList(arena.getByteSize());
+        for (int i = 1; byteSizes.size() < 4; i++) {
+            arena.add(newTuple("r" + i, "A", "B"));
+            if (arena.getByteSize() != byteSizes.get(byteSizes.size() - 1)) {
+                byteSizes.add(arena.getByteSize());
+            }
+        }
+        int initial = TupleArena.INITIAL_CHUNK_SIZE;
+        assertEquals(Arrays.asList((long)initial, 3L * initial, 7L * initial, 11L * initial), byteSizes);
+    }
+
+    @Test
+    public void testKeyValueReadInPlace() {
+        TupleArena arena = new TupleArena();
+        Tuple tuple = newTuple("r1", "A", "B");
+        ArenaTuple arenaTuple = arena.add(tuple);
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        for (int i = 0; i < tuple.size(); i++) {
+            arenaTuple.getKeyValue(i, ptr);
+            KeyValue kv = (KeyValue)tuple.getValue(i);
+            assertEquals(0, Bytes.compareTo(kv.getBuffer(), kv.getOffset(), kv.getLength(),
+                    ptr.get(), ptr.getOffset(), ptr.getLength()));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class CompactByteSetTest {
+
+    private static CompactByteSet newSet(TreeSet<byte[]> values) {
+        List<ImmutableBytesPtr> ptrs = Lists.newArrayList();
+        for (byte[] value : values) {
+            ptrs.add(new ImmutableBytesPtr(value));
+        }
+        return CompactByteSet.create(ptrs.toArray(new ImmutableBytesPtr[ptrs.size()]));
+    }
+
+    private static boolean contains(CompactByteSet set, String value) {
+        byte[] b = Bytes.toBytes("x" + value + "y");
+        return set.contains(b, 1, b.length - 2);
+    }
+
+    @Test
+    public void testContainsPrefixes() {
+        TreeSet<byte[]> values = new TreeSet<byte[]>(Bytes.BYTES_COMPARATOR);
+        for (String value : new String[] {"a", "ab", "abc", "abd", "abdd", "b", "ba", "bb", "c"}) {
+            values.add(Bytes.toBytes(value));
+        }
+        CompactByteSet set = newSet(values);
+        assertEquals(9, set.size());
+        for (byte[] value : values) {
+            assertTrue(contains(set, Bytes.toString(value)));
+        }
+        assertFalse(contains(set, ""));
+        assertFalse(contains(set, "aa"));
+        assertFalse(contains(set, "abb"));
+        assertFalse(contains(set, "abcd"));
+        assertFalse(contains(set, "abde"));
+        assertFalse(contains(set, "bc"));
+        assertFalse(contains(set, "d"));
+        assertEquals("a", Bytes.toString(set.first().copyBytes()));
+        assertEquals("c", Bytes.toString(set.last().copyBytes()));
+    }
+
+    @Test
+    public void testContainsRandomValues() throws Exception {
+        Random random = new Random(42);
+        TreeSet<byte[]> values = new TreeSet<byte[]>(Bytes.BYTES_COMPARATOR);
+        for (int i = 0; i < 2000; i++) {
+            byte[] value = new byte[1 + random.nextInt(6)];
+            for (int j = 0; j < value.length; j++) {
+                value[j] = (byte)random.nextInt(4);
+            }
+            values.add(value);
+        }
+        CompactByteSet set = newSet(values);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        set.write(new DataOutputStream(stream));
+        CompactByteSet readSet = CompactByteSet.read(new DataInputStream(new ByteArrayInputStream(stream.toByteArray())));
+        assertEquals(set, readSet);
+        assertEquals(values.size(), readSet.size());
+        
+        Iterator<ImmutableBytesPtr> iterator = readSet.iterator();
+        for (byte[] value : values) {
+            assertTrue(Bytes.equals(value, iterator.next().copyBytes()));
+        }
+        assertFalse(iterator.hasNext());
+        for (int i = 0; i < 5000; i++) {
+            byte[] probe = new byte[random.nextInt(8)];
+            for (int j = 0; j < probe.length; j++) {
+                probe[j] = (byte)random.nextInt(5);
+            }
+            assertEquals(Bytes.toStringBinary(probe), values.contains(probe), readSet.contains(probe, 0, probe.length));
+        }
+    }
+
+    @Test
+    public void testEmptySet() throws Exception {
+        CompactByteSet set = CompactByteSet.create(new ImmutableBytesPtr[0]);
+        assertTrue(set.isEmpty());
+        assertNull(set.first());
+        assertFalse(contains(set, "a"));
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        set.write(new DataOutputStream(stream));
+        assertTrue(CompactByteSet.read(new DataInputStream(new ByteArrayInputStream(stream.toByteArray()))).isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.hbase.index.util.GenericKeyValueBuilder;
+import org.junit.Test;
+
+public class KeyValueUtilTest {
+    private static final byte[] ROW = Bytes.toBytes("r");
+    private static final byte[] CF1 = Bytes.toBytes("A");
+    private static final byte[] CF2 = Bytes.toBytes("B");
+
+    private static Cell kv(byte[] cf, String cq, long ts) {
+        return KeyValueUtil.newKeyValue(ROW, cf, Bytes.toBytes(cq), ts, Bytes.toBytes(cq + ts));
+    }
+
+    private static Cell getColumnLatest(Cell[] kvs, byte[] cf, String cq, int position) {
+        return KeyValueUtil.getColumnLatest(GenericKeyValueBuilder.INSTANCE, kvs, cf, Bytes.toBytes(cq), position);
+    }
+
+    @Test
+    public void testGetColumnLatestAtExpectedPosition() {
+        Cell[] kvs = new Cell[] {kv(CF1, "a", 1), kv(CF1, "b", 1), kv(CF2, "a", 1), kv(CF2, "c", 1)};
+        for (int i = 0; i < kvs.length; i++) {
+            Cell kv = kvs[i];
+            assertSame(kv, KeyValueUtil.getColumnLatest(GenericKeyValueBuilder.INSTANCE, kvs,
+                    CellUtil.cloneFamily(kv), CellUtil.cloneQualifier(kv), i));
+        }
+    }
+
+    @Test
+    public void testGetColumnLatestWithMissingColumns() {
+        // Column A:b is missing from the row, moving the others towards the start
+        Cell[] kvs = new Cell[] {kv(CF1, "a", 1), kv(CF2, "a", 1), kv(CF2, "c", 1)};
+        assertNull(getColumnLatest(kvs, CF1, "b", 1));
+        assertSame(kvs[1], getColumnLatest(kvs, CF2, "a", 2));
+        assertSame(kvs[2], getColumnLatest(kvs, CF2, "c", 3));
+        assertNull(getColumnLatest(kvs, CF2, "d", 4));
+        // Unexpected columns before the column move it towards the end
+        assertSame(kvs[2], getColumnLatest(kvs, CF2, "c", 0));
+        assertNull(getColumnLatest(kvs, CF2, "b", 0));
+        assertSame(kvs[1], getColumnLatest(kvs, CF2, "a", -1));
+    }
+
+    @Test
+    public void testGetColumnLatestWithMultipleVersions() {
+        Cell[] kvs = new Cell[] {kv(CF1, "a", 2), kv(CF1, "a", 1), kv(CF1, "b", 3), kv(CF1, "b", 2), kv(CF1, "b", 1)};
+        assertSame(kvs[2], getColumnLatest(kvs, CF1, "b", 4));
+        assertSame(kvs[2], getColumnLatest(kvs, CF1, "b", 1));
+        assertSame(kvs[0], getColumnLatest(kvs, CF1, "a", 1));
+        assertEquals(3, getColumnLatest(kvs, CF1, "b", 0).getTimestamp());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.schema.SortOrder;
+import org.junit.Test;
+
+public class LikeMatcherTest {
+
+    private static boolean matches(String pattern, String value) {
+        LikeMatcher matcher = LikeMatcher.compile(pattern);
+        byte[] b = Bytes.toBytes("xx" + value + "yy");
+        boolean matched = matcher.matches(b, 2, b.length - 4, SortOrder.ASC);
+        byte[] inverted = SortOrder.invert(b, 0, b.length);
+        assertEquals(matched, matcher.matches(inverted, 2, inverted.length - 4, SortOrder.DESC));
+        return matched;
+    }
+
+    @Test
+    public void testExactMatch() {
+        assertTrue(matches("abc", "abc"));
+        assertFalse(matches("abc", "abcd"));
+        assertFalse(matches("abc", "ab"));
+        assertTrue(matches("", ""));
+    }
+
+    @Test
+    public void testPrefixAndSuffix() {
+        assertTrue(matches("ab%", "abcd"));
+        assertTrue(matches("ab%", "ab"));
+        assertFalse(matches("ab%", "xabcd"));
+        assertTrue(matches("%cd", "abcd"));
+        assertFalse(matches("%cd", "abcdx"));
+        assertTrue(matches("ab%ba", "abba"));
+        assertFalse(matches("ab%ba", "aba"));
+    }
+
+    @Test
+    public void testContains() {
+        assertTrue(matches("%", ""));
+        assertTrue(matches("%bc%", "abcd"));
+        assertFalse(matches("%bd%", "abcd"));
+        assertTrue(matches("a%c%e", "abcde"));
+        assertFalse(matches("a%d%c", "abcde"));
+        assertTrue(matches("%\u00e9t\u00e9%", "l'\u00e9t\u00e9 dernier"));
+        assertTrue(matches("%b%", "a\nb\nc"));
+    }
+
+    @Test
+    public void testEscapedWildcards() {
+        assertTrue(matches("100\\%", "100%"));
+        assertFalse(matches("100\\%", "1000"));
+        assertTrue(matches("a\\_b%", "a_bc"));
+        assertFalse(matches("a\\_b%", "axbc"));
+    }
+
+    @Test
+    public void testSingleCharWildcardNotSupported() {
+        assertNull(LikeMatcher.compile("a_c"));
+        assertNull(LikeMatcher.compile("%_"));
+    }
+
+    @Test
+    public void testIndexOf() {
+        byte[] b = Bytes.toBytes("abcabc");
+        assertEquals(1, LikeMatcher.indexOf(b, 0, b.length, Bytes.toBytes("bc")));
+        assertEquals(4, LikeMatcher.indexOf(b, 2, b.length, Bytes.toBytes("bc")));
+        assertEquals(-1, LikeMatcher.indexOf(b, 2, 4, Bytes.toBytes("bc")));
+        assertEquals(3, LikeMatcher.indexOf(b, 3, b.length, new byte[0]));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+public class PackedCellUtilTest {
+
+    private static String getValue(byte[] packed, int index) {
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable(packed);
+        PackedCellUtil.getValue(ptr, index);
+        return Bytes.toString(ptr.get(), ptr.getOffset(), ptr.getLength());
+    }
+
+    @Test
+    public void testEncodeAndGetValue() {
+        byte[] packed = PackedCellUtil.encode(new byte[][] {Bytes.toBytes("a"), null, Bytes.toBytes("ccc"), null});
+        assertEquals("a", getValue(packed, 0));
+        assertEquals("", getValue(packed, 1));
+        assertEquals("ccc", getValue(packed, 2));
+        // Trailing null values and values past the end are not stored
+        assertEquals("", getValue(packed, 3));
+        assertEquals("", getValue(packed, 10));
+        assertEquals(Bytes.SIZEOF_INT * 4 + 4, packed.length);
+    }
+
+    @Test
+    public void testAllNull() {
+        byte[] packed = PackedCellUtil.encode(new byte[][] {null, ByteUtil.EMPTY_BYTE_ARRAY});
+        assertTrue(PackedCellUtil.isEmpty(packed));
+        assertEquals("", getValue(packed, 0));
+    }
+
+    @Test
+    public void testGetValueWithOffset() {
+        byte[] packed = PackedCellUtil.encode(new byte[][] {Bytes.toBytes("xy"), Bytes.toBytes("z")});
+        byte[] buf = new byte[packed.length + 5];
+        System.arraycopy(packed, 0, buf, 3, packed.length);
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable(buf, 3, packed.length);
+        PackedCellUtil.getValue(ptr, 1);
+        assertEquals("z", Bytes.toString(ptr.get(), ptr.getOffset(), ptr.getLength()));
+    }
+}
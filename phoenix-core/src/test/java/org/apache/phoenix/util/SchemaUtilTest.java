@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+import org.apache.phoenix.query.QueryConstants;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+public class SchemaUtilTest {
+
+    @Test
+    public void testEncodedColumnQualifier() {
+        assertArrayEquals(new byte[] {0x00, 0x00}, SchemaUtil.getEncodedColumnQualifier(0, 0));
+        assertArrayEquals(new byte[] {0x01, 0x1F, 0x0F}, SchemaUtil.getEncodedColumnQualifier(1, 255));
+        assertArrayEquals(new byte[] {0x11, 0x00, 0x02}, SchemaUtil.getEncodedColumnQualifier(16, 2));
+    }
+
+    @Test
+    public void testEncodedColumnQualifiersAreUnique() {
+        Set<ImmutableBytesPtr> qualifiers = Sets.newHashSet();
+        for (long seqNum = 0; seqNum < 300; seqNum++) {
+            for (int ordinal = 0; ordinal < 300; ordinal++) {
+                byte[] qualifier = SchemaUtil.getEncodedColumnQualifier(seqNum, ordinal);
+                for (byte b : qualifier) {
+                    assertTrue(b >= 0 && b < 0x20);
+                }
+                assertTrue(SchemaUtil.isEncodedColumnQualifier(qualifier));
+                assertTrue(qualifiers.add(new ImmutableBytesPtr(qualifier)));
+            }
+        }
+    }
+
+    @Test
+    public void testColumnNamesAreNotEncodedColumnQualifiers() {
+        assertFalse(SchemaUtil.isEncodedColumnQualifier(Bytes.toBytes("COL1")));
+        assertFalse(SchemaUtil.isEncodedColumnQualifier(QueryConstants.EMPTY_COLUMN_BYTES));
+        assertFalse(SchemaUtil.isEncodedColumnQualifier(QueryConstants.PACKED_COLUMN_BYTES));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.expression.Expression;
+import org.apache.phoenix.expression.LiteralExpression;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+import org.apache.phoenix.schema.PDataType;
+import org.junit.Test;
+
+public class TupleUtilTest {
+
+    private static List<Expression> newExpressions(String... values) throws Exception {
+        Expression[] expressions = new Expression[values.length];
+        for (int i = 0; i < values.length; i++) {
+            expressions[i] = LiteralExpression.newConstant(values[i], PDataType.VARCHAR);
+        }
+        return Arrays.asList(expressions);
+    }
+
+    @Test
+    public void testConcatenatedValueWithScratchSpace() throws Exception {
+        TrustedByteArrayOutputStream output = new TrustedByteArrayOutputStream(0);
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        TupleUtil.getConcatenatedValue(null, newExpressions("ab", "c"), ptr, output);
+        assertEquals("ab\\x00c", Bytes.toStringBinary(ptr.get(), ptr.getOffset(), ptr.getLength()));
+        byte[] retained = ptr.copyBytes();
+        
+        TupleUtil.getConcatenatedValue(null, newExpressions("d", "ef"), ptr, output);
+        assertEquals("d\\x00ef", Bytes.toStringBinary(ptr.get(), ptr.getOffset(), ptr.getLength()));
+        assertEquals("ab\\x00c", Bytes.toStringBinary(retained));
+        
+        TupleUtil.getConcatenatedValue(null, newExpressions("g"), ptr, output);
+        assertEquals("g", Bytes.toStringBinary(ptr.get(), ptr.getOffset(), ptr.getLength()));
+    }
+
+    @Test
+    public void testConcatenatedValueAllocated() throws Exception {
+        ImmutableBytesPtr first = TupleUtil.getConcatenatedValue(null, newExpressions("ab", "c"));
+        ImmutableBytesPtr second = TupleUtil.getConcatenatedValue(null, newExpressions("ab", "c"));
+        assertEquals(first, second);
+        assertEquals("ab\\x00c", Bytes.toStringBinary(first.get(), first.getOffset(), first.getLength()));
+    }
+}
@@ -34,6 +34,7 @@ import org.apache.flume.Channel;
 import org.apache.flume.Context;
 import org.apache.flume.Event;
 import org.apache.flume.EventDeliveryException;
+import org.apache.flume.Sink.Status;
 import org.apache.flume.Transaction;
 import org.apache.flume.channel.MemoryChannel;
 import org.apache.flume.conf.Configurables;
@@ -201,6 +202,78 @@ public class RegexEventSerializerIT extends BaseHBaseManagedTimeIT {
         
     }
     
+    @Test
+    public void testParallelWriters() throws EventDeliveryException, SQLException {
+        final String fullTableName = "FLUME_PARALLEL_TEST";
+        initParallelSinkContext(fullTableName);
+        sink = new PhoenixSink();
+        Configurables.configure(sink, sinkContext);
+        final Channel channel = this.initChannel();
+        sink.setChannel(channel);
+        sink.start();
+
+        int numEvents = 25;
+        List<Event> eventList = Lists.newArrayListWithCapacity(numEvents);
+        for (int i = 0 ; i < numEvents ; i++) {
+            eventList.add(EventBuilder.withBody(Bytes.toBytes("k" + i + "\t" + i)));
+        }
+        putEvents(channel, eventList);
+
+        // Two full batches of 10 and one of 5, each partitioned across 3 writers
+        assertEquals(Status.READY, sink.process());
+        assertEquals(Status.READY, sink.process());
+        assertEquals(Status.BACKOFF, sink.process());
+        assertEquals(numEvents, countRows(fullTableName));
+
+        sink.stop();
+        assertEquals(LifecycleState.STOP, sink.getLifecycleState());
+    }
+
+    @Test
+    public void testParallelWritersCommitNothingOnFailure() throws EventDeliveryException, SQLException {
+        final String fullTableName = "FLUME_PARALLEL_FAILURE_TEST";
+        initParallelSinkContext(fullTableName);
+        sink = new PhoenixSink();
+        Configurables.configure(sink, sinkContext);
+        final Channel channel = this.initChannel();
+        sink.setChannel(channel);
+        sink.start();
+
+        int numEvents = 10;
+        List<Event> eventList = Lists.newArrayListWithCapacity(numEvents);
+        for (int i = 0 ; i < numEvents - 1 ; i++) {
+            eventList.add(EventBuilder.withBody(Bytes.toBytes("k" + i + "\t" + i)));
+        }
+        // The chunk of the last writer fails, as its value is not an integer
+        eventList.add(EventBuilder.withBody(Bytes.toBytes("k" + (numEvents - 1) + "\tnot a number")));
+        putEvents(channel, eventList);
+
+        try {
+            sink.process();
+            fail();
+        } catch (EventDeliveryException e) {
+        }
+        // The chunks of the other writers were not committed
+        assertEquals(0, countRows(fullTableName));
+
+        // The batch is back in the channel, and the writers no longer hold the rolled back events
+        Transaction transaction = channel.getTransaction();
+        transaction.begin();
+        for (int i = 0 ; i < numEvents ; i++) {
+            assertTrue(channel.take() != null);
+        }
+        transaction.commit();
+        transaction.close();
+        eventList = Lists.newArrayList();
+        eventList.add(EventBuilder.withBody(Bytes.toBytes("k0\t0")));
+        putEvents(channel, eventList);
+        assertEquals(Status.BACKOFF, sink.process());
+        assertEquals(1, countRows(fullTableName));
+
+        sink.stop();
+        assertEquals(LifecycleState.STOP, sink.getLifecycleState());
+    }
+
     @Test
     public void testApacheLogRegex() throws Exception {
         
@@ -382,6 +455,32 @@ public class RegexEventSerializerIT extends BaseHBaseManagedTimeIT {
         
       }
     
+    private void initParallelSinkContext(final String fullTableName) {
+        Preconditions.checkNotNull(fullTableName);
+        sinkContext = new Context ();
+        String ddl = "CREATE TABLE " + fullTableName +
+                "  (k varchar not null primary key, v integer)\n";
+
+        sinkContext.put(FlumeConstants.CONFIG_TABLE, fullTableName);
+        sinkContext.put(FlumeConstants.CONFIG_JDBC_URL, getUrl());
+        sinkContext.put(FlumeConstants.CONFIG_SERIALIZER,EventSerializers.REGEX.name());
+        sinkContext.put(FlumeConstants.CONFIG_TABLE_DDL, ddl);
+        sinkContext.put(FlumeConstants.CONFIG_BATCHSIZE, "10");
+        sinkContext.put(FlumeConstants.CONFIG_WRITER_THREADS, "3");
+        sinkContext.put(FlumeConstants.CONFIG_SERIALIZER_PREFIX + FlumeConstants.CONFIG_REGULAR_EXPRESSION,"^([^\t]+)\t([^\t]+)$");
+        sinkContext.put(FlumeConstants.CONFIG_SERIALIZER_PREFIX + FlumeConstants.CONFIG_COLUMN_NAMES,"k,v");
+    }
+
+    private void putEvents(final Channel channel, final List<Event> events) {
+        Transaction transaction = channel.getTransaction();
+        transaction.begin();
+        for(Event event : events) {
+            channel.put(event);
+        }
+        transaction.commit();
+        transaction.close();
+    }
+
     private void setConfig(final String configName , final String configValue) {
         Preconditions.checkNotNull(sinkContext);
         Preconditions.checkNotNull(configName);
@@ -55,6 +55,21 @@ public final class FlumeConstants {
      */
     public static final Integer DEFAULT_BATCH_SIZE = 100;
 
+    /**
+     * Number of connections, each with its own writer thread, that a batch of events is
+     * partitioned across. Events are handed to the writers while the rest of the batch is
+     * still being taken from the channel. The writers commit in parallel once all of them
+     * have upserted their events. If one of these commits fails, the whole batch is delivered
+     * again and the events already committed are upserted a second time. This rewrites the
+     * same rows, unless the row key is generated by the sink.
+     */
+    public static final String CONFIG_WRITER_THREADS = "writerThreads";
+
+    /**
+     * Default number of writer threads. A single writer upserts on the sink thread.
+     */
+    public static final Integer DEFAULT_WRITER_THREADS = 1;
+
     /** Regular expression used to parse groups from event data. */
     public static final String CONFIG_REGULAR_EXPRESSION = "regex";
     public static final String REGEX_DEFAULT = "(.*)";
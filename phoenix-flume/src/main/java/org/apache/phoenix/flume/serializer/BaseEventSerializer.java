@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.Properties;
 
 import org.apache.flume.Context;
+import org.apache.flume.Event;
 import org.apache.flume.conf.ComponentConfiguration;
 import org.apache.phoenix.exception.SQLExceptionCode;
 import org.apache.phoenix.exception.SQLExceptionInfo;
@@ -225,6 +226,28 @@ public abstract class BaseEventSerializer implements EventSerializer {
        return position;
     }
     
+    @Override
+    public void upsertEvents(List<Event> events) throws SQLException {
+        try {
+            stageEvents(events);
+            commit();
+        } catch (SQLException e) {
+            // Don't leave the events to be committed along with the next batch
+            rollback();
+            throw e;
+        }
+    }
+    
+    @Override
+    public void commit() throws SQLException {
+        connection.commit();
+    }
+    
+    @Override
+    public void rollback() throws SQLException {
+        connection.rollback();
+    }
+    
     public abstract void doConfigure(Context context);
     
     public abstract void doInitialize() throws SQLException;
@@ -34,9 +34,30 @@ public interface EventSerializer extends Configurable,ConfigurableComponent,SQLC
     public void initialize() throws SQLException;
     
     /**
+     * Upserts and commits the events. Nothing is committed if any of them fails.
      * @param events to be written to HBase.
      * @throws SQLException 
      */
     public void upsertEvents(List<Event> events) throws SQLException;
     
+    /**
+     * Upserts the events without committing them, so that several serializers can each
+     * upsert part of a batch that is only committed once all of them have succeeded.
+     * @param events to be written to HBase by the next {@link #commit()}.
+     * @throws SQLException 
+     */
+    public void stageEvents(List<Event> events) throws SQLException;
+    
+    /**
+     * Writes the events upserted since the last commit or rollback to HBase.
+     * @throws SQLException 
+     */
+    public void commit() throws SQLException;
+    
+    /**
+     * Discards the events upserted since the last commit or rollback.
+     * @throws SQLException 
+     */
+    public void rollback() throws SQLException;
+    
 }
@@ -42,6 +42,7 @@ public class RegexEventSerializer extends BaseEventSerializer {
     private static final Logger logger = LoggerFactory.getLogger(RegexEventSerializer.class);
   
     private Pattern inputPattern;
+    private PreparedStatement colUpsert;
     
     /**
      * 
@@ -59,17 +60,17 @@ public class RegexEventSerializer extends BaseEventSerializer {
      */
     @Override
     public void doInitialize() throws SQLException {
-        // NO-OP
+        // Compile the upsert once and rebind it for every event
+        colUpsert = connection.prepareStatement(upsertStatement);
     }
     
    
     @Override
-    public void upsertEvents(List<Event> events) throws SQLException {
+    public void stageEvents(List<Event> events) throws SQLException {
        Preconditions.checkNotNull(events);
        Preconditions.checkNotNull(connection);
-       Preconditions.checkNotNull(this.upsertStatement);
+       Preconditions.checkNotNull(this.colUpsert);
        
-       PreparedStatement colUpsert = connection.prepareStatement(upsertStatement);
        boolean wasAutoCommit = connection.getAutoCommit();
        connection.setAutoCommit(false);
        
@@ -132,7 +133,6 @@ public class RegexEventSerializer extends BaseEventSerializer {
                } 
                colUpsert.execute();
            }
-           connection.commit();
        } catch(Exception ex){
            logger.error("An error {} occurred during persisting the event ",ex.getMessage());
            throw new SQLException(ex.getMessage());
@@ -144,4 +144,15 @@ public class RegexEventSerializer extends BaseEventSerializer {
        
     }
 
+    @Override
+    public void close() {
+        if (colUpsert != null) {
+            try {
+                colUpsert.close();
+            } catch (SQLException e) {
+                logger.error(" Error while closing upsert statement {} ", e.getMessage());
+            }
+        }
+        super.close();
+    }
 }
@@ -19,6 +19,11 @@ package org.apache.phoenix.flume.sink;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -41,6 +46,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public final class PhoenixSink  extends AbstractSink implements Configurable {
     private static final Logger logger = LoggerFactory.getLogger(PhoenixSink.class);
@@ -50,6 +56,9 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
     private SinkCounter sinkCounter;
     private Integer    batchSize;
     private EventSerializer serializer;
+    /** One serializer, and thus one connection, per writer thread when writing in parallel */
+    private List<EventSerializer> writers;
+    private ExecutorService writerPool;
  
     public PhoenixSink(){
     }
@@ -58,10 +67,20 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
     public void configure(Context context){
         this.setName(NAME + counter.incrementAndGet());
         this.batchSize = context.getInteger(FlumeConstants.CONFIG_BATCHSIZE, FlumeConstants.DEFAULT_BATCH_SIZE);
+        final int writerThreads = context.getInteger(FlumeConstants.CONFIG_WRITER_THREADS, FlumeConstants.DEFAULT_WRITER_THREADS);
         final String eventSerializerType = context.getString(FlumeConstants.CONFIG_SERIALIZER);
         
         Preconditions.checkNotNull(eventSerializerType,"Event serializer cannot be empty, please specify in the configuration file");
-        initializeSerializer(context,eventSerializerType);
+        Preconditions.checkArgument(writerThreads > 0, "Number of writer threads must be positive");
+        this.serializer = initializeSerializer(context,eventSerializerType,true);
+        if (writerThreads > 1) {
+            this.writers = Lists.newArrayListWithExpectedSize(writerThreads);
+            this.writers.add(serializer);
+            for (int i = 1; i < writerThreads; i++) {
+                // Only the first serializer needs to run the table DDL
+                this.writers.add(initializeSerializer(context,eventSerializerType,false));
+            }
+        }
         this.sinkCounter = new SinkCounter(this.getName());
     }
 
@@ -69,7 +88,7 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
      * Initializes the serializer for flume events.
      * @param eventSerializerType
      */
-    private void initializeSerializer(final Context context,final String eventSerializerType) {
+    private EventSerializer initializeSerializer(final Context context,final String eventSerializerType, final boolean createTable) {
         
        EventSerializers eventSerializer = null;
        try {
@@ -83,7 +102,11 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
        final Context serializerContext = new Context();
        serializerContext.putAll(context.getSubProperties(FlumeConstants.CONFIG_SERIALIZER_PREFIX));
        copyPropertiesToSerializerContext(context,serializerContext);
+       if (!createTable) {
+           serializerContext.put(FlumeConstants.CONFIG_TABLE_DDL, null);
+       }
              
+       EventSerializer serializer = null;
        try {
          @SuppressWarnings("unchecked")
          Class<? extends EventSerializer> clazz = (Class<? extends EventSerializer>) Class.forName(eventSerializer.getClassName());
@@ -94,6 +117,7 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
          logger.error("Could not instantiate event serializer." , e);
          Throwables.propagate(e);
        }
+       return serializer;
     }
 
     private void copyPropertiesToSerializerContext(Context context, Context serializerContext) {
@@ -110,8 +134,17 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
         logger.info("Starting sink {} ",this.getName());
         sinkCounter.start();
         try {
-              serializer.initialize();
-              sinkCounter.incrementConnectionCreatedCount();
+              if (writers == null) {
+                  serializer.initialize();
+                  sinkCounter.incrementConnectionCreatedCount();
+              } else {
+                  for (EventSerializer writer : writers) {
+                      writer.initialize();
+                      sinkCounter.incrementConnectionCreatedCount();
+                  }
+                  writerPool = Executors.newFixedThreadPool(writers.size(), new ThreadFactoryBuilder()
+                          .setNameFormat(this.getName() + "-writer-%d").setDaemon(true).build());
+              }
         } catch(Exception ex) {
             sinkCounter.incrementConnectionFailedCount();
             logger.error("Error {} in initializing the serializer.",ex.getMessage());
@@ -123,12 +156,23 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
     @Override
     public void stop(){
       super.stop();
-      try {
-          serializer.close();
-        } catch (SQLException e) {
-            logger.error(" Error while closing connection {} for sink {} ",e.getMessage(),this.getName());
-        }
-      sinkCounter.incrementConnectionClosedCount();
+      if (writerPool != null) {
+          writerPool.shutdown();
+          try {
+              writerPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+          } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+          }
+          writerPool = null;
+      }
+      for (EventSerializer writer : writers == null ? Lists.newArrayList(serializer) : writers) {
+          try {
+              writer.close();
+          } catch (SQLException e) {
+              logger.error(" Error while closing connection {} for sink {} ",e.getMessage(),this.getName());
+          }
+          sinkCounter.incrementConnectionClosedCount();
+      }
       sinkCounter.stop();
     }
 
@@ -139,6 +183,11 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
         Channel channel = getChannel();
         Transaction transaction = null;
         List<Event>  events = Lists.newArrayListWithExpectedSize(this.batchSize); 
+        // When writing in parallel, events are partitioned into one chunk per writer and each
+        // chunk is handed off as soon as it is full, while the rest are still being taken.
+        final int chunkSize = writerPool == null ? this.batchSize : (this.batchSize + writers.size() - 1) / writers.size();
+        List<Future<Void>> pendingWrites = Lists.newArrayListWithExpectedSize(writers == null ? 0 : writers.size());
+        int chunkStart = 0;
         long startTime = System.nanoTime();
         try {
             transaction = channel.getTransaction();
@@ -156,6 +205,10 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
                   break;
                 } else {
                   events.add(event);
+                  if (writerPool != null && events.size() - chunkStart == chunkSize) {
+                      pendingWrites.add(submitWrite(writers.get(pendingWrites.size()), Lists.newArrayList(events.subList(chunkStart, events.size()))));
+                      chunkStart = events.size();
+                  }
                 }
             }
             if (!events.isEmpty()) {
@@ -167,7 +220,21 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
                     status = Status.BACKOFF;
                 }
                 // save to Hbase
-                serializer.upsertEvents(events);
+                if (writerPool == null) {
+                    serializer.upsertEvents(events);
+                } else {
+                    if (chunkStart < events.size()) {
+                        pendingWrites.add(submitWrite(writers.get(pendingWrites.size()), Lists.newArrayList(events.subList(chunkStart, events.size()))));
+                    }
+                    int chunkCount = pendingWrites.size();
+                    waitForWrites(pendingWrites);
+                    // Only commit once every chunk has been upserted, so that a failed chunk
+                    // doesn't leave the others persisted when the channel transaction is rolled back
+                    for (int j = 0; j < chunkCount; j++) {
+                        pendingWrites.add(submitCommit(writers.get(j)));
+                    }
+                    waitForWrites(pendingWrites);
+                }
                 sinkCounter.addToEventDrainSuccessCount(events.size());
             }
             else {
@@ -177,17 +244,23 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
             }
             transaction.commit();
         } catch (ChannelException e) {
+            waitForWritesQuietly(pendingWrites);
+            rollbackWriters();
             transaction.rollback();
             status = Status.BACKOFF;
             sinkCounter.incrementConnectionFailedCount();
         }
         catch (SQLException e) {
+            waitForWritesQuietly(pendingWrites);
+            rollbackWriters();
             sinkCounter.incrementConnectionFailedCount();
             transaction.rollback();
             logger.error("exception while persisting to Hbase ", e);
             throw new EventDeliveryException("Failed to persist message to Hbase", e);
         }
         catch (Throwable e) {
+            waitForWritesQuietly(pendingWrites);
+            rollbackWriters();
             transaction.rollback();
             logger.error("exception while processing in Phoenix Sink", e);
             throw new EventDeliveryException("Failed to persist message", e);
@@ -203,4 +276,76 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
         return status;
    }
 
+    private Future<Void> submitWrite(final EventSerializer writer, final List<Event> chunk) {
+        return writerPool.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                writer.stageEvents(chunk);
+                return null;
+            }
+        });
+    }
+
+    private Future<Void> submitCommit(final EventSerializer writer) {
+        return writerPool.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                writer.commit();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Discards the events that the writers upserted but did not commit, so that they are not
+     * committed along with the next batch once the channel delivers them again.
+     */
+    private void rollbackWriters() {
+        if (writers == null) {
+            return;
+        }
+        for (EventSerializer writer : writers) {
+            try {
+                writer.rollback();
+            } catch (SQLException e) {
+                logger.error("Error while rolling back writer of sink {} ", this.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Waits for all writes of the batch to complete, so that the channel transaction is only
+     * committed once every event has been persisted.
+     */
+    private static void waitForWrites(List<Future<Void>> pendingWrites) throws SQLException, InterruptedException {
+        Throwable failure = null;
+        for (Future<Void> pendingWrite : pendingWrites) {
+            try {
+                pendingWrite.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        pendingWrites.clear();
+        if (failure instanceof SQLException) {
+            throw (SQLException)failure;
+        } else if (failure != null) {
+            throw new SQLException(failure);
+        }
+    }
+
+    /**
+     * Waits for in flight writes before the transaction is rolled back, as their writers will be
+     * reused by the next batch.
+     */
+    private static void waitForWritesQuietly(List<Future<Void>> pendingWrites) {
+        try {
+            waitForWrites(pendingWrites);
+        } catch (Exception e) {
+            logger.debug("Ignoring write failure of a batch being rolled back", e);
+        }
+    }
+
 }
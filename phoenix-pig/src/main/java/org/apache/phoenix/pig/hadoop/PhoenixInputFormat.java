@@ -28,7 +28,6 @@ import java.util.List;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.InputFormat;
 import org.apache.hadoop.mapreduce.InputSplit;
@@ -38,10 +37,8 @@ import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.phoenix.compile.QueryPlan;
 import org.apache.phoenix.jdbc.PhoenixStatement;
 import org.apache.phoenix.pig.PhoenixPigConfiguration;
-import org.apache.phoenix.query.KeyRange;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 
 /**
  * The InputFormat class for generating the splits and creating the record readers.
@@ -78,19 +75,14 @@ public final class PhoenixInputFormat extends InputFormat<NullWritable, PhoenixR
     public List<InputSplit> getSplits(JobContext context) throws IOException, InterruptedException {  
         setConf(context.getConfiguration());
         final QueryPlan queryPlan = getQueryPlan(context);
-        final List<KeyRange> allSplits = queryPlan.getSplits();
-        final List<InputSplit> splits = generateSplits(queryPlan,allSplits);
-        return splits;
-    }
-
-    private List<InputSplit> generateSplits(final QueryPlan qplan, final List<KeyRange> splits) throws IOException {
-        Preconditions.checkNotNull(qplan);
-        Preconditions.checkNotNull(splits);
-        final List<InputSplit> psplits = Lists.newArrayListWithExpectedSize(splits.size());
-        for (List<Scan> scans : qplan.getScans()) {
-            psplits.add(new PhoenixInputSplit(scans));
+        final long targetSplitBytes = context.getConfiguration().getLong(
+                org.apache.phoenix.mapreduce.PhoenixInputFormat.SPLIT_TARGET_BYTES_CONFKEY,
+                org.apache.phoenix.mapreduce.PhoenixInputFormat.DEFAULT_SPLIT_TARGET_BYTES);
+        try {
+            return org.apache.phoenix.mapreduce.PhoenixInputFormat.generateSplits(queryPlan, targetSplitBytes);
+        } catch (SQLException sqle) {
+            throw new IOException(sqle);
         }
-        return psplits;
     }
     
     public void setConf(Configuration configuration) {
@@ -38,6 +38,7 @@ import org.apache.phoenix.iterate.ResultIterator;
 import org.apache.phoenix.iterate.SequenceResultIterator;
 import org.apache.phoenix.iterate.TableResultIterator;
 import org.apache.phoenix.jdbc.PhoenixResultSet;
+import org.apache.phoenix.mapreduce.PhoenixInputSplit;
 import org.apache.phoenix.pig.PhoenixPigConfiguration;
 
 import com.google.common.base.Preconditions;